@@ -0,0 +1,104 @@
+package com.sakhiya.investment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.sakhiya.investment.portfoliomanagement.Portfolio;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.PricePoint;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.riskmanagement.Risk;
+
+/**
+ * Synthetic data for the JMH benchmarks: portfolios, assets, risk rows and price series of any size
+ * (the benchmarks use 1k to 100k assets). Everything is in memory and deterministic for a given seed,
+ * so runs on different versions measure the same data.
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 42;
+    // Last trading day of every generated price series
+    public static final LocalDate END_DATE = LocalDate.of(2025, 9, 5);
+
+    private static final String[] RISK_TYPES = { "VaR", "StressTest" };
+    private static final String[] ASSET_CLASSES = { "EQUITY", "BOND", "COMMODITY", "FX", null };
+
+    private BenchmarkData() {}
+
+    /**
+     * assetCount assets spread over portfolios of assetsPerPortfolio, each asset with risksPerAsset risk rows
+     * alternating VaR (negative values) and StressTest (stressed values).
+     */
+    public static List<Portfolio> portfolios(int assetCount, int assetsPerPortfolio, int risksPerAsset) {
+        Random random = new Random(SEED);
+        List<Portfolio> portfolios = new ArrayList<>(assetCount / assetsPerPortfolio + 1);
+        Portfolio portfolio = null;
+        for (int a = 0; a < assetCount; a++) {
+            if (a % assetsPerPortfolio == 0) {
+                portfolio = new Portfolio();
+                portfolio.setPortfolioName("Portfolio " + portfolios.size());
+                portfolio.setInvestmentGoal("Growth");
+                portfolio.setRiskLevel(1 + random.nextInt(5));
+                portfolio.setCreatedAt(END_DATE.minusDays(random.nextInt(3650)));
+                portfolio.setAssets(new ArrayList<>(assetsPerPortfolio));
+                portfolios.add(portfolio);
+            }
+            Asset asset = new Asset("Asset " + a, 1_000 + random.nextDouble() * 99_000, portfolio);
+            asset.setAssetClass(ASSET_CLASSES[random.nextInt(ASSET_CLASSES.length)]);
+            for (int r = 0; r < risksPerAsset; r++) {
+                String type = RISK_TYPES[r % RISK_TYPES.length];
+                double value = "VaR".equals(type) ? -asset.getValue() * random.nextDouble() * 0.1
+                        : asset.getValue() * (0.6 + random.nextDouble() * 0.6);
+                Risk risk = new Risk(type, type + " " + r, value, asset);
+                risk.setCalculationDate(END_DATE);
+                risk.setConfidenceLevel(0.99);
+                risk.setTimeHorizon("10 days");
+                asset.getRisks().add(risk);
+            }
+            portfolio.getAssets().add(asset);
+        }
+        return portfolios;
+    }
+
+    // Every asset of the given portfolios, in order
+    public static List<Asset> assets(List<Portfolio> portfolios) {
+        List<Asset> assets = new ArrayList<>();
+        for (Portfolio portfolio : portfolios) {
+            assets.addAll(portfolio.getAssets());
+        }
+        return assets;
+    }
+
+    /**
+     * Geometric random walk over weekdays ending on END_DATE (about 1.5% daily volatility).
+     * path picks the random stream (not the asset id, which is a random UUID), so asset number i
+     * gets the same prices on every run.
+     */
+    public static PriceSeries priceSeries(String assetId, int prices, int path) {
+        Random random = new Random(SEED + path);
+        List<LocalDate> days = weekdays(prices);
+        List<PricePoint> points = new ArrayList<>(prices);
+        double price = 100.0;
+        for (LocalDate day : days) {
+            price *= Math.exp(random.nextGaussian() * 0.015);
+            points.add(new PricePoint(assetId, day, price));
+        }
+        return PriceSeries.fromPoints(points);
+    }
+
+    // The last count weekdays up to END_DATE, oldest first
+    public static List<LocalDate> weekdays(int count) {
+        List<LocalDate> days = new ArrayList<>(count);
+        for (LocalDate d = END_DATE; days.size() < count; d = d.minusDays(1)) {
+            if (d.getDayOfWeek() != DayOfWeek.SATURDAY && d.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(d);
+            }
+        }
+        Collections.reverse(days);
+        return days;
+    }
+}
@@ -0,0 +1,80 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sakhiya.investment.BenchmarkData;
+
+/**
+ * In-memory portfolio totals and DTO mapping over 1k to 100k assets with 4 risk rows each:
+ * - totalVaR / totalStressTest / totalRisk: the PortfolioService sums over one portfolio holding every asset
+ * - toDTOs: PortfolioController's entity-to-DTO mapping (totals, asset ids and names) for every
+ *   portfolio of 50 assets, as GET /api/portfolios/{id} does one at a time
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="PortfolioBenchmark -prof gc"
+ *
+ * Entities are built in memory (BenchmarkData), so this measures the Java work only, not lazy loading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int assets;
+
+    private List<Portfolio> portfolios;
+    private Portfolio whole;
+    private PortfolioService portfolioService;
+    private PortfolioController portfolioController;
+
+    @Setup
+    public void createPortfolios() {
+        portfolios = BenchmarkData.portfolios(assets, 50, 4);
+        whole = new Portfolio();
+        whole.setAssets(BenchmarkData.assets(portfolios));
+        // The totals and the mapping only read the entities, so no repository is needed
+        portfolioService = new PortfolioService(null, null, null, null, null);
+        portfolioController = new PortfolioController(null, null, portfolioService);
+    }
+
+    @Benchmark
+    public double totalVaR() {
+        return portfolioService.calculateTotalVaR(whole);
+    }
+
+    @Benchmark
+    public double totalStressTest() {
+        return portfolioService.calculateTotalStressTest(whole);
+    }
+
+    @Benchmark
+    public double totalRisk() {
+        return portfolioService.calculateTotalRisk(whole);
+    }
+
+    @Benchmark
+    public List<PortfolioDTO> toDTOs() {
+        List<PortfolioDTO> dtos = new ArrayList<>(portfolios.size());
+        for (Portfolio portfolio : portfolios) {
+            dtos.add(portfolioController.toDTO(portfolio));
+        }
+        return dtos;
+    }
+}
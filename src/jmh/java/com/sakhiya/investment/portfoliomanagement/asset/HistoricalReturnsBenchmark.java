@@ -0,0 +1,70 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sakhiya.investment.BenchmarkData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Building an asset's daily returns from the cached price series:
+ * - historicalReturnsList: AssetHistoryService.getHistoricalReturns (boxed List<Double>)
+ * - historicalReturnsArray: AssetHistoryService.getHistoricalReturnsArray (primitive array)
+ * - windowReturns: the last 250 returns only, as a lookback VaR reads them
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="HistoricalReturns -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoricalReturnsBenchmark {
+
+    private static final String ASSET_ID = "BENCH";
+
+    @Param({ "250", "2500", "6300" })
+    public int prices;
+
+    private AssetHistoryService assetHistoryService;
+    private PriceSeries series;
+
+    @Setup
+    public void createService() {
+        series = BenchmarkData.priceSeries(ASSET_ID, prices, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PriceSeriesCache cache = new PriceSeriesCache(null, null, registry);
+        cache.preload(ASSET_ID, series, cache.writeSequence());
+        assetHistoryService = new AssetHistoryService(null, null, cache, null, null, registry);
+    }
+
+    @Benchmark
+    public List<Double> historicalReturnsList() {
+        return assetHistoryService.getHistoricalReturns(ASSET_ID);
+    }
+
+    @Benchmark
+    public double[] historicalReturnsArray() {
+        return assetHistoryService.getHistoricalReturnsArray(ASSET_ID);
+    }
+
+    @Benchmark
+    public double[] windowReturns() {
+        int from = Math.max(0, series.size() - 251);
+        return series.returns(from, series.size());
+    }
+}
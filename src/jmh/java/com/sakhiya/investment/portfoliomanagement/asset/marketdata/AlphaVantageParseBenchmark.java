@@ -0,0 +1,154 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * org.json tree parse (the old AlphaVantageClient path) vs the Jackson streaming AlphaVantageDailyParser.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="AlphaVantageParse -prof gc"
+ *
+ * fixture picks the TIME_SERIES_DAILY response, always in the exact layout Alpha Vantage sends
+ * (pretty printed, newest first, 5 string fields per day):
+ * - generated-1y / generated-25y: a full-history response generated for that many years
+ * - recorded-compact: the recorded IBM compact response from the test resources (100 days)
+ * Pass -Djmh.fixture=/path/to/recorded.json (through -jvmArgsAppend) to use another response saved
+ * from the real API instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlphaVantageParseBenchmark {
+
+    // ~25 years is what outputsize=full returns for a long-listed stock
+    @Param({ "generated-1y", "generated-25y", "recorded-compact" })
+    public String fixture;
+
+    private static final String RECORDED_COMPACT = "/marketdata/time_series_daily_ibm_compact.json";
+
+    private byte[] body;
+
+    @Setup
+    public void loadFixture() throws IOException {
+        String recorded = System.getProperty("jmh.fixture");
+        if (recorded != null) {
+            body = Files.readAllBytes(Path.of(recorded));
+        } else if (fixture.equals("recorded-compact")) {
+            try (InputStream in = AlphaVantageParseBenchmark.class.getResourceAsStream(RECORDED_COMPACT)) {
+                if (in == null) {
+                    throw new IOException(RECORDED_COMPACT + " not on the test classpath");
+                }
+                body = in.readAllBytes();
+            }
+        } else {
+            body = fullHistoryFixture(fixture.equals("generated-25y") ? 25 : 1);
+        }
+    }
+
+    @Benchmark
+    public List<AlphaVantagePriceDTO> orgJsonTree() throws Exception {
+        return parseWithOrgJson(body);
+    }
+
+    @Benchmark
+    public List<AlphaVantagePriceDTO> jacksonStreaming() throws IOException {
+        return AlphaVantageClient.parseDailySeries(body);
+    }
+
+    // Primitive buffer only, i.e. what a caller filling a PriceSeries would use
+    @Benchmark
+    public DailyCloseBuffer jacksonStreamingBufferOnly() throws IOException {
+        return AlphaVantageDailyParser.parse(body);
+    }
+
+    // The pre-streaming parse: JSONObject tree -> HashMap<LocalDate, Double> -> sorted keys -> DTOs.
+    // Declared as throws Exception because on the test classpath org.json may resolve to the Android
+    // copy bundled with spring-boot-starter-test, whose JSONException is checked.
+    static List<AlphaVantagePriceDTO> parseWithOrgJson(byte[] body) throws Exception {
+        JSONObject json = new JSONObject(new String(body, StandardCharsets.UTF_8));
+        JSONObject timeSeriesDaily = json.getJSONObject("Time Series (Daily)");
+        Map<LocalDate, Double> closingPrices = new HashMap<>();
+        Iterator<String> dates = timeSeriesDaily.keys();
+        while (dates.hasNext()) {
+            String dateStr = dates.next();
+            JSONObject dailyData = timeSeriesDaily.getJSONObject(dateStr);
+            closingPrices.put(LocalDate.parse(dateStr), Double.parseDouble(dailyData.getString("4. close")));
+        }
+        List<LocalDate> sortedDates = new ArrayList<>(closingPrices.keySet());
+        Collections.sort(sortedDates);
+        List<AlphaVantagePriceDTO> dtos = new ArrayList<>(sortedDates.size());
+        for (LocalDate date : sortedDates) {
+            dtos.add(new AlphaVantagePriceDTO(date, closingPrices.get(date)));
+        }
+        return dtos;
+    }
+
+    // Deterministic random walk over weekdays, written newest first like the real response
+    static byte[] fullHistoryFixture(int years) {
+        LocalDate end = LocalDate.of(2025, 9, 5);
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate d = end.minusYears(years); !d.isAfter(end); d = d.plusDays(1)) {
+            if (d.getDayOfWeek() != DayOfWeek.SATURDAY && d.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(d);
+            }
+        }
+        Random random = new Random(42);
+        double[] closes = new double[days.size()];
+        double price = 100;
+        for (int i = 0; i < closes.length; i++) {
+            price *= Math.exp(random.nextGaussian() * 0.015);
+            closes[i] = price;
+        }
+        StringBuilder sb = new StringBuilder(days.size() * 180);
+        sb.append("{\n    \"Meta Data\": {\n        \"1. Information\": \"Daily Prices (open, high, low, close) and Volumes\",\n")
+                .append("        \"2. Symbol\": \"IBM\",\n        \"3. Last Refreshed\": \"").append(end).append("\",\n")
+                .append("        \"4. Output Size\": \"Full size\",\n        \"5. Time Zone\": \"US/Eastern\"\n    },\n")
+                .append("    \"Time Series (Daily)\": {\n");
+        for (int i = days.size() - 1; i >= 0; i--) {
+            double close = closes[i];
+            sb.append("        \"").append(days.get(i)).append("\": {\n")
+                    .append("            \"1. open\": \"").append(format(close * 0.995)).append("\",\n")
+                    .append("            \"2. high\": \"").append(format(close * 1.01)).append("\",\n")
+                    .append("            \"3. low\": \"").append(format(close * 0.99)).append("\",\n")
+                    .append("            \"4. close\": \"").append(format(close)).append("\",\n")
+                    .append("            \"5. volume\": \"").append(1_000_000 + random.nextInt(9_000_000)).append("\"\n")
+                    .append(i > 0 ? "        },\n" : "        }\n");
+        }
+        sb.append("    }\n}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
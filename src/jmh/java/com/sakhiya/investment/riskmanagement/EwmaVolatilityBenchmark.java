@@ -0,0 +1,94 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sakhiya.investment.portfoliomanagement.asset.PricePoint;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+
+/**
+ * Volatility estimate per VaR request: the original sample standard deviation (returns array plus two
+ * passes, as RiskService.varCalculator does) vs the EWMA single pass and the cached EWMA read.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="EwmaVolatility -prof gc"
+ *
+ * sampleStdDev and ewmaFromSeries include building/reading the returns, so -prof gc shows the
+ * allocation difference (the returns array vs none); ewmaFromReturns isolates the recursion itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EwmaVolatilityBenchmark {
+
+    // One trading year, ~10 and ~25 years of daily closes
+    @Param({ "250", "2500", "6300" })
+    public int prices;
+
+    private PriceSeries series;
+    private double[] returns;
+    private EwmaVolatilityCalculator calculator;
+
+    @Setup
+    public void createSeries() {
+        Random random = new Random(42);
+        List<PricePoint> points = new ArrayList<>(prices);
+        LocalDate start = LocalDate.of(2000, 1, 3);
+        double price = 100.0;
+        for (int i = 0; i < prices; i++) {
+            price *= 1 + random.nextGaussian() * 0.015;
+            points.add(new PricePoint("BENCH", start.plusDays(i), price));
+        }
+        series = PriceSeries.fromPoints(points);
+        returns = series.returns();
+        calculator = new EwmaVolatilityCalculator(0.94);
+        calculator.volatility("BENCH", series, 0.97, null); // warm the cache for cachedEwma
+    }
+
+    @Benchmark
+    public double sampleStdDev() {
+        double[] r = series.returns();
+        double sum = 0;
+        for (double v : r) {
+            sum += v;
+        }
+        double mean = sum / r.length;
+        double sumSquares = 0;
+        for (double v : r) {
+            sumSquares += (v - mean) * (v - mean);
+        }
+        return Math.sqrt(sumSquares / (r.length - 1));
+    }
+
+    @Benchmark
+    public double ewmaFromReturns() {
+        return Math.sqrt(EwmaVolatilityCalculator.variance(returns, 0, returns.length, 0.97));
+    }
+
+    @Benchmark
+    public double ewmaFromSeries() {
+        return Math.sqrt(EwmaVolatilityCalculator.variance(series, 0, 0.97));
+    }
+
+    @Benchmark
+    public double cachedEwma() {
+        return calculator.volatility("BENCH", series, 0.97, null);
+    }
+}
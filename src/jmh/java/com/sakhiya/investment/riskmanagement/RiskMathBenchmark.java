@@ -0,0 +1,80 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sakhiya.investment.BenchmarkData;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeriesCache;
+import com.sakhiya.investment.portfoliomanagement.asset.ReturnStatistics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Parametric VaR math for one asset:
+ * - varCalculator: RiskService.varCalculator as called by the API (returns array from the cached series,
+ *   mean and standard deviation passes, z-score).
+ * - statisticsVaR: the same formula reading mean and stdDev from the series' ReturnStatistics (O(1)),
+ *   as createAndSaveVaR does.
+ * - zScore: the inverse normal for a level outside the exact-value table (0.975 is in it, 0.98 is not).
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="RiskMath -prof gc"
+ *
+ * The price cache is preloaded in memory, so no database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskMathBenchmark {
+
+    private static final String ASSET_ID = "BENCH";
+
+    // One trading year, ~10 and ~25 years of daily closes
+    @Param({ "250", "2500", "6300" })
+    public int prices;
+
+    private RiskService riskService;
+    private PriceSeries series;
+
+    @Setup
+    public void createService() {
+        series = BenchmarkData.priceSeries(ASSET_ID, prices, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PriceSeriesCache cache = new PriceSeriesCache(null, null, registry);
+        cache.preload(ASSET_ID, series, cache.writeSequence());
+        riskService = new RiskService(null, new AssetHistoryService(null, null, cache, null, null, registry),
+                new ObjectMapper(), registry);
+    }
+
+    @Benchmark
+    public double varCalculator() {
+        return riskService.varCalculator(ASSET_ID, 10_000, 0.99, 10);
+    }
+
+    @Benchmark
+    public double statisticsVaR() {
+        ReturnStatistics statistics = series.statistics();
+        return 10_000 * (statistics.mean() + RiskService.getZScore(0.99) * statistics.stdDev() * Math.sqrt(10));
+    }
+
+    @Benchmark
+    public double zScore() {
+        return RiskService.getZScore(0.98);
+    }
+}
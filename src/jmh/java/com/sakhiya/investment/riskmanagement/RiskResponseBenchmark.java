@@ -0,0 +1,118 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sakhiya.investment.riskmanagement.dto.RiskResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.VaRCalculationDetailsDTO;
+
+/**
+ * JSON work per POST /api/risks/var response, under 4 concurrent threads:
+ * - perRequestMapper: the old path. A new ObjectMapper writes detailsJson with the full return list,
+ *   a second new ObjectMapper parses it into a Map, and the MVC mapper writes the Map response.
+ * - sharedMapperTyped: the current path. The shared mapper writes the compact detailsJson once and
+ *   the typed RiskResultDTO response.
+ * - sharedMapperInline: as above with risk.details.storage=inline (returns still in the row and response).
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="RiskResponse -prof gc"
+ *
+ * SampleTime mode prints the p0.99 latency; -prof gc adds gc.alloc.rate.norm (bytes per request).
+ * Database and VaR calculation are left out: they are the same on both paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RiskResponseBenchmark {
+
+    // Returns in the VaR window: one trading year and ~10 years of daily closes
+    @Param({ "250", "2500" })
+    public int returns;
+
+    // Configured like the application's mapper (Java time support, ISO dates)
+    private final ObjectMapper sharedMapper = Jackson2ObjectMapperBuilder.json().build();
+    private double[] returnValues;
+    private Risk risk;
+
+    @Setup
+    public void createDetails() {
+        Random random = new Random(42);
+        returnValues = new double[returns];
+        for (int i = 0; i < returns; i++) {
+            returnValues[i] = random.nextGaussian() * 0.015;
+        }
+        risk = new Risk("VaR", null, -1234.5, null);
+        risk.setCalculationDate(LocalDate.of(2024, 6, 28));
+        risk.setConfidenceLevel(0.99);
+        risk.setTimeHorizon("10 days");
+    }
+
+    private VaRCalculationDetailsDTO details(boolean withReturns) {
+        VaRCalculationDetailsDTO details = new VaRCalculationDetailsDTO(
+                withReturns ? Arrays.stream(returnValues).boxed().toList() : null,
+                0.0004, 0.015, -2.3263478740408408, 0.99, 10, -1234.5);
+        details.setMethod("PARAMETRIC");
+        details.setReturnCount(returns);
+        details.setReturnsFrom("2014-07-01");
+        details.setReturnsTo("2024-06-28");
+        return details;
+    }
+
+    @Benchmark
+    public byte[] perRequestMapper() throws Exception {
+        Risk row = copy(new ObjectMapper().writeValueAsString(details(true)));
+        Map<String, Object> parsed = new ObjectMapper().readValue(row.getDetailsJson(),
+                new TypeReference<Map<String, Object>>() {});
+        Map<String, Object> response = new HashMap<>();
+        response.put("risk", row);
+        response.put("details", parsed);
+        return sharedMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] sharedMapperTyped() throws Exception {
+        VaRCalculationDetailsDTO details = details(false);
+        Risk row = copy(sharedMapper.writeValueAsString(details));
+        return sharedMapper.writeValueAsBytes(new RiskResultDTO<>(row, details));
+    }
+
+    @Benchmark
+    public byte[] sharedMapperInline() throws Exception {
+        VaRCalculationDetailsDTO details = details(true);
+        Risk row = copy(sharedMapper.writeValueAsString(details));
+        return sharedMapper.writeValueAsBytes(new RiskResultDTO<>(row, details));
+    }
+
+    // A fresh row per request, as the service saves one per call
+    private Risk copy(String detailsJson) {
+        Risk row = new Risk(risk.getType(), risk.getDescription(), risk.getValue(), null);
+        row.setCalculationDate(risk.getCalculationDate());
+        row.setConfidenceLevel(risk.getConfidenceLevel());
+        row.setTimeHorizon(risk.getTimeHorizon());
+        row.setDetailsJson(detailsJson);
+        return row;
+    }
+}
@@ -0,0 +1,207 @@
+package com.sakhiya.investment.loadtest;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.sakhiya.investment.clientmanagement.Client;
+import com.sakhiya.investment.clientmanagement.ClientRepository;
+import com.sakhiya.investment.portfoliomanagement.Portfolio;
+import com.sakhiya.investment.portfoliomanagement.PortfolioService;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistory;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistoryBatchWriter;
+import com.sakhiya.investment.riskmanagement.RiskService;
+import com.sakhiya.investment.riskmanagement.Scenario;
+import com.sakhiya.investment.riskmanagement.ScenarioService;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioRunRequestDTO;
+
+/**
+ * Fills an empty database with a synthetic universe for load testing (profile "loadtest"):
+ * clients, their portfolios and assets, years of daily AssetPriceHistory per asset, and risks.
+ *
+ * Risks are not made up: once the prices are in, the normal batch VaR (one 99% / 10 day VaR row per asset)
+ * and a scenario run over a small scenario library (one StressTest row per asset and scenario) calculate
+ * them, and the stored portfolio totals are recalculated. The endpoints under test then see realistic rows.
+ *
+ * Everything is driven by loadtest.seed.* (see application-loadtest.properties) and a fixed random seed,
+ * so two runs with the same settings produce the same prices and values. Skipped when clients already exist,
+ * e.g. when the profile points at a database seeded by an earlier run.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final String SOURCE = "LOADTEST";
+    private static final String[] ASSET_CLASSES = { "EQUITY", "BOND", "COMMODITY", "FX" };
+    private static final String[] GOALS = { "Growth", "Income", "Capital Preservation" };
+    // Portfolios per batch VaR call, so one call does not load every price series at once
+    private static final int VAR_PORTFOLIOS_PER_CALL = 100;
+
+    private final ClientRepository clientRepository;
+    private final LoadTestDataWriter dataWriter;
+    private final AssetPriceHistoryBatchWriter priceWriter;
+    private final RiskService riskService;
+    private final ScenarioService scenarioService;
+    private final PortfolioService portfolioService;
+
+    private final int clients;
+    private final int portfoliosPerClient;
+    private final int assetsPerPortfolio;
+    private final int years;
+    private final int priceChunkSize;
+    private final long randomSeed;
+
+    public LoadTestDataSeeder(ClientRepository clientRepository, LoadTestDataWriter dataWriter,
+            AssetPriceHistoryBatchWriter priceWriter, RiskService riskService, ScenarioService scenarioService,
+            PortfolioService portfolioService,
+            @Value("${loadtest.seed.clients:50}") int clients,
+            @Value("${loadtest.seed.portfoliosPerClient:2}") int portfoliosPerClient,
+            @Value("${loadtest.seed.assetsPerPortfolio:10}") int assetsPerPortfolio,
+            @Value("${loadtest.seed.years:3}") int years,
+            @Value("${loadtest.seed.priceChunkSize:5000}") int priceChunkSize,
+            @Value("${loadtest.seed.randomSeed:42}") long randomSeed) {
+        this.clientRepository = clientRepository;
+        this.dataWriter = dataWriter;
+        this.priceWriter = priceWriter;
+        this.riskService = riskService;
+        this.scenarioService = scenarioService;
+        this.portfolioService = portfolioService;
+        this.clients = clients;
+        this.portfoliosPerClient = portfoliosPerClient;
+        this.assetsPerPortfolio = assetsPerPortfolio;
+        this.years = years;
+        this.priceChunkSize = priceChunkSize;
+        this.randomSeed = randomSeed;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (clientRepository.count() > 0) {
+            log.info("Load test seeding skipped: the database already has clients");
+            return;
+        }
+        long started = System.nanoTime();
+        Random random = new Random(randomSeed);
+        List<LocalDate> tradingDays = tradingDays(years);
+        List<String> portfolioIds = new ArrayList<>();
+        List<AssetPriceHistory> prices = new ArrayList<>(priceChunkSize);
+        long priceCount = 0;
+
+        // 1. Clients, portfolios and assets (one transaction per client), prices in chunks as they are generated
+        for (int c = 0; c < clients; c++) {
+            List<Object> entities = new ArrayList<>();
+            List<Asset> assets = new ArrayList<>();
+            Client client = client(c, random);
+            entities.add(client);
+            for (int p = 0; p < portfoliosPerClient; p++) {
+                Portfolio portfolio = new Portfolio();
+                portfolio.setPortfolioName("Load test " + c + "-" + p);
+                portfolio.setClient(client);
+                portfolio.setInvestmentGoal(GOALS[random.nextInt(GOALS.length)]);
+                portfolio.setRiskLevel(1 + random.nextInt(5));
+                entities.add(portfolio);
+                portfolioIds.add(portfolio.getPortfolioId());
+                double total = 0;
+                for (int a = 0; a < assetsPerPortfolio; a++) {
+                    Asset asset = new Asset("Asset " + c + "-" + p + "-" + a, 1_000 + random.nextDouble() * 99_000, portfolio);
+                    asset.setAssetClass(ASSET_CLASSES[random.nextInt(ASSET_CLASSES.length)]);
+                    total += asset.getValue();
+                    entities.add(asset);
+                    assets.add(asset);
+                }
+                portfolio.setTotalValue(BigDecimal.valueOf(Math.round(total)));
+            }
+            dataWriter.persistAll(entities);
+
+            for (Asset asset : assets) {
+                // Geometric random walk, daily volatility between 0.5% and 3% depending on the asset
+                double volatility = 0.005 + random.nextDouble() * 0.025;
+                double price = 10 + random.nextDouble() * 490;
+                for (LocalDate day : tradingDays) {
+                    price *= Math.exp(random.nextGaussian() * volatility);
+                    AssetPriceHistory row = new AssetPriceHistory(day, Math.round(price * 10_000) / 10_000.0, SOURCE);
+                    row.setAsset(asset);
+                    prices.add(row);
+                    if (prices.size() == priceChunkSize) {
+                        priceWriter.persistAll(prices);
+                        priceCount += prices.size();
+                        prices = new ArrayList<>(priceChunkSize);
+                    }
+                }
+            }
+        }
+        priceWriter.persistAll(prices);
+        priceCount += prices.size();
+        long seeded = System.nanoTime();
+
+        // 2. Risks through the normal calculation paths
+        int varRows = 0;
+        for (int from = 0; from < portfolioIds.size(); from += VAR_PORTFOLIOS_PER_CALL) {
+            List<String> chunk = portfolioIds.subList(from, Math.min(from + VAR_PORTFOLIOS_PER_CALL, portfolioIds.size()));
+            varRows += riskService.createAndSaveVaRForPortfolios(chunk, 0.99, 10).getCalculatedCount();
+        }
+        createScenarios();
+        ScenarioRunRequestDTO stressRun = new ScenarioRunRequestDTO();
+        stressRun.setPortfolioIds(portfolioIds);
+        long stressRows = scenarioService.runScenarios(stressRun).getPersistedCount();
+        portfolioService.recalculateAllRiskTotals();
+
+        long finished = System.nanoTime();
+        log.info("Load test data seeded: {} clients, {} portfolios, {} assets, {} prices ({} days each) in {}s; "
+                + "{} VaR and {} stress test rows in {}s", clients, portfolioIds.size(),
+                portfolioIds.size() * assetsPerPortfolio, priceCount, tradingDays.size(),
+                TimeUnit.NANOSECONDS.toSeconds(seeded - started), varRows, stressRows,
+                TimeUnit.NANOSECONDS.toSeconds(finished - seeded));
+    }
+
+    private static Client client(int index, Random random) {
+        Client client = new Client();
+        client.setFirstName("Load");
+        client.setSurname("Client " + index);
+        client.setDob(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20_000)));
+        client.setCreatedAt(LocalDate.now());
+        client.setPostCode("LT" + (index % 100) + " " + (index % 10) + "AA");
+        client.setEmail("client" + index + "@loadtest.example");
+        client.setActive(true);
+        return client;
+    }
+
+    private void createScenarios() {
+        for (Map.Entry<String, Double> entry : Map.of("Load test crash", -0.3, "Load test rally", 0.15,
+                "Load test rates", -0.05).entrySet()) {
+            Scenario scenario = new Scenario(entry.getKey(), entry.getValue());
+            scenario.setAssetClassShocks(Map.of("BOND", entry.getValue() / 3));
+            scenarioService.createScenario(scenario);
+        }
+    }
+
+    // Weekdays of the last years years up to today, oldest first
+    static List<LocalDate> tradingDays(int years) {
+        List<LocalDate> days = new ArrayList<>();
+        LocalDate end = LocalDate.now();
+        for (LocalDate d = end; d.isAfter(end.minusYears(years)); d = d.minusDays(1)) {
+            if (d.getDayOfWeek() != DayOfWeek.SATURDAY && d.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(d);
+            }
+        }
+        Collections.reverse(days);
+        return days;
+    }
+}
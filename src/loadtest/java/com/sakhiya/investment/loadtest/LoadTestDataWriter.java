@@ -0,0 +1,33 @@
+package com.sakhiya.investment.loadtest;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Persists one chunk of seed entities (clients, portfolios, assets) in a single transaction,
+ * the same way RiskBatchWriter does for risks. Separate bean so the seeder's calls go through
+ * the transactional proxy.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Entities are persisted in list order, so parents must come before the rows that reference them
+    @Transactional
+    public void persistAll(List<?> entities) {
+        for (Object entity : entities) {
+            entityManager.persist(entity);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
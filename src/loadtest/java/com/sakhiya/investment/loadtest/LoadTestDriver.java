@@ -0,0 +1,295 @@
+package com.sakhiya.investment.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Drives a running application (normally started with the loadtest profile) with concurrent clients
+ * and reports throughput and latency percentiles per endpoint.
+ *
+ * Run with: mvn -Ploadtest test-compile exec:exec -Dloadtest.args="-clients 16 -duration 60 -out target/loadtest.json"
+ *
+ * Closed model: every client is a thread that sends one request, waits for the answer and sends the next,
+ * so throughput is what the application sustains with that many requests in flight.
+ * Endpoints are picked at random by weight (see ENDPOINTS) with random portfolio / asset ids from the
+ * seeded data, which is discovered through GET /api/portfolios before the run.
+ * Requests during the warmup are sent but not recorded (JIT, connection pool and caches warm up first).
+ * Latency is measured around the whole exchange, including reading the body; non-2xx answers count as errors.
+ */
+public class LoadTestDriver {
+
+    private static final String USAGE = """
+            LoadTestDriver options:
+              -baseUrl  <url>      application to test (default http://localhost:8080)
+              -clients  <n>        concurrent clients (default 8)
+              -duration <seconds>  measured time (default 30)
+              -warmup   <seconds>  unrecorded time before measuring (default 10)
+              -out      <file>     also write the results as JSON
+            """;
+
+    /**
+     * One endpoint of the mix: a name for the report, a weight (relative share of requests),
+     * the method and a function that builds the path from the seeded ids.
+     */
+    record Endpoint(String name, int weight, String method, Function<Ids, String> path) {}
+
+    // Read-heavy, like the portfolio screens; the POST /var line saves a Risk row per request
+    static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint("GET /api/portfolios", 10, "GET", ids -> "/api/portfolios?size=50"),
+            new Endpoint("GET /api/portfolios/{id}", 15, "GET", ids -> "/api/portfolios/" + ids.portfolio()),
+            new Endpoint("GET /api/portfolios/{id}/total-var", 10, "GET", ids -> "/api/portfolios/" + ids.portfolio() + "/total-var"),
+            new Endpoint("GET /api/portfolios/{id}/covariance-var", 5, "GET",
+                    ids -> "/api/portfolios/" + ids.portfolio() + "/covariance-var?confidenceLevel=0.99&timeHorizonDays=10"),
+            new Endpoint("GET /api/assets/{id}", 15, "GET", ids -> "/api/assets/" + ids.asset()),
+            new Endpoint("GET /api/assets/portfolio/{id}", 10, "GET", ids -> "/api/assets/portfolio/" + ids.portfolio()),
+            new Endpoint("GET /api/asset-price-history/asset/{id}", 10, "GET",
+                    ids -> "/api/asset-price-history/asset/" + ids.asset() + "?startDate=" + LocalDate.now().minusYears(1)),
+            new Endpoint("GET /api/risks/asset/{id}", 10, "GET", ids -> "/api/risks/asset/" + ids.asset()),
+            new Endpoint("GET /api/risks/statistics/{id}", 5, "GET", ids -> "/api/risks/statistics/" + ids.asset()),
+            new Endpoint("GET /api/risks/var-curve/{id}", 5, "GET", ids -> "/api/risks/var-curve/" + ids.asset()),
+            new Endpoint("POST /api/risks/var", 5, "POST",
+                    ids -> "/api/risks/var?assetId=" + ids.asset() + "&confidenceLevel=0.99&timeHorizonDays=10&includeReturns=false"));
+
+    /** Seeded ids; portfolio() and asset() pick one at random. */
+    record Ids(List<String> portfolios, List<String> assets) {
+        String portfolio() { return portfolios.get(ThreadLocalRandom.current().nextInt(portfolios.size())); }
+        String asset() { return assets.get(ThreadLocalRandom.current().nextInt(assets.size())); }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        if (options == null) {
+            System.out.print(USAGE);
+            return;
+        }
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "8"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        ObjectMapper mapper = new ObjectMapper();
+        Ids ids = discoverIds(http, mapper, baseUrl);
+        System.out.println("[INFO] Load test against " + baseUrl + ": " + ids.portfolios().size() + " portfolios, "
+                + ids.assets().size() + " assets, " + clients + " clients, " + warmup + "s warmup, " + duration + "s measured");
+
+        int[] cumulativeWeights = new int[ENDPOINTS.size()];
+        int total = 0;
+        for (int e = 0; e < ENDPOINTS.size(); e++) {
+            total += ENDPOINTS.get(e).weight();
+            cumulativeWeights[e] = total;
+        }
+        final int totalWeight = total;
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<Recorder>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(pool.submit(() -> {
+                // One recorder per client thread, merged at the end, so recording needs no locking
+                Recorder recorder = new Recorder(ENDPOINTS.size());
+                long now;
+                while ((now = System.nanoTime()) < measureTo) {
+                    int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+                    int e = 0;
+                    while (cumulativeWeights[e] <= pick) {
+                        e++;
+                    }
+                    Endpoint endpoint = ENDPOINTS.get(e);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path().apply(ids)))
+                            .timeout(Duration.ofSeconds(30))
+                            .method(endpoint.method(), HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        ok = response.statusCode() / 100 == 2;
+                    } catch (Exception ex) {
+                        ok = false;
+                    }
+                    long received = System.nanoTime();
+                    if (now >= measureFrom) {
+                        recorder.record(e, received - sent, ok);
+                    }
+                }
+                return recorder;
+            }));
+        }
+        Recorder merged = new Recorder(ENDPOINTS.size());
+        for (Future<Recorder> future : futures) {
+            merged.add(future.get());
+        }
+        pool.shutdown();
+
+        Map<String, Object> report = report(merged, duration, clients, baseUrl);
+        print(report);
+        if (options.containsKey("out")) {
+            File out = new File(options.get("out"));
+            mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+            System.out.println("[INFO] Results written to " + out.getAbsolutePath());
+        }
+    }
+
+    // -name value pairs; null (print usage) for -help or a name without a value
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("-") || args[i].equals("-help") || i + 1 == args.length) {
+                return null;
+            }
+            options.put(args[i].substring(1), args[++i]);
+        }
+        return options;
+    }
+
+    // Portfolio and asset ids of the seeded data, read through the normal listing endpoint
+    private static Ids discoverIds(HttpClient http, ObjectMapper mapper, String baseUrl) throws Exception {
+        List<String> portfolios = new ArrayList<>();
+        List<String> assets = new ArrayList<>();
+        String after = null;
+        do {
+            String url = baseUrl + "/api/portfolios?includeAssets=true&size=500" + (after == null ? "" : "&after=" + after);
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + url + " returned " + response.statusCode());
+            }
+            JsonNode page = mapper.readTree(response.body());
+            for (JsonNode portfolio : page.path("content")) {
+                portfolios.add(portfolio.path("portfolioId").asText());
+                portfolio.path("assetIds").forEach(id -> assets.add(id.asText()));
+            }
+            after = page.path("nextToken").isTextual() ? page.path("nextToken").asText() : null;
+        } while (after != null);
+        if (portfolios.isEmpty() || assets.isEmpty()) {
+            throw new IllegalStateException("No portfolios with assets at " + baseUrl + ", is the loadtest profile active?");
+        }
+        return new Ids(portfolios, assets);
+    }
+
+    // Count, errors, throughput and latency percentiles (milliseconds) per endpoint plus an overall line
+    static Map<String, Object> report(Recorder recorder, int durationSeconds, int clients, String baseUrl) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long[] all = new long[0];
+        long allErrors = 0;
+        for (int e = 0; e < ENDPOINTS.size(); e++) {
+            long[] latencies = recorder.latencies(e);
+            endpoints.put(ENDPOINTS.get(e).name(), summary(latencies, recorder.errors[e], durationSeconds));
+            long[] joined = Arrays.copyOf(all, all.length + latencies.length);
+            System.arraycopy(latencies, 0, joined, all.length, latencies.length);
+            all = joined;
+            allErrors += recorder.errors[e];
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("clients", clients);
+        report.put("durationSeconds", durationSeconds);
+        report.put("total", summary(all, allErrors, durationSeconds));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    static Map<String, Object> summary(long[] latencies, long errors, int durationSeconds) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", sorted.length);
+        summary.put("errors", errors);
+        summary.put("throughput", Math.round(sorted.length * 10.0 / durationSeconds) / 10.0);
+        summary.put("p50", percentile(sorted, 0.50));
+        summary.put("p90", percentile(sorted, 0.90));
+        summary.put("p99", percentile(sorted, 0.99));
+        summary.put("p999", percentile(sorted, 0.999));
+        summary.put("max", sorted.length == 0 ? 0.0 : millis(sorted[sorted.length - 1]));
+        return summary;
+    }
+
+    // Nearest-rank percentile of sorted nanosecond latencies, in milliseconds
+    static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return millis(sorted[Math.max(rank, 1) - 1]);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        String format = "%-44s %8s %7s %9s %9s %9s %9s %9s %9s%n";
+        System.out.printf(format, "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("endpoints"));
+        rows.put("TOTAL", report.get("total"));
+        rows.forEach((name, value) -> {
+            Map<String, Object> s = (Map<String, Object>) value;
+            System.out.printf(format, name, s.get("count"), s.get("errors"), s.get("throughput"),
+                    s.get("p50"), s.get("p90"), s.get("p99"), s.get("p999"), s.get("max"));
+        });
+    }
+
+    /**
+     * Latencies (nanoseconds) and error counts per endpoint, in growable primitive arrays
+     * so recording does not box a Long per request.
+     */
+    static final class Recorder {
+        private final long[][] latencies;
+        private final int[] counts;
+        private final long[] errors;
+
+        Recorder(int endpoints) {
+            latencies = new long[endpoints][1024];
+            counts = new int[endpoints];
+            errors = new long[endpoints];
+        }
+
+        void record(int endpoint, long nanos, boolean ok) {
+            if (!ok) {
+                errors[endpoint]++;
+            }
+            if (counts[endpoint] == latencies[endpoint].length) {
+                latencies[endpoint] = Arrays.copyOf(latencies[endpoint], counts[endpoint] * 2);
+            }
+            latencies[endpoint][counts[endpoint]++] = nanos;
+        }
+
+        void add(Recorder other) {
+            for (int e = 0; e < counts.length; e++) {
+                long[] theirs = other.latencies(e);
+                for (long nanos : theirs) {
+                    record(e, nanos, true);
+                }
+                errors[e] += other.errors[e];
+            }
+        }
+
+        long[] latencies(int endpoint) {
+            return Arrays.copyOf(latencies[endpoint], counts[endpoint]);
+        }
+    }
+}
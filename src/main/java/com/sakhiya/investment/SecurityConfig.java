@@ -8,6 +8,7 @@ package com.sakhiya.investment;
 // Import necessary Spring Security and configuration classes
 import org.springframework.context.annotation.Bean; // Marks a method as a bean producer for Spring's context
 import org.springframework.context.annotation.Configuration; // Marks this class as a configuration class
+import org.springframework.security.config.Customizer; // Default settings for a security feature
 import org.springframework.security.config.annotation.web.builders.HttpSecurity; // Used to configure HTTP security
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity; // Enables Spring Security's web security support
 import org.springframework.security.web.SecurityFilterChain; // Represents the security filter chain bean
@@ -27,9 +28,16 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Allow all requests to endpoints starting with /api/ without authentication
                 .requestMatchers("/api/**").permitAll()
+                // Health and metrics (e.g. price sync progress and lag, Prometheus scrapes) can be read by monitoring without a login
+                .requestMatchers("/actuator/health", "/actuator/metrics", "/actuator/metrics/**", "/actuator/prometheus").permitAll()
+                // The slow endpoint view shows request paths and SQL text, so it needs a login like the other actuator endpoints
+                .requestMatchers("/actuator/slowendpoints").authenticated()
                 // Any other request must be authenticated
                 .anyRequest().authenticated()
             )
+            // HTTP Basic for the endpoints above that need a login: spring.security.user.name and spring.security.user.password
+            // (a BCrypt hash, as PasswordEncoderConfig makes BCrypt the password encoder)
+            .httpBasic(Customizer.withDefaults())
             // Disable CSRF protection (useful for testing APIs with tools like Postman)
             .csrf(csrf -> csrf.disable());
         // Build and return the configured SecurityFilterChain
@@ -0,0 +1,14 @@
+package com.sakhiya.investment.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on @Scheduled support for the background jobs (price sync, nightly risk totals).
+ * Each job bean is conditional on its own *.enabled property and they are all off by default,
+ * so enabling scheduling here does not start anything by itself.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
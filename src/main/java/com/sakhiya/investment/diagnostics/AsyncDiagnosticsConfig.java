@@ -0,0 +1,41 @@
+package com.sakhiya.investment.diagnostics;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Binds the RequestDiagnostics of an async request on the MVC async thread, so the statements a
+ * StreamingResponseBody or Callable issues there are counted for the request (see RequestDiagnosticsFilter).
+ */
+@Configuration
+public class AsyncDiagnosticsConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new DiagnosticsCallableInterceptor());
+    }
+
+    static class DiagnosticsCallableInterceptor implements CallableProcessingInterceptor {
+
+        // preProcess and postProcess run on the async thread, around the task
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            Object diagnostics = request.getAttribute(RequestDiagnosticsFilter.DIAGNOSTICS_ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
+            if (diagnostics instanceof RequestDiagnostics) {
+                RequestDiagnostics.resume((RequestDiagnostics) diagnostics);
+            }
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            RequestDiagnostics.end();
+        }
+    }
+}
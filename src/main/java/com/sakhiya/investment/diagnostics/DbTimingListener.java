@@ -0,0 +1,45 @@
+package com.sakhiya.investment.diagnostics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time Hibernate spends executing JDBC statements and batches to the current request's
+ * RequestDiagnostics. Reading the rows of a result set afterwards is not included.
+ *
+ * Hibernate creates one instance per session (hibernate.session.events.auto, see HibernateDiagnosticsConfig)
+ * and a session is used by one thread at a time, so plain fields are enough for the start times.
+ */
+public class DbTimingListener implements SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        add(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        add(System.nanoTime() - batchStart);
+    }
+
+    private static void add(long nanos) {
+        RequestDiagnostics diagnostics = RequestDiagnostics.current();
+        if (diagnostics != null) {
+            diagnostics.addDbTime(nanos);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.sakhiya.investment.diagnostics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hands the Spring-managed QueryCountInspector to Hibernate. Setting hibernate.session_factory.statement_inspector
+ * in application.properties would make Hibernate create its own instance, without the MeterRegistry.
+ * DbTimingListener has no dependencies, so Hibernate creates it itself (one per session).
+ */
+@Configuration
+public class HibernateDiagnosticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(QueryCountInspector inspector) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, DbTimingListener.class.getName());
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.sakhiya.investment.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hibernate calls inspect() with every SQL statement it prepares, from repository methods, derived queries
+ * and lazy loads alike, so this sees every query without touching the repositories.
+ *
+ * - hibernate.statements (counter, tag type = select/insert/update/delete/other): all statements. A JDBC batch
+ *   prepares its statement once, so batched inserts count once per batch, not per row
+ * - per request: every statement is also added to the RequestDiagnostics of the request running on this thread
+ *
+ * Registered with Hibernate by HibernateDiagnosticsConfig. The SQL is returned unchanged.
+ */
+@Component
+public class QueryCountInspector implements StatementInspector {
+
+    private final Counter selects;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter others;
+
+    public QueryCountInspector(MeterRegistry meterRegistry) {
+        this.selects = counter(meterRegistry, "select");
+        this.inserts = counter(meterRegistry, "insert");
+        this.updates = counter(meterRegistry, "update");
+        this.deletes = counter(meterRegistry, "delete");
+        this.others = counter(meterRegistry, "other");
+    }
+
+    private static Counter counter(MeterRegistry registry, String type) {
+        return Counter.builder("hibernate.statements").tag("type", type)
+                .description("SQL statements prepared by Hibernate").register(registry);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        typeCounter(sql).increment();
+        RequestDiagnostics diagnostics = RequestDiagnostics.current();
+        if (diagnostics != null) {
+            diagnostics.statement(sql);
+        }
+        return sql;
+    }
+
+    // Statement type from the first keyword, without allocating (Hibernate may prefix comments or whitespace)
+    private Counter typeCounter(String sql) {
+        int i = 0;
+        while (i < sql.length() && (Character.isWhitespace(sql.charAt(i)) || sql.charAt(i) == '(')) {
+            i++;
+        }
+        if (startsWith(sql, i, "select") || startsWith(sql, i, "with")) {
+            return selects;
+        }
+        if (startsWith(sql, i, "insert")) {
+            return inserts;
+        }
+        if (startsWith(sql, i, "update")) {
+            return updates;
+        }
+        if (startsWith(sql, i, "delete")) {
+            return deletes;
+        }
+        return others;
+    }
+
+    private static boolean startsWith(String sql, int offset, String keyword) {
+        return sql.regionMatches(true, offset, keyword, 0, keyword.length());
+    }
+}
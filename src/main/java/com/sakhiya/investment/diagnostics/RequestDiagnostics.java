@@ -0,0 +1,77 @@
+package com.sakhiya.investment.diagnostics;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What the database did for one HTTP request: SQL statements (counted by QueryCountInspector), time spent
+ * executing them (DbTimingListener) and how often each statement text was issued.
+ *
+ * One instance per request, bound to the request thread by RequestDiagnosticsFilter. Hibernate prepares
+ * statements with ? placeholders, so the same query for different ids has the same text; one text issued
+ * many times in a request is the shape of an N+1 (one query per row of an earlier result, usually a lazy load).
+ * Async requests (e.g. a StreamingResponseBody) are followed onto the MVC async thread by
+ * AsyncDiagnosticsConfig; other work the request hands to other threads (e.g. parallel streams) is not seen.
+ */
+public final class RequestDiagnostics {
+
+    private static final ThreadLocal<RequestDiagnostics> CURRENT = new ThreadLocal<>();
+
+    private final long startedNanos = System.nanoTime();
+    private int statements;
+    private long dbNanos;
+    // Statement text -> times issued. Keys are Hibernate's cached SQL strings, so nothing is copied
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+
+    private RequestDiagnostics() {}
+
+    // Starts collecting for the request running on this thread
+    public static RequestDiagnostics begin() {
+        RequestDiagnostics diagnostics = new RequestDiagnostics();
+        CURRENT.set(diagnostics);
+        return diagnostics;
+    }
+
+    // The request being collected on this thread, or null (startup, scheduled jobs, other threads)
+    public static RequestDiagnostics current() {
+        return CURRENT.get();
+    }
+
+    // Continues collecting for a request begun on another thread (the async part of an async request)
+    static void resume(RequestDiagnostics diagnostics) {
+        CURRENT.set(diagnostics);
+    }
+
+    // Stops collecting on this thread
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void statement(String sql) {
+        statements++;
+        countsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    void addDbTime(long nanos) {
+        dbNanos += nanos;
+    }
+
+    public long getStartedNanos() { return startedNanos; }
+
+    public int getStatements() { return statements; }
+
+    public long getDbNanos() { return dbNanos; }
+
+    /**
+     * Statements issued at least threshold times in this request, most repeated first.
+     */
+    public Map<String, Integer> repeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        countsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+}
@@ -0,0 +1,98 @@
+package com.sakhiya.investment.diagnostics;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Collects RequestDiagnostics for every /api request and reports them:
+ * - http.server.requests.queries (distribution summary): SQL statements per request
+ * - http.server.requests.db (timer): time spent executing those statements
+ *   Both have the same method / uri / status tags as Spring's http.server.requests timer. uri is the mapping
+ *   pattern (e.g. /api/portfolios/{id}), so all ids of an endpoint share one series.
+ * - SlowRequestTracker: logs requests over the thresholds and keeps the rolling per-endpoint view
+ *   served by /actuator/slowendpoints
+ *
+ * Async requests (GET /api/asset-price-history/export streams its rows after the controller returns) are
+ * recorded when the async dispatch at the end finishes, not when the first dispatch returns. Their
+ * RequestDiagnostics is kept in a request attribute in between and AsyncDiagnosticsConfig binds it on the
+ * async thread, so the elapsed time and statements include the streaming.
+ */
+@Component
+public class RequestDiagnosticsFilter extends OncePerRequestFilter {
+
+    // Request attribute holding the RequestDiagnostics of an async request between its dispatches
+    static final String DIAGNOSTICS_ATTRIBUTE = RequestDiagnostics.class.getName();
+
+    private final MeterRegistry meterRegistry;
+    private final SlowRequestTracker tracker;
+
+    public RequestDiagnosticsFilter(MeterRegistry meterRegistry, SlowRequestTracker tracker) {
+        this.meterRegistry = meterRegistry;
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    // Runs again on the async dispatch, which is where async requests are recorded
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestDiagnostics diagnostics = (RequestDiagnostics) request.getAttribute(DIAGNOSTICS_ATTRIBUTE);
+        if (diagnostics == null) {
+            diagnostics = RequestDiagnostics.begin();
+            // Set before the handler runs: an async task can start before this dispatch returns
+            request.setAttribute(DIAGNOSTICS_ATTRIBUTE, diagnostics);
+        } else {
+            RequestDiagnostics.resume(diagnostics);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDiagnostics.end();
+            // An async request is not finished yet: the async thread and the async dispatch add to the same diagnostics
+            if (!isAsyncStarted(request)) {
+                request.removeAttribute(DIAGNOSTICS_ATTRIBUTE);
+                record(request, response, diagnostics);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestDiagnostics diagnostics) {
+        long elapsedNanos = System.nanoTime() - diagnostics.getStartedNanos();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String status = Integer.toString(response.getStatus());
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements per HTTP request")
+                .tags("method", request.getMethod(), "uri", uri, "status", status)
+                .register(meterRegistry)
+                .record(diagnostics.getStatements());
+        Timer.builder("http.server.requests.db")
+                .description("Time executing SQL statements per HTTP request")
+                .tags("method", request.getMethod(), "uri", uri, "status", status)
+                .register(meterRegistry)
+                .record(diagnostics.getDbNanos(), TimeUnit.NANOSECONDS);
+        tracker.record(request.getMethod(), uri, request.getRequestURI(), response.getStatus(), elapsedNanos,
+                diagnostics);
+    }
+}
@@ -0,0 +1,53 @@
+package com.sakhiya.investment.diagnostics;
+
+/**
+ * One endpoint in the /actuator/slowendpoints view: latency, statements and database time over the
+ * rolling window (see SlowRequestTracker).
+ */
+public class SlowEndpointDTO {
+
+    private String endpoint; // method and mapping pattern, e.g. "GET /api/portfolios/{id}"
+    private int count;
+    private double p50Millis;
+    private double p95Millis;
+    private double maxMillis;
+    private double avgStatements;
+    private int maxStatements;
+    private double avgDbMillis;
+    private int slowCount; // requests over diagnostics.slowRequestMillis
+    private int repeatedStatementCount; // requests that issued one statement diagnostics.repeatedStatementThreshold times or more
+    private String lastRepeatedStatement; // the most repeated statement of the latest such request
+
+    public String getEndpoint() { return endpoint; }
+    public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public double getP50Millis() { return p50Millis; }
+    public void setP50Millis(double p50Millis) { this.p50Millis = p50Millis; }
+
+    public double getP95Millis() { return p95Millis; }
+    public void setP95Millis(double p95Millis) { this.p95Millis = p95Millis; }
+
+    public double getMaxMillis() { return maxMillis; }
+    public void setMaxMillis(double maxMillis) { this.maxMillis = maxMillis; }
+
+    public double getAvgStatements() { return avgStatements; }
+    public void setAvgStatements(double avgStatements) { this.avgStatements = avgStatements; }
+
+    public int getMaxStatements() { return maxStatements; }
+    public void setMaxStatements(int maxStatements) { this.maxStatements = maxStatements; }
+
+    public double getAvgDbMillis() { return avgDbMillis; }
+    public void setAvgDbMillis(double avgDbMillis) { this.avgDbMillis = avgDbMillis; }
+
+    public int getSlowCount() { return slowCount; }
+    public void setSlowCount(int slowCount) { this.slowCount = slowCount; }
+
+    public int getRepeatedStatementCount() { return repeatedStatementCount; }
+    public void setRepeatedStatementCount(int repeatedStatementCount) { this.repeatedStatementCount = repeatedStatementCount; }
+
+    public String getLastRepeatedStatement() { return lastRepeatedStatement; }
+    public void setLastRepeatedStatement(String lastRepeatedStatement) { this.lastRepeatedStatement = lastRepeatedStatement; }
+}
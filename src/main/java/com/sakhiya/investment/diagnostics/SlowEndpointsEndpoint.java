@@ -0,0 +1,31 @@
+package com.sakhiya.investment.diagnostics;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/slowendpoints?limit=10: the slowest /api endpoints of the last few minutes with their
+ * statement counts, database time and N+1 suspects (see SlowRequestTracker).
+ */
+@Component
+@Endpoint(id = "slowendpoints")
+public class SlowEndpointsEndpoint {
+
+    private final SlowRequestTracker tracker;
+    private final int defaultLimit;
+
+    public SlowEndpointsEndpoint(SlowRequestTracker tracker, @Value("${diagnostics.topN:10}") int defaultLimit) {
+        this.tracker = tracker;
+        this.defaultLimit = defaultLimit;
+    }
+
+    @ReadOperation
+    public List<SlowEndpointDTO> slowEndpoints(@Nullable Integer limit) {
+        return tracker.topSlowEndpoints(limit != null && limit > 0 ? limit : defaultLimit);
+    }
+}
@@ -0,0 +1,178 @@
+package com.sakhiya.investment.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replaces spring.jpa.show-sql for finding slow or chatty endpoints:
+ * - only requests over a threshold are logged, with what the database did for them:
+ *   slower than diagnostics.slowRequestMillis, more than diagnostics.maxStatementsPerRequest statements,
+ *   or one statement issued diagnostics.repeatedStatementThreshold times or more (an N+1)
+ * - every request is added to a rolling window per endpoint (the last diagnostics.window.samples requests
+ *   within diagnostics.window.minutes), summarised slowest first by topSlowEndpoints()
+ */
+@Component
+public class SlowRequestTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowRequestTracker.class);
+
+    // Logged statements are cut to this length (IN lists can be long)
+    private static final int MAX_LOGGED_SQL = 300;
+
+    private final long slowNanos;
+    private final int maxStatements;
+    private final int repeatedThreshold;
+    private final long windowNanos;
+    private final int samplesPerEndpoint;
+    private final Map<String, EndpointWindow> windows = new ConcurrentHashMap<>();
+
+    public SlowRequestTracker(
+            @Value("${diagnostics.slowRequestMillis:500}") long slowRequestMillis,
+            @Value("${diagnostics.maxStatementsPerRequest:50}") int maxStatements,
+            @Value("${diagnostics.repeatedStatementThreshold:10}") int repeatedThreshold,
+            @Value("${diagnostics.window.minutes:5}") int windowMinutes,
+            @Value("${diagnostics.window.samples:1000}") int samplesPerEndpoint) {
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMillis);
+        this.maxStatements = maxStatements;
+        this.repeatedThreshold = repeatedThreshold;
+        this.windowNanos = TimeUnit.MINUTES.toNanos(windowMinutes);
+        this.samplesPerEndpoint = samplesPerEndpoint;
+    }
+
+    /**
+     * Adds one finished request to its endpoint's window and logs it when it crosses a threshold.
+     *
+     * @param uri  mapping pattern, e.g. /api/portfolios/{id}
+     * @param path the actual request path, only used in the log line
+     */
+    public void record(String method, String uri, String path, int status, long elapsedNanos, RequestDiagnostics diagnostics) {
+        Map<String, Integer> repeated = diagnostics.repeatedStatements(repeatedThreshold);
+        String mostRepeated = repeated.isEmpty() ? null : repeated.keySet().iterator().next();
+        boolean slow = elapsedNanos >= slowNanos;
+        if (slow || diagnostics.getStatements() > maxStatements || mostRepeated != null) {
+            StringBuilder line = new StringBuilder(slow ? "Slow request " : "Chatty request ")
+                    .append(method).append(' ').append(path).append(" (").append(uri).append(", status ").append(status)
+                    .append("): ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms, ")
+                    .append(diagnostics.getStatements()).append(" statements, ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(diagnostics.getDbNanos())).append(" ms executing SQL");
+            repeated.forEach((sql, times) -> line.append("\n    ").append(times).append("x ").append(shorten(sql)));
+            log.warn(line.toString());
+        }
+        windows.computeIfAbsent(method + " " + uri, key -> new EndpointWindow(samplesPerEndpoint))
+                .add(System.nanoTime(), elapsedNanos, diagnostics.getStatements(), diagnostics.getDbNanos(), slow,
+                        mostRepeated);
+    }
+
+    /**
+     * Endpoints with requests in the window, slowest p95 first.
+     */
+    public List<SlowEndpointDTO> topSlowEndpoints(int limit) {
+        long since = System.nanoTime() - windowNanos;
+        List<SlowEndpointDTO> endpoints = new ArrayList<>();
+        windows.forEach((endpoint, window) -> {
+            SlowEndpointDTO summary = window.summary(since);
+            if (summary != null) {
+                summary.setEndpoint(endpoint);
+                endpoints.add(summary);
+            }
+        });
+        endpoints.sort(Comparator.comparingDouble(SlowEndpointDTO::getP95Millis).reversed());
+        return endpoints.subList(0, Math.min(limit, endpoints.size()));
+    }
+
+    private static String shorten(String sql) {
+        return sql.length() <= MAX_LOGGED_SQL ? sql : sql.substring(0, MAX_LOGGED_SQL) + "...";
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * Ring buffer of the latest requests of one endpoint. Requests of one endpoint are recorded one at a time
+     * (synchronized); different endpoints do not contend.
+     */
+    static final class EndpointWindow {
+        private final long[] at;
+        private final long[] elapsed;
+        private final long[] db;
+        private final int[] statements;
+        private final boolean[] slow;
+        private final boolean[] repeated;
+        private String lastRepeatedStatement;
+        private int next;
+        private int size;
+
+        EndpointWindow(int capacity) {
+            at = new long[capacity];
+            elapsed = new long[capacity];
+            db = new long[capacity];
+            statements = new int[capacity];
+            slow = new boolean[capacity];
+            repeated = new boolean[capacity];
+        }
+
+        synchronized void add(long now, long elapsedNanos, int statementCount, long dbNanos, boolean slowRequest,
+                String repeatedStatement) {
+            at[next] = now;
+            elapsed[next] = elapsedNanos;
+            db[next] = dbNanos;
+            statements[next] = statementCount;
+            slow[next] = slowRequest;
+            repeated[next] = repeatedStatement != null;
+            if (repeatedStatement != null) {
+                lastRepeatedStatement = repeatedStatement;
+            }
+            next = (next + 1) % at.length;
+            size = Math.min(size + 1, at.length);
+        }
+
+        // Summary of the requests at or after since, or null when there are none
+        synchronized SlowEndpointDTO summary(long since) {
+            long[] latencies = new long[size];
+            int count = 0;
+            long statementTotal = 0;
+            int statementMax = 0;
+            long dbTotal = 0;
+            int slowCount = 0;
+            int repeatedCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (at[i] - since < 0) {
+                    continue;
+                }
+                latencies[count++] = elapsed[i];
+                statementTotal += statements[i];
+                statementMax = Math.max(statementMax, statements[i]);
+                dbTotal += db[i];
+                slowCount += slow[i] ? 1 : 0;
+                repeatedCount += repeated[i] ? 1 : 0;
+            }
+            if (count == 0) {
+                return null;
+            }
+            Arrays.sort(latencies, 0, count);
+            SlowEndpointDTO summary = new SlowEndpointDTO();
+            summary.setCount(count);
+            summary.setP50Millis(millis(latencies[(int) Math.ceil(0.50 * count) - 1]));
+            summary.setP95Millis(millis(latencies[(int) Math.ceil(0.95 * count) - 1]));
+            summary.setMaxMillis(millis(latencies[count - 1]));
+            summary.setAvgStatements(Math.round(statementTotal * 10.0 / count) / 10.0);
+            summary.setMaxStatements(statementMax);
+            summary.setAvgDbMillis(millis(dbTotal / count));
+            summary.setSlowCount(slowCount);
+            summary.setRepeatedStatementCount(repeatedCount);
+            summary.setLastRepeatedStatement(repeatedCount > 0 ? lastRepeatedStatement : null);
+            return summary;
+        }
+    }
+}
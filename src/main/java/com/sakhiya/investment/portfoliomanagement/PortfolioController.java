@@ -1,13 +1,17 @@
 package com.sakhiya.investment.portfoliomanagement;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.sakhiya.investment.clientmanagement.Client;
 import com.sakhiya.investment.clientmanagement.ClientRepository;
 import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.riskmanagement.dto.PortfolioCovarianceVaRDTO;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @RestController
@@ -25,8 +29,8 @@ public class PortfolioController {
         this.portfolioService = portfolioService;
     }
 
-    // Helper method to map Portfolio to PortfolioDTO
-    private PortfolioDTO toDTO(Portfolio portfolio) {
+    // Helper method to map Portfolio to PortfolioDTO (package-private for PortfolioBenchmark)
+    PortfolioDTO toDTO(Portfolio portfolio) {
         PortfolioDTO dto = new PortfolioDTO();
         dto.setPortfolioId(portfolio.getPortfolioId());
         dto.setPortfolioName(portfolio.getPortfolioName());
@@ -59,13 +63,22 @@ public class PortfolioController {
         return dto;
     }
 
-    // Get all portfolios as DTOs
+    /*
+     * Paged portfolio listing, e.g. GET /api/portfolios?page=0&size=50&sort=createdAt,desc
+     * Deep pages: pass the nextToken of the previous page as ?after=... instead of page (keyset paging).
+     * Asset ids/names are only included with ?includeAssets=true; assetCount and the VaR / stress totals always are.
+     * Rows are read with a projection query, so no Asset or Risk entity is loaded.
+     */
     @GetMapping
-    public List<PortfolioDTO> getAllPortfolios() {
-        List<Portfolio> portfolios = portfolioRepository.findAll();
-        return portfolios.stream()
-                .map(this::toDTO)
-                .toList();
+    public ResponseEntity<?> getAllPortfolios(
+            @PageableDefault(size = 50) Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean includeAssets) {
+        try {
+            return ResponseEntity.ok(portfolioService.listPortfolios(pageable, after, includeAssets));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get portfolio by ID as DTO
@@ -204,6 +217,25 @@ public class PortfolioController {
         return ResponseEntity.ok(totalVaR);
     }
 
+    // Correlation-aware portfolio VaR with marginal/component VaR per asset, e.g.
+    // GET /api/portfolios/{id}/covariance-var?confidenceLevel=0.99&timeHorizonDays=10&lookbackDays=500
+    @GetMapping("/{portfolioId}/covariance-var")
+    public ResponseEntity<?> getCovarianceVaRForPortfolio(
+            @PathVariable String portfolioId,
+            @RequestParam double confidenceLevel,
+            @RequestParam int timeHorizonDays,
+            @RequestParam(required = false) Integer lookbackDays) {
+        try {
+            PortfolioCovarianceVaRDTO result = portfolioService.calculateCovarianceVaR(
+                    portfolioId, confidenceLevel, timeHorizonDays, lookbackDays);
+            return ResponseEntity.ok(result);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // Calculate total Stress Test for a portfolio by ID
     @GetMapping("/{portfolioId}/total-stress")
     public ResponseEntity<Double> getTotalStressTestForPortfolio(@PathVariable String portfolioId) {
@@ -224,4 +256,11 @@ public class PortfolioController {
         }
         return portfolioService.calculateTotalRisk(portfolioOpt.get());
     }
-}
\ No newline at end of file
+
+    // Recompute the stored totalVaR / totalStressTest of every portfolio in one set-based statement
+    // (the same work as the nightly job, for running it on demand)
+    @PostMapping("/risk-totals/recalculate")
+    public RiskTotalsRecalculationDTO recalculateAllRiskTotals() {
+        return portfolioService.recalculateAllRiskTotals();
+    }
+}
@@ -0,0 +1,25 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import java.util.List;
+
+/**
+ * Custom query fragment of PortfolioRepository for the paged portfolio listing. It builds the JPQL
+ * itself because the ORDER BY and keyset condition depend on the requested sort, which a fixed
+ * @Query cannot express. Implemented by PortfolioListingRepositoryImpl (Spring Data finds it by the Impl suffix).
+ */
+public interface PortfolioListingRepository {
+
+    /**
+     * One page of portfolio summaries as DTOs, read with a scalar projection: no Portfolio, Asset or
+     * Risk entity is loaded. Risk totals are summed and assets counted by subqueries in the same statement.
+     * The asset id/name lists of the DTOs are left null.
+     *
+     * @param property  sort property, one of PortfolioPageToken.SORT_PATHS
+     * @param ascending sort direction; portfolioId ascending breaks ties and nulls sort last
+     * @param after     keyset position to continue after, or null to start at offset
+     * @param offset    rows to skip (only used without a token)
+     * @param limit     maximum rows to return
+     */
+    List<PortfolioDTO> findPortfolioSummaries(String property, boolean ascending, PortfolioPageToken after,
+            long offset, int limit);
+}
@@ -0,0 +1,104 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * JPQL for PortfolioListingRepository. Only whitelisted paths from PortfolioPageToken.SORT_PATHS are
+ * put into the query text; every value is a bind parameter.
+ */
+class PortfolioListingRepositoryImpl implements PortfolioListingRepository {
+
+    // Same correlated sums as PortfolioRepository.recalculateAllRiskTotals, so the listing shows live totals
+    private static final String SELECT = "select p.portfolioId, p.portfolioName, p.createdAt, p.updatedAt, "
+            + "p.investmentGoal, p.riskLevel, p.totalValue, "
+            + "coalesce((select sum(r.value) from Risk r join r.asset a "
+            + "where a.portfolio.portfolioId = p.portfolioId and lower(r.type) = 'var'), 0.0), "
+            + "coalesce((select sum(r.value) from Risk r join r.asset a "
+            + "where a.portfolio.portfolioId = p.portfolioId and lower(r.type) = 'stresstest'), 0.0), "
+            + "(select count(a) from Asset a where a.portfolio.portfolioId = p.portfolioId), "
+            + "c.clientId, c.firstName, c.surname "
+            + "from Portfolio p left join p.client c";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PortfolioDTO> findPortfolioSummaries(String property, boolean ascending, PortfolioPageToken after,
+            long offset, int limit) {
+        String path = PortfolioPageToken.SORT_PATHS.get(property);
+        if (path == null) {
+            throw new IllegalArgumentException("Unsupported sort property: " + property);
+        }
+        boolean byId = "portfolioId".equals(property);
+        String direction = ascending ? "asc" : "desc";
+        StringBuilder jpql = new StringBuilder(SELECT);
+        if (after != null) {
+            jpql.append(" where ").append(keysetCondition(path, ascending, byId, after.lastValue == null));
+        }
+        jpql.append(" order by ").append(path).append(' ').append(direction);
+        if (!byId) {
+            jpql.append(" nulls last, p.portfolioId asc");
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        if (after != null) {
+            query.setParameter("lastId", after.lastPortfolioId);
+            if (!byId && after.lastValue != null) {
+                query.setParameter("lastValue", after.lastValue);
+            }
+        } else if (offset > 0) {
+            query.setFirstResult((int) Math.min(offset, Integer.MAX_VALUE));
+        }
+        query.setMaxResults(limit);
+
+        List<Object[]> rows = query.getResultList();
+        List<PortfolioDTO> dtos = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            dtos.add(toDTO(row));
+        }
+        return dtos;
+    }
+
+    /*
+     * Rows strictly after the last one in "order by path dir nulls last, portfolioId asc":
+     * - last value not null: a later value, or the same value with a greater id, or any null value
+     * - last value null: only nulls are left, so just a greater id among them
+     */
+    private static String keysetCondition(String path, boolean ascending, boolean byId, boolean lastValueNull) {
+        if (byId) {
+            return "p.portfolioId " + (ascending ? ">" : "<") + " :lastId";
+        }
+        if (lastValueNull) {
+            return "(" + path + " is null and p.portfolioId > :lastId)";
+        }
+        return "(" + path + (ascending ? " > " : " < ") + ":lastValue"
+                + " or (" + path + " = :lastValue and p.portfolioId > :lastId)"
+                + " or " + path + " is null)";
+    }
+
+    private static PortfolioDTO toDTO(Object[] row) {
+        PortfolioDTO dto = new PortfolioDTO();
+        dto.setPortfolioId((String) row[0]);
+        dto.setPortfolioName((String) row[1]);
+        dto.setCreatedAt((LocalDate) row[2]);
+        dto.setUpdatedAt((LocalDate) row[3]);
+        dto.setInvestmentGoal((String) row[4]);
+        dto.setRiskLevel((Integer) row[5]);
+        dto.setTotalValue((BigDecimal) row[6]);
+        dto.setTotalVaR(((Number) row[7]).doubleValue());
+        dto.setTotalStressTest(((Number) row[8]).doubleValue());
+        dto.setAssetCount(((Number) row[9]).intValue());
+        if (row[10] != null) {
+            dto.setClientId((String) row[10]);
+            dto.setClientName(row[11] + " " + row[12]);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,41 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One page of GET /api/portfolios.
+ * page and totalElements are only set for offset paging (page=N); with a continuation token they
+ * are omitted, because counting or numbering pages is exactly what keyset paging avoids.
+ * nextToken is null on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PortfolioPageDTO {
+    private List<PortfolioDTO> content;
+    private Integer page;
+    private int size;
+    private Long totalElements;
+    private String sort;
+    private String nextToken;
+
+    public PortfolioPageDTO() {}
+
+    public List<PortfolioDTO> getContent() { return content; }
+    public void setContent(List<PortfolioDTO> content) { this.content = content; }
+
+    public Integer getPage() { return page; }
+    public void setPage(Integer page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public Long getTotalElements() { return totalElements; }
+    public void setTotalElements(Long totalElements) { this.totalElements = totalElements; }
+
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public String getNextToken() { return nextToken; }
+    public void setNextToken(String nextToken) { this.nextToken = nextToken; }
+}
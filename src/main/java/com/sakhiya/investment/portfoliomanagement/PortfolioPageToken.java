@@ -0,0 +1,109 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Keyset ("seek") continuation token for the portfolio listing.
+ *
+ * An offset page (LIMIT 50 OFFSET 500000) makes the database walk and throw away every earlier row,
+ * so deep pages get slower and slower. The token instead remembers the sort value and portfolioId of
+ * the last row returned, and the next page asks for rows after that position, which is an index seek
+ * no matter how deep the page is. It also cannot skip or repeat rows when portfolios are added meanwhile.
+ *
+ * The token is opaque to clients: base64url of "v1|property|ASC/DESC|lastValue|lastPortfolioId"
+ * (lastValue is empty for null, with a marker so empty strings and nulls stay distinct).
+ */
+final class PortfolioPageToken {
+
+    // Sortable properties and the JPQL path of each; anything else is rejected so no input reaches the query text
+    static final Map<String, String> SORT_PATHS = Map.of(
+            "portfolioName", "p.portfolioName",
+            "createdAt", "p.createdAt",
+            "updatedAt", "p.updatedAt",
+            "investmentGoal", "p.investmentGoal",
+            "riskLevel", "p.riskLevel",
+            "totalValue", "p.totalValue",
+            "portfolioId", "p.portfolioId");
+
+    private static final String VERSION = "v1";
+
+    final String property;
+    final boolean ascending;
+    final Object lastValue; // typed like the property (String, LocalDate, Integer, BigDecimal); may be null
+    final String lastPortfolioId;
+
+    PortfolioPageToken(String property, boolean ascending, Object lastValue, String lastPortfolioId) {
+        this.property = property;
+        this.ascending = ascending;
+        this.lastValue = lastValue;
+        this.lastPortfolioId = lastPortfolioId;
+    }
+
+    // Token pointing after the given row of a page sorted by property
+    static PortfolioPageToken after(PortfolioDTO row, String property, boolean ascending) {
+        return new PortfolioPageToken(property, ascending, sortValue(row, property), row.getPortfolioId());
+    }
+
+    String encode() {
+        String value = lastValue == null ? "" : "=" + format(lastValue);
+        String raw = String.join("|", VERSION, property, ascending ? "ASC" : "DESC", value, lastPortfolioId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by encode()
+     */
+    static PortfolioPageToken decode(String token) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The id is last and never contains '|'; the value may, so split the fixed parts off each end
+            int idStart = raw.lastIndexOf('|');
+            String[] head = raw.substring(0, idStart).split("\\|", 4);
+            parts = new String[] { head[0], head[1], head[2], head[3], raw.substring(idStart + 1) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+        if (!VERSION.equals(parts[0]) || !SORT_PATHS.containsKey(parts[1])
+                || !("ASC".equals(parts[2]) || "DESC".equals(parts[2])) || parts[4].isEmpty()) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+        Object value;
+        try {
+            value = parts[3].isEmpty() ? null : parse(parts[1], parts[3].substring(1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+        return new PortfolioPageToken(parts[1], "ASC".equals(parts[2]), value, parts[4]);
+    }
+
+    private static Object sortValue(PortfolioDTO row, String property) {
+        return switch (property) {
+            case "portfolioName" -> row.getPortfolioName();
+            case "createdAt" -> row.getCreatedAt();
+            case "updatedAt" -> row.getUpdatedAt();
+            case "investmentGoal" -> row.getInvestmentGoal();
+            case "riskLevel" -> row.getRiskLevel();
+            case "totalValue" -> row.getTotalValue();
+            case "portfolioId" -> row.getPortfolioId();
+            default -> throw new IllegalArgumentException("Unsupported sort property: " + property);
+        };
+    }
+
+    private static String format(Object value) {
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    private static Object parse(String property, String text) {
+        return switch (property) {
+            case "createdAt", "updatedAt" -> LocalDate.parse(text);
+            case "riskLevel" -> Integer.valueOf(text);
+            case "totalValue" -> new BigDecimal(text);
+            default -> text;
+        };
+    }
+}
@@ -1,6 +1,9 @@
 package com.sakhiya.investment.portfoliomanagement;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sakhiya.investment.clientmanagement.Client;
@@ -13,7 +16,8 @@ import java.math.BigDecimal;
 /*changed from ListCrudRepository to JpaRepository for advanced features (paging, sorting, batch),  JpaRepository<Portfolio, String>.
  basic CRUD, ListCrudRepository<Portfolio, String> is fine. The ID type (String or UUID) must match  entity's ID field.*/
 
-public interface PortfolioRepository extends ListCrudRepository<Portfolio, String> {
+// PortfolioListingRepository adds the paged, projection-based listing (implemented in PortfolioListingRepositoryImpl)
+public interface PortfolioRepository extends ListCrudRepository<Portfolio, String>, PortfolioListingRepository {
     // Find all portfolios for a specific client
     List<Portfolio> findByClient(Client client);
 
@@ -34,4 +38,22 @@ public interface PortfolioRepository extends ListCrudRepository<Portfolio, Strin
 
     // Find portfolios by total Stress Test greater than a value
     List<Portfolio> findByTotalStressTestGreaterThan(Double totalStressTest);
+
+    /**
+     * Recomputes totalVaR and totalStressTest of every portfolio in a single set-based UPDATE:
+     * the database sums the risks of each portfolio's assets with correlated subqueries, so no
+     * portfolio, asset or risk is loaded into memory. Portfolios without risks get 0.
+     * Bulk updates skip entity listeners, so updatedAt is set here.
+     * clearAutomatically drops portfolios already loaded in this persistence context, as they are now stale.
+     *
+     * @return number of portfolio rows updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Portfolio p set "
+            + "p.totalVaR = coalesce((select sum(r.value) from Risk r join r.asset a "
+            + "where a.portfolio.portfolioId = p.portfolioId and lower(r.type) = 'var'), 0.0), "
+            + "p.totalStressTest = coalesce((select sum(r.value) from Risk r join r.asset a "
+            + "where a.portfolio.portfolioId = p.portfolioId and lower(r.type) = 'stresstest'), 0.0), "
+            + "p.updatedAt = :today")
+    int recalculateAllRiskTotals(@Param("today") LocalDate today);
 }
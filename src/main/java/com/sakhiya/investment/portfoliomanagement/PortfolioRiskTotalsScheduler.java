@@ -0,0 +1,26 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly refresh of the stored portfolio risk totals (totalVaR / totalStressTest).
+ * Off by default; turn it on with portfolio.riskTotals.recalc.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "portfolio.riskTotals.recalc.enabled", havingValue = "true")
+public class PortfolioRiskTotalsScheduler {
+
+    private final PortfolioService portfolioService;
+
+    public PortfolioRiskTotalsScheduler(PortfolioService portfolioService) {
+        this.portfolioService = portfolioService;
+    }
+
+    // Default: every night at 02:00 server time
+    @Scheduled(cron = "${portfolio.riskTotals.recalc.cron:0 0 2 * * *}")
+    public void recalculateNightly() {
+        portfolioService.recalculateAllRiskTotals();
+    }
+}
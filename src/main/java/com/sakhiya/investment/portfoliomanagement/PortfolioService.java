@@ -2,17 +2,26 @@ package com.sakhiya.investment.portfoliomanagement;
 
 import com.sakhiya.investment.clientmanagement.Client;
 import com.sakhiya.investment.portfoliomanagement.asset.Asset;
-import com.sakhiya.investment.portfoliomanagement.asset.AssetService;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
 import com.sakhiya.investment.portfoliomanagement.asset.AssetRepository;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.riskmanagement.AssetRiskTotal;
+import com.sakhiya.investment.riskmanagement.CovarianceVaREngine;
 import com.sakhiya.investment.riskmanagement.Risk;
+import com.sakhiya.investment.riskmanagement.RiskRepository;
+import com.sakhiya.investment.riskmanagement.dto.PortfolioCovarianceVaRDTO;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -26,33 +35,47 @@ public class PortfolioService {
     // Repository to persist portfolio updates
     private final PortfolioRepository portfolioRepository;
     private final AssetRepository assetRepository;
+    private final AssetHistoryService assetHistoryService;
+    private final CovarianceVaREngine covarianceVaREngine;
+    // Aggregate (SUM ... GROUP BY) queries over risks, used for the stored totals
+    private final RiskRepository riskRepository;
 
-    // Constructor injection for the repositories
-    public PortfolioService(PortfolioRepository portfolioRepository, AssetRepository assetRepository) {
+    // Constructor injection for the repositories and the services used by the covariance VaR
+    public PortfolioService(PortfolioRepository portfolioRepository, AssetRepository assetRepository,
+            AssetHistoryService assetHistoryService, CovarianceVaREngine covarianceVaREngine,
+            RiskRepository riskRepository) {
         this.portfolioRepository = portfolioRepository;
         this.assetRepository = assetRepository;
+        this.assetHistoryService = assetHistoryService;
+        this.covarianceVaREngine = covarianceVaREngine;
+        this.riskRepository = riskRepository;
     }
 
     /**
      * Recalculate and store total VaR and StressTest values for a portfolio.
      * Also ensures any collections in SustainablePortfolio are initialized before
      * saving.
+     *
+     * Refactored: this used to call AssetService.getTotalRiskValueByType twice per asset, and each call
+     * loaded the asset and walked its lazy risks (2N+1 queries). Now one grouped query returns the
+     * sum per asset and type for the whole portfolio.
      * 
      * @param portfolio the portfolio to update
      */
     @Transactional // Marks the method as transactional: all database changes succeed or fail together
-    public void updatePortfolioRiskTotals(Portfolio portfolio, AssetService assetService) {
+    public void updatePortfolioRiskTotals(Portfolio portfolio) {
         if (portfolio == null)
             return; // Safety check: exit if portfolio is null
 
         double totalVaR = 0.0; // Initialise total Value at Risk (VaR)
         double totalStress = 0.0; // Initialise total Stress Test risk
 
-        if (portfolio.getAssets() != null) { // Check if portfolio has assets
-            for (Asset asset : portfolio.getAssets()) { // Loop through each asset
-                // Delegate calculation to AssetService for DRY principle
-                totalVaR += assetService.getTotalRiskValueByType(asset.getAssetId(), "VaR");
-                totalStress += assetService.getTotalRiskValueByType(asset.getAssetId(), "StressTest");
+        // Types come back lower-cased, so the comparison stays case-insensitive as before
+        for (AssetRiskTotal total : riskRepository.sumValuesByAssetAndType(portfolio.getPortfolioId())) {
+            if ("var".equals(total.getType())) {
+                totalVaR += total.getTotal();
+            } else if ("stresstest".equals(total.getType())) {
+                totalStress += total.getTotal();
             }
         }
 
@@ -77,6 +100,97 @@ public class PortfolioService {
         portfolioRepository.save(portfolio); // Persist the portfolio with updated totals and initialized fields
     }
 
+    /**
+     * Recomputes the stored totalVaR / totalStressTest of every portfolio, e.g. for the nightly job.
+     * A single UPDATE with correlated SUM subqueries runs in the database (see
+     * PortfolioRepository.recalculateAllRiskTotals) instead of loading every portfolio, asset and risk.
+     *
+     * @return number of portfolios updated and how long it took
+     */
+    @Transactional
+    public RiskTotalsRecalculationDTO recalculateAllRiskTotals() {
+        long started = System.nanoTime();
+        int updated = portfolioRepository.recalculateAllRiskTotals(LocalDate.now());
+        return new RiskTotalsRecalculationDTO(updated, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * One page of the portfolio listing, read with a DTO projection (no Portfolio, Asset or Risk entities).
+     *
+     * Without a token this is offset paging from pageable (page, size, sort) and includes totalElements.
+     * With a continuation token the sort comes from the token, only pageable's size is used, and the page
+     * starts right after the last row of the previous one (keyset paging), which stays fast for deep pages.
+     * Every page that has more rows after it returns nextToken.
+     *
+     * @param includeAssets also fill assetIds / assetNames, with one extra query for the whole page
+     * @throws IllegalArgumentException for an invalid token, more than one sort order or an unsupported sort property
+     */
+    @Transactional(readOnly = true)
+    public PortfolioPageDTO listPortfolios(Pageable pageable, String continuationToken, boolean includeAssets) {
+        int size = pageable.getPageSize();
+        PortfolioPageToken after = null;
+        String property;
+        boolean ascending;
+        if (continuationToken != null && !continuationToken.isBlank()) {
+            after = PortfolioPageToken.decode(continuationToken);
+            property = after.property;
+            ascending = after.ascending;
+        } else {
+            List<Sort.Order> orders = pageable.getSort().toList();
+            if (orders.size() > 1) {
+                throw new IllegalArgumentException("Only one sort property is supported");
+            }
+            // Name order is what a user browsing the list expects
+            property = orders.isEmpty() ? "portfolioName" : orders.get(0).getProperty();
+            ascending = orders.isEmpty() || orders.get(0).isAscending();
+            if (!PortfolioPageToken.SORT_PATHS.containsKey(property)) {
+                throw new IllegalArgumentException("Unsupported sort property: " + property
+                        + ", expected one of " + PortfolioPageToken.SORT_PATHS.keySet());
+            }
+        }
+
+        // One extra row tells whether there is a next page without a count query
+        List<PortfolioDTO> rows = portfolioRepository.findPortfolioSummaries(property, ascending, after,
+                after == null ? pageable.getOffset() : 0, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        if (includeAssets) {
+            fillAssetIdsAndNames(rows);
+        }
+
+        PortfolioPageDTO page = new PortfolioPageDTO();
+        page.setContent(rows);
+        page.setSize(size);
+        page.setSort(property + "," + (ascending ? "asc" : "desc"));
+        if (after == null) {
+            page.setPage(pageable.getPageNumber());
+            page.setTotalElements(portfolioRepository.count());
+        }
+        if (hasNext) {
+            page.setNextToken(PortfolioPageToken.after(rows.get(rows.size() - 1), property, ascending).encode());
+        }
+        return page;
+    }
+
+    private void fillAssetIdsAndNames(List<PortfolioDTO> rows) {
+        Map<String, PortfolioDTO> byId = new HashMap<>();
+        for (PortfolioDTO row : rows) {
+            row.setAssetIds(new ArrayList<>());
+            row.setAssetNames(new ArrayList<>());
+            byId.put(row.getPortfolioId(), row);
+        }
+        if (byId.isEmpty()) {
+            return;
+        }
+        for (Object[] asset : assetRepository.findIdsAndNamesByPortfolioIds(byId.keySet())) {
+            PortfolioDTO row = byId.get((String) asset[0]);
+            row.getAssetIds().add((String) asset[1]);
+            row.getAssetNames().add((String) asset[2]);
+        }
+    }
+
     /**
      * Calculates total VaR for a portfolio by summing VaR risks from all assets.
      * @param portfolio the portfolio to calculate for
@@ -99,6 +213,27 @@ public class PortfolioService {
         return totalVaR;
     }
 
+    /**
+     * Correlation-aware VaR for the whole portfolio, calculated on request from the cached price
+     * series (no per-asset Risk rows needed). Unlike calculateTotalVaR it allows for diversification
+     * and reports each asset's marginal and component VaR.
+     *
+     * @param portfolioId     the portfolio to calculate
+     * @param confidenceLevel any level between 0 and 1, e.g. 0.975
+     * @param timeHorizonDays horizon in days
+     * @param lookbackDays    optional limit on the number of most recent aligned daily returns
+     * @throws NoSuchElementException if the portfolio does not exist
+     */
+    public PortfolioCovarianceVaRDTO calculateCovarianceVaR(String portfolioId, double confidenceLevel,
+            int timeHorizonDays, Integer lookbackDays) {
+        Portfolio portfolio = getPortfolio(portfolioId);
+        List<Asset> assets = portfolio.getAssets() != null ? portfolio.getAssets() : List.of();
+        // One bulk load for every asset not yet in the price cache
+        Map<String, PriceSeries> seriesByAsset = assetHistoryService.getPriceSeries(
+                assets.stream().map(Asset::getAssetId).toList());
+        return covarianceVaREngine.calculate(portfolioId, assets, seriesByAsset, confidenceLevel, timeHorizonDays, lookbackDays);
+    }
+
     /**
      * Calculates total Stress Test for a portfolio by summing StressTest risks from all assets.
      * @param portfolio the portfolio to calculate for
@@ -0,0 +1,22 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+/**
+ * Result of POST /api/portfolios/risk-totals/recalculate (and the nightly job).
+ */
+public class RiskTotalsRecalculationDTO {
+    private final int portfoliosUpdated;
+    private final long elapsedMillis;
+
+    public RiskTotalsRecalculationDTO(int portfoliosUpdated, long elapsedMillis) {
+        this.portfoliosUpdated = portfoliosUpdated;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getPortfoliosUpdated() {
+        return portfoliosUpdated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,35 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+/**
+ * An archive block's payload with its asset id and name, loaded with a JPQL constructor expression
+ * (like PricePoint) so listing or exporting archived years never puts PriceArchiveBlock or Asset
+ * entities in the persistence context.
+ */
+public class ArchivedPriceBlock {
+    private final String assetId;
+    private final String assetName;
+    private final byte[] payload;
+
+    public ArchivedPriceBlock(String assetId, String assetName, byte[] payload) {
+        this.assetId = assetId;
+        this.assetName = assetName;
+        this.payload = payload;
+    }
+
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public String getAssetName() {
+        return assetName;
+    }
+
+    // The block's (date, close) rows, oldest first
+    PriceSeries decode() {
+        int rows = PriceBlockCodec.rowCount(payload);
+        int[] days = new int[rows];
+        double[] closes = new double[rows];
+        PriceBlockCodec.decode(payload, days, closes, 0);
+        return new PriceSeries(days, closes, rows);
+    }
+}
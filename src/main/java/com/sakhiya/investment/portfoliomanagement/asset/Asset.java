@@ -14,6 +14,7 @@ import java.util.UUID;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.sakhiya.investment.portfoliomanagement.Portfolio;
 import com.sakhiya.investment.riskmanagement.Risk;
+import com.sakhiya.investment.riskmanagement.Scenario;
 
 @Entity
 public class Asset {
@@ -26,6 +27,14 @@ public class Asset {
 	private String name;
 	@Column(name = "`value`")
 	private Double value;
+	// Ticker used for market data (e.g. "IBM"). Optional: only assets with a symbol are kept up to date
+	// by the scheduled Alpha Vantage sync (PriceHistorySyncService)
+	@Column(length = 16)
+	private String symbol;
+	// Broad class such as EQUITY, BOND or COMMODITY, stored upper case. Stress scenarios shock assets by class
+	// (see Scenario); assets without one only get a scenario's per-asset or default shock
+	@Column(name = "asset_class", length = 32)
+	private String assetClass;
 
 	@ManyToOne
 	@JoinColumn(name = "portfolio_id")
@@ -75,6 +84,22 @@ public class Asset {
 		this.value = value;
 	}
 
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public String getAssetClass() {
+		return assetClass;
+	}
+
+	public void setAssetClass(String assetClass) {
+		this.assetClass = Scenario.normaliseAssetClass(assetClass);
+	}
+
 	public Portfolio getPortfolio() {
 		return portfolio;
 	}
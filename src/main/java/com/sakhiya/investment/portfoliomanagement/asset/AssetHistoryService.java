@@ -1,79 +1,566 @@
 package com.sakhiya.investment.portfoliomanagement.asset;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantagePriceDTO;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Service
 public class AssetHistoryService {
     private final AssetPriceHistoryRepository priceHistoryRepository;
     private final AssetRepository assetRepository;
+    private final PriceSeriesCache priceSeriesCache;
+    private final AssetPriceHistoryBatchWriter batchWriter;
+    private final PriceArchiveBlockRepository archiveRepository;
+
+    // Rows committed per transaction by bulk imports. Bigger chunks mean fewer commits,
+    // smaller ones mean less work lost (and less memory) if an import fails part way
+    @Value("${priceHistory.bulk.chunkSize:5000}")
+    private int bulkChunkSize = 5000;
+
+    // Above this many new rows for one asset in a chunk, the cached series is dropped and reloaded
+    // on next use instead of inserting the prices one by one (each out-of-order insert copies the arrays)
+    private static final int CACHE_RECORD_LIMIT = 16;
+    // Source reported for prices read back from the archive, which does not keep the original source
+    public static final String ARCHIVE_SOURCE = "ARCHIVE";
+    // Dedup bitsets are indexed by days since 1900-01-01; earlier dates are rejected
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
 
+    // Import meters: price.import (timer) and price.import.rows (counter, result = inserted / duplicate / rejected),
+    // both tagged kind = alphavantage or bulk
+    private final MeterRegistry meterRegistry;
 
-        // Used constructor injection for both repositories
-        public AssetHistoryService(AssetPriceHistoryRepository priceHistoryRepository, AssetRepository assetRepository) {
+
+        // Used constructor injection for the repositories, the in-memory price series cache, the batch writer
+        // and the meter registry
+        public AssetHistoryService(AssetPriceHistoryRepository priceHistoryRepository, AssetRepository assetRepository,
+                PriceSeriesCache priceSeriesCache, AssetPriceHistoryBatchWriter batchWriter,
+                PriceArchiveBlockRepository archiveRepository, MeterRegistry meterRegistry) {
             this.priceHistoryRepository = priceHistoryRepository;
             this.assetRepository = assetRepository;
+            this.priceSeriesCache = priceSeriesCache;
+            this.batchWriter = batchWriter;
+            this.archiveRepository = archiveRepository;
+            this.meterRegistry = meterRegistry;
         }
 
+    private void recordImport(String kind, long started, long inserted, long duplicates, long rejected) {
+        Timer.builder("price.import").tag("kind", kind).register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        importRows(kind, "inserted").increment(inserted);
+        importRows(kind, "duplicate").increment(duplicates);
+        importRows(kind, "rejected").increment(rejected);
+    }
+
+    private Counter importRows(String kind, String result) {
+        return Counter.builder("price.import.rows").tag("kind", kind).tag("result", result).register(meterRegistry);
+    }
+
     /**
      * Refactored this method out of RiskService to reduce coupling and follow SRP.
      * Fetches historical daily returns for an asset using its price history.
+     * Kept for callers that want a List; risk calculations use getHistoricalReturnsArray.
      *
      * @param assetId The ID of the asset whose returns are to be calculated.
      * @return List of daily returns (as decimals, e.g., 0.01 for 1%) in chronological order.
      */
     public List<Double> getHistoricalReturns(String assetId) {
-        List<AssetPriceHistory> priceHistory = priceHistoryRepository.findByAsset_AssetIdOrderByTradingDateAsc(assetId);
-        List<Double> returns = new ArrayList<>();
+        double[] returns = getHistoricalReturnsArray(assetId);
+        List<Double> boxed = new ArrayList<>(returns.length);
+        for (double r : returns) {
+            boxed.add(r);
+        }
+        return boxed;
+    }
+
+    /**
+     * Same daily returns as getHistoricalReturns but as a primitive array, computed from the
+     * in-memory PriceSeriesCache instead of loading AssetPriceHistory entities on every call.
+     *
+     * @param assetId The ID of the asset whose returns are to be calculated.
+     * @return daily returns in chronological order, empty if there are fewer than 2 prices
+     */
+    public double[] getHistoricalReturnsArray(String assetId) {
+        PriceSeries series = priceSeriesCache.get(assetId);
         //If there are fewer than 2 price records, it now logs a warning and returns an empty list, preventing errors in downstream calculations
         // Handle missing or insufficient price data gracefully
-        if (priceHistory == null || priceHistory.size() < 2) {
+        if (series.size() < 2) {
             // Not enough data to calculate returns (need at least 2 prices)
             System.out.println("[WARN] Not enough price history for assetId: " + assetId + ". Returning empty returns list.");
-            return returns;
+            return new double[0];
+        }
+        return series.returns();
+    }
+
+    // Columnar (epoch-day, close) series for an asset, straight from the cache
+    public PriceSeries getPriceSeries(String assetId) {
+        return priceSeriesCache.get(assetId);
+    }
+
+    // Running and rolling-window return statistics of an asset, O(1) once its series is cached
+    public ReturnStatistics getReturnStatistics(String assetId) {
+        return priceSeriesCache.get(assetId).statistics();
+    }
+
+    // Series for many assets at once; uncached assets are loaded together in one query
+    public Map<String, PriceSeries> getPriceSeries(Collection<String> assetIds) {
+        return priceSeriesCache.getAll(assetIds);
+    }
+
+    /**
+     * Price history of one asset in [start, end], oldest first, including prices that have been moved
+     * to the archive (PriceArchiveService). Archived prices only keep date and close, so their source
+     * is reported as ARCHIVE_SOURCE. A live row for an archived date takes precedence.
+     */
+    public List<AssetPriceHistoryDTO> getPriceHistory(String assetId, LocalDate start, LocalDate end) {
+        List<AssetPriceHistoryDTO> result = new ArrayList<>();
+        Set<LocalDate> liveDates = new HashSet<>();
+        String assetName = null;
+        for (AssetPriceHistory history : priceHistoryRepository
+                .findByAsset_AssetIdAndTradingDateBetweenOrderByTradingDateAsc(assetId, start, end)) {
+            assetName = history.getAsset().getName();
+            liveDates.add(history.getTradingDate());
+            result.add(new AssetPriceHistoryDTO(assetId, assetName, history.getTradingDate(),
+                    history.getClosingPrice(), history.getSource()));
+        }
+        List<PriceArchiveBlock> blocks = archiveRepository.findOverlapping(assetId, start, end);
+        if (blocks.isEmpty()) {
+            return result; // range is entirely live
+        }
+        if (assetName == null) {
+            assetName = assetRepository.findById(assetId).map(Asset::getName).orElse(null);
+        }
+        PriceSeries archived = PriceSeries.fromBlocks(blocks);
+        int to = archived.indexOnOrBefore((int) end.toEpochDay());
+        for (int i = archived.indexOnOrAfter((int) start.toEpochDay()); i <= to; i++) {
+            LocalDate date = archived.dateAt(i);
+            if (!liveDates.contains(date)) {
+                result.add(new AssetPriceHistoryDTO(assetId, assetName, date, archived.closeAt(i), ARCHIVE_SOURCE));
+            }
+        }
+        result.sort(Comparator.comparing(AssetPriceHistoryDTO::getTradingDate));
+        return result;
+    }
+
+    /**
+     * Price history of every asset in [start, end] (GET /api/asset-price-history), oldest first, with archived
+     * prices merged in the same way as getPriceHistory(assetId, start, end).
+     */
+    public List<AssetPriceHistoryDTO> getPriceHistory(LocalDate start, LocalDate end) {
+        List<AssetPriceHistoryDTO> result = new ArrayList<>();
+        Set<String> liveKeys = new HashSet<>();
+        for (AssetPriceHistory history : priceHistoryRepository.findByTradingDateBetweenOrderByTradingDateAsc(start, end)) {
+            String assetId = history.getAsset().getAssetId();
+            liveKeys.add(priceKey(assetId, history.getTradingDate()));
+            result.add(new AssetPriceHistoryDTO(assetId, history.getAsset().getName(), history.getTradingDate(),
+                    history.getClosingPrice(), history.getSource()));
+        }
+        List<ArchivedPriceBlock> blocks = archiveRepository.findArchivedBetween(start, end);
+        if (blocks.isEmpty()) {
+            return result; // range is entirely live
+        }
+        for (ArchivedPriceBlock block : blocks) {
+            result.addAll(archivedPrices(block, start, end, liveKeys));
+        }
+        result.sort(Comparator.comparing(AssetPriceHistoryDTO::getTradingDate));
+        return result;
+    }
+
+    /**
+     * Prices imported under a market data symbol (GET /api/asset-price-history/symbol/{symbol}), oldest first.
+     * The archive does not keep the source, so the archived prices added are those of the assets in the live
+     * result plus the assets with that symbol, reported with source ARCHIVE_SOURCE.
+     */
+    public List<AssetPriceHistoryDTO> getPriceHistoryBySource(String symbol) {
+        List<AssetPriceHistoryDTO> result = new ArrayList<>();
+        Set<String> liveKeys = new HashSet<>();
+        Set<String> assetIds = new HashSet<>();
+        for (AssetPriceHistory history : priceHistoryRepository.findBySourceOrderByTradingDateAsc(symbol)) {
+            String assetId = history.getAsset().getAssetId();
+            assetIds.add(assetId);
+            liveKeys.add(priceKey(assetId, history.getTradingDate()));
+            result.add(new AssetPriceHistoryDTO(assetId, history.getAsset().getName(), history.getTradingDate(),
+                    history.getClosingPrice(), history.getSource()));
+        }
+        assetRepository.findBySymbol(symbol).forEach(asset -> assetIds.add(asset.getAssetId()));
+        if (assetIds.isEmpty()) {
+            return result;
         }
-        for (int i = 1; i < priceHistory.size(); i++) {
-            double today = priceHistory.get(i).getClosingPrice();//closing price of asset on day i
-            double yesterday = priceHistory.get(i - 1).getClosingPrice();//closing price of asset on day i-1
-            returns.add((today - yesterday) / yesterday);//Dividing by yesterday converts the change into a relative change (return).
+        List<ArchivedPriceBlock> blocks = archiveRepository.findArchivedByAssetIds(assetIds);
+        if (blocks.isEmpty()) {
+            return result;
         }
-        return returns;
+        for (ArchivedPriceBlock block : blocks) {
+            result.addAll(archivedPrices(block, null, null, liveKeys));
+        }
+        result.sort(Comparator.comparing(AssetPriceHistoryDTO::getTradingDate));
+        return result;
+    }
+
+    // Archived prices of one block within [start, end] (null = open ended), skipping dates that have a live row
+    private static List<AssetPriceHistoryDTO> archivedPrices(ArchivedPriceBlock block, LocalDate start, LocalDate end,
+            Set<String> liveKeys) {
+        PriceSeries series = block.decode();
+        int from = start == null ? 0 : series.indexOnOrAfter((int) start.toEpochDay());
+        int to = end == null ? series.size() - 1 : series.indexOnOrBefore((int) end.toEpochDay());
+        List<AssetPriceHistoryDTO> prices = new ArrayList<>(Math.max(0, to - from + 1));
+        for (int i = from; i <= to; i++) {
+            LocalDate date = series.dateAt(i);
+            if (!liveKeys.contains(priceKey(block.getAssetId(), date))) {
+                prices.add(new AssetPriceHistoryDTO(block.getAssetId(), block.getAssetName(), date,
+                        series.closeAt(i), ARCHIVE_SOURCE));
+            }
+        }
+        return prices;
+    }
+
+    private static String priceKey(String assetId, LocalDate date) {
+        return assetId + ':' + date.toEpochDay();
+    }
+
+    /**
+     * Saves a new or changed price history row and keeps the price series cache in step.
+     * All price history writes should go through here rather than the repository directly,
+     * otherwise cached series become stale.
+     */
+    public AssetPriceHistory savePriceHistory(AssetPriceHistory history) {
+        AssetPriceHistory saved = priceHistoryRepository.save(history);
+        priceSeriesCache.recordPrice(saved.getAsset().getAssetId(), saved.getTradingDate(), saved.getClosingPrice());
+        return saved;
+    }
+
+    /**
+     * Saves an updated row whose asset or trading date may have changed.
+     * The previous (asset, date) entry is removed from the cache before the new one is recorded.
+     */
+    public AssetPriceHistory updatePriceHistory(AssetPriceHistory history, String previousAssetId, LocalDate previousDate) {
+        AssetPriceHistory saved = priceHistoryRepository.save(history);
+        priceSeriesCache.removePrice(previousAssetId, previousDate);
+        priceSeriesCache.recordPrice(saved.getAsset().getAssetId(), saved.getTradingDate(), saved.getClosingPrice());
+        return saved;
+    }
+
+    // Deletes a price history row and removes it from the cached series
+    public void deletePriceHistory(String priceHistoryId) {
+        AssetPriceHistory history = priceHistoryRepository.findById(priceHistoryId)
+            .orElseThrow(() -> new IllegalArgumentException("Price history not found: " + priceHistoryId));
+        priceHistoryRepository.delete(history);
+        priceSeriesCache.removePrice(history.getAsset().getAssetId(), history.getTradingDate());
     }
     
         /**
          * Imports price data from AlphaVantageClient and saves as AssetPriceHistory entities.
          * This method demonstrates how to map API data to JPA entity and persist it.
          *
+         * Refactored: duplicates used to be checked with one query per DTO and rows saved one by one.
+         * Now one range query fetches the dates already stored between the first and last DTO date,
+         * and the new rows are inserted together with JDBC batching.
+         *
          * @param assetId The ID of the asset to associate with the price history
          * @param priceData List of AlphaVantagePrice DTOs containing date and price (from AlphaVantageClient)
          * @param source The source string (e.g., "AlphaVantage")
+         * @return number of rows inserted (dates already stored are skipped)
          */
-        public void importPriceHistoryFromAlphaVantage(String assetId, List<AlphaVantagePriceDTO> priceData, String source) {
+        public int importPriceHistoryFromAlphaVantage(String assetId, List<AlphaVantagePriceDTO> priceData, String source) {
+            long started = System.nanoTime();
+            int inserted = importAlphaVantage(assetId, priceData, source);
+            // Rows without a date count as rejected, every other row not inserted was already stored
+            long undated = priceData.stream().filter(dto -> dto.getTradingDate() == null).count();
+            recordImport("alphavantage", started, inserted, priceData.size() - undated - inserted, undated);
+            return inserted;
+        }
+
+        private int importAlphaVantage(String assetId, List<AlphaVantagePriceDTO> priceData, String source) {
             // Find the Asset entity by ID
             Asset asset = assetRepository.findById(assetId)
                 .orElseThrow(() -> new IllegalArgumentException("Asset not found: " + assetId));
-            // For each price record, check for duplicates before saving
+            LocalDate first = null;
+            LocalDate last = null;
+            for (AlphaVantagePriceDTO dto : priceData) {
+                if (dto.getTradingDate() == null) {
+                    continue;
+                }
+                first = first == null || dto.getTradingDate().isBefore(first) ? dto.getTradingDate() : first;
+                last = last == null || dto.getTradingDate().isAfter(last) ? dto.getTradingDate() : last;
+            }
+            if (first == null) {
+                return 0; // nothing to import
+            }
+            // Dates already stored in the range, archived ones included; add() below also catches dates repeated in priceData
+            Set<LocalDate> stored = new HashSet<>(storedTradingDates(assetId, first, last));
+            List<AssetPriceHistory> toSave = new ArrayList<>();
             for (AlphaVantagePriceDTO dto : priceData) {
-                // Check if a price history already exists for this asset and trading date
-                List<AssetPriceHistory> existing = priceHistoryRepository.findByAsset_AssetIdAndTradingDateBetweenOrderByTradingDateAsc(
-                    assetId, dto.getTradingDate(), dto.getTradingDate());
-                if (existing.isEmpty()) {
+                if (dto.getTradingDate() != null && stored.add(dto.getTradingDate())) {
                     AssetPriceHistory history = new AssetPriceHistory();
                     history.setAsset(asset);
                     history.setTradingDate(dto.getTradingDate());
                     history.setClosingPrice(dto.getClosingPrice());
                     history.setSource(source);
-                    // Save only if not a duplicate
-                    priceHistoryRepository.save(history);
+                    toSave.add(history);
                 }
-                // If a record exists, skip to prevent duplicates
             }
             // This logic ensures only one price history per asset per date is stored.
+            batchWriter.persistAll(toSave);
+            updateCacheAfterInsert(assetId, toSave);
+            return toSave.size();
         }
-    
+
+    /**
+     * Streams CSV or NDJSON price rows into the database (see PriceHistoryRowReader for the layout).
+     *
+     * - Rows are read one line at a time and written in chunks of priceHistory.bulk.chunkSize,
+     *   each chunk in its own transaction with JDBC batch inserts (AssetPriceHistoryBatchWriter).
+     * - Duplicates are detected in memory: for every asset the dates already stored are fetched with
+     *   range queries (only for date ranges not fetched before) into a BitSet, which also catches
+     *   dates repeated within the input.
+     * - Unknown assets and unparseable lines are counted and reported, not fatal.
+     *
+     * @param input         request body stream
+     * @param format        CSV or NDJSON
+     * @param defaultSource source stored for rows that do not name one
+     * @return counts, elapsed time and rows/sec
+     */
+    public BulkPriceImportResultDTO bulkImportPriceHistory(InputStream input, PriceHistoryRowReader.Format format,
+            String defaultSource) throws IOException {
+        long started = System.nanoTime();
+        BulkPriceImportResultDTO result = new BulkPriceImportResultDTO();
+        result.setFormat(format.name());
+        Map<String, AssetImportState> assets = new HashMap<>();
+        List<PriceHistoryRowReader.Row> chunk = new ArrayList<>(bulkChunkSize);
+        try (PriceHistoryRowReader reader = new PriceHistoryRowReader(input, format, defaultSource)) {
+            PriceHistoryRowReader.Row row;
+            while ((row = reader.next()) != null) {
+                result.setRowsRead(result.getRowsRead() + 1);
+                if (row.error != null) {
+                    result.reject(row.error);
+                    continue;
+                }
+                if (row.tradingDate.isBefore(EARLIEST_DATE)) {
+                    result.reject("Line " + row.lineNumber + ": tradingDate before " + EARLIEST_DATE);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == bulkChunkSize) {
+                    writeChunk(chunk, assets, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, assets, result);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        result.setAssetCount((int) assets.values().stream().filter(state -> state.asset != null).count());
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setRowsPerSecond(elapsedNanos > 0 ? result.getRowsRead() * 1e9 / elapsedNanos : 0.0);
+        recordImport("bulk", started, result.getInserted(), result.getDuplicates(), result.getRejected());
+        return result;
+    }
+
+    /**
+     * Streams price history in [start, end], optionally for one asset, to output as CSV or NDJSON.
+     * Rows go from a forward-only database cursor straight to the writer one at a time, so memory use
+     * does not depend on the size of the range. output is closed when done.
+     * Archived prices in the range are written first, one block (a year of an asset) at a time, then the live
+     * rows. Live rows inside the archived period (saved after archiving) replace the archived price.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportPriceHistory(LocalDate start, LocalDate end, String assetId, PriceHistoryRowReader.Format format,
+            OutputStream output) throws IOException {
+        try (PriceHistoryRowWriter writer = new PriceHistoryRowWriter(output, format)) {
+            LocalDate archivedTo = archiveRepository.findLastArchivedDate(assetId);
+            if (archivedTo != null && !archivedTo.isBefore(start)) {
+                // Only live rows up to the last archived date can clash with an archived price; there are few
+                Set<String> liveKeys = new HashSet<>();
+                for (PricePoint point : priceHistoryRepository.findPricePointsBetween(start,
+                        archivedTo.isBefore(end) ? archivedTo : end, assetId)) {
+                    liveKeys.add(priceKey(point.getAssetId(), point.getTradingDate()));
+                }
+                try (Stream<ArchivedPriceBlock> blocks = archiveRepository.streamArchivedForExport(start, end, assetId)) {
+                    Iterator<ArchivedPriceBlock> iterator = blocks.iterator();
+                    while (iterator.hasNext()) {
+                        for (AssetPriceHistoryDTO row : archivedPrices(iterator.next(), start, end, liveKeys)) {
+                            writer.write(row);
+                        }
+                    }
+                }
+            }
+            try (Stream<AssetPriceHistoryDTO> rows = priceHistoryRepository.streamForExport(start, end, assetId)) {
+                Iterator<AssetPriceHistoryDTO> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                }
+            }
+            return writer.getRowCount();
+        }
+    }
+
+    // Dedups one chunk against the stored dates, inserts the new rows in one transaction and updates the cache
+    private void writeChunk(List<PriceHistoryRowReader.Row> chunk, Map<String, AssetImportState> assets,
+            BulkPriceImportResultDTO result) {
+        // Group by asset so each asset's stored dates are checked with one range query per chunk at most
+        Map<String, List<PriceHistoryRowReader.Row>> byAsset = new LinkedHashMap<>();
+        for (PriceHistoryRowReader.Row row : chunk) {
+            byAsset.computeIfAbsent(row.assetId, id -> new ArrayList<>()).add(row);
+        }
+        List<AssetPriceHistory> toSave = new ArrayList<>(chunk.size());
+        Map<String, List<AssetPriceHistory>> savedByAsset = new HashMap<>();
+        for (Map.Entry<String, List<PriceHistoryRowReader.Row>> entry : byAsset.entrySet()) {
+            String assetId = entry.getKey();
+            List<PriceHistoryRowReader.Row> rows = entry.getValue();
+            AssetImportState state = assets.computeIfAbsent(assetId,
+                    id -> new AssetImportState(assetRepository.findById(id).orElse(null)));
+            if (state.asset == null) {
+                for (PriceHistoryRowReader.Row row : rows) {
+                    result.reject("Line " + row.lineNumber + ": asset not found " + assetId);
+                }
+                continue;
+            }
+            int lo = Integer.MAX_VALUE;
+            int hi = Integer.MIN_VALUE;
+            for (PriceHistoryRowReader.Row row : rows) {
+                int day = dayIndex(row.tradingDate);
+                lo = Math.min(lo, day);
+                hi = Math.max(hi, day);
+            }
+            state.loadStoredDates(assetId, lo, hi);
+            for (PriceHistoryRowReader.Row row : rows) {
+                int day = dayIndex(row.tradingDate);
+                if (state.dates.get(day)) {
+                    result.setDuplicates(result.getDuplicates() + 1);
+                    continue;
+                }
+                state.dates.set(day);
+                AssetPriceHistory history = new AssetPriceHistory(row.tradingDate, row.closingPrice, row.source);
+                history.setAsset(state.asset);
+                toSave.add(history);
+                savedByAsset.computeIfAbsent(assetId, id -> new ArrayList<>()).add(history);
+            }
+        }
+        if (!toSave.isEmpty()) {
+            batchWriter.persistAll(toSave); // commits this chunk
+            result.setInserted(result.getInserted() + toSave.size());
+            result.setChunkCount(result.getChunkCount() + 1);
+            savedByAsset.forEach(this::updateCacheAfterInsert);
+        }
+    }
+
+    // Small inserts are applied to the cached series; big ones just evict it (reloaded on next use)
+    private void updateCacheAfterInsert(String assetId, List<AssetPriceHistory> inserted) {
+        if (inserted.isEmpty()) {
+            return;
+        }
+        if (inserted.size() > CACHE_RECORD_LIMIT) {
+            priceSeriesCache.evict(assetId);
+            return;
+        }
+        for (AssetPriceHistory history : inserted) {
+            priceSeriesCache.recordPrice(assetId, history.getTradingDate(), history.getClosingPrice());
+        }
+    }
+
+    /**
+     * Trading dates of an asset in [start, end] that are already stored, live or archived, so imports do not
+     * bring archived dates back as live rows. Ranges after the archive (the usual import) cost no block reads.
+     */
+    private List<LocalDate> storedTradingDates(String assetId, LocalDate start, LocalDate end) {
+        List<LocalDate> dates = new ArrayList<>(priceHistoryRepository.findTradingDatesByAssetIdBetween(assetId, start, end));
+        for (PriceArchiveBlock block : archiveRepository.findOverlapping(assetId, start, end)) {
+            PriceSeries series = PriceSeries.fromBlocks(List.of(block));
+            int to = series.indexOnOrBefore((int) end.toEpochDay());
+            for (int i = series.indexOnOrAfter((int) start.toEpochDay()); i <= to; i++) {
+                dates.add(series.dateAt(i));
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Latest stored trading date per asset, live or archived (the price sync cursor). Assets with no prices
+     * at all are absent.
+     */
+    public Map<String, LocalDate> getLastTradingDates(Collection<String> assetIds) {
+        Map<String, LocalDate> lastDates = new HashMap<>();
+        if (assetIds.isEmpty()) {
+            return lastDates;
+        }
+        for (LastTradingDate last : archiveRepository.findLastArchivedDates(assetIds)) {
+            lastDates.put(last.getAssetId(), last.getTradingDate());
+        }
+        for (LastTradingDate last : priceHistoryRepository.findLastTradingDates(assetIds)) {
+            lastDates.merge(last.getAssetId(), last.getTradingDate(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        return lastDates;
+    }
+
+    private static int dayIndex(LocalDate date) {
+        return (int) (date.toEpochDay() - EARLIEST_DATE.toEpochDay());
+    }
+
+    /**
+     * Per-asset state for one bulk import: the Asset (null if it does not exist), a bit per day
+     * that is already stored or already imported, and the day range whose stored dates were fetched.
+     */
+    private final class AssetImportState {
+        private final Asset asset;
+        private final BitSet dates = new BitSet();
+        private int checkedFrom = Integer.MAX_VALUE;
+        private int checkedTo = Integer.MIN_VALUE;
+
+        AssetImportState(Asset asset) {
+            this.asset = asset;
+        }
+
+        // Fetches stored dates only for the parts of [lo, hi] not fetched before
+        void loadStoredDates(String assetId, int lo, int hi) {
+            if (checkedFrom > checkedTo) {
+                fetch(assetId, lo, hi);
+                checkedFrom = lo;
+                checkedTo = hi;
+                return;
+            }
+            if (lo < checkedFrom) {
+                fetch(assetId, lo, checkedFrom - 1);
+                checkedFrom = lo;
+            }
+            if (hi > checkedTo) {
+                fetch(assetId, checkedTo + 1, hi);
+                checkedTo = hi;
+            }
+        }
+
+        private void fetch(String assetId, int from, int to) {
+            LocalDate start = EARLIEST_DATE.plusDays(from);
+            LocalDate end = EARLIEST_DATE.plusDays(to);
+            for (LocalDate stored : storedTradingDates(assetId, start, end)) {
+                dates.set(dayIndex(stored));
+            }
+        }
+    }
 
 }
@@ -0,0 +1,49 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Inserts a chunk of AssetPriceHistory rows in one transaction using JDBC batching.
+ * Same approach as RiskBatchWriter: persist() instead of saveAll() because the ids are pre-assigned
+ * UUIDs (saveAll would merge and SELECT every row first), flushing and clearing every batch.
+ *
+ * Price rows are tiny, so bulk imports use a larger JDBC batch than the global
+ * hibernate.jdbc.batch_size: fewer round trips, and with MySQL's rewriteBatchedStatements
+ * each batch is sent as one multi-row INSERT.
+ */
+@Component
+public class AssetPriceHistoryBatchWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${priceHistory.bulk.jdbcBatchSize:500}")
+    private int batchSize;
+
+    /**
+     * Persists the rows and commits when the method returns, so each call is one chunk of an import.
+     * Every row must already reference its Asset.
+     */
+    @Transactional
+    public void persistAll(List<AssetPriceHistory> rows) {
+        // Session-level override: only this transaction uses the bulk batch size
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (int i = 0; i < rows.size(); i++) {
+            entityManager.persist(rows.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
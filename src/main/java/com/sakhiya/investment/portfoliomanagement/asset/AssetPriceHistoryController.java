@@ -1,14 +1,24 @@
 package com.sakhiya.investment.portfoliomanagement.asset;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDate;
 
 import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantageClient;
 import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantagePriceDTO;
 import org.springframework.format.annotation.DateTimeFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/asset-price-history")
@@ -29,6 +39,14 @@ public class AssetPriceHistoryController {
     @Autowired
     private AssetHistoryService assetHistoryService;
 
+    // Moves old rows into compact archive blocks
+    @Autowired
+    private PriceArchiveService priceArchiveService;
+
+    // Incremental Alpha Vantage sync of all assets with a symbol (also run on a schedule when enabled)
+    @Autowired
+    private PriceHistorySyncService priceHistorySyncService;
+
     // Refactoring and created a helper method to avoid repetition, I had same
     // code(limiting the price history from external API to be 7 days only to avoid
     // so much data is returned) appearing more than one method
@@ -88,8 +106,9 @@ private AssetPriceHistoryDTO toDTOHelper(AssetPriceHistory priceHistory) {
                 .orElseThrow(() -> new IllegalArgumentException("Asset not found: " + dto.getAssetId()));
         // Link the AssetPriceHistory to the correct Asset
         priceHistory.setAsset(asset);
-        // Save the new AssetPriceHistory entity to the database and return it
-        return priceHistoryRepository.save(priceHistory);
+        // Save the new AssetPriceHistory entity to the database and return it.
+        // Saved through the service so the in-memory price series cache picks up the new close
+        return assetHistoryService.savePriceHistory(priceHistory);
     }
 
     // Get all price history records
@@ -101,9 +120,56 @@ private AssetPriceHistoryDTO toDTOHelper(AssetPriceHistory priceHistory) {
         LocalDate[] range = getDateRange(startDate, endDate);
         LocalDate start = range[0];
         LocalDate end = range[1];
-        //Using a custom repository method for date filtering as findall() does not take parameters
-        List<AssetPriceHistory> priceObs = priceHistoryRepository.findByTradingDateBetweenOrderByTradingDateAsc(start, end);
-        return priceObs.stream().map(this::toDTOHelper).toList();
+        // Through the service so ranges reaching into archived years still return those prices
+        return assetHistoryService.getPriceHistory(start, end);
+    }
+
+    /**
+     * Streaming export of a date range, e.g.
+     * curl --compressed "/api/asset-price-history/export?startDate=2000-01-01&endDate=2025-12-31&format=ndjson"
+     * Unlike GET /api/asset-price-history, rows are written to the response as they are read from the
+     * database (StreamingResponseBody) instead of being collected into a List first, so a multi-year,
+     * all-asset export uses the same memory as a one-day one.
+     * format is csv (default) or ndjson, assetId is optional, and the body is gzipped when the
+     * client sends Accept-Encoding: gzip. The CSV can be posted back to /bulk as-is.
+     * Archived years are included (source ARCHIVE), written before the live rows.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportPriceHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String assetId,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        LocalDate[] range = getDateRange(startDate, endDate);
+        PriceHistoryRowReader.Format resolved;
+        try {
+            resolved = PriceHistoryRowReader.Format.resolve(format, null);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+        if (range[0].isAfter(range[1])) {
+            return ResponseEntity.badRequest().body("startDate must not be after endDate");
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        String assetFilter = assetId == null || assetId.isBlank() ? null : assetId;
+
+        // Runs after this method returns, on an MVC async thread; the service opens its own read-only transaction
+        StreamingResponseBody body = output -> assetHistoryService.exportPriceHistory(range[0], range[1], assetFilter,
+                resolved, gzip ? new GZIPOutputStream(output, 1 << 16) : output);
+
+        String extension = resolved == PriceHistoryRowReader.Format.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(resolved == PriceHistoryRowReader.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"price-history-"
+                        + range[0] + "_" + range[1] + "." + extension + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     // Get price history by ID
@@ -121,22 +187,23 @@ private AssetPriceHistoryDTO toDTOHelper(AssetPriceHistory priceHistory) {
     public AssetPriceHistory updatePriceHistory(@PathVariable String id, @RequestBody AssetPriceHistoryDTO dto) {
         AssetPriceHistory history = priceHistoryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Price history not found: " + id));
+        // Remember the old key so the cached series can drop it if the asset or date changes
+        String previousAssetId = history.getAsset().getAssetId();
+        LocalDate previousDate = history.getTradingDate();
         history.setTradingDate(dto.getTradingDate());
         history.setClosingPrice(dto.getClosingPrice());
         history.setSource(dto.getSource());
         Asset asset = assetRepository.findById(dto.getAssetId())
                 .orElseThrow(() -> new IllegalArgumentException("Asset not found: " + dto.getAssetId()));
         history.setAsset(asset);
-        return priceHistoryRepository.save(history);
+        return assetHistoryService.updatePriceHistory(history, previousAssetId, previousDate);
     }
 
     // Delete price history by ID
     @DeleteMapping("/{id}")
     public void deletePriceHistory(@PathVariable String id) {
-        if (!priceHistoryRepository.existsById(id)) {
-            throw new IllegalArgumentException("Price history not found: " + id);
-        }
-        priceHistoryRepository.deleteById(id);
+        // Service throws IllegalArgumentException if the id does not exist, and updates the cached series
+        assetHistoryService.deletePriceHistory(id);
     }
 
     // Get all price history for a specific asset
@@ -155,18 +222,15 @@ private AssetPriceHistoryDTO toDTOHelper(AssetPriceHistory priceHistory) {
             LocalDate[] range = getDateRange(startDate, endDate);
             LocalDate start = range[0];
             LocalDate end = range[1];
-        List<AssetPriceHistory> entities = priceHistoryRepository
-                .findByAsset_AssetIdAndTradingDateBetweenOrderByTradingDateAsc(assetId, start, end);
-        return entities.stream().map(this::toDTOHelper).toList();
+        // Through the service so ranges reaching into archived years still return those prices
+        return assetHistoryService.getPriceHistory(assetId, start, end);
 
     }
 
-    // Get all price history for a specific asset symbol (e.g., IBM)
+    // Get all price history for a specific asset symbol (e.g., IBM), archived years included
     @GetMapping("/symbol/{symbol}")
     public List<AssetPriceHistoryDTO> getPriceHistoryBySymbol(@PathVariable String symbol) {
-        List<AssetPriceHistory> pricHistoryeObs = priceHistoryRepository.findBySourceOrderByTradingDateAsc(symbol);
-        return pricHistoryeObs.stream().map(this::toDTOHelper).toList();
-
+        return assetHistoryService.getPriceHistoryBySource(symbol);
     }
 
     /**
@@ -201,8 +265,69 @@ private AssetPriceHistoryDTO toDTOHelper(AssetPriceHistory priceHistory) {
             // In case external AlphaVantage API is unreachable or returns an error or there
             // is a problem with filtering or processing the data or any other unexpected
             // runtime error
+        } catch (HttpTimeoutException ex) {
+            // Alpha Vantage is slow or the rate limit queue is long: worth retrying later
+            return ResponseEntity.status(503).body("Failed to import price history: " + ex.getMessage());
         } catch (Exception ex) {
             return ResponseEntity.status(500).body("Failed to import price history: " + ex.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Bulk load of price history from a streamed CSV or NDJSON body, e.g.
+     * curl -X POST -H "Content-Type: text/csv" --data-binary @prices.csv /api/asset-price-history/bulk
+     * The format comes from the format parameter (csv, ndjson) or else the Content-Type.
+     * Rows are inserted in committed chunks, so a failure part way keeps the chunks already written.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkImport(
+            InputStream body,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "BULK") String source) {
+        try {
+            PriceHistoryRowReader.Format resolved = PriceHistoryRowReader.Format.resolve(format, contentType);
+            return ResponseEntity.ok(assetHistoryService.bulkImportPriceHistory(body, resolved, source));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IOException ex) {
+            return ResponseEntity.status(500).body("Failed to read import stream: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Starts an incremental sync of every asset with a symbol: only prices after the latest stored
+     * date are requested and written. Returns 202 straight away; progress is at GET /sync.
+     */
+    @PostMapping("/sync")
+    public ResponseEntity<PriceSyncStatusDTO> startSync() {
+        try {
+            priceHistorySyncService.startSync();
+            return ResponseEntity.accepted().body(priceHistorySyncService.getStatus());
+        } catch (IllegalStateException ex) {
+            // already running: 409 with the progress of the run in flight
+            return ResponseEntity.status(409).body(priceHistorySyncService.getStatus());
+        }
+    }
+
+    /**
+     * Archives price rows older than the given date (default: priceHistory.archive.retentionDays ago)
+     * into compact per-asset, per-year blocks. Archived prices are still returned by
+     * GET /asset/{assetId} and used by risk calculations, but are no longer individual rows.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<?> archivePriceHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        try {
+            return ResponseEntity.ok(before == null ? priceArchiveService.archive() : priceArchiveService.archiveBefore(before));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // Progress of the current sync run, or the result of the last one
+    @GetMapping("/sync")
+    public PriceSyncStatusDTO getSyncStatus() {
+        return priceHistorySyncService.getStatus();
+    }
+}
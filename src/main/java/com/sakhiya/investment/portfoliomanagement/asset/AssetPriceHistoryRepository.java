@@ -1,11 +1,20 @@
 package com.sakhiya.investment.portfoliomanagement.asset;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface AssetPriceHistoryRepository extends ListCrudRepository<AssetPriceHistory, String> {
     List<AssetPriceHistory> findByAsset_AssetIdOrderByTradingDateAsc(String assetId);
@@ -16,4 +25,74 @@ List<AssetPriceHistory> findByAsset_AssetIdAndTradingDateBetweenOrderByTradingDa
     //returns trading price history for 7 days start to end
 
     List<AssetPriceHistory> findByTradingDateBetweenOrderByTradingDateAsc(LocalDate start, LocalDate end);
-}
\ No newline at end of file
+
+    // Only the (date, close) columns for one asset, oldest first. Used by PriceSeriesCache so the
+    // price series is built without hydrating AssetPriceHistory entities or their Asset
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.PricePoint(p.asset.assetId, p.tradingDate, p.closingPrice) "
+            + "from AssetPriceHistory p where p.asset.assetId = :assetId order by p.tradingDate asc")
+    List<PricePoint> findPricePointsByAssetId(@Param("assetId") String assetId);
+
+    // Same projection for many assets in one round trip, grouped by asset then oldest first.
+    // Used to warm the cache for a whole portfolio instead of one query per asset
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.PricePoint(p.asset.assetId, p.tradingDate, p.closingPrice) "
+            + "from AssetPriceHistory p where p.asset.assetId in :assetIds order by p.asset.assetId asc, p.tradingDate asc")
+    List<PricePoint> findPricePointsByAssetIds(@Param("assetIds") Collection<String> assetIds);
+
+    // Row count, latest date and close sum of every asset's live rows in one grouped query.
+    // PriceSeriesFileStore compares them with the values saved beside each local series file
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.PriceHistoryWatermark("
+            + "p.asset.assetId, count(p), max(p.tradingDate), sum(p.closingPrice)) "
+            + "from AssetPriceHistory p group by p.asset.assetId")
+    List<PriceHistoryWatermark> findWatermarks();
+
+    // (date, close) rows of an asset before a cutoff, oldest first: the rows PriceArchiveWriter packs into blocks
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.PricePoint(p.asset.assetId, p.tradingDate, p.closingPrice) "
+            + "from AssetPriceHistory p where p.asset.assetId = :assetId and p.tradingDate < :cutoff order by p.tradingDate asc")
+    List<PricePoint> findPricePointsByAssetIdBefore(@Param("assetId") String assetId, @Param("cutoff") LocalDate cutoff);
+
+    // (asset, date, close) of the live rows in a range, optionally for one asset. The export reads the live rows
+    // inside the archived period with it, since those override the archived price for the same date
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.PricePoint(p.asset.assetId, p.tradingDate, p.closingPrice) "
+            + "from AssetPriceHistory p where p.tradingDate between :start and :end "
+            + "and (:assetId is null or p.asset.assetId = :assetId)")
+    List<PricePoint> findPricePointsBetween(@Param("start") LocalDate start, @Param("end") LocalDate end,
+            @Param("assetId") String assetId);
+
+    // Assets that still have live rows before the cutoff, i.e. something left to archive
+    @Query("select distinct p.asset.assetId from AssetPriceHistory p where p.tradingDate < :cutoff")
+    List<String> findAssetIdsWithPricesBefore(@Param("cutoff") LocalDate cutoff);
+
+    // One bulk DELETE for the rows just archived, instead of loading and removing them one by one
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from AssetPriceHistory p where p.asset.assetId = :assetId and p.tradingDate < :cutoff")
+    int deleteByAssetIdBefore(@Param("assetId") String assetId, @Param("cutoff") LocalDate cutoff);
+
+    // Only the trading dates stored for an asset in a range. Used to skip duplicates on import
+    // with one query instead of one lookup per imported row
+    @Query("select p.tradingDate from AssetPriceHistory p where p.asset.assetId = :assetId "
+            + "and p.tradingDate between :start and :end")
+    List<LocalDate> findTradingDatesByAssetIdBetween(@Param("assetId") String assetId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Latest stored trading date per asset, one grouped query for all assets. This is the sync cursor:
+    // PriceHistorySyncService only requests and writes prices after it. Assets without rows are absent
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.LastTradingDate(p.asset.assetId, max(p.tradingDate)) "
+            + "from AssetPriceHistory p where p.asset.assetId in :assetIds group by p.asset.assetId")
+    List<LastTradingDate> findLastTradingDates(@Param("assetIds") Collection<String> assetIds);
+
+    // Rows fetched from the driver per round trip while streaming an export.
+    // (MySQL Connector/J only honours it with useCursorFetch=true on the JDBC URL, otherwise it buffers the whole result)
+    int EXPORT_FETCH_SIZE = 1000;
+
+    // Export rows for a date range (optionally one asset) as a forward-only stream of DTOs, oldest first.
+    // The projection means no AssetPriceHistory or Asset entity enters the persistence context, so memory
+    // stays flat however long the range is. Must be consumed inside a transaction and closed afterwards.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistoryDTO("
+            + "a.assetId, a.name, p.tradingDate, p.closingPrice, p.source) "
+            + "from AssetPriceHistory p join p.asset a "
+            + "where p.tradingDate between :start and :end and (:assetId is null or a.assetId = :assetId) "
+            + "order by p.tradingDate asc, a.assetId asc")
+    Stream<AssetPriceHistoryDTO> streamForExport(@Param("start") LocalDate start, @Param("end") LocalDate end,
+            @Param("assetId") String assetId);
+}
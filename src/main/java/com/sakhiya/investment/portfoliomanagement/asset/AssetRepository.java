@@ -1,8 +1,11 @@
 package com.sakhiya.investment.portfoliomanagement.asset;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -18,6 +21,12 @@ public interface AssetRepository extends ListCrudRepository<Asset, String> {
     List<Asset> findByName(String name);
     // If I use asset name as symbol, I can use findByName for symbol lookup.
 
+    // Assets with a market data symbol, i.e. the ones the Alpha Vantage sync keeps up to date
+    List<Asset> findBySymbolIsNotNull();
+
+    // Assets traded under a market data symbol (e.g. "IBM")
+    List<Asset> findBySymbol(String symbol);
+
     // Find assets by value greater than or equal to
     List<Asset> findByValueGreaterThanEqual(Double value);
 
@@ -30,6 +39,14 @@ public interface AssetRepository extends ListCrudRepository<Asset, String> {
     // Find assets by portfolio ID
     List<Asset> findByPortfolio_PortfolioId(String portfolioId);
 
+    // Find assets belonging to any of the given portfolios (one query for batch risk runs)
+    List<Asset> findByPortfolio_PortfolioIdIn(Collection<String> portfolioIds);
+
+    // (portfolioId, assetId, name) rows for a page of portfolios, without loading Asset entities or their risks
+    @Query("select a.portfolio.portfolioId, a.assetId, a.name from Asset a "
+            + "where a.portfolio.portfolioId in :portfolioIds order by a.name asc")
+    List<Object[]> findIdsAndNamesByPortfolioIds(@Param("portfolioIds") Collection<String> portfolioIds);
+
     // Find assets by name containing substring (case-insensitive)
     List<Asset> findByNameContainingIgnoreCase(String substring);
 
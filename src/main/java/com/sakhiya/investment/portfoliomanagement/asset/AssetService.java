@@ -45,6 +45,8 @@ public class AssetService {
             // Only update fields that are allowed to change
             existingAsset.setName(updatedAsset.getName());
             existingAsset.setValue(updatedAsset.getValue());
+            existingAsset.setSymbol(updatedAsset.getSymbol());
+            existingAsset.setAssetClass(updatedAsset.getAssetClass());
             existingAsset.setPortfolio(updatedAsset.getPortfolio());
             existingAsset.setRisks(updatedAsset.getRisks());
 
@@ -144,6 +146,14 @@ public class AssetService {
         if (asset.getPortfolio() == null) {
             throw new IllegalArgumentException("Asset must be associated with a portfolio");
         }
+        // Symbol is optional, but if given it is sent to Alpha Vantage as is, so no blanks or whitespace
+        if (asset.getSymbol() != null && !asset.getSymbol().matches("[A-Za-z0-9.\\-]{1,16}")) {
+            throw new IllegalArgumentException("Asset symbol must be 1-16 letters, digits, '.' or '-'");
+        }
+        // Asset class is optional; stress scenarios match it case-insensitively (stored upper case)
+        if (asset.getAssetClass() != null && !asset.getAssetClass().matches("[A-Z0-9_]{1,32}")) {
+            throw new IllegalArgumentException("Asset class must be 1-32 letters, digits or '_'");
+        }
         // Risks can be null or empty, but if present, each risk must have a type
         if (asset.getRisks() != null) {
             asset.getRisks().forEach(risk -> {
@@ -0,0 +1,64 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary returned by POST /api/asset-price-history/bulk.
+ * rowsRead = inserted + duplicates + rejected.
+ */
+public class BulkPriceImportResultDTO {
+    // Only the first few problems are listed so a bad file cannot produce a huge response
+    public static final int MAX_ERRORS = 20;
+
+    private String format;
+    private long rowsRead;
+    private long inserted;
+    private long duplicates; // already stored (or repeated in the input) for the same asset and date
+    private long rejected; // unparseable lines or unknown assets
+    private int assetCount;
+    private int chunkCount; // transactions committed
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<String> errors = new ArrayList<>();
+
+    public BulkPriceImportResultDTO() {}
+
+    // Records a rejected row, keeping its message only while the error list is short
+    public void reject(String error) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+
+    public long getDuplicates() { return duplicates; }
+    public void setDuplicates(long duplicates) { this.duplicates = duplicates; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public int getAssetCount() { return assetCount; }
+    public void setAssetCount(int assetCount) { this.assetCount = assetCount; }
+
+    public int getChunkCount() { return chunkCount; }
+    public void setChunkCount(int chunkCount) { this.chunkCount = chunkCount; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+}
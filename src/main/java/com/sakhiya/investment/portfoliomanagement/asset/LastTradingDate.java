@@ -0,0 +1,25 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+
+/**
+ * (assetId, latest stored trading date) projection, loaded with a JPQL constructor expression
+ * like PricePoint so the grouped max query never builds entities.
+ */
+public class LastTradingDate {
+    private final String assetId;
+    private final LocalDate tradingDate;
+
+    public LastTradingDate(String assetId, LocalDate tradingDate) {
+        this.assetId = assetId;
+        this.tradingDate = tradingDate;
+    }
+
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public LocalDate getTradingDate() {
+        return tradingDate;
+    }
+}
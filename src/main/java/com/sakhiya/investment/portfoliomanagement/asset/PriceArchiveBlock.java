@@ -0,0 +1,73 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * One calendar year of an asset's archived closing prices, packed by PriceBlockCodec.
+ *
+ * An AssetPriceHistory row costs well over 100 bytes once the CHAR(36) key, the asset foreign key,
+ * the source text and both indexes are counted. A block stores a year (~252 rows) in about 1.5 KB,
+ * roughly 6 bytes per row. Source and asset name are not kept, only (date, close).
+ *
+ * assetId is a plain column rather than a @ManyToOne so reading blocks never loads the Asset.
+ */
+@Entity
+@Table(name = "price_archive_block", indexes = @Index(name = "idx_price_archive_asset_year", columnList = "asset_id, block_year", unique = true))
+public class PriceArchiveBlock {
+    @Id
+    @Column(name = "block_id", columnDefinition = "CHAR(36)")
+    private String blockId = UUID.randomUUID().toString();
+
+    @Column(name = "asset_id", columnDefinition = "CHAR(36)", nullable = false)
+    private String assetId;
+    @Column(name = "block_year", nullable = false)
+    private int year;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+    private int rowCount;
+    private byte codecVersion;
+
+    @Lob // up to a year of rows; Hibernate picks the blob type for the dialect (e.g. MEDIUMBLOB on MySQL for this length)
+    @Column(nullable = false, length = 1 << 20)
+    private byte[] payload;
+
+    public PriceArchiveBlock() {} // for JPA
+
+    public PriceArchiveBlock(String assetId, int year) {
+        this.assetId = assetId;
+        this.year = year;
+    }
+
+    public String getBlockId() { return blockId; }
+
+    public String getAssetId() { return assetId; }
+
+    public int getYear() { return year; }
+
+    public LocalDate getFirstDate() { return firstDate; }
+
+    public LocalDate getLastDate() { return lastDate; }
+
+    public int getRowCount() { return rowCount; }
+
+    public byte getCodecVersion() { return codecVersion; }
+
+    public byte[] getPayload() { return payload; }
+
+    // Replaces the block content with rows [from, to) of the two columns (dates strictly ascending)
+    void setRows(int[] epochDays, double[] closes, int from, int to) {
+        this.payload = PriceBlockCodec.encode(epochDays, closes, from, to);
+        this.codecVersion = PriceBlockCodec.VERSION;
+        this.rowCount = to - from;
+        this.firstDate = LocalDate.ofEpochDay(epochDays[from]);
+        this.lastDate = LocalDate.ofEpochDay(epochDays[to - 1]);
+    }
+}
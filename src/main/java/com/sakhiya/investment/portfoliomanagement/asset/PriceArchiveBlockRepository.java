@@ -0,0 +1,64 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface PriceArchiveBlockRepository extends ListCrudRepository<PriceArchiveBlock, String> {
+
+    // All blocks of an asset, oldest first (blocks never overlap: one per asset and year)
+    List<PriceArchiveBlock> findByAssetIdOrderByYearAsc(String assetId);
+
+    // Same for many assets in one query, grouped by asset, used by PriceSeriesCache.getAll
+    List<PriceArchiveBlock> findByAssetIdInOrderByAssetIdAscYearAsc(Collection<String> assetIds);
+
+    // Blocks of an asset that overlap [start, end]
+    @Query("select b from PriceArchiveBlock b where b.assetId = :assetId "
+            + "and b.lastDate >= :start and b.firstDate <= :end order by b.year asc")
+    List<PriceArchiveBlock> findOverlapping(@Param("assetId") String assetId, @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    List<PriceArchiveBlock> findByAssetIdAndYearIn(String assetId, Collection<Integer> years);
+
+    // Latest archived date (of one asset, or of all when assetId is null); null when nothing is archived
+    @Query("select max(b.lastDate) from PriceArchiveBlock b where (:assetId is null or b.assetId = :assetId)")
+    LocalDate findLastArchivedDate(@Param("assetId") String assetId);
+
+    // Latest archived date per asset, like AssetPriceHistoryRepository.findLastTradingDates; assets without blocks are absent
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.LastTradingDate(b.assetId, max(b.lastDate)) "
+            + "from PriceArchiveBlock b where b.assetId in :assetIds group by b.assetId")
+    List<LastTradingDate> findLastArchivedDates(@Param("assetIds") Collection<String> assetIds);
+
+    // Payload and asset name of every block overlapping [start, end], oldest year first (GET /api/asset-price-history)
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.ArchivedPriceBlock(b.assetId, a.name, b.payload) "
+            + "from PriceArchiveBlock b, Asset a where a.assetId = b.assetId "
+            + "and b.lastDate >= :start and b.firstDate <= :end order by b.year asc, b.assetId asc")
+    List<ArchivedPriceBlock> findArchivedBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Every block of the given assets (GET /api/asset-price-history/symbol/{symbol})
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.ArchivedPriceBlock(b.assetId, a.name, b.payload) "
+            + "from PriceArchiveBlock b, Asset a where a.assetId = b.assetId "
+            + "and b.assetId in :assetIds order by b.year asc, b.assetId asc")
+    List<ArchivedPriceBlock> findArchivedByAssetIds(@Param("assetIds") Collection<String> assetIds);
+
+    // Same as findArchivedBetween, optionally for one asset, as a forward-only stream for the export.
+    // A block is ~1.5 KB, so a few hundred per round trip. Must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("select new com.sakhiya.investment.portfoliomanagement.asset.ArchivedPriceBlock(b.assetId, a.name, b.payload) "
+            + "from PriceArchiveBlock b, Asset a where a.assetId = b.assetId "
+            + "and b.lastDate >= :start and b.firstDate <= :end and (:assetId is null or b.assetId = :assetId) "
+            + "order by b.year asc, b.assetId asc")
+    Stream<ArchivedPriceBlock> streamArchivedForExport(@Param("start") LocalDate start, @Param("end") LocalDate end,
+            @Param("assetId") String assetId);
+}
@@ -0,0 +1,39 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of POST /api/asset-price-history/archive: how many live rows were packed into
+ * archive blocks and how much space the blocks take.
+ */
+public class PriceArchiveResultDTO {
+    private LocalDate cutoff; // rows with tradingDate before this were archived
+    private int assetsArchived;
+    private long rowsArchived;
+    private int blocksWritten; // new or rewritten blocks
+    private long payloadBytes; // total encoded size of the blocks written
+    private long elapsedMillis;
+
+    public PriceArchiveResultDTO() {}
+
+    public LocalDate getCutoff() { return cutoff; }
+    public void setCutoff(LocalDate cutoff) { this.cutoff = cutoff; }
+
+    public int getAssetsArchived() { return assetsArchived; }
+    public void setAssetsArchived(int assetsArchived) { this.assetsArchived = assetsArchived; }
+
+    public long getRowsArchived() { return rowsArchived; }
+    public void setRowsArchived(long rowsArchived) { this.rowsArchived = rowsArchived; }
+
+    public int getBlocksWritten() { return blocksWritten; }
+    public void setBlocksWritten(int blocksWritten) { this.blocksWritten = blocksWritten; }
+
+    public long getPayloadBytes() { return payloadBytes; }
+    public void setPayloadBytes(long payloadBytes) { this.payloadBytes = payloadBytes; }
+
+    // Encoded bytes per archived price (a live row is well over 100 bytes with its keys and indexes)
+    public double getBytesPerRow() { return rowsArchived == 0 ? 0.0 : (double) payloadBytes / rowsArchived; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+}
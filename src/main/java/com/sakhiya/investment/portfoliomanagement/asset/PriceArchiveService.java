@@ -0,0 +1,60 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Archive tier for old price history. Rows older than the retention window are moved out of
+ * AssetPriceHistory into compact per-asset, per-year PriceArchiveBlock rows (see PriceBlockCodec).
+ *
+ * Reads stay transparent: PriceSeriesCache merges blocks with live rows when it loads a series (VaR and
+ * the other risk calculations), and AssetHistoryService.getPriceHistory does the same for date ranges.
+ */
+@Service
+public class PriceArchiveService {
+
+    private final AssetPriceHistoryRepository priceHistoryRepository;
+    private final PriceArchiveWriter archiveWriter;
+    private final PriceSeriesCache priceSeriesCache;
+
+    // Prices newer than this many days stay as normal rows (editable, with their source)
+    @Value("${priceHistory.archive.retentionDays:730}")
+    private int retentionDays = 730;
+
+    public PriceArchiveService(AssetPriceHistoryRepository priceHistoryRepository, PriceArchiveWriter archiveWriter,
+            PriceSeriesCache priceSeriesCache) {
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.archiveWriter = archiveWriter;
+        this.priceSeriesCache = priceSeriesCache;
+    }
+
+    // Archives everything older than the configured retention window
+    public PriceArchiveResultDTO archive() {
+        return archiveBefore(LocalDate.now().minusDays(retentionDays));
+    }
+
+    /**
+     * Archives every live row with tradingDate before cutoff. Each asset is archived in its own
+     * transaction, so a failure part way keeps the assets already done.
+     *
+     * @throws IllegalArgumentException if cutoff is null or in the future
+     */
+    public PriceArchiveResultDTO archiveBefore(LocalDate cutoff) {
+        if (cutoff == null || cutoff.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Archive cutoff must be a date not in the future");
+        }
+        long started = System.nanoTime();
+        PriceArchiveResultDTO result = new PriceArchiveResultDTO();
+        result.setCutoff(cutoff);
+        for (String assetId : priceHistoryRepository.findAssetIdsWithPricesBefore(cutoff)) {
+            archiveWriter.archiveAsset(assetId, cutoff, result);
+            // The prices are unchanged, but the cached series was built from rows that no longer exist
+            priceSeriesCache.evict(assetId);
+        }
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return result;
+    }
+}
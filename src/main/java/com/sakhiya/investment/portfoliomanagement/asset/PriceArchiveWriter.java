@@ -0,0 +1,83 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves one asset's old price rows into archive blocks in a single transaction, like
+ * AssetPriceHistoryBatchWriter does for inserts: either the blocks are written and the rows
+ * deleted together, or nothing changes.
+ */
+@Component
+public class PriceArchiveWriter {
+
+    private final AssetPriceHistoryRepository priceHistoryRepository;
+    private final PriceArchiveBlockRepository archiveRepository;
+
+    public PriceArchiveWriter(AssetPriceHistoryRepository priceHistoryRepository,
+            PriceArchiveBlockRepository archiveRepository) {
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.archiveRepository = archiveRepository;
+    }
+
+    /**
+     * Packs the asset's rows before cutoff into one block per calendar year, merging into a block that
+     * already exists for that year (a later cutoff in the same year), then bulk-deletes the rows.
+     * Rows without a closing price carry nothing to archive and are just deleted.
+     */
+    @Transactional
+    public void archiveAsset(String assetId, LocalDate cutoff, PriceArchiveResultDTO result) {
+        List<PricePoint> points = priceHistoryRepository.findPricePointsByAssetIdBefore(assetId, cutoff);
+        if (points.isEmpty()) {
+            return;
+        }
+        PriceSeries live = PriceSeries.fromPoints(points);
+        int[] days = live.epochDays();
+        double[] closes = live.closes();
+
+        Set<Integer> years = new HashSet<>();
+        for (int day : days) {
+            years.add(LocalDate.ofEpochDay(day).getYear());
+        }
+        Map<Integer, PriceArchiveBlock> existing = new HashMap<>();
+        for (PriceArchiveBlock block : archiveRepository.findByAssetIdAndYearIn(assetId, years)) {
+            existing.put(block.getYear(), block);
+        }
+
+        int from = 0;
+        while (from < days.length) {
+            int year = LocalDate.ofEpochDay(days[from]).getYear();
+            int to = from;
+            while (to < days.length && LocalDate.ofEpochDay(days[to]).getYear() == year) {
+                to++;
+            }
+            PriceArchiveBlock block = existing.get(year);
+            if (block == null) {
+                block = new PriceArchiveBlock(assetId, year);
+                block.setRows(days, closes, from, to);
+            } else {
+                // Live rows win over what was archived before for the same date
+                PriceSeries merged = PriceSeries.merge(PriceSeries.fromBlocks(List.of(block)),
+                        new PriceSeries(Arrays.copyOfRange(days, from, to),
+                                Arrays.copyOfRange(closes, from, to), to - from));
+                block.setRows(merged.epochDays(), merged.closes(), 0, merged.size());
+            }
+            archiveRepository.save(block);
+            result.setBlocksWritten(result.getBlocksWritten() + 1);
+            result.setPayloadBytes(result.getPayloadBytes() + block.getPayload().length);
+            from = to;
+        }
+
+        int deleted = priceHistoryRepository.deleteByAssetIdBefore(assetId, cutoff);
+        result.setRowsArchived(result.getRowsArchived() + deleted);
+        result.setAssetsArchived(result.getAssetsArchived() + 1);
+    }
+}
@@ -0,0 +1,221 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.util.Arrays;
+
+/**
+ * Bit-packed encoding of one block of (epoch-day, close) pairs for the price archive (PriceArchiveBlock).
+ *
+ * Based on the Gorilla time-series format (Pelkonen et al., "Gorilla: A Fast, Scalable, In-Memory
+ * Time Series Database", VLDB 2015), with days instead of timestamps:
+ *
+ * Header: 8-bit version, 32-bit row count, 32-bit first epoch day, 64-bit first close.
+ * Then per row, the date followed by the close:
+ * - Date: delta-of-delta against the previous gap between days (starting from 1).
+ *   Trading days are mostly 1 apart with a 3-day gap over weekends, so most rows cost 1 bit.
+ *     '0'                        same gap as before
+ *     '10'  + 4 bits             change of -8..7
+ *     '110' + 9 bits             change of -256..255
+ *     '111' + 32 bits            the gap itself
+ * - Close: XOR with the previous close's IEEE-754 bits. Neighbouring prices share sign, exponent and
+ *   high mantissa bits, so only the differing "meaningful" bits in the middle are stored.
+ *     '0'                                       same close
+ *     '10' + meaningful bits                    fits in the previous leading/trailing-zero window
+ *     '11' + 5 bits leading zeros + 6 bits (length - 1) + meaningful bits
+ *
+ * Closes are stored bit-exact (NaN and infinities included), so decode(encode(x)) == x.
+ */
+final class PriceBlockCodec {
+
+    static final byte VERSION = 1;
+
+    private PriceBlockCodec() {
+    }
+
+    /**
+     * Encodes rows [from, to) of the two columns. Days must be strictly ascending.
+     *
+     * @throws IllegalArgumentException if the range is empty or the days are not strictly ascending
+     */
+    static byte[] encode(int[] epochDays, double[] closes, int from, int to) {
+        if (from < 0 || to > epochDays.length || to > closes.length || from >= to) {
+            throw new IllegalArgumentException("Nothing to encode in range [" + from + ", " + to + ")");
+        }
+        // ~6 bytes per row is typical for daily prices; the writer grows if needed
+        BitWriter out = new BitWriter(24 + (to - from) * 6);
+        out.write(VERSION, 8);
+        out.write(to - from, 32);
+        out.write(epochDays[from], 32);
+        long previousBits = Double.doubleToRawLongBits(closes[from]);
+        out.write(previousBits, 64);
+
+        int previousDay = epochDays[from];
+        int previousGap = 1;
+        int previousLeading = Integer.MAX_VALUE; // no window yet, so the first changed close writes one
+        int previousTrailing = 0;
+        for (int i = from + 1; i < to; i++) {
+            int day = epochDays[i];
+            if (day <= previousDay) {
+                throw new IllegalArgumentException("Days must be strictly ascending at index " + i);
+            }
+            int gap = day - previousDay;
+            int change = gap - previousGap;
+            if (change == 0) {
+                out.write(0b0, 1);
+            } else if (change >= -8 && change <= 7) {
+                out.write(0b10, 2);
+                out.write(change + 8, 4);
+            } else if (change >= -256 && change <= 255) {
+                out.write(0b110, 3);
+                out.write(change + 256, 9);
+            } else {
+                out.write(0b111, 3);
+                out.write(gap, 32);
+            }
+            previousDay = day;
+            previousGap = gap;
+
+            long bits = Double.doubleToRawLongBits(closes[i]);
+            long xor = bits ^ previousBits;
+            if (xor == 0) {
+                out.write(0b0, 1);
+            } else {
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31); // 5-bit field
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (leading >= previousLeading && trailing >= previousTrailing) {
+                    out.write(0b10, 2);
+                    out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int meaningful = 64 - leading - trailing;
+                    out.write(0b11, 2);
+                    out.write(leading, 5);
+                    out.write(meaningful - 1, 6);
+                    out.write(xor >>> trailing, meaningful);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previousBits = bits;
+        }
+        return out.toByteArray();
+    }
+
+    // Row count from the header, so callers can size their arrays before decoding
+    static int rowCount(byte[] payload) {
+        checkHeader(payload);
+        return (int) new BitReader(payload, 8).read(32);
+    }
+
+    /**
+     * Decodes a block into the two arrays starting at offset.
+     *
+     * @return number of rows written
+     * @throws IllegalArgumentException if the payload is truncated, corrupt or of an unknown version
+     */
+    static int decode(byte[] payload, int[] epochDaysOut, double[] closesOut, int offset) {
+        checkHeader(payload);
+        try {
+            BitReader in = new BitReader(payload, 8);
+            int count = (int) in.read(32);
+            if (count <= 0 || offset + count > epochDaysOut.length || offset + count > closesOut.length) {
+                throw new IllegalArgumentException("Price block of " + count + " rows does not fit the output");
+            }
+            int day = (int) in.read(32);
+            long bits = in.read(64);
+            epochDaysOut[offset] = day;
+            closesOut[offset] = Double.longBitsToDouble(bits);
+
+            int gap = 1;
+            int leading = 0;
+            int trailing = 0;
+            for (int i = 1; i < count; i++) {
+                if (in.read(1) == 1) {
+                    if (in.read(1) == 0) {
+                        gap += (int) in.read(4) - 8;
+                    } else if (in.read(1) == 0) {
+                        gap += (int) in.read(9) - 256;
+                    } else {
+                        gap = (int) in.read(32);
+                    }
+                }
+                day += gap;
+
+                if (in.read(1) == 1) {
+                    if (in.read(1) == 1) {
+                        leading = (int) in.read(5);
+                        int meaningful = (int) in.read(6) + 1;
+                        trailing = 64 - leading - meaningful;
+                    }
+                    bits ^= in.read(64 - leading - trailing) << trailing;
+                }
+                epochDaysOut[offset + i] = day;
+                closesOut[offset + i] = Double.longBitsToDouble(bits);
+            }
+            return count;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt price block: payload ends early");
+        }
+    }
+
+    private static void checkHeader(byte[] payload) {
+        if (payload == null || payload.length < 17) {
+            throw new IllegalArgumentException("Corrupt price block: header missing");
+        }
+        if (payload[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported price block version " + payload[0]);
+        }
+    }
+
+    // Appends bits most-significant first into a growable byte array
+    private static final class BitWriter {
+        private byte[] buffer;
+        private long bitLength;
+
+        BitWriter(int initialBytes) {
+            buffer = new byte[Math.max(16, initialBytes)];
+        }
+
+        // Writes the low `bits` bits of value (0..64)
+        void write(long value, int bits) {
+            while (bits > 0) {
+                int byteIndex = (int) (bitLength >>> 3);
+                if (byteIndex == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int room = 8 - (int) (bitLength & 7);
+                int take = Math.min(room, bits);
+                int chunk = (int) (value >>> (bits - take)) & ((1 << take) - 1);
+                buffer[byteIndex] |= (byte) (chunk << (room - take));
+                bitLength += take;
+                bits -= take;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, (int) ((bitLength + 7) >>> 3));
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] buffer;
+        private long position;
+
+        BitReader(byte[] buffer, long position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        // Reads `bits` bits (0..64) as an unsigned value
+        long read(int bits) {
+            long result = 0;
+            while (bits > 0) {
+                int room = 8 - (int) (position & 7);
+                int take = Math.min(room, bits);
+                int chunk = ((buffer[(int) (position >>> 3)] & 0xFF) >>> (room - take)) & ((1 << take) - 1);
+                result = (result << take) | chunk;
+                position += take;
+                bits -= take;
+            }
+            return result;
+        }
+    }
+}
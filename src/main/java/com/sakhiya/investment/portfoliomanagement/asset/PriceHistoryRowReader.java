@@ -0,0 +1,213 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads price history rows one line at a time from a CSV or NDJSON stream, so a multi-gigabyte
+ * backfill never has to fit in memory.
+ *
+ * CSV: assetId,tradingDate,closingPrice[,source]. An optional header line may reorder the columns
+ *      (names: assetId, tradingDate or date, closingPrice or close, source).
+ * NDJSON: one object per line, e.g. {"assetId":"..","tradingDate":"2024-01-31","closingPrice":101.5}
+ *
+ * A line that cannot be parsed is returned as a Row with an error instead of failing the whole import.
+ */
+final class PriceHistoryRowReader implements Closeable {
+
+    enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * Explicit format parameter wins; otherwise JSON-ish content types mean NDJSON and anything else CSV.
+         */
+        static Format resolve(String format, String contentType) {
+            if (format != null && !format.isBlank()) {
+                String normalised = format.trim().toUpperCase(Locale.ROOT);
+                if ("JSON".equals(normalised) || "JSONL".equals(normalised)) {
+                    return NDJSON;
+                }
+                try {
+                    return Format.valueOf(normalised);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unsupported format: " + format + " (expected csv or ndjson)");
+                }
+            }
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json") ? NDJSON : CSV;
+        }
+    }
+
+    // One parsed line. error is set (and the other fields may be null) when the line is invalid
+    static final class Row {
+        final long lineNumber;
+        final String assetId;
+        final LocalDate tradingDate;
+        final Double closingPrice;
+        final String source;
+        final String error;
+
+        Row(long lineNumber, String assetId, LocalDate tradingDate, Double closingPrice, String source, String error) {
+            this.lineNumber = lineNumber;
+            this.assetId = assetId;
+            this.tradingDate = tradingDate;
+            this.closingPrice = closingPrice;
+            this.source = source;
+            this.error = error;
+        }
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final String defaultSource;
+    private long lineNumber;
+    // CSV column positions, possibly changed by a header line
+    private int assetIdColumn = 0;
+    private int dateColumn = 1;
+    private int closeColumn = 2;
+    private int sourceColumn = 3;
+
+    PriceHistoryRowReader(InputStream input, Format format, String defaultSource) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        this.format = format;
+        this.defaultSource = defaultSource;
+    }
+
+    /**
+     * @return the next row (possibly with an error), or null at the end of the stream
+     */
+    Row next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (format == Format.CSV) {
+                if (lineNumber == 1 && readHeader(line)) {
+                    continue;
+                }
+                return parseCsv(line);
+            }
+            return parseJson(line);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Returns true if the first line is a header (its date column is not a date) and records the column order
+    private boolean readHeader(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length > 1 && looksLikeDate(unquote(columns[Math.min(1, columns.length - 1)]))) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            switch (unquote(columns[i]).toLowerCase(Locale.ROOT)) {
+                case "assetid", "asset_id" -> assetIdColumn = i;
+                case "tradingdate", "trading_date", "date" -> dateColumn = i;
+                case "closingprice", "closing_price", "close" -> closeColumn = i;
+                case "source" -> sourceColumn = i;
+                default -> { } // unknown columns are ignored
+            }
+        }
+        return true;
+    }
+
+    private Row parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length <= Math.max(assetIdColumn, Math.max(dateColumn, closeColumn))) {
+            return invalid("expected assetId,tradingDate,closingPrice");
+        }
+        String source = sourceColumn < columns.length ? unquote(columns[sourceColumn]) : null;
+        return build(unquote(columns[assetIdColumn]), unquote(columns[dateColumn]), unquote(columns[closeColumn]), source);
+    }
+
+    // Streaming field-by-field parse: no tree or DTO is built for each of the millions of lines
+    private Row parseJson(String line) throws IOException {
+        String assetId = null;
+        String date = null;
+        String close = null;
+        String source = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return invalid("expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                String text = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                switch (field) {
+                    case "assetId" -> assetId = text;
+                    case "tradingDate", "date" -> date = text;
+                    case "closingPrice", "close" -> close = text;
+                    case "source" -> source = text;
+                    default -> { } // other fields (e.g. assetName) are ignored
+                }
+            }
+        } catch (JsonProcessingException e) {
+            return invalid("malformed JSON");
+        }
+        return build(assetId, date, close, source);
+    }
+
+    private Row build(String assetId, String date, String close, String source) {
+        if (assetId == null || assetId.isBlank()) {
+            return invalid("missing assetId");
+        }
+        LocalDate tradingDate;
+        double closingPrice;
+        try {
+            tradingDate = LocalDate.parse(date);
+        } catch (RuntimeException e) {
+            return invalid("invalid tradingDate '" + date + "'");
+        }
+        try {
+            closingPrice = Double.parseDouble(close);
+        } catch (RuntimeException e) {
+            return invalid("invalid closingPrice '" + close + "'");
+        }
+        if (!Double.isFinite(closingPrice) || closingPrice <= 0) {
+            return invalid("closingPrice must be a positive number");
+        }
+        return new Row(lineNumber, assetId, tradingDate, closingPrice,
+                source == null || source.isBlank() ? defaultSource : source, null);
+    }
+
+    private Row invalid(String error) {
+        return new Row(lineNumber, null, null, null, null, "Line " + lineNumber + ": " + error);
+    }
+
+    private static boolean looksLikeDate(String value) {
+        return value.length() == 10 && Character.isDigit(value.charAt(0)) && value.charAt(4) == '-';
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+}
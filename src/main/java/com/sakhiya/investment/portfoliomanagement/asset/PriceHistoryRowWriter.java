@@ -0,0 +1,100 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+/**
+ * Writes price history rows one at a time as CSV or NDJSON, the counterpart of PriceHistoryRowReader:
+ * an export can be posted straight back to /api/asset-price-history/bulk.
+ *
+ * CSV: header assetId,tradingDate,closingPrice,source,assetName. assetName is last because it is the
+ *      column most likely to need quoting, and the reader only looks at the first four.
+ * NDJSON: {"assetId":..,"assetName":..,"tradingDate":"2024-01-31","closingPrice":101.5,"source":..} per line.
+ *
+ * Nothing is kept per row, only a 64 KB write buffer, so memory does not grow with the export size.
+ */
+final class PriceHistoryRowWriter implements Closeable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long rowCount;
+
+    PriceHistoryRowWriter(OutputStream output, PriceHistoryRowReader.Format format) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+        if (format == PriceHistoryRowReader.Format.NDJSON) {
+            // One generator for the whole stream; root values are separated by a newline instead of a space
+            json = JSON_FACTORY.createGenerator(writer);
+            json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            json = null;
+            writer.write("assetId,tradingDate,closingPrice,source,assetName\n");
+        }
+    }
+
+    void write(AssetPriceHistoryDTO row) throws IOException {
+        if (json != null) {
+            json.writeStartObject();
+            json.writeStringField("assetId", row.getAssetId());
+            json.writeStringField("assetName", row.getAssetName());
+            json.writeStringField("tradingDate", row.getTradingDate().toString());
+            if (row.getClosingPrice() == null) {
+                json.writeNullField("closingPrice");
+            } else {
+                json.writeNumberField("closingPrice", row.getClosingPrice());
+            }
+            json.writeStringField("source", row.getSource());
+            json.writeEndObject();
+        } else {
+            writer.write(csv(row.getAssetId()));
+            writer.write(',');
+            writer.write(row.getTradingDate().toString());
+            writer.write(',');
+            writer.write(row.getClosingPrice() == null ? "" : row.getClosingPrice().toString());
+            writer.write(',');
+            writer.write(csv(row.getSource()));
+            writer.write(',');
+            writer.write(csv(row.getAssetName()));
+            writer.write('\n');
+        }
+        rowCount++;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    // Flushes what is buffered; the caller's stream is closed too
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.flush();
+            if (rowCount > 0) {
+                writer.write('\n'); // the separator only goes between rows, so end the last line here
+            }
+        }
+        writer.close();
+    }
+
+    // RFC 4180 quoting, only when the value needs it
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,30 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the Alpha Vantage price sync on a schedule. Off by default (it needs a real API key and uses
+ * the plan quota); turn it on with alphaVantage.sync.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "alphaVantage.sync.enabled", havingValue = "true")
+public class PriceHistorySyncScheduler {
+
+    private final PriceHistorySyncService priceHistorySyncService;
+
+    public PriceHistorySyncScheduler(PriceHistorySyncService priceHistorySyncService) {
+        this.priceHistorySyncService = priceHistorySyncService;
+    }
+
+    // Default: weekdays at 18:30 New York time, after the US close has been published
+    @Scheduled(cron = "${alphaVantage.sync.cron:0 30 18 * * MON-FRI}", zone = "${alphaVantage.sync.zone:America/New_York}")
+    public void syncDaily() {
+        try {
+            priceHistorySyncService.syncAll();
+        } catch (IllegalStateException e) {
+            // A manually started run is still going; it covers the same assets, so this slot is skipped
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantageClient;
+import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantagePriceDTO;
+import com.sakhiya.investment.portfoliomanagement.asset.marketdata.OutputSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the stored price history of every asset with a symbol up to date from Alpha Vantage,
+ * fetching and writing only what is missing.
+ *
+ * - Cursor: the latest stored trading date per asset, read for all assets with one grouped max query.
+ *   The database is the cursor, so nothing extra has to be stored and a crash mid-run just resumes.
+ * - Assets whose cursor already reaches the latest expected close are skipped without a request.
+ * - Small gaps use outputsize=compact (latest ~100 closes); new assets and gaps longer than
+ *   alphaVantage.sync.compactMaxLagDays business days use outputsize=full.
+ * - Only prices after the cursor are written (AssetHistoryService batch insert).
+ * - All fetches are queued at once; AlphaVantageClient's concurrency and rate limits decide when
+ *   each request goes out, and the parse-and-write step runs on a fixed pool of
+ *   alphaVantage.sync.workers threads, so a large universe never means a thread per asset.
+ *
+ * Progress and lag are published as Micrometer gauges (price.sync.*, see /actuator/metrics) and
+ * through getStatus(). Weekends are not trading days; exchange holidays are not modelled, so an asset
+ * may be fetched once on a holiday and simply get nothing new.
+ */
+@Service
+public class PriceHistorySyncService {
+
+    private final AssetRepository assetRepository;
+    private final AssetHistoryService assetHistoryService;
+    private final AlphaVantageClient alphaVantageClient;
+    private final Clock clock;
+    private final int compactMaxLagDays;
+    private final ExecutorService workers;
+
+    // Progress of the current run (or the last one once it has finished)
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger assetsTotal = new AtomicInteger();
+    private final AtomicInteger assetsUpToDate = new AtomicInteger();
+    private final AtomicInteger assetsCompleted = new AtomicInteger();
+    private final AtomicInteger assetsFailed = new AtomicInteger();
+    private final AtomicInteger compactFetches = new AtomicInteger();
+    private final AtomicInteger fullFetches = new AtomicInteger();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicInteger maxLagDays = new AtomicInteger();
+    private final AtomicInteger laggingAssets = new AtomicInteger();
+    private final AtomicLong lastSuccessEpochSecond = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    // Latest known stored date per asset id, advanced as deltas are written; used for the lag figures
+    private final Map<String, LocalDate> cursors = new ConcurrentHashMap<>();
+
+    private final Counter rowsCounter;
+    private final Counter compactCounter;
+    private final Counter fullCounter;
+    private final Timer runTimer;
+
+    @Autowired
+    public PriceHistorySyncService(AssetRepository assetRepository,
+            AssetHistoryService assetHistoryService,
+            AlphaVantageClient alphaVantageClient,
+            MeterRegistry meterRegistry,
+            @Value("${alphaVantage.sync.workers:4}") int workerCount,
+            @Value("${alphaVantage.sync.compactMaxLagDays:90}") int compactMaxLagDays,
+            @Value("${alphaVantage.sync.zone:America/New_York}") String zone) {
+        this(assetRepository, assetHistoryService, alphaVantageClient, meterRegistry,
+                workerCount, compactMaxLagDays, Clock.system(ZoneId.of(zone)));
+    }
+
+    // Clock is a parameter so tests can fix "today"
+    PriceHistorySyncService(AssetRepository assetRepository,
+            AssetHistoryService assetHistoryService,
+            AlphaVantageClient alphaVantageClient,
+            MeterRegistry meterRegistry,
+            int workerCount,
+            int compactMaxLagDays,
+            Clock clock) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("alphaVantage.sync.workers must be at least 1");
+        }
+        this.assetRepository = assetRepository;
+        this.assetHistoryService = assetHistoryService;
+        this.alphaVantageClient = alphaVantageClient;
+        this.compactMaxLagDays = compactMaxLagDays;
+        this.clock = clock;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "price-sync-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("price.sync.running", running, r -> r.get() ? 1 : 0)
+                .description("1 while a sync run is in progress").register(meterRegistry);
+        registerAssetGauge(meterRegistry, "total", assetsTotal);
+        registerAssetGauge(meterRegistry, "up_to_date", assetsUpToDate);
+        registerAssetGauge(meterRegistry, "completed", assetsCompleted);
+        registerAssetGauge(meterRegistry, "failed", assetsFailed);
+        Gauge.builder("price.sync.assets", this, service -> Math.max(0, service.assetsTotal.get() - service.assetsUpToDate.get()
+                        - service.assetsCompleted.get() - service.assetsFailed.get()))
+                .tag("state", "pending").register(meterRegistry);
+        Gauge.builder("price.sync.lag.max.days", maxLagDays, AtomicInteger::get)
+                .description("Business days the most out of date asset is behind the latest expected close")
+                .register(meterRegistry);
+        Gauge.builder("price.sync.lag.assets", laggingAssets, AtomicInteger::get)
+                .description("Assets with a symbol that are behind the latest expected close").register(meterRegistry);
+        Gauge.builder("price.sync.last.success", lastSuccessEpochSecond, AtomicLong::get)
+                .description("Epoch second of the last run without failures").baseUnit("seconds").register(meterRegistry);
+        this.rowsCounter = Counter.builder("price.sync.rows.inserted").register(meterRegistry);
+        this.compactCounter = Counter.builder("price.sync.fetches").tag("outputsize", "compact").register(meterRegistry);
+        this.fullCounter = Counter.builder("price.sync.fetches").tag("outputsize", "full").register(meterRegistry);
+        this.runTimer = Timer.builder("price.sync.run").register(meterRegistry);
+    }
+
+    private static void registerAssetGauge(MeterRegistry registry, String state, AtomicInteger value) {
+        Gauge.builder("price.sync.assets", value, AtomicInteger::get).tag("state", state).register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Starts a sync of every asset with a symbol and returns at once.
+     *
+     * @return completes with the final status when every asset has been handled; individual asset
+     *         failures are counted in the status, they do not fail the future
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public CompletableFuture<PriceSyncStatusDTO> startSync() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A price history sync is already running");
+        }
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        try {
+            resetProgress();
+            LocalDate expected = latestExpectedClose(LocalDate.now(clock));
+            List<Asset> assets = assetRepository.findBySymbolIsNotNull();
+            assetsTotal.set(assets.size());
+            Map<String, LocalDate> lastDates = loadCursors(assets);
+            for (Asset asset : assets) {
+                LocalDate cursor = lastDates.get(asset.getAssetId());
+                if (cursor != null && !cursor.isBefore(expected)) {
+                    assetsUpToDate.incrementAndGet(); // nothing newer can exist yet, no request
+                    continue;
+                }
+                tasks.add(syncAsset(asset, cursor, expected));
+            }
+        } catch (RuntimeException e) {
+            finishRun(started);
+            throw e;
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                .handle((ignored, ex) -> finishRun(started));
+    }
+
+    // Blocking variant for the scheduler
+    public PriceSyncStatusDTO syncAll() {
+        return startSync().join();
+    }
+
+    /**
+     * Snapshot of the current or last run.
+     */
+    public PriceSyncStatusDTO getStatus() {
+        PriceSyncStatusDTO status = new PriceSyncStatusDTO();
+        status.setRunning(running.get());
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt);
+        long lastSuccess = lastSuccessEpochSecond.get();
+        status.setLastSuccessAt(lastSuccess == 0 ? null : Instant.ofEpochSecond(lastSuccess));
+        status.setAssetsTotal(assetsTotal.get());
+        status.setAssetsUpToDate(assetsUpToDate.get());
+        status.setAssetsCompleted(assetsCompleted.get());
+        status.setAssetsFailed(assetsFailed.get());
+        status.setCompactFetches(compactFetches.get());
+        status.setFullFetches(fullFetches.get());
+        status.setRowsInserted(rowsInserted.get());
+        status.setMaxLagDays(maxLagDays.get());
+        status.setLaggingAssets(laggingAssets.get());
+        synchronized (errors) {
+            status.setErrors(new ArrayList<>(errors));
+        }
+        return status;
+    }
+
+    private CompletableFuture<Void> syncAsset(Asset asset, LocalDate cursor, LocalDate expected) {
+        OutputSize outputSize = chooseOutputSize(cursor, expected, compactMaxLagDays);
+        if (outputSize == OutputSize.FULL) {
+            fullFetches.incrementAndGet();
+            fullCounter.increment();
+        } else {
+            compactFetches.incrementAndGet();
+            compactCounter.increment();
+        }
+        String symbol = asset.getSymbol();
+        return alphaVantageClient.fetchDailyPriceDTOs(symbol, outputSize)
+                // Parse result is small; the DB write is what the worker pool bounds
+                .thenAcceptAsync(prices -> writeDelta(asset, cursor, prices), workers)
+                .handle((ignored, ex) -> {
+                    if (ex == null) {
+                        assetsCompleted.incrementAndGet();
+                    } else {
+                        assetsFailed.incrementAndGet();
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        synchronized (errors) {
+                            if (errors.size() < PriceSyncStatusDTO.MAX_ERRORS) {
+                                errors.add(symbol + ": " + cause.getMessage());
+                            }
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    // Writes only the prices after the cursor and advances the in-memory cursor
+    private void writeDelta(Asset asset, LocalDate cursor, List<AlphaVantagePriceDTO> prices) {
+        List<AlphaVantagePriceDTO> delta = new ArrayList<>();
+        LocalDate newest = cursor;
+        for (AlphaVantagePriceDTO price : prices) {
+            LocalDate date = price.getTradingDate();
+            if (date != null && price.getClosingPrice() != null && (cursor == null || date.isAfter(cursor))) {
+                delta.add(price);
+                newest = newest == null || date.isAfter(newest) ? date : newest;
+            }
+        }
+        if (delta.isEmpty()) {
+            return;
+        }
+        // Source is the symbol, as for the manual import, so GET /symbol/{symbol} finds these rows
+        int inserted = assetHistoryService.importPriceHistoryFromAlphaVantage(asset.getAssetId(), delta, asset.getSymbol());
+        rowsInserted.addAndGet(inserted);
+        rowsCounter.increment(inserted);
+        cursors.put(asset.getAssetId(), newest);
+    }
+
+    private Map<String, LocalDate> loadCursors(List<Asset> assets) {
+        List<String> assetIds = new ArrayList<>(assets.size());
+        for (Asset asset : assets) {
+            assetIds.add(asset.getAssetId());
+        }
+        // Archived years count, so an asset whose rows are all archived is not fetched in full again
+        Map<String, LocalDate> lastDates = assetHistoryService.getLastTradingDates(assetIds);
+        cursors.clear();
+        cursors.putAll(lastDates);
+        for (String assetId : assetIds) {
+            cursors.putIfAbsent(assetId, LocalDate.MIN); // never synced: counted as lagging
+        }
+        return lastDates;
+    }
+
+    private void resetProgress() {
+        startedAt = clock.instant();
+        finishedAt = null;
+        assetsTotal.set(0);
+        assetsUpToDate.set(0);
+        assetsCompleted.set(0);
+        assetsFailed.set(0);
+        compactFetches.set(0);
+        fullFetches.set(0);
+        rowsInserted.set(0);
+        errors.clear();
+    }
+
+    private PriceSyncStatusDTO finishRun(long startedNanos) {
+        LocalDate expected = latestExpectedClose(LocalDate.now(clock));
+        int worst = 0;
+        int behind = 0;
+        for (LocalDate cursor : cursors.values()) {
+            if (cursor.equals(LocalDate.MIN)) {
+                behind++; // still no price at all: lagging, but without a meaningful number of days
+                continue;
+            }
+            int lag = businessDaysBetween(cursor, expected);
+            if (lag > 0) {
+                behind++;
+                worst = Math.max(worst, lag);
+            }
+        }
+        maxLagDays.set(worst);
+        laggingAssets.set(behind);
+        finishedAt = clock.instant();
+        if (assetsFailed.get() == 0) {
+            lastSuccessEpochSecond.set(finishedAt.getEpochSecond());
+        }
+        runTimer.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        running.set(false);
+        return getStatus();
+    }
+
+    /**
+     * Compact returns only the latest 100 closes, so it is enough only while the gap is comfortably
+     * below that; anything never synced or further behind needs the full history.
+     */
+    static OutputSize chooseOutputSize(LocalDate cursor, LocalDate expected, int compactMaxLagDays) {
+        if (cursor == null || businessDaysBetween(cursor, expected) > compactMaxLagDays) {
+            return OutputSize.FULL;
+        }
+        return OutputSize.COMPACT;
+    }
+
+    // Most recent weekday on or before the given date, i.e. the latest close that can be published
+    static LocalDate latestExpectedClose(LocalDate today) {
+        LocalDate day = today;
+        while (isWeekend(day)) {
+            day = day.minusDays(1);
+        }
+        return day;
+    }
+
+    // Weekdays in (after, upTo]; 0 if upTo is not after the first date
+    static int businessDaysBetween(LocalDate after, LocalDate upTo) {
+        long days = upTo.toEpochDay() - after.toEpochDay();
+        if (days <= 0) {
+            return 0;
+        }
+        long count = (days / 7) * 5; // whole weeks
+        LocalDate day = after.plusDays((days / 7) * 7);
+        while (day.isBefore(upTo)) {
+            day = day.plusDays(1);
+            if (!isWeekend(day)) {
+                count++;
+            }
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private static boolean isWeekend(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
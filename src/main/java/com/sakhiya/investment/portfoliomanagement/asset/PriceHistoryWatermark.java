@@ -0,0 +1,52 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Per-asset fingerprint of the live price history rows: row count, latest trading date and sum of
+ * closes, loaded for every asset with one grouped query (JPQL constructor expression, like LastTradingDate).
+ *
+ * PriceSeriesFileStore saves it next to each cached series file and only trusts the file at startup
+ * if the database still reports the same values. An insert or delete changes the count, an appended
+ * day the date, and an edited close the sum. Archiving deletes live rows, so it changes the count too.
+ */
+public class PriceHistoryWatermark {
+    // Sums computed by the database in a different order can differ in the last bits
+    private static final double SUM_TOLERANCE = 1e-9;
+
+    private final String assetId;
+    private final long rowCount;
+    private final LocalDate lastTradingDate;
+    private final double closeSum;
+
+    public PriceHistoryWatermark(String assetId, Long rowCount, LocalDate lastTradingDate, Double closeSum) {
+        this.assetId = assetId;
+        this.rowCount = rowCount == null ? 0 : rowCount;
+        this.lastTradingDate = lastTradingDate;
+        this.closeSum = closeSum == null ? 0.0 : closeSum;
+    }
+
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public LocalDate getLastTradingDate() {
+        return lastTradingDate;
+    }
+
+    public double getCloseSum() {
+        return closeSum;
+    }
+
+    // True when both describe the same rows (assetId is not compared)
+    boolean matches(PriceHistoryWatermark other) {
+        return other != null && rowCount == other.rowCount
+                && Objects.equals(lastTradingDate, other.lastTradingDate)
+                && Math.abs(closeSum - other.closeSum) <= SUM_TOLERANCE * Math.max(1.0, Math.abs(closeSum));
+    }
+}
@@ -0,0 +1,32 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight (assetId, date, close) projection used by the price series cache.
+ * Loaded with a JPQL constructor expression so Hibernate never builds full
+ * AssetPriceHistory entities (no Asset proxy, no persistence-context entry) for bulk reads.
+ */
+public class PricePoint {
+    private final String assetId;
+    private final LocalDate tradingDate;
+    private final Double closingPrice;
+
+    public PricePoint(String assetId, LocalDate tradingDate, Double closingPrice) {
+        this.assetId = assetId;
+        this.tradingDate = tradingDate;
+        this.closingPrice = closingPrice;
+    }
+
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public LocalDate getTradingDate() {
+        return tradingDate;
+    }
+
+    public Double getClosingPrice() {
+        return closingPrice;
+    }
+}
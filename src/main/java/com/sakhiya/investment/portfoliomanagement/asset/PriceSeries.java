@@ -0,0 +1,294 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar, immutable snapshot of one asset's closing prices.
+ *
+ * Instead of a List of AssetPriceHistory entities (object header + UUID string + Asset reference
+ * + boxed Double per row) the series is kept as two primitive arrays sorted by date:
+ * - epochDays: trading dates as LocalDate.toEpochDay() ints
+ * - closes: closing prices as doubles
+ *
+ * Snapshots never change once published. Appending a newer date reuses the spare capacity of the
+ * backing arrays (older snapshots only read below their own size, so they are unaffected);
+ * any other change copies the arrays. Only PriceSeriesCache creates new versions, one writer per asset at a time.
+ */
+public final class PriceSeries {
+
+    public static final PriceSeries EMPTY = new PriceSeries(new int[0], new double[0], 0);
+
+    private final int[] epochDays;
+    private final double[] closes;
+    private final int size;
+    // Built on first use, or extended in O(1) from the previous snapshot when a later price is appended.
+    // Benign race: two threads may both build it, but the results are identical and immutable
+    private volatile ReturnStatistics statistics;
+
+    PriceSeries(int[] epochDays, double[] closes, int size) {
+        this.epochDays = epochDays;
+        this.closes = closes;
+        this.size = size;
+    }
+
+    /**
+     * Builds a series from projection rows already ordered by trading date.
+     * Rows without a closing price are skipped and if a date appears twice the last row wins,
+     * so every date in the series is unique.
+     */
+    public static PriceSeries fromPoints(List<PricePoint> points) {
+        if (points == null || points.isEmpty()) {
+            return EMPTY;
+        }
+        int[] days = new int[points.size()];
+        double[] values = new double[points.size()];
+        int n = 0;
+        for (PricePoint point : points) {
+            if (point.getTradingDate() == null || point.getClosingPrice() == null) {
+                continue;
+            }
+            int day = (int) point.getTradingDate().toEpochDay();
+            if (n > 0 && days[n - 1] == day) {
+                values[n - 1] = point.getClosingPrice(); // duplicate date: keep the latest row
+                continue;
+            }
+            days[n] = day;
+            values[n] = point.getClosingPrice();
+            n++;
+        }
+        return n == 0 ? EMPTY : new PriceSeries(days, values, n);
+    }
+
+    /**
+     * Decodes archived blocks of one asset (oldest first, as stored: one block per year) into a series.
+     */
+    static PriceSeries fromBlocks(List<PriceArchiveBlock> blocks) {
+        if (blocks == null || blocks.isEmpty()) {
+            return EMPTY;
+        }
+        int total = 0;
+        for (PriceArchiveBlock block : blocks) {
+            total += block.getRowCount();
+        }
+        int[] days = new int[total];
+        double[] values = new double[total];
+        int n = 0;
+        for (PriceArchiveBlock block : blocks) {
+            int first = n;
+            n += PriceBlockCodec.decode(block.getPayload(), days, values, n);
+            if (first > 0 && days[first] <= days[first - 1]) {
+                throw new IllegalStateException("Archive blocks of asset " + block.getAssetId() + " overlap or are out of order");
+            }
+        }
+        return new PriceSeries(days, values, n);
+    }
+
+    /**
+     * Merges two series in one pass. On a date present in both the close from newer wins,
+     * which is how live rows override archived ones.
+     */
+    static PriceSeries merge(PriceSeries older, PriceSeries newer) {
+        if (older.size == 0) {
+            return newer;
+        }
+        if (newer.size == 0) {
+            return older;
+        }
+        int[] days = new int[older.size + newer.size];
+        double[] values = new double[older.size + newer.size];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < older.size || j < newer.size) {
+            if (j == newer.size || (i < older.size && older.epochDays[i] < newer.epochDays[j])) {
+                days[n] = older.epochDays[i];
+                values[n++] = older.closes[i++];
+            } else {
+                if (i < older.size && older.epochDays[i] == newer.epochDays[j]) {
+                    i++; // same date: drop the older close
+                }
+                days[n] = newer.epochDays[j];
+                values[n++] = newer.closes[j++];
+            }
+        }
+        return new PriceSeries(days, values, n);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int epochDayAt(int index) {
+        checkIndex(index);
+        return epochDays[index];
+    }
+
+    public double closeAt(int index) {
+        checkIndex(index);
+        return closes[index];
+    }
+
+    public LocalDate dateAt(int index) {
+        return LocalDate.ofEpochDay(epochDayAt(index));
+    }
+
+    public LocalDate lastDate() {
+        return size == 0 ? null : LocalDate.ofEpochDay(epochDays[size - 1]);
+    }
+
+    // Defensive copies so callers can never write into a shared snapshot
+    public int[] epochDays() {
+        return Arrays.copyOf(epochDays, size);
+    }
+
+    public double[] closes() {
+        return Arrays.copyOf(closes, size);
+    }
+
+    /**
+     * Simple daily returns (today - yesterday) / yesterday in chronological order.
+     * Same formula AssetHistoryService always used, computed straight from the primitive closes.
+     *
+     * @return array of size()-1 returns, empty when there are fewer than 2 prices
+     */
+    public double[] returns() {
+        return returns(0, size);
+    }
+
+    /**
+     * Daily returns for prices with index in [fromIndex, toIndex).
+     */
+    public double[] returns(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") outside series of size " + size);
+        }
+        if (toIndex - fromIndex < 2) {
+            return new double[0];
+        }
+        double[] result = new double[toIndex - fromIndex - 1];
+        double yesterday = closes[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            double today = closes[i];
+            result[i - fromIndex - 1] = (today - yesterday) / yesterday;
+            yesterday = today;
+        }
+        return result;
+    }
+
+    /**
+     * Running and rolling-window statistics of this series' daily returns (see ReturnStatistics).
+     * The first call is one pass over the closes; later calls, and later snapshots created by appending
+     * a newer price, are O(1).
+     */
+    public ReturnStatistics statistics() {
+        ReturnStatistics current = statistics;
+        if (current == null) {
+            current = ReturnStatistics.of(closes, size);
+            statistics = current;
+        }
+        return current;
+    }
+
+    /**
+     * Binary search over the date column.
+     *
+     * @return index of the date, or -(insertionPoint + 1) when absent (same contract as Arrays.binarySearch)
+     */
+    public int indexOf(int epochDay) {
+        return Arrays.binarySearch(epochDays, 0, size, epochDay);
+    }
+
+    /**
+     * @return index of the last price on or before the given day, or -1 if every price is later
+     */
+    public int indexOnOrBefore(int epochDay) {
+        int idx = indexOf(epochDay);
+        return idx >= 0 ? idx : -idx - 2;
+    }
+
+    /**
+     * @return index of the first price on or after the given day, or size() if every price is earlier
+     */
+    public int indexOnOrAfter(int epochDay) {
+        int idx = indexOf(epochDay);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    /**
+     * Returns a new snapshot containing the given price. Appending a later date is amortised O(1);
+     * replacing or inserting an earlier date copies the arrays.
+     */
+    PriceSeries withPrice(int epochDay, double close) {
+        if (size == 0 || epochDay > epochDays[size - 1]) {
+            PriceSeries next;
+            if (size < epochDays.length) {
+                // Spare capacity: older snapshots never read index >= their size so sharing is safe
+                epochDays[size] = epochDay;
+                closes[size] = close;
+                next = new PriceSeries(epochDays, closes, size + 1);
+            } else {
+                int capacity = Math.max(16, size + (size >> 1));
+                int[] days = Arrays.copyOf(epochDays, capacity);
+                double[] values = Arrays.copyOf(closes, capacity);
+                days[size] = epochDay;
+                values[size] = close;
+                next = new PriceSeries(days, values, size + 1);
+            }
+            // A new latest price is one more return: extend the statistics instead of rebuilding them
+            ReturnStatistics current = statistics;
+            if (current != null && size > 0) {
+                double previous = closes[size - 1];
+                next.statistics = current.append((close - previous) / previous);
+            }
+            return next;
+        }
+        int idx = indexOf(epochDay);
+        if (idx >= 0) {
+            double[] values = Arrays.copyOf(closes, size);
+            values[idx] = close;
+            return new PriceSeries(Arrays.copyOf(epochDays, size), values, size);
+        }
+        int insertAt = -idx - 1;
+        int[] days = new int[size + 1];
+        double[] values = new double[size + 1];
+        System.arraycopy(epochDays, 0, days, 0, insertAt);
+        System.arraycopy(closes, 0, values, 0, insertAt);
+        days[insertAt] = epochDay;
+        values[insertAt] = close;
+        System.arraycopy(epochDays, insertAt, days, insertAt + 1, size - insertAt);
+        System.arraycopy(closes, insertAt, values, insertAt + 1, size - insertAt);
+        return new PriceSeries(days, values, size + 1);
+    }
+
+    /**
+     * Returns a new snapshot without the given date (or this one if the date is not present).
+     */
+    PriceSeries withoutDate(int epochDay) {
+        int idx = indexOf(epochDay);
+        if (idx < 0) {
+            return this;
+        }
+        if (size == 1) {
+            return EMPTY;
+        }
+        int[] days = new int[size - 1];
+        double[] values = new double[size - 1];
+        System.arraycopy(epochDays, 0, days, 0, idx);
+        System.arraycopy(closes, 0, values, 0, idx);
+        System.arraycopy(epochDays, idx + 1, days, idx, size - idx - 1);
+        System.arraycopy(closes, idx + 1, values, idx, size - idx - 1);
+        return new PriceSeries(days, values, size - 1);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside series of size " + size);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory, per-asset columnar cache of closing prices (see PriceSeries).
+ *
+ * Why: every VaR request used to load all AssetPriceHistory entities for the asset and box each
+ * return into a List<Double>. With this cache the first request loads (date, close) pairs once via
+ * a projection query and every later request reads primitive arrays without touching the database.
+ *
+ * The cache is kept in step incrementally by AssetHistoryService whenever it writes price history
+ * (controller add/update/delete and the AlphaVantage import), so entries never need a full reload.
+ *
+ * A loaded series is the asset's archived blocks (PriceArchiveBlock) merged with its live rows,
+ * so callers do not need to know which prices have been archived.
+ *
+ * The cache is bounded by priceHistory.cache.maxPoints prices in total. When a load or write goes over it,
+ * the least recently used series are dropped (down to 90% of the limit, so eviction is not run on every
+ * load) and simply reloaded from the database on next use. Size and evictions are published as
+ * price.cache.assets, price.cache.points and price.cache.evictions.
+ */
+@Component
+public class PriceSeriesCache {
+
+    // IN lists are split so very large portfolios do not hit database parameter limits
+    private static final int BULK_LOAD_CHUNK = 1000;
+
+    private final AssetPriceHistoryRepository priceHistoryRepository;
+    private final PriceArchiveBlockRepository archiveRepository;
+    // Default limit: ~10k assets x 4 years of daily closes
+    public static final long DEFAULT_MAX_POINTS = 10_000_000L;
+
+    private final ConcurrentHashMap<String, Entry> seriesByAsset = new ConcurrentHashMap<>();
+    private final long maxPoints;
+    // Prices held by all cached series, kept in step with every put, replace and remove
+    private final AtomicLong totalPoints = new AtomicLong();
+    // Logical clock for least-recently-used eviction
+    private final AtomicLong accessClock = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong evictions = new AtomicLong();
+    // Sequence number of the last write seen for each asset. A bulk load runs outside the per-asset
+    // lock, so it uses these stamps to detect writes that happened while its query was running
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> lastWriteByAsset = new ConcurrentHashMap<>();
+
+    public PriceSeriesCache(AssetPriceHistoryRepository priceHistoryRepository,
+            PriceArchiveBlockRepository archiveRepository, MeterRegistry meterRegistry) {
+        this(priceHistoryRepository, archiveRepository, meterRegistry, DEFAULT_MAX_POINTS);
+    }
+
+    @Autowired
+    public PriceSeriesCache(AssetPriceHistoryRepository priceHistoryRepository,
+            PriceArchiveBlockRepository archiveRepository, MeterRegistry meterRegistry,
+            @Value("${priceHistory.cache.maxPoints:10000000}") long maxPoints) {
+        if (maxPoints < 1) {
+            throw new IllegalArgumentException("priceHistory.cache.maxPoints must be at least 1");
+        }
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.archiveRepository = archiveRepository;
+        this.maxPoints = maxPoints;
+        registerMeters(meterRegistry);
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry) {
+        Gauge.builder("price.cache.assets", seriesByAsset, Map::size)
+                .description("Assets with a cached price series").register(meterRegistry);
+        Gauge.builder("price.cache.points", totalPoints, AtomicLong::get)
+                .description("Prices held by the price series cache").register(meterRegistry);
+        Gauge.builder("price.cache.max.points", this, cache -> cache.maxPoints).register(meterRegistry);
+        FunctionCounter.builder("price.cache.evictions", evictions, AtomicLong::get)
+                .description("Series dropped to keep the cache under priceHistory.cache.maxPoints").register(meterRegistry);
+    }
+
+    // A cached series with the last time it was read (accessClock); replaced, never mutated, when prices change
+    private static final class Entry {
+        final PriceSeries series;
+        volatile long lastUsed;
+
+        Entry(PriceSeries series, long lastUsed) {
+            this.series = series;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * Returns the cached series for an asset, loading it from the database on first use.
+     * computeIfAbsent makes concurrent writers for the same asset wait for the load,
+     * so a price saved while the series is loading is never lost.
+     */
+    public PriceSeries get(String assetId) {
+        Entry entry = seriesByAsset.get(assetId);
+        if (entry != null) {
+            entry.lastUsed = accessClock.incrementAndGet();
+            return entry.series;
+        }
+        entry = seriesByAsset.computeIfAbsent(assetId, id -> added(load(id)));
+        evictIfNeeded();
+        return entry.series;
+    }
+
+    /**
+     * Returns the series for many assets, loading every uncached one with a single projection
+     * query (chunked for very large lists) instead of one query per asset.
+     *
+     * @return map of assetId to series; assets without price history map to PriceSeries.EMPTY
+     */
+    public Map<String, PriceSeries> getAll(Collection<String> assetIds) {
+        Map<String, PriceSeries> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String assetId : new LinkedHashSet<>(assetIds)) {
+            Entry cached = seriesByAsset.get(assetId);
+            if (cached != null) {
+                cached.lastUsed = accessClock.incrementAndGet();
+                result.put(assetId, cached.series);
+            } else {
+                missing.add(assetId);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += BULK_LOAD_CHUNK) {
+            List<String> chunk = missing.subList(from, Math.min(from + BULK_LOAD_CHUNK, missing.size()));
+            long startedAt = writeSequence.get();
+            Map<String, PriceSeries> loaded = groupByAsset(priceHistoryRepository.findPricePointsByAssetIds(chunk));
+            addArchivedPrices(loaded, archiveRepository.findByAssetIdInOrderByAssetIdAscYearAsc(chunk));
+            for (String assetId : chunk) {
+                // If the asset was written while the bulk query ran, the loaded rows may be stale: reload it alone
+                Entry entry = seriesByAsset.computeIfAbsent(assetId, id -> added(lastWriteByAsset.getOrDefault(id, 0L) > startedAt
+                        ? load(id)
+                        : loaded.getOrDefault(id, PriceSeries.EMPTY)));
+                result.put(assetId, entry.series);
+            }
+            // Per chunk, so a very large request holds at most the limit plus one chunk in the cache
+            evictIfNeeded();
+        }
+        return result;
+    }
+
+    /**
+     * Records a saved price. Only assets already in the cache are touched; others are
+     * loaded (including this price) the next time they are requested.
+     */
+    public void recordPrice(String assetId, LocalDate tradingDate, Double closingPrice) {
+        if (assetId == null || tradingDate == null) {
+            return;
+        }
+        int epochDay = (int) tradingDate.toEpochDay();
+        markWritten(assetId);
+        seriesByAsset.computeIfPresent(assetId, (id, current) -> replaced(current, closingPrice == null
+                ? current.series.withoutDate(epochDay)
+                : current.series.withPrice(epochDay, closingPrice)));
+        evictIfNeeded();
+    }
+
+    /**
+     * Records a deleted price (or a price that moved to another date or asset).
+     */
+    public void removePrice(String assetId, LocalDate tradingDate) {
+        if (assetId == null || tradingDate == null) {
+            return;
+        }
+        int epochDay = (int) tradingDate.toEpochDay();
+        markWritten(assetId);
+        seriesByAsset.computeIfPresent(assetId, (id, current) -> replaced(current, current.series.withoutDate(epochDay)));
+    }
+
+    // Drops an asset's series so it is reloaded from the database on next use
+    public void evict(String assetId) {
+        markWritten(assetId);
+        removed(seriesByAsset.remove(assetId));
+    }
+
+    /**
+     * Puts a series loaded from somewhere other than the database (PriceSeriesFileStore at startup).
+     * Skipped if the asset is already cached or was written after writeSequence() returned
+     * sinceSequence, since the series would then miss that write.
+     *
+     * @return true if the series was added
+     */
+    public boolean preload(String assetId, PriceSeries series, long sinceSequence) {
+        boolean[] added = new boolean[1];
+        seriesByAsset.computeIfAbsent(assetId, id -> {
+            if (lastWriteByAsset.getOrDefault(id, 0L) > sinceSequence) {
+                return null; // nothing is cached; the next get() loads it from the database
+            }
+            added[0] = true;
+            return added(series);
+        });
+        evictIfNeeded();
+        return added[0];
+    }
+
+    // Copy of the series currently cached (evicted ones are not included), e.g. to save them to local files
+    public Map<String, PriceSeries> snapshot() {
+        Map<String, PriceSeries> copy = new HashMap<>();
+        seriesByAsset.forEach((assetId, entry) -> copy.put(assetId, entry.series));
+        return copy;
+    }
+
+    // Increases with every write; compare with lastWrite(assetId) to tell if an asset changed since
+    public long writeSequence() {
+        return writeSequence.get();
+    }
+
+    public long lastWrite(String assetId) {
+        return lastWriteByAsset.getOrDefault(assetId, 0L);
+    }
+
+    public void clear() {
+        for (String assetId : seriesByAsset.keySet()) {
+            removed(seriesByAsset.remove(assetId));
+        }
+    }
+
+    public int cachedAssetCount() {
+        return seriesByAsset.size();
+    }
+
+    public long cachedPointCount() {
+        return totalPoints.get();
+    }
+
+    // Bookkeeping for a new entry; called inside the map's compute functions
+    private Entry added(PriceSeries series) {
+        totalPoints.addAndGet(series.size());
+        return new Entry(series, accessClock.incrementAndGet());
+    }
+
+    private Entry replaced(Entry current, PriceSeries series) {
+        totalPoints.addAndGet(series.size() - current.series.size());
+        return new Entry(series, current.lastUsed);
+    }
+
+    private void removed(Entry entry) {
+        if (entry != null) {
+            totalPoints.addAndGet(-entry.series.size());
+        }
+    }
+
+    /**
+     * Drops least recently used series until the cache is back under 90% of maxPoints.
+     * One thread evicts at a time; the others carry on, since the cache may briefly go over the limit.
+     * remove(key, entry) leaves a series alone if it was replaced meanwhile.
+     */
+    private void evictIfNeeded() {
+        if (totalPoints.get() <= maxPoints || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long target = maxPoints - maxPoints / 10;
+            // lastUsed keeps changing while we sort, so the order is taken from a copy of the clocks
+            List<String> assetIds = new ArrayList<>(seriesByAsset.size());
+            List<Entry> entries = new ArrayList<>(seriesByAsset.size());
+            seriesByAsset.forEach((assetId, entry) -> {
+                assetIds.add(assetId);
+                entries.add(entry);
+            });
+            long[] lastUsed = new long[entries.size()];
+            Integer[] order = new Integer[entries.size()];
+            for (int i = 0; i < order.length; i++) {
+                lastUsed[i] = entries.get(i).lastUsed;
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(lastUsed[a], lastUsed[b]));
+            for (int i : order) {
+                if (totalPoints.get() <= target) {
+                    break;
+                }
+                if (seriesByAsset.remove(assetIds.get(i), entries.get(i))) {
+                    removed(entries.get(i));
+                    evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private PriceSeries load(String assetId) {
+        PriceSeries live = PriceSeries.fromPoints(priceHistoryRepository.findPricePointsByAssetId(assetId));
+        return PriceSeries.merge(PriceSeries.fromBlocks(archiveRepository.findByAssetIdOrderByYearAsc(assetId)), live);
+    }
+
+    // Merges archive blocks (ordered by asset, then year) into the live series loaded for the same assets
+    private static void addArchivedPrices(Map<String, PriceSeries> loaded, List<PriceArchiveBlock> blocks) {
+        int start = 0;
+        for (int i = 1; i <= blocks.size(); i++) {
+            if (i == blocks.size() || !blocks.get(i).getAssetId().equals(blocks.get(start).getAssetId())) {
+                String assetId = blocks.get(start).getAssetId();
+                PriceSeries archived = PriceSeries.fromBlocks(blocks.subList(start, i));
+                loaded.put(assetId, PriceSeries.merge(archived, loaded.getOrDefault(assetId, PriceSeries.EMPTY)));
+                start = i;
+            }
+        }
+    }
+
+    private void markWritten(String assetId) {
+        lastWriteByAsset.put(assetId, writeSequence.incrementAndGet());
+    }
+
+    // Splits rows ordered by (asset, date) into one series per asset
+    private static Map<String, PriceSeries> groupByAsset(List<PricePoint> points) {
+        Map<String, PriceSeries> grouped = new HashMap<>();
+        int start = 0;
+        for (int i = 1; i <= points.size(); i++) {
+            if (i == points.size() || !points.get(i).getAssetId().equals(points.get(start).getAssetId())) {
+                grouped.put(points.get(start).getAssetId(), PriceSeries.fromPoints(points.subList(start, i)));
+                start = i;
+            }
+        }
+        return grouped;
+    }
+}
@@ -0,0 +1,250 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional on-disk copy of PriceSeriesCache, so a restart does not have to load every asset's price
+ * history through JPA before the risk endpoints are fast again.
+ *
+ * - On shutdown every cached series is written to <directory>/<assetId>.series together with the
+ *   asset's PriceHistoryWatermark (live row count, latest date, close sum) at that moment.
+ * - On startup the watermarks of all assets are read with one grouped query (no price rows are
+ *   loaded) and each file whose watermark still matches is memory-mapped (FileChannel.map) and
+ *   copied into the cache. Stale, torn or corrupt files are deleted; those assets load from the
+ *   database on first use as before.
+ *
+ * File layout, little-endian: 40-byte header (magic "PSER", version, watermark row count, close sum,
+ * latest epoch day, series size, CRC32 of the data), then the epoch days as ints padded to 8 bytes,
+ * then the closes as doubles. Files are written to a temp name and renamed, so a crash never leaves
+ * a half-written file under the real name.
+ *
+ * Off by default; enable with priceHistory.localCache.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "priceHistory.localCache.enabled", havingValue = "true")
+public class PriceSeriesFileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceSeriesFileStore.class);
+
+    private static final int MAGIC = 0x52455350; // "PSER" in little-endian byte order
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final String SUFFIX = ".series";
+    // Asset ids are UUIDs; anything else is not used as a file name
+    private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final PriceSeriesCache priceSeriesCache;
+    private final AssetPriceHistoryRepository priceHistoryRepository;
+    private final Path directory;
+
+    public PriceSeriesFileStore(PriceSeriesCache priceSeriesCache, AssetPriceHistoryRepository priceHistoryRepository,
+            @Value("${priceHistory.localCache.directory:price-cache}") String directory) {
+        this.priceSeriesCache = priceSeriesCache;
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.directory = Paths.get(directory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        long started = System.nanoTime();
+        int loaded = loadAll();
+        log.info("Loaded {} price series from {} in {} ms", loaded, directory.toAbsolutePath(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        saveAll();
+    }
+
+    /**
+     * Puts every valid series file into the cache.
+     *
+     * @return number of series loaded
+     */
+    public int loadAll() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long since = priceSeriesCache.writeSequence();
+        Map<String, PriceHistoryWatermark> watermarks = currentWatermarks();
+        int loaded = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String assetId = name.substring(0, name.length() - SUFFIX.length());
+                PriceSeries series = read(file, watermarks.getOrDefault(assetId, empty(assetId)));
+                if (series == null) {
+                    Files.deleteIfExists(file); // out of date or damaged: rebuilt from the database next time
+                } else if (priceSeriesCache.preload(assetId, series, since)) {
+                    loaded++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read price cache directory {}: {}", directory, e.getMessage());
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes every cached series with the asset's current watermark.
+     *
+     * @return number of files written
+     */
+    public int saveAll() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            log.warn("Could not create price cache directory {}: {}", directory, e.getMessage());
+            return 0;
+        }
+        // Watermarks are read before the snapshot. An asset written after `since` may be in one but not
+        // the other, so it is left out (and any file for it removed) rather than saved inconsistently
+        long since = priceSeriesCache.writeSequence();
+        Map<String, PriceHistoryWatermark> watermarks = currentWatermarks();
+        int written = 0;
+        for (Map.Entry<String, PriceSeries> entry : priceSeriesCache.snapshot().entrySet()) {
+            String assetId = entry.getKey();
+            if (!SAFE_ID.matcher(assetId).matches()) {
+                continue;
+            }
+            try {
+                if (priceSeriesCache.lastWrite(assetId) > since) {
+                    Files.deleteIfExists(file(assetId));
+                    continue;
+                }
+                write(assetId, entry.getValue(), watermarks.getOrDefault(assetId, empty(assetId)));
+                if (priceSeriesCache.lastWrite(assetId) > since) {
+                    Files.deleteIfExists(file(assetId));
+                    continue;
+                }
+                written++;
+            } catch (IOException e) {
+                log.warn("Could not save price series of asset {}: {}", assetId, e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    // Reads and validates one file; null if it does not match the watermark or is damaged in any way
+    PriceSeries read(Path file, PriceHistoryWatermark expected) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            int lastDay = buffer.getInt(24);
+            PriceHistoryWatermark stored = new PriceHistoryWatermark(expected.getAssetId(), buffer.getLong(8),
+                    lastDay == NO_DATE ? null : LocalDate.ofEpochDay(lastDay), buffer.getDouble(16));
+            int size = buffer.getInt(28);
+            if (!expected.matches(stored) || size < 0 || length != HEADER_BYTES + dataBytes(size)) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, (int) length - HEADER_BYTES));
+            if ((int) crc.getValue() != buffer.getInt(32)) {
+                return null;
+            }
+            if (size == 0) {
+                return PriceSeries.EMPTY;
+            }
+            // Bulk copies straight out of the page cache
+            int[] days = new int[size];
+            double[] closes = new double[size];
+            buffer.slice(HEADER_BYTES, size * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(days);
+            buffer.slice(HEADER_BYTES + align8(size * 4), size * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(closes);
+            return new PriceSeries(days, closes, size);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    void write(String assetId, PriceSeries series, PriceHistoryWatermark watermark) throws IOException {
+        int size = series.size();
+        long length = HEADER_BYTES + dataBytes(size);
+        Path target = file(assetId);
+        Path temp = directory.resolve(assetId + SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer data = buffer.slice(HEADER_BYTES, (int) length - HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            data.asIntBuffer().put(series.epochDays());
+            data.position(align8(size * 4));
+            data.asDoubleBuffer().put(series.closes());
+            data.position(0);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, watermark.getRowCount());
+            buffer.putDouble(16, watermark.getCloseSum());
+            buffer.putInt(24, watermark.getLastTradingDate() == null ? NO_DATE : (int) watermark.getLastTradingDate().toEpochDay());
+            buffer.putInt(28, size);
+            buffer.putInt(32, (int) crc.getValue());
+            buffer.force();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    Path file(String assetId) {
+        return directory.resolve(assetId + SUFFIX);
+    }
+
+    private Map<String, PriceHistoryWatermark> currentWatermarks() {
+        Map<String, PriceHistoryWatermark> watermarks = new HashMap<>();
+        for (PriceHistoryWatermark watermark : priceHistoryRepository.findWatermarks()) {
+            watermarks.put(watermark.getAssetId(), watermark);
+        }
+        return watermarks;
+    }
+
+    // Assets without live rows (none yet, or all archived) have no row in the grouped query
+    private static PriceHistoryWatermark empty(String assetId) {
+        return new PriceHistoryWatermark(assetId, 0L, null, 0.0);
+    }
+
+    private static long dataBytes(int size) {
+        return align8(size * 4L) + size * 8L;
+    }
+
+    private static int align8(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    private static long align8(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
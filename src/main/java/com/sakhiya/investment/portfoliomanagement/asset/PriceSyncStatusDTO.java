@@ -0,0 +1,76 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of the current (or last) Alpha Vantage sync run, returned by
+ * GET /api/asset-price-history/sync. The same numbers are published as Micrometer gauges.
+ * assetsTotal = upToDate + completed + failed + still pending.
+ */
+public class PriceSyncStatusDTO {
+    // Only the first few failures are listed, like BulkPriceImportResultDTO
+    public static final int MAX_ERRORS = 20;
+
+    private boolean running;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Instant lastSuccessAt; // last run that finished without a failed asset
+    private int assetsTotal;
+    private int assetsUpToDate; // skipped: nothing newer than the stored cursor can exist yet
+    private int assetsCompleted;
+    private int assetsFailed;
+    private int compactFetches;
+    private int fullFetches;
+    private long rowsInserted;
+    private int maxLagDays; // business days behind the expected latest close, worst asset
+    private int laggingAssets;
+    private List<String> errors = new ArrayList<>();
+
+    public PriceSyncStatusDTO() {}
+
+    public boolean isRunning() { return running; }
+    public void setRunning(boolean running) { this.running = running; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public Instant getLastSuccessAt() { return lastSuccessAt; }
+    public void setLastSuccessAt(Instant lastSuccessAt) { this.lastSuccessAt = lastSuccessAt; }
+
+    public int getAssetsTotal() { return assetsTotal; }
+    public void setAssetsTotal(int assetsTotal) { this.assetsTotal = assetsTotal; }
+
+    public int getAssetsUpToDate() { return assetsUpToDate; }
+    public void setAssetsUpToDate(int assetsUpToDate) { this.assetsUpToDate = assetsUpToDate; }
+
+    public int getAssetsCompleted() { return assetsCompleted; }
+    public void setAssetsCompleted(int assetsCompleted) { this.assetsCompleted = assetsCompleted; }
+
+    public int getAssetsFailed() { return assetsFailed; }
+    public void setAssetsFailed(int assetsFailed) { this.assetsFailed = assetsFailed; }
+
+    public int getAssetsPending() { return Math.max(0, assetsTotal - assetsUpToDate - assetsCompleted - assetsFailed); }
+
+    public int getCompactFetches() { return compactFetches; }
+    public void setCompactFetches(int compactFetches) { this.compactFetches = compactFetches; }
+
+    public int getFullFetches() { return fullFetches; }
+    public void setFullFetches(int fullFetches) { this.fullFetches = fullFetches; }
+
+    public long getRowsInserted() { return rowsInserted; }
+    public void setRowsInserted(long rowsInserted) { this.rowsInserted = rowsInserted; }
+
+    public int getMaxLagDays() { return maxLagDays; }
+    public void setMaxLagDays(int maxLagDays) { this.maxLagDays = maxLagDays; }
+
+    public int getLaggingAssets() { return laggingAssets; }
+    public void setLaggingAssets(int laggingAssets) { this.laggingAssets = laggingAssets; }
+
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+}
@@ -0,0 +1,130 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import java.util.Arrays;
+
+/**
+ * Running statistics of one asset's daily returns, kept next to its PriceSeries snapshot.
+ *
+ * RiskService used to recompute mean and standard deviation with two passes over the whole history
+ * on every request. This keeps, per series:
+ * - Welford running moments (count, mean, M2) over every return: accurate in one pass, updated in O(1)
+ * - prefix sums of returns and squared returns, so mean and volatility of the last k returns
+ *   (20/60/250-day windows or any lookback) are two subtractions, not a loop over k values
+ * - RiskMetrics EWMA variance, sigma2_t = lambda * sigma2_(t-1) + (1 - lambda) * r_t^2, seeded with r_1^2
+ *
+ * Appending a return (a new, later price) is amortised O(1) and shares the prefix arrays' spare capacity
+ * with the previous snapshot, the same way PriceSeries shares its columns. Snapshots never change.
+ */
+public final class ReturnStatistics {
+
+    // RiskMetrics decay factor for daily data
+    public static final double EWMA_LAMBDA = 0.94;
+
+    static final ReturnStatistics EMPTY = new ReturnStatistics(new double[1], new double[1], 0, 0.0, 0.0, 0.0);
+
+    private final double[] prefixSum; // prefixSum[i] = sum of the first i returns
+    private final double[] prefixSumSquares;
+    private final int count;
+    private final double mean;
+    private final double m2; // sum of squared deviations from the running mean (Welford)
+    private final double ewmaVariance;
+
+    private ReturnStatistics(double[] prefixSum, double[] prefixSumSquares, int count, double mean, double m2,
+            double ewmaVariance) {
+        this.prefixSum = prefixSum;
+        this.prefixSumSquares = prefixSumSquares;
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+        this.ewmaVariance = ewmaVariance;
+    }
+
+    // Statistics of the simple daily returns of closes[0..size), in one pass
+    static ReturnStatistics of(double[] closes, int size) {
+        if (size < 2) {
+            return EMPTY;
+        }
+        int n = size - 1;
+        double[] sums = new double[n + 1];
+        double[] squares = new double[n + 1];
+        double mean = 0.0;
+        double m2 = 0.0;
+        double ewma = 0.0;
+        for (int i = 1; i <= n; i++) {
+            double r = (closes[i] - closes[i - 1]) / closes[i - 1];
+            sums[i] = sums[i - 1] + r;
+            squares[i] = squares[i - 1] + r * r;
+            double delta = r - mean;
+            mean += delta / i;
+            m2 += delta * (r - mean);
+            ewma = i == 1 ? r * r : EWMA_LAMBDA * ewma + (1 - EWMA_LAMBDA) * r * r;
+        }
+        return new ReturnStatistics(sums, squares, n, mean, m2, ewma);
+    }
+
+    // Statistics with one more (later) return appended; O(1) unless the prefix arrays have to grow
+    ReturnStatistics append(double r) {
+        int n = count + 1;
+        double[] sums = prefixSum;
+        double[] squares = prefixSumSquares;
+        if (n >= sums.length) {
+            int capacity = Math.max(16, n + (n >> 1)) + 1;
+            sums = Arrays.copyOf(sums, capacity);
+            squares = Arrays.copyOf(squares, capacity);
+        }
+        // Older snapshots never read past their own count, so writing the spare slot is safe
+        sums[n] = sums[count] + r;
+        squares[n] = squares[count] + r * r;
+        double delta = r - mean;
+        double newMean = mean + delta / n;
+        double newM2 = m2 + delta * (r - newMean);
+        double ewma = count == 0 ? r * r : EWMA_LAMBDA * ewmaVariance + (1 - EWMA_LAMBDA) * r * r;
+        return new ReturnStatistics(sums, squares, n, newMean, newM2, ewma);
+    }
+
+    // Number of returns (prices - 1)
+    public int count() {
+        return count;
+    }
+
+    // Mean of every return
+    public double mean() {
+        return mean;
+    }
+
+    // Sample standard deviation of every return (n - 1 denominator, like RiskService), 0 with fewer than 2
+    public double stdDev() {
+        return count < 2 ? 0.0 : Math.sqrt(m2 / (count - 1));
+    }
+
+    // Returns actually covered by a lookback: the last min(lookback, count)
+    public int windowSize(int lookback) {
+        if (lookback <= 0) {
+            throw new IllegalArgumentException("Lookback must be a positive number of returns");
+        }
+        return Math.min(lookback, count);
+    }
+
+    // Mean of the last `lookback` returns, O(1)
+    public double mean(int lookback) {
+        int k = windowSize(lookback);
+        return k == 0 ? 0.0 : (prefixSum[count] - prefixSum[count - k]) / k;
+    }
+
+    // Sample standard deviation of the last `lookback` returns, O(1)
+    public double stdDev(int lookback) {
+        int k = windowSize(lookback);
+        if (k < 2) {
+            return 0.0;
+        }
+        double sum = prefixSum[count] - prefixSum[count - k];
+        double sumSquares = prefixSumSquares[count] - prefixSumSquares[count - k];
+        // Clamp tiny negative values left by floating-point cancellation on near-constant windows
+        return Math.sqrt(Math.max(0.0, (sumSquares - sum * sum / k) / (k - 1)));
+    }
+
+    // Daily EWMA volatility (lambda = EWMA_LAMBDA), 0 when there are no returns
+    public double ewmaVolatility() {
+        return Math.sqrt(ewmaVariance);
+    }
+}
@@ -7,16 +7,24 @@ package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
 
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.LocalDate;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /* Tutorials:
 https://fasterxml.github.io/jackson-core/javadoc/2.15/com/fasterxml/jackson/core/io/JsonEOFException.html
@@ -25,15 +33,15 @@ Tutorials: Search "Jackson JSON Java tutorial" for guides on using Jackson for J
 Baeldung Jackson guide: https://www.baeldung.com/jackson
 Java Brains video: "Jackson JSON Processor - Java Brains" (YouTube) */
 
-// Used to parse and create JSON objects from API responses
-import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 // Exception thrown when the end of a JSON input is reached unexpectedly (Jackson library)
 import com.fasterxml.jackson.core.io.JsonEOFException;
-// Exception thrown for errors in JSON parsing or formatting (org.json library)
-import org.json.JSONException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /*Class Responsibilities:
 - Make HTTP requests to the API
@@ -43,151 +51,232 @@ import org.json.JSONException;
 //Component is a Spring annotation that marks a class as a Spring-managed bean.
 //This means Spring will automatically create an instance of the class and manage its lifecycle, allowing me to use features like dependency injection
 //Because of want Spring to inject values or dependencies (with @Autowired), the class must be a Spring bean
+/*
+ * Refactored for refreshing many symbols at once:
+ * - One shared HttpClient (connection pool, HTTP/2) instead of a new client per call.
+ * - Requests use sendAsync, so no thread is blocked while waiting for Alpha Vantage.
+ * - At most alphaVantage.maxConcurrentRequests requests are in flight (AsyncConcurrencyLimiter) and
+ *   requests are spaced by a token bucket set to the plan's alphaVantage.requestsPerMinute quota.
+ * - getDailyPrices and getDailyPriceDTOs share one parse method instead of two copies, a single-pass
+ *   Jackson streaming parser (AlphaVantageDailyParser) rather than an org.json tree.
+ * Metrics (see /actuator/metrics):
+ * - alphavantage.request (timer, tags outputsize, outcome = success / http_error / api_error / timeout / cancelled / io_error):
+ *   from sending the request to the parsed prices. api_error is a 200 without prices, e.g. a bad symbol or the
+ *   "Note"/"Information" Alpha Vantage sends when the quota is used up.
+ * - alphavantage.ratelimit.wait (timer): how long a request queued for a concurrency slot and a rate limit token.
+ * The blocking getDailyPriceDTOs waits at most alphaVantage.maxWaitSeconds, queueing included, and then fails
+ * with HttpTimeoutException (503 from the import endpoint) instead of holding the request thread indefinitely.
+ * Cancelling a returned future frees its concurrency slot and rate limit token (or aborts the request if sent).
+ */
 @Component
 public class AlphaVantageClient {
-    //  inject the value of the property named alphaVantage.apiKey from local.properties
-    @Value("${alphaVantage.apiKey}")
-    private  String apiKey;
 
-    public AlphaVantageClient(){}
+    private final String apiKey;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final Duration maxWait;
+    private final HttpClient httpClient;
+    private final AsyncConcurrencyLimiter concurrencyLimiter;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    // How long the blocking getDailyPriceDTOs waits, rate limit queueing included, when not configured
+    public static final int DEFAULT_MAX_WAIT_SECONDS = 60;
+
+    //  inject the value of the property named alphaVantage.apiKey from local.properties,
+    //  plus the endpoint and limits (defaults match the public endpoint and the free plan)
+    public AlphaVantageClient(String apiKey, String baseUrl, int maxConcurrentRequests, int requestsPerMinute,
+            int burstCapacity,
+            int requestTimeoutSeconds, MeterRegistry meterRegistry) {
+        this(apiKey, baseUrl, maxConcurrentRequests, requestsPerMinute, burstCapacity, requestTimeoutSeconds,
+                DEFAULT_MAX_WAIT_SECONDS, meterRegistry);
+    }
+
+    @Autowired
+    public AlphaVantageClient(
+            @Value("${alphaVantage.apiKey}") String apiKey,
+            @Value("${alphaVantage.baseUrl:https://www.alphavantage.co/query}") String baseUrl,
+            @Value("${alphaVantage.maxConcurrentRequests:4}") int maxConcurrentRequests,
+            @Value("${alphaVantage.requestsPerMinute:5}") int requestsPerMinute,
+            @Value("${alphaVantage.burstCapacity:1}") int burstCapacity,
+            @Value("${alphaVantage.requestTimeoutSeconds:30}") int requestTimeoutSeconds,
+            @Value("${alphaVantage.maxWaitSeconds:60}") int maxWaitSeconds,
+            MeterRegistry meterRegistry) {
+        if (maxWaitSeconds < 1) {
+            throw new IllegalArgumentException("alphaVantage.maxWaitSeconds must be at least 1");
+        }
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+        this.maxWait = Duration.ofSeconds(maxWaitSeconds);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.concurrencyLimiter = new AsyncConcurrencyLimiter(maxConcurrentRequests);
+        this.rateLimiter = new TokenBucketRateLimiter(requestsPerMinute, burstCapacity);
+        this.meterRegistry = meterRegistry;
+    }
 
     /* Fetches daily historical prices for a given asset symbol from Alpha Vantage
      *  @param symbol The stock/asset symbol (e.g., "IBM")
      * @return List of closing prices in chronological order (oldest to newest)
 
      */
-    public List<Double> getDailyPrices(String symbol) throws IOException, InterruptedException, JsonEOFException, JSONException{
-       // price list is used to collect all the closing prices in chronological order.
+    public List<Double> getDailyPrices(String symbol) throws IOException, InterruptedException, JsonEOFException {
+        // price list is used to collect all the closing prices in chronological order.
         List<Double> price = new ArrayList<>();
-
-        //TIME_SERIES_DAILY = daily historical stock prices
-        //outputsize=compact tells Alpha Vantage how much data I want. compact → ~100 most recent data points (default)
-        String url = "https://www.alphavantage.co/query?function=TIME_SERIES_DAILY&symbol="
-                     + symbol + "&outputsize=compact&apikey=" + apiKey;
-
-        // Building API request
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest  request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-        //the response returned by the server (Alpha Vantage). 
-        //The <String> means the body of the response will be treated as a plain text String.
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-
-        // Parse JSON response
-
-        JSONObject json = new JSONObject(response.body());
-        JSONObject timeSeriesDaily = json.getJSONObject("Time Series (Daily)");
-
-        // Create a Map to store closing prices keyed by date.
-        // Key: LocalDate (the trading date), Value: Double (closing price)
-        Map<LocalDate, Double> closingPrices = new HashMap<>();
-
-        // Get an iterator over all the keys in the "Time Series (Daily)" JSON object.
-        // Each key is a date string like "2025-09-03", "2025-09-02", etc.
-        Iterator<String> dates = timeSeriesDaily.keys();
-
-        // Loop through all the dates in the JSON object
-        while (dates.hasNext()){
-            // Get the next date string from the iterator
-           String dateStr = dates.next();
-
-           // Get the nested JSON object for this date, which contains
-           // "1. open", "2. high", "3. low", "4. close", "5. volume"
-           JSONObject dailyData = timeSeriesDaily.getJSONObject(dateStr);
-
-            // Extract the closing price as a String from the JSON
-            String closingStr = dailyData.getString("4. close"); //"4. close" is the closing price of that day
-
-            // Convert the closing price string to a double
-            double closingPrice = Double.parseDouble(closingStr);
-
-            // Why I converted the date from String. LocalDate objects can be sorted naturally.
-            //If I leave it as a string, sorting might not behave as expected for other formats.
-            //can easily compute differences between dates, add/subtract days, or check ranges
-            closingPrices.put(LocalDate.parse(dateStr), closingPrice);
-
-        }  
-        // Collect prices in chronological order (oldest to newest)
-        //closingPrices.keySet() returns a Set<LocalDate>—all the dates (keys) in the map.
-        List<LocalDate> sortedDates = new ArrayList<>(closingPrices.keySet());
-        //sorts the dates in chronological order
-        Collections.sort(sortedDates);
-        for (LocalDate date : sortedDates) {
-            price.add(closingPrices.get(date));
+        for (AlphaVantagePriceDTO dto : getDailyPriceDTOs(symbol)) {
+            price.add(dto.getClosingPrice());
         }
         return price;
     }
 
-
-        /**
-     * Fetches daily historical prices for a given asset symbol from Alpha Vantage, returning a list of AlphaVantagePriceDTO (date and price).
-     * @param symbol The stock/asset symbol (e.g., "IBM")
-     * @return List of AlphaVantagePriceDTO in chronological order (oldest to newest)
-     */
     /**
      * Fetches daily historical prices for a given asset symbol from Alpha Vantage, returning a list of AlphaVantagePriceDTO (date and price).
+     * Blocking wrapper around fetchDailyPriceDTOs, kept for existing callers. Waits at most alphaVantage.maxWaitSeconds.
      *
      * @param symbol The stock/asset symbol (e.g., "IBM")
      * @return List of AlphaVantagePriceDTO in chronological order (oldest to newest)
-     * @throws IOException If there is a network or IO error
+     * @throws IOException If there is a network or IO error, or Alpha Vantage returned no time series
+     * @throws HttpTimeoutException (an IOException) if no answer came within the request timeout or maxWaitSeconds
      * @throws InterruptedException If the HTTP request is interrupted
-     * @throws JsonEOFException If the JSON is incomplete
-     * @throws JSONException If the JSON cannot be parsed
-     *
-     * Steps:
-     * 1. Build the Alpha Vantage API URL for daily prices.
-     * 2. Make an HTTP GET request to fetch the JSON response.
-     * 3. Parse the JSON to extract the "Time Series (Daily)" object.
-     * 4. For each date, extract the closing price and store it in a map keyed by LocalDate.
-     * 5. Sort the dates in chronological order.
-     * 6. For each date, create an AlphaVantagePriceDTO with the date and closing price.
-     * 7. Return the list of DTOs (oldest to newest).
+     * @throws JsonEOFException If the JSON is incomplete (any other malformed JSON is a JsonParseException, also an IOException)
      */
-    public List<AlphaVantagePriceDTO> getDailyPriceDTOs(String symbol) throws IOException, InterruptedException, JsonEOFException, JSONException {
-        // List to hold the result DTOs
-        List<AlphaVantagePriceDTO> dtos = new ArrayList<>();
-
-        // 1. Build the API URL for the given symbol
-        String url = "https://www.alphavantage.co/query?function=TIME_SERIES_DAILY&symbol="
-                + symbol + "&outputsize=compact&apikey=" + apiKey;
-
-        // 2. Make the HTTP GET request
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        // 3. Parse the JSON response
-        JSONObject json = new JSONObject(response.body());
-        JSONObject timeSeriesDaily = json.getJSONObject("Time Series (Daily)");
-
-        // 4. Extract closing prices for each date
-        // 4. Extract closing prices for each date in the JSON response
-        Map<LocalDate, Double> closingPrices = new HashMap<>();
-        Iterator<String> dates = timeSeriesDaily.keys();
-        while (dates.hasNext()) {
-            // Get the next date string (e.g., "2025-09-03")
-            String dateStr = dates.next();
-            // Get the nested JSON object for this date (contains open, high, low, close, volume)
-            JSONObject dailyData = timeSeriesDaily.getJSONObject(dateStr);
-            // Extract the closing price as a string (e.g., "144.23")
-            String closingStr = dailyData.getString("4. close");
-            // Convert the closing price string to a double value
-            double closingPrice = Double.parseDouble(closingStr);
-            // Convert the date string to LocalDate and store the closing price in the map
-            closingPrices.put(LocalDate.parse(dateStr), closingPrice);
+    public List<AlphaVantagePriceDTO> getDailyPriceDTOs(String symbol) throws IOException, InterruptedException, JsonEOFException {
+        CompletableFuture<List<AlphaVantagePriceDTO>> prices = fetchDailyPriceDTOs(symbol, OutputSize.COMPACT);
+        try {
+            return prices.get(maxWait.toSeconds(), TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            // Gives back its concurrency slot and rate limit token, so it does not hold up the next callers
+            prices.cancel(true);
+            throw new HttpTimeoutException("Alpha Vantage did not answer for " + symbol + " within "
+                    + maxWait.toSeconds() + " s (rate limit queue included)");
         }
+    }
 
-        // 5. Sort the dates in chronological order (oldest to newest)
-        List<LocalDate> sortedDates = new ArrayList<>(closingPrices.keySet());
-        Collections.sort(sortedDates);
+    /**
+     * Async fetch of one symbol. The request waits for a free concurrency slot and a rate limit token,
+     * then is sent without blocking a thread.
+     *
+     * @param symbol     The stock/asset symbol (e.g., "IBM")
+     * @param outputSize COMPACT (~100 latest days) or FULL (whole history)
+     * @return future of the prices, oldest first; fails with IOException for HTTP or API errors
+     */
+    public CompletableFuture<List<AlphaVantagePriceDTO>> fetchDailyPriceDTOs(String symbol, OutputSize outputSize) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "?function=TIME_SERIES_DAILY&symbol="
+                        + URLEncoder.encode(symbol, StandardCharsets.UTF_8)
+                        + "&outputsize=" + outputSize.parameter() + "&apikey=" + apiKey))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        long queued = System.nanoTime();
+        long[] sent = new long[1];
+        // Set where the outcome is known; a failure that leaves it unset is a network error or a timeout
+        String[] outcome = new String[1];
+        return concurrencyLimiter.submit(() -> {
+            CompletableFuture<Void> token = rateLimiter.acquireAsync();
+            CompletableFuture<?>[] sending = new CompletableFuture<?>[1];
+            CompletableFuture<List<AlphaVantagePriceDTO>> call = token
+                .thenCompose(ready -> {
+                    sent[0] = System.nanoTime();
+                    Timer.builder("alphavantage.ratelimit.wait").register(meterRegistry)
+                            .record(sent[0] - queued, TimeUnit.NANOSECONDS);
+                    CompletableFuture<HttpResponse<byte[]>> response =
+                            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+                    sending[0] = response;
+                    return response;
+                })
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        outcome[0] = "http_error";
+                        throw new CompletionException(new IOException(
+                                "Alpha Vantage request for " + symbol + " failed with HTTP " + response.statusCode()));
+                    }
+                    try {
+                        List<AlphaVantagePriceDTO> prices = parseDailySeries(response.body());
+                        outcome[0] = "success";
+                        return prices;
+                    } catch (IOException e) {
+                        outcome[0] = "api_error";
+                        throw new CompletionException(e);
+                    }
+                })
+                .whenComplete((prices, failure) -> {
+                    if (sent[0] == 0) {
+                        return; // failed before the request went out
+                    }
+                    String result = outcome[0];
+                    if (result == null) {
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure;
+                        result = cause instanceof HttpTimeoutException ? "timeout"
+                                : cause instanceof CancellationException ? "cancelled" : "io_error";
+                    }
+                    Timer.builder("alphavantage.request").tag("outputsize", outputSize.parameter())
+                            .tag("outcome", result).register(meterRegistry)
+                            .record(System.nanoTime() - sent[0], TimeUnit.NANOSECONDS);
+                });
+            // The caller gave up (the limiter cancels call): leave the token queue, or abort the request in flight
+            call.whenComplete((prices, failure) -> {
+                if (call.isCancelled()) {
+                    token.cancel(false);
+                    if (sending[0] != null) {
+                        sending[0].cancel(true);
+                    }
+                }
+            });
+            return call;
+        });
+    }
 
-        // 6. For each sorted date, create a DTO with the date and its closing price
-        for (LocalDate date : sortedDates) {
-            dtos.add(new AlphaVantagePriceDTO(date, closingPrices.get(date)));
+    /**
+     * Fetches many symbols concurrently, e.g. to refresh a whole universe. All requests are queued
+     * at once; the concurrency limit and rate limiter decide when each one actually goes out, and a
+     * failing symbol only fails its own future.
+     *
+     * @return one future per distinct symbol, in the order given
+     */
+    public Map<String, CompletableFuture<List<AlphaVantagePriceDTO>>> fetchMany(Collection<String> symbols, OutputSize outputSize) {
+        Map<String, CompletableFuture<List<AlphaVantagePriceDTO>>> futures = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            futures.computeIfAbsent(symbol, s -> fetchDailyPriceDTOs(s, outputSize));
         }
+        return futures;
+    }
 
-        // 7. Return the list of DTOs (each contains date and closing price)
-        return dtos;
+    // Compact (latest ~100 days) variant of fetchMany
+    public Map<String, CompletableFuture<List<AlphaVantagePriceDTO>>> fetchMany(Collection<String> symbols) {
+        return fetchMany(symbols, OutputSize.COMPACT);
     }
 
+    /**
+     * The single parse path for TIME_SERIES_DAILY responses, see AlphaVantageDailyParser.
+     *
+     * @throws IOException if the body is not valid JSON or has no "Time Series (Daily)", e.g. an
+     *                     "Error Message" for a bad symbol or a "Note"/"Information" when the quota is exceeded
+     */
+    static List<AlphaVantagePriceDTO> parseDailySeries(byte[] body) throws IOException {
+        return AlphaVantageDailyParser.parse(body).toDTOs();
+    }
+
+    // Rethrows the original failure of an async fetch with the checked types the blocking methods declare
+    private static IOException unwrap(Throwable cause) throws InterruptedException {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof InterruptedException interrupted) {
+            throw interrupted;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
 }
@@ -0,0 +1,145 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Single-pass Jackson streaming reader for TIME_SERIES_DAILY responses.
+ *
+ * The previous org.json path built the whole response as a JSONObject tree, copied the closes into a
+ * map keyed by LocalDate and then sorted the keys: three full copies of a response that is several
+ * megabytes for outputsize=full. Here the tokens are read once, in order, and each "4. close" goes
+ * straight into a DailyCloseBuffer sized from the body length. The values of other fields ("1. open",
+ * "5. volume", "Meta Data", ...) are skipped without being decoded.
+ */
+final class AlphaVantageDailyParser {
+
+    static final String TIME_SERIES_FIELD = "Time Series (Daily)";
+    static final String CLOSE_FIELD = "4. close";
+
+    // A pretty-printed daily entry (5 quoted fields) is roughly 130-170 bytes; underestimating only costs a resize
+    private static final int BYTES_PER_DAY_ESTIMATE = 128;
+
+    // Thread-safe and expensive to create, so shared (same as PriceHistoryRowReader).
+    // Field-name canonicalisation is off: every trading date is a distinct field name, and interning
+    // thousands of one-off names into the symbol table cost more than the whole parse.
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+            .disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)
+            .build();
+
+    private AlphaVantageDailyParser() {
+    }
+
+    /**
+     * @return closing prices oldest first
+     * @throws IOException if the body is not valid JSON or has no "Time Series (Daily)"; the message then carries
+     *                     Alpha Vantage's "Error Message", "Note" or "Information" text (bad symbol, quota exceeded)
+     */
+    static DailyCloseBuffer parse(byte[] body) throws IOException {
+        DailyCloseBuffer buffer = new DailyCloseBuffer(body.length / BYTES_PER_DAY_ESTIMATE + 16);
+        boolean sawTimeSeries = false;
+        String providerMessage = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Alpha Vantage response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (TIME_SERIES_FIELD.equals(field) && value == JsonToken.START_OBJECT) {
+                    readTimeSeries(parser, buffer);
+                    sawTimeSeries = true;
+                } else if (value == JsonToken.VALUE_STRING && providerMessage == null
+                        && ("Error Message".equals(field) || "Note".equals(field) || "Information".equals(field))) {
+                    providerMessage = parser.getText();
+                } else {
+                    parser.skipChildren(); // "Meta Data" and anything unknown
+                }
+            }
+        }
+        if (!sawTimeSeries) {
+            throw new IOException("Alpha Vantage returned no daily prices: "
+                    + (providerMessage != null ? providerMessage : "missing " + TIME_SERIES_FIELD));
+        }
+        buffer.sortAscending();
+        return buffer;
+    }
+
+    // Parser is on the START_OBJECT of "Time Series (Daily)"; leaves it on the matching END_OBJECT
+    private static void readTimeSeries(JsonParser parser, DailyCloseBuffer buffer) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // The date is read from the parser's char buffer rather than through LocalDate.parse
+            int epochDay = parseEpochDay(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected an object for " + LocalDate.ofEpochDay(epochDay));
+            }
+            boolean hasClose = false;
+            double close = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean isClose = CLOSE_FIELD.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (!isClose) {
+                    parser.skipChildren();
+                    continue;
+                }
+                close = readDouble(parser, value, epochDay);
+                hasClose = true;
+            }
+            if (hasClose) {
+                buffer.add(epochDay, close);
+            }
+        }
+    }
+
+    // Alpha Vantage sends prices as strings ("245.1000"); a plain JSON number is accepted too
+    private static double readDouble(JsonParser parser, JsonToken value, int epochDay) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_FLOAT || value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getDoubleValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText());
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+        }
+        throw new IOException("Invalid close price for " + LocalDate.ofEpochDay(epochDay) + ": " + parser.getText());
+    }
+
+    // Parses yyyy-MM-dd from a char range; LocalDate.of still validates month/day ranges and leap years
+    static int parseEpochDay(char[] chars, int offset, int length) throws IOException {
+        if (length != 10 || chars[offset + 4] != '-' || chars[offset + 7] != '-') {
+            throw new IOException("Invalid trading date: " + new String(chars, offset, length));
+        }
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            throw new IOException("Invalid trading date: " + new String(chars, offset, length));
+        }
+        try {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            throw new IOException("Invalid trading date: " + new String(chars, offset, length), e);
+        }
+    }
+
+    // -1 if any char is not a digit
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = chars[offset + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,92 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking equivalent of a Semaphore: at most maxConcurrent async tasks run at once and the
+ * rest wait in a queue (not on a thread). When a task's future completes the next queued task starts.
+ * Cancelling the returned future gives the slot back at once: a queued task is skipped without
+ * starting, and a running task's future is cancelled and no longer counts against the limit.
+ */
+final class AsyncConcurrencyLimiter {
+
+    private final int maxConcurrent;
+    private final AtomicInteger running = new AtomicInteger();
+    // Each entry starts its task and returns true, or returns false when it was cancelled while queued
+    private final Queue<BooleanSupplier> waiting = new ConcurrentLinkedQueue<>();
+
+    AsyncConcurrencyLimiter(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * Queues a task and returns a future for its result. The task is started once a slot is free.
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.add(() -> {
+            if (result.isDone()) {
+                return false; // cancelled while queued
+            }
+            CompletableFuture<T> started;
+            try {
+                started = task.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            // The caller gave up: cancel the task, which completes started and so releases the slot
+            CompletableFuture<T> running = started;
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    running.cancel(true);
+                }
+            });
+            return true;
+        });
+        drain();
+        return result;
+    }
+
+    int running() {
+        return running.get();
+    }
+
+    private void release() {
+        running.decrementAndGet();
+        drain();
+    }
+
+    // Starts queued tasks while there are free slots. A slot is claimed before polling, and given back
+    // if the queue turned out to be empty, so running never exceeds maxConcurrent
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            int current = running.get();
+            if (current >= maxConcurrent) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            BooleanSupplier next = waiting.poll();
+            if (next == null || !next.getAsBoolean()) {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
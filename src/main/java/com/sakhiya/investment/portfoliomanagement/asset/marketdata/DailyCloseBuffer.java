@@ -0,0 +1,115 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable pair of primitive arrays (epoch day, closing price) filled by AlphaVantageDailyParser.
+ *
+ * Same layout as PriceSeries: an int and a double per trading day instead of a LocalDate key,
+ * a boxed Double value and a map entry, so a 20+ year response is two arrays rather than
+ * thousands of small objects.
+ */
+final class DailyCloseBuffer {
+
+    private int[] epochDays;
+    private double[] closes;
+    private int size;
+
+    DailyCloseBuffer(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.epochDays = new int[capacity];
+        this.closes = new double[capacity];
+    }
+
+    void add(int epochDay, double close) {
+        if (size == epochDays.length) {
+            int capacity = size + (size >> 1);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+        }
+        epochDays[size] = epochDay;
+        closes[size] = close;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int epochDayAt(int index) {
+        return epochDays[index];
+    }
+
+    double closeAt(int index) {
+        return closes[index];
+    }
+
+    /**
+     * Puts the rows oldest first. Alpha Vantage sends newest first, so the usual case is a single
+     * in-place reversal; anything else (unordered keys, repeated dates) falls back to a sort where
+     * the last row for a date wins.
+     */
+    void sortAscending() {
+        if (isStrictlyAscending()) {
+            return;
+        }
+        reverse();
+        if (isStrictlyAscending()) {
+            return;
+        }
+        reverse(); // back to arrival order so "last one wins" below means last in the response
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // Stable sort: rows with the same date keep their arrival order
+        Arrays.sort(order, (a, b) -> Integer.compare(epochDays[a], epochDays[b]));
+        int[] sortedDays = new int[size];
+        double[] sortedCloses = new double[size];
+        int n = 0;
+        for (int index : order) {
+            if (n > 0 && sortedDays[n - 1] == epochDays[index]) {
+                sortedCloses[n - 1] = closes[index];
+                continue;
+            }
+            sortedDays[n] = epochDays[index];
+            sortedCloses[n] = closes[index];
+            n++;
+        }
+        epochDays = sortedDays;
+        closes = sortedCloses;
+        size = n;
+    }
+
+    // DTO list for the existing callers; built once, already at its final size
+    List<AlphaVantagePriceDTO> toDTOs() {
+        List<AlphaVantagePriceDTO> dtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dtos.add(new AlphaVantagePriceDTO(LocalDate.ofEpochDay(epochDays[i]), closes[i]));
+        }
+        return dtos;
+    }
+
+    private boolean isStrictlyAscending() {
+        for (int i = 1; i < size; i++) {
+            if (epochDays[i] <= epochDays[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int day = epochDays[i];
+            epochDays[i] = epochDays[j];
+            epochDays[j] = day;
+            double close = closes[i];
+            closes[i] = closes[j];
+            closes[j] = close;
+        }
+    }
+}
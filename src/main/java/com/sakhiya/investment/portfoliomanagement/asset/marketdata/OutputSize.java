@@ -0,0 +1,14 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+/**
+ * Alpha Vantage "outputsize" parameter.
+ * COMPACT returns the latest ~100 trading days, FULL the whole history (20+ years).
+ */
+public enum OutputSize {
+    COMPACT,
+    FULL;
+
+    String parameter() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,106 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket matching the provider quota (e.g. 75 requests per minute).
+ *
+ * Tokens are added at a steady rate up to `capacity`; each request takes one. Instead of blocking a
+ * thread until a token is free, acquireAsync() queues the caller and returns a future that completes
+ * when a token is handed to it, so hundreds of queued symbols cost no waiting threads.
+ * Tokens are handed out in order as they become due; a waiter whose future was cancelled (the caller
+ * gave up) is skipped and does not use a token, so it does not delay the callers behind it.
+ */
+final class TokenBucketRateLimiter {
+
+    private final long nanosPerToken;
+    private final double capacity;
+    private final LongSupplier clock;
+
+    // Tokens in the bucket at lastRefillNanos
+    private double tokens;
+    private long lastRefillNanos;
+    // Callers waiting for a token, oldest first, and whether a timer is set for the next token
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private boolean timerPending;
+
+    TokenBucketRateLimiter(int requestsPerMinute, int capacity) {
+        this(requestsPerMinute, capacity, System::nanoTime);
+    }
+
+    // Clock is injectable so tests do not have to sleep
+    TokenBucketRateLimiter(int requestsPerMinute, int capacity, LongSupplier clock) {
+        if (requestsPerMinute <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("requestsPerMinute and capacity must be positive");
+        }
+        this.nanosPerToken = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.capacity = capacity;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefillNanos = clock.getAsLong();
+    }
+
+    /**
+     * Takes one token if there is one.
+     *
+     * @return 0 if a token was taken, otherwise how long until the next token is due (nothing is taken)
+     */
+    synchronized long tryTake() {
+        long now = clock.getAsLong();
+        if (now > lastRefillNanos) {
+            // Refill for the time since the last call, never above capacity
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefillNanos) / nanosPerToken);
+            lastRefillNanos = now;
+        }
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) * nanosPerToken));
+    }
+
+    // Completes once a token is handed to this caller; cancel it to leave the queue
+    CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> ticket = new CompletableFuture<>();
+        synchronized (this) {
+            waiters.add(ticket);
+        }
+        grant();
+        return ticket;
+    }
+
+    // Hands the tokens that are due to the oldest live waiters; when tokens run out, one timer is set
+    // for the next token. Tickets are completed outside the lock, as that runs the callers' next stages
+    private void grant() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (this) {
+            while (!timerPending && !waiters.isEmpty()) {
+                if (waiters.peek().isDone()) {
+                    waiters.poll(); // cancelled: no token used
+                    continue;
+                }
+                long waitNanos = tryTake();
+                if (waitNanos > 0) {
+                    timerPending = true;
+                    CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(this::timerFired);
+                    break;
+                }
+                granted.add(waiters.poll());
+            }
+        }
+        granted.forEach(ticket -> ticket.complete(null));
+    }
+
+    private void timerFired() {
+        synchronized (this) {
+            timerPending = false;
+        }
+        grant();
+    }
+}
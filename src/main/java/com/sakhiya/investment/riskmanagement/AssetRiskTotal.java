@@ -0,0 +1,30 @@
+package com.sakhiya.investment.riskmanagement;
+
+/**
+ * (assetId, risk type, sum of values) row from RiskRepository.sumValuesByAssetAndType.
+ * The type is lower-cased in the query, so "VaR"/"var" and "StressTest"/"stresstest" group together,
+ * matching the case-insensitive comparisons used elsewhere.
+ */
+public class AssetRiskTotal {
+    private final String assetId;
+    private final String type;
+    private final Double total;
+
+    public AssetRiskTotal(String assetId, String type, Double total) {
+        this.assetId = assetId;
+        this.type = type;
+        this.total = total;
+    }
+
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public double getTotal() {
+        return total != null ? total : 0.0;
+    }
+}
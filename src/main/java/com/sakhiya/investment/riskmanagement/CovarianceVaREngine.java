@@ -0,0 +1,315 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Component;
+
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.riskmanagement.dto.AssetComponentVaRDTO;
+import com.sakhiya.investment.riskmanagement.dto.PortfolioCovarianceVaRDTO;
+
+/**
+ * Portfolio-level parametric VaR using the variance-covariance method.
+ *
+ * Summing per-asset VaR (PortfolioService.calculateTotalVaR) assumes every asset falls at the same
+ * time, i.e. perfect correlation. Here the portfolio volatility comes from the covariance matrix C
+ * of the assets' daily returns and the position values w:
+ *   sigmaP = sqrt(w' C w)
+ *   VaR    = w.mean + z * sigmaP * sqrt(h)        (same shape as the single-asset formula in RiskService)
+ * Marginal VaR is the derivative of VaR with respect to each position and component VaR is
+ * position * marginal, so the components add up exactly to the portfolio VaR (Euler allocation).
+ *
+ * Nothing is persisted: the calculation reads the cached price series and runs on request.
+ */
+@Component
+public class CovarianceVaREngine {
+
+    // Tile sizes for the covariance loop. 32 assets x 512 days of doubles is 128KB per tile, so the
+    // two tiles being multiplied stay in L2 cache while every pair of rows in them is dotted
+    static final int ASSET_BLOCK = 32;
+    static final int TIME_BLOCK = 512;
+
+    /**
+     * Calculates covariance VaR for the given assets.
+     *
+     * @param portfolioId     only copied into the result
+     * @param assets          portfolio assets; those without a value or with fewer than 2 prices are excluded
+     * @param seriesByAsset   cached price series by assetId (see AssetHistoryService.getPriceSeries)
+     * @param confidenceLevel any level between 0 and 1, e.g. 0.975
+     * @param timeHorizonDays horizon in days, scaled with sqrt(h)
+     * @param lookbackDays    optional: only the most recent N aligned returns are used
+     * @throws IllegalArgumentException for invalid parameters or when the assets share too few trading dates
+     */
+    public PortfolioCovarianceVaRDTO calculate(String portfolioId, List<Asset> assets, Map<String, PriceSeries> seriesByAsset,
+            double confidenceLevel, int timeHorizonDays, Integer lookbackDays) {
+        if (timeHorizonDays <= 0) {
+            throw new IllegalArgumentException("Time horizon must be a positive integer");
+        }
+        if (lookbackDays != null && lookbackDays < 2) {
+            throw new IllegalArgumentException("lookbackDays must be at least 2");
+        }
+        double zScore = RiskService.getZScore(confidenceLevel);
+        long started = System.nanoTime();
+
+        // 1. Keep only assets that can take part in the calculation
+        List<Asset> included = new ArrayList<>();
+        List<PriceSeries> series = new ArrayList<>();
+        Map<String, String> excluded = new LinkedHashMap<>();
+        for (Asset asset : assets) {
+            PriceSeries s = seriesByAsset.getOrDefault(asset.getAssetId(), PriceSeries.EMPTY);
+            if (asset.getValue() == null) {
+                excluded.put(asset.getAssetId(), "Asset has no value");
+            } else if (s.size() < 2) {
+                excluded.put(asset.getAssetId(), "Not enough price history");
+            } else {
+                included.add(asset);
+                series.add(s);
+            }
+        }
+
+        PortfolioCovarianceVaRDTO result = new PortfolioCovarianceVaRDTO();
+        result.setPortfolioId(portfolioId);
+        result.setConfidenceLevel(confidenceLevel);
+        result.setTimeHorizonDays(timeHorizonDays);
+        result.setExcludedAssets(excluded);
+        result.setAssets(new ArrayList<>());
+        int n = included.size();
+        result.setAssetCount(n);
+        if (n == 0) {
+            result.setComputeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return result;
+        }
+
+        // 2. Align every asset on the trading dates they all share, then turn prices into returns
+        int[] days = commonDays(series);
+        if (lookbackDays != null && days.length > lookbackDays + 1) {
+            days = Arrays.copyOfRange(days, days.length - lookbackDays - 1, days.length);
+        }
+        if (days.length < 3) {
+            throw new IllegalArgumentException("Assets share only " + days.length
+                    + " trading dates; at least 3 are needed to estimate covariance");
+        }
+        double[][] returns = alignedReturns(series, days);
+        int t = days.length - 1;
+
+        // 3. Means, then centre the rows in place so covariance is a plain dot product
+        double[] means = new double[n];
+        for (int i = 0; i < n; i++) {
+            double[] row = returns[i];
+            double sum = 0;
+            for (int k = 0; k < t; k++) {
+                sum += row[k];
+            }
+            double mean = sum / t;
+            means[i] = mean;
+            for (int k = 0; k < t; k++) {
+                row[k] -= mean;
+            }
+        }
+        double[][] cov = covariance(returns);
+
+        // 4. Portfolio volatility sqrt(w'Cw); Cw is kept because it also gives the marginal VaR
+        double[] w = new double[n];
+        double totalValue = 0;
+        for (int i = 0; i < n; i++) {
+            w[i] = included.get(i).getValue();
+            totalValue += w[i];
+        }
+        double[] cw = new double[n];
+        double variance = 0;
+        double portfolioMean = 0;
+        for (int i = 0; i < n; i++) {
+            double[] covRow = cov[i];
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += covRow[j] * w[j];
+            }
+            cw[i] = sum;
+            variance += w[i] * sum;
+            portfolioMean += w[i] * means[i];
+        }
+        double sigma = Math.sqrt(Math.max(variance, 0.0));
+        double sqrtH = Math.sqrt(timeHorizonDays);
+        double portfolioVaR = portfolioMean + zScore * sigma * sqrtH;
+
+        // 5. Marginal / component VaR per asset, plus the standalone VaR for the undiversified total
+        double undiversified = 0;
+        for (int i = 0; i < n; i++) {
+            Asset asset = included.get(i);
+            double stdDev = Math.sqrt(Math.max(cov[i][i], 0.0));
+            double marginal = means[i] + (sigma > 0 ? zScore * sqrtH * cw[i] / sigma : 0.0);
+            double component = w[i] * marginal;
+            double standalone = w[i] * (means[i] + zScore * stdDev * sqrtH);
+            undiversified += standalone;
+
+            AssetComponentVaRDTO dto = new AssetComponentVaRDTO();
+            dto.setAssetId(asset.getAssetId());
+            dto.setAssetName(asset.getName());
+            dto.setAssetValue(w[i]);
+            dto.setWeight(totalValue != 0 ? w[i] / totalValue : 0.0);
+            dto.setMean(means[i]);
+            dto.setStdDev(stdDev);
+            dto.setStandaloneVaR(standalone);
+            dto.setMarginalVaR(marginal);
+            dto.setComponentVaR(component);
+            dto.setComponentPercent(portfolioVaR != 0 ? component / portfolioVaR : 0.0);
+            result.getAssets().add(dto);
+        }
+
+        result.setObservationCount(t);
+        result.setWindowStart(LocalDate.ofEpochDay(days[0]));
+        result.setWindowEnd(LocalDate.ofEpochDay(days[days.length - 1]));
+        result.setPortfolioValue(totalValue);
+        result.setPortfolioMean(portfolioMean);
+        result.setPortfolioStdDev(sigma);
+        result.setPortfolioVaR(portfolioVaR);
+        result.setUndiversifiedVaR(undiversified);
+        result.setDiversificationBenefit(portfolioVaR - undiversified);
+        result.setComputeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return result;
+    }
+
+    /**
+     * Trading dates (epoch days, ascending) present in every series. Only the overlapping range
+     * [latest first date, earliest last date] can qualify, so one counter per day in that range is
+     * enough: a day is common when all n series hit it. O(total prices), no sorting or hashing.
+     */
+    static int[] commonDays(List<PriceSeries> series) {
+        int lo = Integer.MIN_VALUE;
+        int hi = Integer.MAX_VALUE;
+        for (PriceSeries s : series) {
+            lo = Math.max(lo, s.epochDayAt(0));
+            hi = Math.min(hi, s.epochDayAt(s.size() - 1));
+        }
+        if (lo > hi) {
+            return new int[0];
+        }
+        int[] counts = new int[hi - lo + 1];
+        for (PriceSeries s : series) {
+            for (int k = s.indexOnOrAfter(lo); k < s.size() && s.epochDayAt(k) <= hi; k++) {
+                counts[s.epochDayAt(k) - lo]++;
+            }
+        }
+        int found = 0;
+        for (int c : counts) {
+            if (c == series.size()) {
+                found++;
+            }
+        }
+        int[] days = new int[found];
+        int next = 0;
+        for (int d = 0; d < counts.length; d++) {
+            if (counts[d] == series.size()) {
+                days[next++] = lo + d;
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Asset-major return matrix: row i holds asset i's simple returns between consecutive common days,
+     * so each row is one contiguous array and the covariance loop streams through memory.
+     */
+    static double[][] alignedReturns(List<PriceSeries> series, int[] days) {
+        int n = series.size();
+        int t = days.length - 1;
+        double[][] returns = new double[n][t];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            PriceSeries s = series.get(i);
+            int k = s.indexOf(days[0]);
+            double previous = s.closeAt(k);
+            double[] row = returns[i];
+            for (int d = 1; d <= t; d++) {
+                // Both date lists are sorted and every common day exists in s, so just walk forward
+                while (s.epochDayAt(k) < days[d]) {
+                    k++;
+                }
+                double today = s.closeAt(k);
+                row[d - 1] = (today - previous) / previous;
+                previous = today;
+            }
+        });
+        return returns;
+    }
+
+    /**
+     * Sample covariance (divide by t-1, same as RiskService.calculateStandardDev) of centred rows.
+     *
+     * Blocked so it scales to hundreds of assets: the upper triangle is split into tiles of
+     * ASSET_BLOCK x ASSET_BLOCK assets, and each tile walks the time axis in TIME_BLOCK chunks so the
+     * rows it reuses stay in cache. Tiles own disjoint cells, so they run in parallel without locking.
+     * Only i <= j is computed; the lower triangle is mirrored at the end.
+     */
+    static double[][] covariance(double[][] centred) {
+        int n = centred.length;
+        double[][] cov = new double[n][n];
+        if (n == 0) {
+            return cov;
+        }
+        int t = centred[0].length;
+        int blocks = (n + ASSET_BLOCK - 1) / ASSET_BLOCK;
+        int[] tileRow = new int[blocks * (blocks + 1) / 2];
+        int[] tileCol = new int[tileRow.length];
+        int next = 0;
+        for (int bi = 0; bi < blocks; bi++) {
+            for (int bj = bi; bj < blocks; bj++) {
+                tileRow[next] = bi * ASSET_BLOCK;
+                tileCol[next] = bj * ASSET_BLOCK;
+                next++;
+            }
+        }
+        IntStream.range(0, tileRow.length).parallel()
+                .forEach(p -> accumulateTile(centred, cov, tileRow[p], tileCol[p], t));
+
+        double scale = t > 1 ? 1.0 / (t - 1) : 0.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                double value = cov[i][j] * scale;
+                cov[i][j] = value;
+                cov[j][i] = value;
+            }
+        }
+        return cov;
+    }
+
+    private static void accumulateTile(double[][] x, double[][] cov, int i0, int j0, int t) {
+        int n = x.length;
+        int i1 = Math.min(i0 + ASSET_BLOCK, n);
+        int j1 = Math.min(j0 + ASSET_BLOCK, n);
+        for (int t0 = 0; t0 < t; t0 += TIME_BLOCK) {
+            int t1 = Math.min(t0 + TIME_BLOCK, t);
+            for (int i = i0; i < i1; i++) {
+                double[] xi = x[i];
+                double[] covRow = cov[i];
+                // Diagonal tiles only need j >= i
+                for (int j = (i0 == j0 ? i : j0); j < j1; j++) {
+                    covRow[j] += dot(xi, x[j], t0, t1);
+                }
+            }
+        }
+    }
+
+    // Four independent accumulators let the CPU overlap the multiply-adds instead of waiting on one sum
+    private static double dot(double[] a, double[] b, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int k = from;
+        for (; k + 3 < to; k += 4) {
+            s0 += a[k] * b[k];
+            s1 += a[k + 1] * b[k + 1];
+            s2 += a[k + 2] * b[k + 2];
+            s3 += a[k + 3] * b[k + 3];
+        }
+        for (; k < to; k++) {
+            s0 += a[k] * b[k];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
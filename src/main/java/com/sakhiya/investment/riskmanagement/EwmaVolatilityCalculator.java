@@ -0,0 +1,152 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.portfoliomanagement.asset.ReturnStatistics;
+
+/**
+ * RiskMetrics EWMA (exponentially weighted moving average) volatility for the EWMA VaR method.
+ *
+ * The sample standard deviation gives a return from five years ago the same weight as yesterday's,
+ * so it reacts slowly when markets turn volatile. EWMA weights recent returns more:
+ *   sigma2_t = lambda * sigma2_(t-1) + (1 - lambda) * r_t^2, seeded with r_1^2 (same as ReturnStatistics)
+ * With lambda = 0.94 (RiskMetrics daily) a return loses half its weight after about 11 days.
+ *
+ * The recursion is one pass with no allocation: returns are read from a primitive array, or computed
+ * on the fly from the closes of a PriceSeries so no returns array is built at all.
+ *
+ * Results are cached per asset, lambda and lookback. A cached value belongs to one PriceSeries snapshot
+ * (snapshots never change), so a new price simply makes the next lookup miss. For the default lambda over
+ * the whole history the series' own ReturnStatistics already keeps the value up to date in O(1) per price.
+ */
+@Component
+public class EwmaVolatilityCalculator {
+
+    // Arbitrary lambdas come from request parameters, so the cache is cleared rather than growing forever
+    static final int MAX_CACHE_ENTRIES = 10_000;
+
+    private final double defaultLambda;
+    private final ConcurrentHashMap<CacheKey, CachedVariance> cache = new ConcurrentHashMap<>();
+
+    public EwmaVolatilityCalculator(@Value("${risk.ewma.lambda:0.94}") double defaultLambda) {
+        checkLambda(defaultLambda);
+        this.defaultLambda = defaultLambda;
+    }
+
+    public double getDefaultLambda() {
+        return defaultLambda;
+    }
+
+    /**
+     * Daily EWMA volatility of the asset's last lookbackDays returns (all of them when null).
+     *
+     * @param lambda decay factor in (0, 1), or null for the configured default
+     * @throws IllegalArgumentException if lambda is outside (0, 1)
+     */
+    public double volatility(String assetId, PriceSeries series, Double lambda, Integer lookbackDays) {
+        double usedLambda = lambda != null ? lambda : defaultLambda;
+        checkLambda(usedLambda);
+        int returnCount = Math.max(0, series.size() - 1);
+        int window = lookbackDays == null ? returnCount : Math.min(lookbackDays, returnCount);
+        if (lookbackDays == null && usedLambda == ReturnStatistics.EWMA_LAMBDA) {
+            return series.statistics().ewmaVolatility();
+        }
+        CacheKey key = new CacheKey(assetId, usedLambda, window);
+        CachedVariance cached = cache.get(key);
+        if (cached != null && cached.series == series) {
+            return Math.sqrt(cached.variance);
+        }
+        double variance = variance(series, series.size() - 1 - window, usedLambda);
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            cache.clear();
+        }
+        cache.put(key, new CachedVariance(series, variance));
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * EWMA variance of returns[from..to) in one allocation-free pass (0 when the range is empty).
+     */
+    public static double variance(double[] returns, int from, int to, double lambda) {
+        if (to <= from) {
+            return 0.0;
+        }
+        double variance = returns[from] * returns[from];
+        for (int i = from + 1; i < to; i++) {
+            double r = returns[i];
+            variance = lambda * variance + (1 - lambda) * r * r;
+        }
+        return variance;
+    }
+
+    /**
+     * EWMA variance of the series' daily returns from price index firstPrice onwards, computing each
+     * simple return from two closes instead of building a returns array.
+     */
+    static double variance(PriceSeries series, int firstPrice, double lambda) {
+        int size = series.size();
+        if (firstPrice < 0 || size - firstPrice < 2) {
+            return 0.0;
+        }
+        double previous = series.closeAt(firstPrice);
+        double close = series.closeAt(firstPrice + 1);
+        double r = (close - previous) / previous;
+        double variance = r * r;
+        for (int i = firstPrice + 2; i < size; i++) {
+            previous = close;
+            close = series.closeAt(i);
+            r = (close - previous) / previous;
+            variance = lambda * variance + (1 - lambda) * r * r;
+        }
+        return variance;
+    }
+
+    static void checkLambda(double lambda) {
+        if (!(lambda > 0 && lambda < 1)) {
+            throw new IllegalArgumentException("EWMA lambda must be between 0 and 1 (exclusive), got " + lambda);
+        }
+    }
+
+    // Cache key: asset, decay factor and number of returns covered
+    private static final class CacheKey {
+        private final String assetId;
+        private final double lambda;
+        private final int window;
+
+        CacheKey(String assetId, double lambda, int window) {
+            this.assetId = assetId;
+            this.lambda = lambda;
+            this.window = window;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey other)) {
+                return false;
+            }
+            return window == other.window && Double.compare(lambda, other.lambda) == 0
+                    && assetId.equals(other.assetId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(assetId, lambda, window);
+        }
+    }
+
+    // The variance together with the exact snapshot it was computed from
+    private static final class CachedVariance {
+        private final PriceSeries series;
+        private final double variance;
+
+        CachedVariance(PriceSeries series, double variance) {
+            this.series = series;
+            this.variance = variance;
+        }
+    }
+}
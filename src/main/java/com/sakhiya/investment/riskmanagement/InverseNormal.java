@@ -0,0 +1,73 @@
+package com.sakhiya.investment.riskmanagement;
+
+/**
+ * Inverse of the standard normal CDF: the z with P(Z <= z) = p.
+ *
+ * getZScore used to know three hardcoded values (0.90, 0.95, 0.99) matched with exact double equality,
+ * so 97.5% or 99.9% failed and 0.1 + 0.85 did not count as 0.95. This works for any p in (0, 1):
+ * - common confidence levels come from a small table of full double precision quantiles
+ * - anything else uses Peter Acklam's rational approximation (relative error below 1.2e-9,
+ *   far finer than the noise in any volatility estimate), a handful of multiplications and no loops
+ */
+final class InverseNormal {
+
+    // Upper-tail levels regulators and dashboards ask for, and their exact quantiles
+    private static final double[] TABLE_LEVELS = { 0.90, 0.95, 0.975, 0.99, 0.995, 0.999 };
+    private static final double[] TABLE_QUANTILES = {
+            1.2815515655446004, 1.6448536269514722, 1.959963984540054,
+            2.3263478740408408, 2.5758293035489004, 3.090232306167813 };
+    // Levels within this distance of a table entry use it (absorbs rounding like 0.1 + 0.85)
+    private static final double TABLE_TOLERANCE = 1e-9;
+
+    // Acklam's coefficients: central region (a, b) and tails (c, d)
+    private static final double[] A = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+    private static final double[] B = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01 };
+    private static final double[] C = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+    private static final double[] D = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00 };
+    private static final double P_LOW = 0.02425;
+
+    private InverseNormal() {
+    }
+
+    /**
+     * z such that P(Z <= z) = p, from the table when p (or 1 - p) is a common level.
+     *
+     * @throws IllegalArgumentException unless 0 < p < 1
+     */
+    static double quantile(double p) {
+        if (!(p > 0 && p < 1)) {
+            throw new IllegalArgumentException("Probability must be between 0 and 1 (exclusive), got " + p);
+        }
+        for (int i = 0; i < TABLE_LEVELS.length; i++) {
+            if (Math.abs(p - TABLE_LEVELS[i]) < TABLE_TOLERANCE) {
+                return TABLE_QUANTILES[i];
+            }
+            if (Math.abs(p - (1 - TABLE_LEVELS[i])) < TABLE_TOLERANCE) {
+                return -TABLE_QUANTILES[i];
+            }
+        }
+        return acklam(p);
+    }
+
+    // Acklam's approximation on its own (package-private so tests can compare it with the table)
+    static double acklam(double p) {
+        if (p < P_LOW) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        if (p > 1 - P_LOW) {
+            double q = Math.sqrt(-2 * Math.log1p(-p));
+            return -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+                / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+    }
+}
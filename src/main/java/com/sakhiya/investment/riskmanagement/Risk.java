@@ -32,6 +32,18 @@ public class Risk
     @Lob //Stands for: Large Object. Tells JPA that this field may contain a large amount of data, which wouldn't fit in a standard column like VARCHAR(255).
     private String detailsJson; // Store full detailed calculation results (JSON for analytics/export)
 
+    // VaR summary in typed columns, so reports can filter and aggregate without parsing detailsJson.
+    // The daily returns are not copied into the row: returnsFrom/returnsTo point at the asset's price
+    // history and GET /api/risks/{id}/details rebuilds them on request. All null for other risk types.
+    @Column(length = 16)
+    private String method; // PARAMETRIC, HISTORICAL, MONTE_CARLO or EWMA
+    private Double meanReturn; // mean daily return of the window
+    private Double stdDev; // standard deviation of the daily returns of the window
+    private Integer lookbackDays; // null = whole history
+    private Integer returnCount; // number of daily returns used
+    private LocalDate returnsFrom; // first price date of the window
+    private LocalDate returnsTo; // last price date of the window
+
     @ManyToOne
     @JoinColumn(name = "asset_id", columnDefinition = "CHAR(36)")
     // @JsonBackReference is used here to prevent infinite recursion during JSON serialization.
@@ -150,6 +162,76 @@ public class Risk
         this.detailsJson = detailsJson;
     }
 
+    public String getMethod()
+    {
+        return method;
+    }
+
+    public void setMethod(String method)
+    {
+        this.method = method;
+    }
+
+    public Double getMeanReturn()
+    {
+        return meanReturn;
+    }
+
+    public void setMeanReturn(Double meanReturn)
+    {
+        this.meanReturn = meanReturn;
+    }
+
+    public Double getStdDev()
+    {
+        return stdDev;
+    }
+
+    public void setStdDev(Double stdDev)
+    {
+        this.stdDev = stdDev;
+    }
+
+    public Integer getLookbackDays()
+    {
+        return lookbackDays;
+    }
+
+    public void setLookbackDays(Integer lookbackDays)
+    {
+        this.lookbackDays = lookbackDays;
+    }
+
+    public Integer getReturnCount()
+    {
+        return returnCount;
+    }
+
+    public void setReturnCount(Integer returnCount)
+    {
+        this.returnCount = returnCount;
+    }
+
+    public LocalDate getReturnsFrom()
+    {
+        return returnsFrom;
+    }
+
+    public void setReturnsFrom(LocalDate returnsFrom)
+    {
+        this.returnsFrom = returnsFrom;
+    }
+
+    public LocalDate getReturnsTo()
+    {
+        return returnsTo;
+    }
+
+    public void setReturnsTo(LocalDate returnsTo)
+    {
+        this.returnsTo = returnsTo;
+    }
+
     public com.sakhiya.investment.portfoliomanagement.asset.Asset getAsset()
     {
         return asset;
@@ -0,0 +1,58 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Persists many Risk rows in one transaction using JDBC batching.
+ *
+ * Why not riskRepository.saveAll: Risk ids are assigned UUIDs, so Spring Data treats every new
+ * Risk as "not new" and calls merge(), which issues a SELECT per row before the INSERT.
+ * Calling persist() directly lets Hibernate group the INSERTs into batches of
+ * hibernate.jdbc.batch_size; flushing and clearing each batch keeps the persistence context small.
+ */
+@Component
+public class RiskBatchWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Should match spring.jpa.properties.hibernate.jdbc.batch_size
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Transactional
+    public List<Risk> persistAll(List<Risk> risks) {
+        return persist(risks, batchSize);
+    }
+
+    /**
+     * Same, with a JDBC batch size for this transaction only (like AssetPriceHistoryBatchWriter);
+     * used for large scenario runs, where each call is one committed chunk.
+     */
+    @Transactional
+    public List<Risk> persistAll(List<Risk> risks, int jdbcBatchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        return persist(risks, jdbcBatchSize);
+    }
+
+    private List<Risk> persist(List<Risk> risks, int batchSize) {
+        for (int i = 0; i < risks.size(); i++) {
+            entityManager.persist(risks.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return risks;
+    }
+}
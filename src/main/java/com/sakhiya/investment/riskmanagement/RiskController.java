@@ -1,19 +1,21 @@
 package com.sakhiya.investment.riskmanagement;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.time.LocalDate;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.sakhiya.investment.portfoliomanagement.asset.Asset;
 import com.sakhiya.investment.portfoliomanagement.asset.AssetService;
+import com.sakhiya.investment.riskmanagement.dto.PortfolioVaRBatchResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.ReturnStatisticsDTO;
+import com.sakhiya.investment.riskmanagement.dto.RiskResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.StressTestDetailsDTO;
+import com.sakhiya.investment.riskmanagement.dto.VaRCalculationDetailsDTO;
+import com.sakhiya.investment.riskmanagement.dto.VaRCurveDTO;
 
 @RestController
 @RequestMapping("/api/risks")
@@ -27,62 +29,109 @@ public class RiskController {
         this.assetService = assetService;
     }
 
+    /**
+     * Calculate and store VaR for one asset.
+     * method: parametric (default), historical or monte-carlo. paths and seed only apply to
+     * monte-carlo, e.g. POST /api/risks/var?assetId=..&confidenceLevel=0.99&timeHorizonDays=10&method=monte-carlo&paths=1000000&seed=42
+     * lookbackDays (optional) limits the calculation to the most recent daily returns, e.g. 250 for one trading year.
+     * method=ewma weights recent returns more; lambda (optional, default 0.94) is its decay factor.
+     * includeReturns=false drops the daily returns array from the details (only present with
+     * risk.details.storage=inline); GET /api/risks/{id}/details still has them.
+     */
     @PostMapping("/var")
-    public ResponseEntity<Map<String, Object>> calculateVaR(
+    public ResponseEntity<RiskResultDTO<VaRCalculationDetailsDTO>> calculateVaR(
             @RequestParam String assetId,
             @RequestParam double confidenceLevel,
-            @RequestParam int timeHorizonDays) {
+            @RequestParam int timeHorizonDays,
+            @RequestParam(defaultValue = "parametric") String method,
+            @RequestParam(required = false) Integer paths,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) Integer lookbackDays,
+            @RequestParam(required = false) Double lambda,
+            @RequestParam(defaultValue = "true") boolean includeReturns) {
         assetService.getAssetById(assetId)
                 .orElseThrow(() -> new NoSuchElementException("Asset with id " + assetId + " not found"));
-        Risk risk = riskService.createAndSaveVaR(assetId, confidenceLevel, timeHorizonDays);
+        /*Refactored: Return Risk + details as a JSON object with two keys: "risk" and "details".
+         The details come back from the service as a typed DTO and Spring's ObjectMapper writes them
+         directly, instead of a new ObjectMapper parsing detailsJson into a Map on every request.
+         */
+        RiskResultDTO<VaRCalculationDetailsDTO> result = riskService.calculateAndSaveVaR(assetId, confidenceLevel,
+                timeHorizonDays, VaRMethod.fromParam(method), paths, seed, lookbackDays, lambda);
+        if (!includeReturns) {
+            result.getDetails().setReturns(null);
+        }
+        return ResponseEntity.ok(result);
+    }
 
-        // Refactored: Deserialize detailsJson to JSON object for Postman presentation
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, Object> details = null;
+    /**
+     * Daily return statistics of an asset: whole history, EWMA volatility and rolling windows,
+     * e.g. GET /api/risks/statistics/{assetId}?windows=20,60,250
+     */
+    @GetMapping("/statistics/{assetId}")
+    public ResponseEntity<ReturnStatisticsDTO> getReturnStatistics(
+            @PathVariable String assetId,
+            @RequestParam(defaultValue = "20,60,250") List<Integer> windows) {
         try {
-            details = mapper.readValue(risk.getDetailsJson(), new TypeReference<Map<String, Object>>() {});
-        } catch (JsonProcessingException e) {
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.ok(riskService.getReturnStatistics(assetId, windows));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
         }
+    }
 
-        /*Refactored: Return Risk + parsed details as a JSON object response is a map with two keys:
-         "risk" and "details". This allows clients (like Postman or your frontend) 
-         to see both the main risk data and the extra details (which were originally stored as a JSON string) 
-         as a proper JSON object, making it easier to work with in API consumers.
-         */ 
-        Map<String, Object> response = new HashMap<>();
-        response.put("risk", risk);
-        response.put("details", details);
+    /**
+     * VaR for a grid of confidence levels and horizons in one call (nothing is saved), e.g.
+     * GET /api/risks/var-curve/{assetId}?confidenceLevels=0.95,0.975,0.99,0.999&horizons=1,10&method=historical
+     * method: parametric (default), historical or ewma; lookbackDays and lambda work as on POST /var.
+     */
+    @GetMapping("/var-curve/{assetId}")
+    public ResponseEntity<VaRCurveDTO> getVaRCurve(
+            @PathVariable String assetId,
+            @RequestParam(defaultValue = "0.90,0.95,0.975,0.99,0.999") List<Double> confidenceLevels,
+            @RequestParam(defaultValue = "1,10") List<Integer> horizons,
+            @RequestParam(defaultValue = "parametric") String method,
+            @RequestParam(required = false) Integer lookbackDays,
+            @RequestParam(required = false) Double lambda) {
+        try {
+            return ResponseEntity.ok(riskService.getVaRCurve(assetId, confidenceLevels, horizons,
+                    VaRMethod.fromParam(method), lookbackDays, lambda));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * Batch VaR for every asset in a portfolio: one request instead of one POST /var per asset.
+     * Returns per-asset summaries plus load/compute/persist timings.
+     */
+    @PostMapping("/var/portfolio/{portfolioId}")
+    public ResponseEntity<PortfolioVaRBatchResultDTO> calculatePortfolioVaR(
+            @PathVariable String portfolioId,
+            @RequestParam double confidenceLevel,
+            @RequestParam int timeHorizonDays) {
+        try {
+            return ResponseEntity.ok(riskService.createAndSaveVaRForPortfolio(portfolioId, confidenceLevel, timeHorizonDays));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Multi-portfolio variant: body is a JSON array of portfolio ids, all calculated in one batch
+    @PostMapping("/var/portfolios")
+    public ResponseEntity<PortfolioVaRBatchResultDTO> calculateVaRForPortfolios(
+            @RequestBody List<String> portfolioIds,
+            @RequestParam double confidenceLevel,
+            @RequestParam int timeHorizonDays) {
+        return ResponseEntity.ok(riskService.createAndSaveVaRForPortfolios(portfolioIds, confidenceLevel, timeHorizonDays));
     }
 
     @PostMapping("/stress-test")
-    public ResponseEntity<Map<String, Object>> calculateStressTest(
+    public ResponseEntity<RiskResultDTO<StressTestDetailsDTO>> calculateStressTest(
             @RequestParam String assetId,
             @RequestParam String scenario) {
         Asset asset = assetService.getAssetById(assetId)
                 .orElseThrow(() -> new NoSuchElementException("Asset with id " + assetId + " not found"));
-        Risk risk = riskService.stressTestCalculator(asset, scenario);
-
-        /**Refactored: to Deserialize detailsJson to JSON object for Postman presentation
-         * code is converting the detailsJson field (which is a JSON string stored in the Risk object) 
-         * into a real Java Map object.
-          */ 
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, Object> details = null;
-        try {
-            details = mapper.readValue(risk.getDetailsJson(), new TypeReference<Map<String, Object>>() {});
-        } catch (JsonProcessingException e) {
-            return ResponseEntity.badRequest().build();
-        }
-
-        // Refactored: Return Risk + parsed details as a JSON object
-        Map<String, Object> response = new HashMap<>();
-        response.put("risk", risk);
-        response.put("details", details);
-
-        return ResponseEntity.ok(response);
+        // Refactored: Return Risk + typed details (same "risk"/"details" JSON as before, no detailsJson parsing)
+        return ResponseEntity.ok(riskService.runStressTest(asset, scenario));
     }
 
     // Get all risks
@@ -98,6 +147,20 @@ public class RiskController {
         return ResponseEntity.ok(risk);
     }
 
+    /**
+     * Full details of a VaR row including the daily returns it used, e.g. GET /api/risks/{id}/details.
+     * The risk rows (and every list endpoint) only carry the summary; the returns are rebuilt here on request.
+     */
+    @GetMapping("/{id}/details")
+    public ResponseEntity<VaRCalculationDetailsDTO> getVaRDetails(@PathVariable String id,
+            @RequestParam(defaultValue = "true") boolean includeReturns) {
+        try {
+            return ResponseEntity.ok(riskService.getVaRDetails(id, includeReturns));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     // Create risk
     @PostMapping
     public Risk createRisk(@RequestBody Risk risk) {
@@ -159,4 +222,11 @@ public class RiskController {
     public List<Risk> getRisksByCurrency(@PathVariable String currency) {
         return riskService.getByCurrency(currency);
     }
+
+    // Invalid parameters (unsupported confidence level or method, too many paths...) are a client error
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public String handleBadRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
 }
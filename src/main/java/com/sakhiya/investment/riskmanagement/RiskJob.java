@@ -0,0 +1,119 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * An asynchronous risk calculation (POST /api/risks/jobs): VaR or a stress test over a list of assets,
+ * run in the background by RiskJobService. The row is the job's state, so it can be polled from any request
+ * and is still there after the job finished (or the application restarted).
+ *
+ * QUEUED -> RUNNING -> SUCCEEDED / FAILED / CANCELLED. completedItems and failedItems are saved while the
+ * job runs; the per-asset results are written to resultJson when it ends.
+ * ownerInstance is the application instance whose worker runs the job (risk.jobs.instanceId).
+ */
+@Entity
+@Table(name = "risk_job", indexes = @Index(name = "idx_risk_job_status_created", columnList = "status, createdAt"))
+public class RiskJob {
+
+    public enum Type { VAR, STRESS_TEST }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @Id
+    @Column(name = "job_id", columnDefinition = "CHAR(36)")
+    private String jobId = UUID.randomUUID().toString();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.QUEUED;
+
+    @Lob
+    private String parametersJson; // the request as submitted
+
+    private int totalItems; // assets to calculate
+    private int completedItems; // assets with a saved Risk row
+    private int failedItems; // assets that failed (no prices, no value...), see resultJson
+
+    @JsonIgnore
+    @Lob
+    private String resultJson; // one entry per processed asset, written when the job ends
+
+    @Column(length = 1000)
+    private String errorMessage; // why the whole job failed
+
+    @Column(length = 100)
+    private String ownerInstance; // instance that queued and runs the job
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public RiskJob() {}
+
+    public RiskJob(Type type, String parametersJson, int totalItems) {
+        this.type = type;
+        this.parametersJson = parametersJson;
+        this.totalItems = totalItems;
+    }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getParametersJson() { return parametersJson; }
+    public void setParametersJson(String parametersJson) { this.parametersJson = parametersJson; }
+
+    public int getTotalItems() { return totalItems; }
+    public void setTotalItems(int totalItems) { this.totalItems = totalItems; }
+
+    public int getCompletedItems() { return completedItems; }
+    public void setCompletedItems(int completedItems) { this.completedItems = completedItems; }
+
+    public int getFailedItems() { return failedItems; }
+    public void setFailedItems(int failedItems) { this.failedItems = failedItems; }
+
+    public String getResultJson() { return resultJson; }
+    public void setResultJson(String resultJson) { this.resultJson = resultJson; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public String getOwnerInstance() { return ownerInstance; }
+    public void setOwnerInstance(String ownerInstance) { this.ownerInstance = ownerInstance; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
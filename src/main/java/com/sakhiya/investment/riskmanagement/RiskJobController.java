@@ -0,0 +1,81 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.net.URI;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.sakhiya.investment.riskmanagement.dto.RiskJobDTO;
+import com.sakhiya.investment.riskmanagement.dto.RiskJobRequestDTO;
+
+/**
+ * Asynchronous risk calculations over many assets (see RiskJobService).
+ *
+ * POST /api/risks/jobs with {"type": "var", "portfolioIds": [...], "confidenceLevel": 0.99, "timeHorizonDays": 10}
+ * answers 202 Accepted with the job and a Location header; poll GET /api/risks/jobs/{id} until status is
+ * SUCCEEDED, FAILED or CANCELLED, then the response has one result per asset. DELETE /api/risks/jobs/{id} cancels.
+ * POST /api/risks/var and /stress-test still calculate one asset synchronously.
+ */
+@RestController
+@RequestMapping("/api/risks/jobs")
+public class RiskJobController {
+
+    private final RiskJobService riskJobService;
+
+    public RiskJobController(RiskJobService riskJobService) {
+        this.riskJobService = riskJobService;
+    }
+
+    // Unknown asset ids give 404; a full job queue gives 503
+    @PostMapping
+    public ResponseEntity<RiskJobDTO> submitJob(@RequestBody RiskJobRequestDTO request) {
+        try {
+            RiskJobDTO job = riskJobService.submit(request);
+            return ResponseEntity.accepted().location(URI.create("/api/risks/jobs/" + job.getJobId())).body(job);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // Latest jobs, e.g. GET /api/risks/jobs?status=RUNNING
+    @GetMapping
+    public List<RiskJobDTO> getJobs(@RequestParam(required = false) String status) {
+        return riskJobService.getJobs(status);
+    }
+
+    // includeResults=false leaves out the per-asset results of a finished job
+    @GetMapping("/{id}")
+    public ResponseEntity<RiskJobDTO> getJob(@PathVariable String id,
+            @RequestParam(defaultValue = "true") boolean includeResults) {
+        try {
+            return ResponseEntity.ok(riskJobService.getJob(id, includeResults));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // 409 Conflict when the job has already finished
+    @DeleteMapping("/{id}")
+    public ResponseEntity<RiskJobDTO> cancelJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(riskJobService.cancel(id));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    // Invalid jobs (unknown type or method, missing parameters, too many assets) are a client error
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public String handleBadRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+}
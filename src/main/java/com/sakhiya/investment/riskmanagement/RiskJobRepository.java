@@ -0,0 +1,65 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface RiskJobRepository extends JpaRepository<RiskJob, String> {
+
+    // Latest jobs first, for GET /api/risks/jobs
+    List<RiskJob> findTop100ByOrderByCreatedAtDesc();
+
+    List<RiskJob> findTop100ByStatusOrderByCreatedAtDesc(RiskJob.Status status);
+
+    // Marks jobs of this instance that were queued or running when it stopped; nothing will ever finish them.
+    // Rows without an owner were written before ownerInstance existed and are failed by any instance
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RiskJob j set j.status = :failed, j.errorMessage = :message, j.finishedAt = :now "
+            + "where j.status in :statuses and (j.ownerInstance = :owner or j.ownerInstance is null)")
+    int failAll(@Param("statuses") Collection<RiskJob.Status> statuses, @Param("failed") RiskJob.Status failed,
+            @Param("message") String message, @Param("now") LocalDateTime now, @Param("owner") String owner);
+
+    // The worker's writes are conditional on the status it expects, so a cancel from any instance is never
+    // overwritten; each returns 0 when the row has moved on (i.e. was cancelled)
+
+    // QUEUED -> RUNNING when a worker picks the job up
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RiskJob j set j.status = :running, j.startedAt = :now where j.jobId = :jobId and j.status = :queued")
+    int markRunning(@Param("jobId") String jobId, @Param("queued") RiskJob.Status queued,
+            @Param("running") RiskJob.Status running, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RiskJob j set j.completedItems = :completed, j.failedItems = :failed "
+            + "where j.jobId = :jobId and j.status = :running")
+    int saveProgress(@Param("jobId") String jobId, @Param("running") RiskJob.Status running,
+            @Param("completed") int completed, @Param("failed") int failed);
+
+    // Results and final status in one statement, so a finished job always has its results
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RiskJob j set j.status = :status, j.completedItems = :completed, j.failedItems = :failed, "
+            + "j.resultJson = :resultJson, j.errorMessage = :errorMessage, j.finishedAt = :now "
+            + "where j.jobId = :jobId and j.status = :expected")
+    int finish(@Param("jobId") String jobId, @Param("expected") RiskJob.Status expected,
+            @Param("status") RiskJob.Status status, @Param("completed") int completed, @Param("failed") int failed,
+            @Param("resultJson") String resultJson, @Param("errorMessage") String errorMessage,
+            @Param("now") LocalDateTime now);
+
+    // Cancels a job only if it is still in one of statuses, so a job that finished in the meantime keeps
+    // its status and results. Returns 0 when the job had moved on
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RiskJob j set j.status = :cancelled, j.finishedAt = :now "
+            + "where j.jobId = :jobId and j.status in :statuses")
+    int cancelIfIn(@Param("jobId") String jobId, @Param("statuses") Collection<RiskJob.Status> statuses,
+            @Param("cancelled") RiskJob.Status cancelled, @Param("now") LocalDateTime now);
+}
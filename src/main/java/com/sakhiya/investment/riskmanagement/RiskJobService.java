@@ -0,0 +1,433 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetRepository;
+import com.sakhiya.investment.riskmanagement.dto.RiskJobDTO;
+import com.sakhiya.investment.riskmanagement.dto.RiskJobRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.RiskResultDTO;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs VaR and stress test calculations over many assets in the background (POST /api/risks/jobs),
+ * so the request returns a job id straight away instead of holding a servlet thread for the whole batch.
+ *
+ * - Jobs run on a fixed pool of risk.jobs.workers threads with a bounded queue of risk.jobs.queueCapacity;
+ *   when the queue is full, submit() throws RejectedExecutionException (503) instead of piling up work.
+ * - Each asset goes through the same RiskService call as the synchronous endpoints and gets its own Risk row.
+ *   An asset that fails (no prices, no value...) is recorded in the results; the job carries on.
+ * - The RiskJob row is the job's state: progress is saved every risk.jobs.progressEvery assets and the
+ *   per-asset results when the job ends, so any request can poll it.
+ * - Cancelling a queued job removes it from the queue; a running job stops before its next asset and
+ *   keeps the results it already has.
+ * - Jobs are not resumed after a restart: whatever this instance had queued or running is marked FAILED at
+ *   startup. Each job records its owner (risk.jobs.instanceId, the host name by default), so with several
+ *   instances a restart only fails its own jobs; the id must therefore stay the same across restarts.
+ * - A job can be cancelled from any instance. The worker only changes the row with conditional updates and
+ *   stops at its next progress save when the row says CANCELLED, so a cancel is never overwritten.
+ */
+@Service
+public class RiskJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskJobService.class);
+
+    private static final EnumSet<RiskJob.Status> UNFINISHED = EnumSet.of(RiskJob.Status.QUEUED, RiskJob.Status.RUNNING);
+
+    private final RiskJobRepository jobRepository;
+    private final RiskService riskService;
+    private final AssetRepository assetRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int progressEvery;
+    private final int maxAssets;
+    private final String instanceId;
+    private final ThreadPoolExecutor workers;
+
+    // Jobs queued or running in this instance, with their cancel flag
+    private final Map<String, ActiveJob> active = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RiskJobService(RiskJobRepository jobRepository,
+            RiskService riskService,
+            AssetRepository assetRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${risk.jobs.workers:2}") int workerCount,
+            @Value("${risk.jobs.queueCapacity:100}") int queueCapacity,
+            @Value("${risk.jobs.progressEvery:50}") int progressEvery,
+            @Value("${risk.jobs.maxAssets:100000}") int maxAssets,
+            @Value("${risk.jobs.instanceId:}") String instanceId) {
+        if (workerCount < 1 || queueCapacity < 1 || progressEvery < 1) {
+            throw new IllegalArgumentException("risk.jobs.workers, queueCapacity and progressEvery must be at least 1");
+        }
+        this.jobRepository = jobRepository;
+        this.riskService = riskService;
+        this.assetRepository = assetRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.progressEvery = progressEvery;
+        this.maxAssets = maxAssets;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? defaultInstanceId() : instanceId.trim();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Same as Executors.newFixedThreadPool, but with a bounded queue
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "risk-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("risk.jobs", workers, executor -> executor.getQueue().size())
+                .tag("state", "queued").description("Risk jobs waiting for a worker").register(meterRegistry);
+        Gauge.builder("risk.jobs", workers, ThreadPoolExecutor::getActiveCount)
+                .tag("state", "running").description("Risk jobs being calculated").register(meterRegistry);
+    }
+
+    // Cancel flag of a job in this instance; future is set once the job is in the executor
+    private static final class ActiveJob {
+        final AtomicBoolean cancelRequested = new AtomicBoolean();
+        volatile Future<?> future;
+    }
+
+    /**
+     * Validates the request, stores the job as QUEUED and hands it to the workers.
+     *
+     * @throws IllegalArgumentException for an unknown type, missing or invalid parameters, or no assets
+     * @throws NoSuchElementException if an asset id does not exist
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public RiskJobDTO submit(RiskJobRequestDTO request) {
+        RiskJob.Type type = parseType(request.getType());
+        VaRMethod method = null;
+        if (type == RiskJob.Type.VAR) {
+            if (request.getConfidenceLevel() == null || request.getConfidenceLevel() <= 0 || request.getConfidenceLevel() >= 1) {
+                throw new IllegalArgumentException("confidenceLevel between 0 and 1 is required");
+            }
+            if (request.getTimeHorizonDays() == null || request.getTimeHorizonDays() < 1) {
+                throw new IllegalArgumentException("timeHorizonDays of at least 1 is required");
+            }
+            method = VaRMethod.fromParam(request.getMethod());
+        } else if (request.getScenario() == null || request.getScenario().isBlank()) {
+            throw new IllegalArgumentException("scenario is required for a stress-test job");
+        }
+        List<Asset> assets = loadAssets(request.getAssetIds(), request.getPortfolioIds());
+        if (assets.isEmpty()) {
+            throw new IllegalArgumentException("The portfolios have no assets");
+        }
+        if (assets.size() > maxAssets) {
+            throw new IllegalArgumentException("Job of " + assets.size() + " assets exceeds the limit of " + maxAssets);
+        }
+
+        RiskJob newJob = new RiskJob(type, toJson(request), assets.size());
+        newJob.setOwnerInstance(instanceId);
+        RiskJob job = jobRepository.save(newJob);
+        String jobId = job.getJobId();
+        ActiveJob activeJob = new ActiveJob();
+        active.put(jobId, activeJob);
+        VaRMethod varMethod = method;
+        try {
+            activeJob.future = workers.submit(() -> run(jobId, type, request, varMethod, assets, activeJob));
+        } catch (RejectedExecutionException e) {
+            active.remove(jobId);
+            job.setStatus(RiskJob.Status.FAILED);
+            job.setErrorMessage("Job queue is full");
+            job.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            throw new RejectedExecutionException("Job queue is full (" + workers.getQueue().size()
+                    + " jobs waiting), try again later", e);
+        }
+        log.info("Risk job {} queued: {} for {} assets", jobId, type, assets.size());
+        return toDTO(job, false);
+    }
+
+    /**
+     * @param includeResults whether to add the per-asset results (only there once the job has finished)
+     * @throws NoSuchElementException if the job does not exist
+     */
+    public RiskJobDTO getJob(String jobId, boolean includeResults) {
+        return toDTO(findJob(jobId), includeResults);
+    }
+
+    // Latest 100 jobs, optionally only those in one status (e.g. RUNNING), without their results
+    public List<RiskJobDTO> getJobs(String status) {
+        List<RiskJob> jobs;
+        if (status == null || status.isBlank()) {
+            jobs = jobRepository.findTop100ByOrderByCreatedAtDesc();
+        } else {
+            RiskJob.Status parsed;
+            try {
+                parsed = RiskJob.Status.valueOf(status.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown job status: " + status);
+            }
+            jobs = jobRepository.findTop100ByStatusOrderByCreatedAtDesc(parsed);
+        }
+        return jobs.stream().map(job -> toDTO(job, false)).toList();
+    }
+
+    /**
+     * Cancels a job. A queued job is cancelled at once; a running one stops before its next asset,
+     * so the returned state may still be RUNNING with cancelRequested=true.
+     *
+     * @throws NoSuchElementException if the job does not exist
+     * @throws IllegalStateException if the job has already finished
+     */
+    public RiskJobDTO cancel(String jobId) {
+        RiskJob job = findJob(jobId);
+        if (job.getStatus().isFinished()) {
+            throw new IllegalStateException("Job " + jobId + " has already finished (" + job.getStatus() + ")");
+        }
+        ActiveJob activeJob = active.get(jobId);
+        EnumSet<RiskJob.Status> cancellable = UNFINISHED;
+        if (activeJob != null) {
+            activeJob.cancelRequested.set(true);
+            Future<?> future = activeJob.future;
+            // remove() only succeeds while the job is still in the queue; a running job sees the flag
+            if (future == null || !workers.remove((Runnable) future)) {
+                return toDTO(findJob(jobId), false);
+            }
+            active.remove(jobId);
+            cancellable = EnumSet.of(RiskJob.Status.QUEUED);
+        }
+        // Removed from the queue here, or not a job of this instance. The row is only changed if it is still
+        // unfinished: job may be stale (a worker can finish between findJob and here), and a job running on
+        // another instance is stopped by its worker when it sees CANCELLED at its next progress save
+        if (jobRepository.cancelIfIn(jobId, cancellable, RiskJob.Status.CANCELLED, LocalDateTime.now()) == 0) {
+            RiskJob current = findJob(jobId);
+            throw new IllegalStateException("Job " + jobId + " has already finished (" + current.getStatus() + ")");
+        }
+        log.info("Risk job {} cancelled before it started", jobId);
+        return toDTO(findJob(jobId), false);
+    }
+
+    // Jobs of a previous run of the application cannot finish any more
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        int failed = jobRepository.failAll(UNFINISHED, RiskJob.Status.FAILED,
+                "Interrupted: the application stopped before the job finished", LocalDateTime.now(), instanceId);
+        if (failed > 0) {
+            log.warn("Marked {} unfinished risk jobs from a previous run of instance {} as FAILED", failed, instanceId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // The job itself, on a worker thread. The row is only changed with conditional updates (see RiskJobRepository)
+    private void run(String jobId, RiskJob.Type type, RiskJobRequestDTO request, VaRMethod method, List<Asset> assets,
+            ActiveJob activeJob) {
+        try {
+            // Cancelled before a worker picked it up (here or on another instance): leave the row alone
+            if (jobRepository.markRunning(jobId, RiskJob.Status.QUEUED, RiskJob.Status.RUNNING, LocalDateTime.now()) == 0) {
+                return;
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            List<RiskJobDTO.AssetResult> results = new ArrayList<>(assets.size());
+            int completed = 0;
+            int failed = 0;
+            RiskJob.Status status;
+            String errorMessage = null;
+            try {
+                // A library scenario is looked up once for the whole job, not once per asset
+                Scenario libraryScenario = type == RiskJob.Type.STRESS_TEST
+                        ? riskService.findLibraryScenario(request.getScenario()).orElse(null) : null;
+                for (Asset asset : assets) {
+                    if (activeJob.cancelRequested.get() || Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                    RiskJobDTO.AssetResult result = calculate(type, request, method, libraryScenario, asset);
+                    results.add(result);
+                    if (result.getError() == null) {
+                        completed++;
+                    } else {
+                        failed++;
+                    }
+                    if (results.size() % progressEvery == 0 && results.size() < assets.size()
+                            && jobRepository.saveProgress(jobId, RiskJob.Status.RUNNING, completed, failed) == 0) {
+                        break; // cancelled on another instance
+                    }
+                }
+                if (results.size() < assets.size()) {
+                    status = RiskJob.Status.CANCELLED;
+                } else if (completed == 0) {
+                    status = RiskJob.Status.FAILED;
+                    errorMessage = "No asset could be calculated, see results";
+                } else {
+                    status = RiskJob.Status.SUCCEEDED;
+                }
+            } catch (RuntimeException e) {
+                // Not an asset failure (those are in the results), e.g. the database went away
+                status = RiskJob.Status.FAILED;
+                errorMessage = truncate(e.getMessage());
+                log.warn("Risk job {} failed", jobId, e);
+            }
+            String resultJson = toJson(results);
+            LocalDateTime now = LocalDateTime.now();
+            if (jobRepository.finish(jobId, RiskJob.Status.RUNNING, status, completed, failed, resultJson, errorMessage,
+                    now) == 0) {
+                // Cancelled on another instance after the last progress save: it stays CANCELLED, with the results
+                status = RiskJob.Status.CANCELLED;
+                jobRepository.finish(jobId, RiskJob.Status.CANCELLED, status, completed, failed, resultJson, null, now);
+            }
+            sample.stop(RiskMetrics.timer(meterRegistry, "risk.job",
+                    "type", type.name().toLowerCase(Locale.ROOT),
+                    "status", status.name().toLowerCase(Locale.ROOT)));
+            log.info("Risk job {} {}: {} assets calculated, {} failed", jobId, status, completed, failed);
+        } finally {
+            active.remove(jobId);
+        }
+    }
+
+    // One asset, through the same RiskService calls as POST /api/risks/var and /stress-test
+    private RiskJobDTO.AssetResult calculate(RiskJob.Type type, RiskJobRequestDTO request, VaRMethod method,
+            Scenario libraryScenario, Asset asset) {
+        String assetId = asset.getAssetId();
+        try {
+            RiskResultDTO<?> result;
+            if (type == RiskJob.Type.VAR) {
+                result = riskService.calculateAndSaveVaR(assetId, request.getConfidenceLevel(),
+                        request.getTimeHorizonDays(), method, request.getPaths(), request.getSeed(),
+                        request.getLookbackDays(), request.getLambda());
+            } else {
+                if (asset.getValue() == null) {
+                    return new RiskJobDTO.AssetResult(assetId, null, null, "Asset has no value");
+                }
+                result = riskService.runStressTest(asset, request.getScenario(), libraryScenario);
+            }
+            return new RiskJobDTO.AssetResult(assetId, result.getRisk().getId(), result.getRisk().getValue(), null);
+        } catch (RuntimeException e) {
+            return new RiskJobDTO.AssetResult(assetId, null, null,
+                    e.getMessage() != null ? truncate(e.getMessage()) : e.getClass().getSimpleName());
+        }
+    }
+
+    // Host name, so the id is the same after a restart; a random id if it cannot be resolved
+    private static String defaultInstanceId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            String id = UUID.randomUUID().toString();
+            log.warn("Could not resolve the host name, using risk job instance id {}; set risk.jobs.instanceId", id);
+            return id;
+        }
+    }
+
+    private RiskJob findJob(String jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new NoSuchElementException("Risk job with id " + jobId + " not found"));
+    }
+
+    private static RiskJob.Type parseType(String type) {
+        String normalised = type == null ? "" : type.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return RiskJob.Type.valueOf(normalised);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported job type: " + type + " (expected var or stress-test)");
+        }
+    }
+
+    // Union of assetIds and the assets of portfolioIds, as for scenario runs; unknown asset ids are an error
+    private List<Asset> loadAssets(List<String> assetIds, List<String> portfolioIds) {
+        List<String> ids = assetIds != null ? assetIds.stream().distinct().toList() : List.of();
+        List<String> portfolios = portfolioIds != null ? portfolioIds.stream().distinct().toList() : List.of();
+        if (ids.isEmpty() && portfolios.isEmpty()) {
+            throw new IllegalArgumentException("At least one asset id or portfolio id is required");
+        }
+        Map<String, Asset> selected = new LinkedHashMap<>();
+        if (!portfolios.isEmpty()) {
+            assetRepository.findByPortfolio_PortfolioIdIn(portfolios)
+                    .forEach(asset -> selected.putIfAbsent(asset.getAssetId(), asset));
+        }
+        if (!ids.isEmpty()) {
+            Map<String, Asset> found = new LinkedHashMap<>();
+            assetRepository.findAllById(ids).forEach(asset -> found.put(asset.getAssetId(), asset));
+            for (String id : ids) {
+                Asset asset = found.get(id);
+                if (asset == null) {
+                    throw new NoSuchElementException("Asset with id " + id + " not found");
+                }
+                selected.putIfAbsent(id, asset);
+            }
+        }
+        return new ArrayList<>(selected.values());
+    }
+
+    private RiskJobDTO toDTO(RiskJob job, boolean includeResults) {
+        RiskJobDTO dto = new RiskJobDTO();
+        dto.setJobId(job.getJobId());
+        dto.setType(job.getType() == RiskJob.Type.VAR ? "var" : "stress-test");
+        dto.setStatus(job.getStatus().name());
+        dto.setTotalItems(job.getTotalItems());
+        dto.setCompletedItems(job.getCompletedItems());
+        dto.setFailedItems(job.getFailedItems());
+        dto.setProgress(job.getStatus() == RiskJob.Status.SUCCEEDED || job.getTotalItems() == 0 ? 1.0
+                : (double) (job.getCompletedItems() + job.getFailedItems()) / job.getTotalItems());
+        ActiveJob activeJob = active.get(job.getJobId());
+        dto.setCancelRequested(activeJob != null && activeJob.cancelRequested.get());
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        try {
+            if (job.getParametersJson() != null) {
+                dto.setParameters(objectMapper.readValue(job.getParametersJson(), RiskJobRequestDTO.class));
+            }
+            if (includeResults && job.getResultJson() != null) {
+                dto.setResults(objectMapper.readValue(job.getResultJson(),
+                        new TypeReference<List<RiskJobDTO.AssetResult>>() {}));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored job " + job.getJobId() + " could not be read", e);
+        }
+        return dto;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise risk job data", e);
+        }
+    }
+
+    // errorMessage is a VARCHAR(1000)
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
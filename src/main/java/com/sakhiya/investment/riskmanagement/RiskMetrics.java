@@ -0,0 +1,36 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters shared by the risk calculations (see /actuator/metrics and /actuator/prometheus):
+ * - risk.var.calculation (timer, tags method, outcome): one POST /var, from loading the prices to the saved row
+ * - risk.stress.calculation (timer, tag source = library / builtin): one single-asset stress test
+ * - risk.var.batch / risk.stress.run (timer, tags kind, phase = load / compute / persist): batch runs per phase,
+ *   with risk.var.batch.assets / risk.stress.run.assets (distribution summary) for the number of assets.
+ *   The asset count is a summary rather than a tag, so every run size shares one time series.
+ * - risk.job (timer, tags type, status): one background job from start to end (RiskJobService), with
+ *   risk.jobs (gauge, tag state = queued / running) for the jobs in the executor
+ */
+final class RiskMetrics {
+
+    private RiskMetrics() {}
+
+    static Timer timer(MeterRegistry registry, String name, String... tags) {
+        return Timer.builder(name).tags(tags).register(registry);
+    }
+
+    // Phase timings of one batch run (System.nanoTime() at start and after each phase) and its size
+    static void recordBatch(MeterRegistry registry, String name, String kind, int assets,
+            long started, long loaded, long computed, long persisted) {
+        timer(registry, name, "kind", kind, "phase", "load").record(loaded - started, TimeUnit.NANOSECONDS);
+        timer(registry, name, "kind", kind, "phase", "compute").record(computed - loaded, TimeUnit.NANOSECONDS);
+        timer(registry, name, "kind", kind, "phase", "persist").record(persisted - computed, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(name + ".assets").baseUnit("assets").tag("kind", kind)
+                .register(registry).record(assets);
+    }
+}
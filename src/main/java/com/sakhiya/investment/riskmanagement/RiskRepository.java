@@ -1,7 +1,9 @@
    
 package com.sakhiya.investment.riskmanagement;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
@@ -42,4 +44,14 @@ public interface RiskRepository extends ListCrudRepository<Risk, String> {
      * @return List of Risk objects matching the type and scenario
      */
     List<Risk> findByTypeAndScenario(String type, String scenario);
+
+    /**
+     * Sum of risk values per asset and (lower-cased) type for every asset of a portfolio, in one grouped
+     * query instead of loading each asset and walking its lazy risks collection.
+     * Null values are ignored by SUM, like the Java loops that skip them.
+     */
+    @Query("select new com.sakhiya.investment.riskmanagement.AssetRiskTotal(a.assetId, lower(r.type), sum(r.value)) "
+            + "from Risk r join r.asset a where a.portfolio.portfolioId = :portfolioId "
+            + "group by a.assetId, lower(r.type)")
+    List<AssetRiskTotal> sumValuesByAssetAndType(@Param("portfolioId") String portfolioId);
 }
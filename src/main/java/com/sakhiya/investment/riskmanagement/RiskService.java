@@ -1,18 +1,41 @@
 package com.sakhiya.investment.riskmanagement;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sakhiya.investment.portfoliomanagement.PortfolioRepository;
 import com.sakhiya.investment.portfoliomanagement.asset.Asset;
-import com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistory;
 import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetRepository;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.portfoliomanagement.asset.ReturnStatistics;
+import com.sakhiya.investment.riskmanagement.dto.AssetVaRSummaryDTO;
+import com.sakhiya.investment.riskmanagement.dto.PortfolioVaRBatchResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.ReturnStatisticsDTO;
+import com.sakhiya.investment.riskmanagement.dto.RiskResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.StressTestDetailsDTO;
 import com.sakhiya.investment.riskmanagement.dto.VaRCalculationDetailsDTO;
+import com.sakhiya.investment.riskmanagement.dto.VaRCurveDTO;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class RiskService {
 
@@ -22,11 +45,48 @@ public class RiskService {
     private AssetHistoryService assetHistoryService;
 
     @Autowired
-    private com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistoryRepository priceHistoryRepository;
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private RiskBatchWriter riskBatchWriter;
 
-    public RiskService(RiskRepository riskRepository, AssetHistoryService assetHistoryService) {
+    @Autowired
+    private SimulationVaRCalculator simulationVaRCalculator;
+
+    @Autowired
+    private EwmaVolatilityCalculator ewmaVolatilityCalculator;
+
+    @Autowired
+    private ScenarioRepository scenarioRepository;
+
+    // Monte Carlo paths used when the request does not say
+    public static final int DEFAULT_MONTE_CARLO_PATHS = 100_000;
+
+    // ObjectMapper is thread-safe once configured, so one instance is shared instead of one per calculation.
+    // Refactored: the application's Spring-managed mapper is used, the same one that writes the HTTP responses.
+    private final ObjectMapper detailsMapper;
+    // Unknown properties are ignored when reading details back, so rows written by older versions still load
+    private final ObjectReader detailsReader;
+
+    // "reference" (default): detailsJson keeps the return window's dates and the returns are rebuilt from the
+    // price history on request. "inline": the full return list is also written into detailsJson, as it used to be.
+    @Value("${risk.details.storage:reference}")
+    private String detailsStorage;
+
+    // Calculation timers (see RiskMetrics)
+    private final MeterRegistry meterRegistry;
+
+    public RiskService(RiskRepository riskRepository, AssetHistoryService assetHistoryService,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.riskRepository = riskRepository;
         this.assetHistoryService = assetHistoryService;
+        this.detailsMapper = objectMapper;
+        this.detailsReader = objectMapper.readerFor(VaRCalculationDetailsDTO.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.meterRegistry = meterRegistry;
     }
 
     // Fetch all Risk records from the database.
@@ -166,36 +226,460 @@ public class RiskService {
      * @return The persisted Risk object
      */
     public Risk createAndSaveVaR(String assetId, double confidenceLevel, int timeHorizonDays) {
-        // Fetch the Asset object by ID (needed for value and to link to Risk)
-        // Refactored: Fetch asset from price history repository for linking to Risk
-        Asset asset = priceHistoryRepository.findByAsset_AssetIdOrderByTradingDateAsc(assetId)
-                .stream().findFirst()
-                .map(AssetPriceHistory::getAsset)
-                .orElseThrow(() -> new NoSuchElementException("Asset with id " + assetId + " not found in price history"));
+        return createAndSaveVaR(assetId, confidenceLevel, timeHorizonDays, null, null, null, null);
+    }
 
-        // Fetch historical returns from AssetHistoryService
-        List<Double> returns = assetHistoryService.getHistoricalReturns(assetId);
+    /**
+     * Calculate and persist VaR with a selectable method.
+     * PARAMETRIC goes through the original formula above; HISTORICAL and MONTE_CARLO take the
+     * (1 - confidenceLevel) percentile of h-day returns, so any confidence level in (0, 1) is allowed.
+     * All methods store a "VaR" Risk row, so portfolio totals include them the same way.
+     *
+     * @param method Calculation method
+     * @param paths  Monte Carlo path count (defaults to DEFAULT_MONTE_CARLO_PATHS)
+     * @param seed   Monte Carlo seed; a random one is chosen and stored in detailsJson when null
+     * @return The persisted Risk object
+     */
+    public Risk createAndSaveVaR(String assetId, double confidenceLevel, int timeHorizonDays,
+            VaRMethod method, Integer paths, Long seed) {
+        return createAndSaveVaR(assetId, confidenceLevel, timeHorizonDays, method, paths, seed, null);
+    }
+
+    /**
+     * Same as above, optionally using only the last lookbackDays daily returns (e.g. 20, 60 or 250).
+     * Mean and volatility come from the series' ReturnStatistics, so they are O(1) reads whatever
+     * the lookback, instead of two passes over the whole history.
+     *
+     * @param lookbackDays number of most recent returns to use (at least 2), or null for the whole history
+     */
+    public Risk createAndSaveVaR(String assetId, double confidenceLevel, int timeHorizonDays,
+            VaRMethod method, Integer paths, Long seed, Integer lookbackDays) {
+        return createAndSaveVaR(assetId, confidenceLevel, timeHorizonDays, method, paths, seed, lookbackDays, null);
+    }
+
+    /**
+     * Same as above with the EWMA decay factor for method EWMA (ignored by the other methods).
+     *
+     * @param lambda EWMA decay factor in (0, 1), or null for risk.ewma.lambda (0.94 by default)
+     */
+    public Risk createAndSaveVaR(String assetId, double confidenceLevel, int timeHorizonDays,
+            VaRMethod method, Integer paths, Long seed, Integer lookbackDays, Double lambda) {
+        return calculateAndSaveVaR(assetId, confidenceLevel, timeHorizonDays, method, paths, seed, lookbackDays, lambda)
+                .getRisk();
+    }
 
-        // Calculate mean (average daily return) and standard deviation
-        double mean = calculateMean(returns); // average return
-        double stdDev = calculateStandardDev(returns); // Calculate volatility of returns
+    /**
+     * Same as above, also returning the calculation details that were serialised into detailsJson,
+     * so the controller can write them straight into the response instead of parsing detailsJson back.
+     */
+    public RiskResultDTO<VaRCalculationDetailsDTO> calculateAndSaveVaR(String assetId, double confidenceLevel,
+            int timeHorizonDays, VaRMethod method, Integer paths, Long seed, Integer lookbackDays, Double lambda) {
+        // Timed as risk.var.calculation by method; failed calculations (bad input, no prices) get outcome=error
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            RiskResultDTO<VaRCalculationDetailsDTO> result = calculateVaR(assetId, confidenceLevel, timeHorizonDays,
+                    method, paths, seed, lookbackDays, lambda);
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(RiskMetrics.timer(meterRegistry, "risk.var.calculation",
+                    "method", (method != null ? method : VaRMethod.PARAMETRIC).name().toLowerCase(), "outcome", outcome));
+        }
+    }
 
-        // Z-score for the given confidence level
+    private RiskResultDTO<VaRCalculationDetailsDTO> calculateVaR(String assetId, double confidenceLevel,
+            int timeHorizonDays, VaRMethod method, Integer paths, Long seed, Integer lookbackDays, Double lambda) {
+        if (lookbackDays != null && lookbackDays < 2) {
+            throw new IllegalArgumentException("lookbackDays must be at least 2");
+        }
+        if (method == VaRMethod.EWMA) {
+            return createAndSaveEwmaVaR(assetId, confidenceLevel, timeHorizonDays, lookbackDays, lambda);
+        }
+        if (method == null || method == VaRMethod.PARAMETRIC) {
+            // Z-score for the given confidence level (checked first so unsupported levels fail before any loading)
+            double zScore = getZScore(confidenceLevel);
+            // Refactored: the price history check reads the cached price series instead of loading every
+            // AssetPriceHistory entity just to take the first row's Asset
+            PriceSeries series = assetHistoryService.getPriceSeries(assetId);
+            if (series.isEmpty()) {
+                throw new NoSuchElementException("Asset with id " + assetId + " not found in price history");
+            }
+            // Fetch the Asset object by ID (needed for value and to link to Risk)
+            Asset asset = assetRepository.findById(assetId)
+                    .orElseThrow(() -> new NoSuchElementException("Asset with id " + assetId + " not found"));
+            VaRCalculationDetailsDTO details = parametricDetails(asset, series, lookbackDays, zScore, confidenceLevel,
+                    timeHorizonDays);
+            return save(toVaRRisk(asset, details, series, lookbackDays), details);
+        }
+        if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+        if (timeHorizonDays <= 0) {
+            throw new IllegalArgumentException("Time horizon must be a positive integer");
+        }
+        PriceSeries series = assetHistoryService.getPriceSeries(assetId);
+        if (series.isEmpty()) {
+            throw new NoSuchElementException("Asset with id " + assetId + " not found in price history");
+        }
+        Asset asset = assetRepository.findById(assetId)
+                .orElseThrow(() -> new NoSuchElementException("Asset with id " + assetId + " not found"));
+        ReturnStatistics statistics = series.statistics();
+        double[] returns = windowReturns(series, lookbackDays);
+        double mean = lookbackDays == null ? statistics.mean() : statistics.mean(lookbackDays);
+        double stdDev = lookbackDays == null ? statistics.stdDev() : statistics.stdDev(lookbackDays);
+
+        long started = System.nanoTime();
+        SimulationVaRCalculator.SimulationResult simulation;
+        Long usedSeed = null;
+        if (method == VaRMethod.HISTORICAL) {
+            simulation = simulationVaRCalculator.historical(returns, confidenceLevel, timeHorizonDays);
+        } else {
+            usedSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+            simulation = simulationVaRCalculator.monteCarlo(mean, stdDev, confidenceLevel, timeHorizonDays,
+                    paths != null ? paths : DEFAULT_MONTE_CARLO_PATHS, usedSeed);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // Raw VaR: position value times the percentile h-day return (negative = loss)
+        double rawVaR = asset.getValue() * simulation.getPercentileReturn();
+        // zScore does not apply to simulation methods, so it is stored as 0
+        VaRCalculationDetailsDTO details = new VaRCalculationDetailsDTO(
+                null, mean, stdDev, 0.0, confidenceLevel, timeHorizonDays, rawVaR);
+        details.setMethod(method.name());
+        details.setLookbackDays(lookbackDays);
+        details.setPercentile(simulation.getPercentileReturn());
+        details.setPathCount(simulation.getOutcomeCount());
+        details.setSeed(usedSeed);
+        details.setElapsedMillis(elapsedMillis);
+
+        Risk risk = toVaRRisk(asset, details, series, lookbackDays);
+        risk.setDescription(method == VaRMethod.HISTORICAL
+                ? "Historical simulation VaR over " + simulation.getOutcomeCount() + " windows"
+                : "Monte Carlo VaR with " + simulation.getOutcomeCount() + " paths");
+        return save(risk, details);
+    }
+
+    /**
+     * RiskMetrics VaR: value * z * sigma_ewma * sqrt(h). RiskMetrics assumes a zero daily mean, since
+     * over a few days it is tiny next to the volatility and noisy to estimate.
+     * The volatility is a cached read when neither the prices nor lambda changed since the last call.
+     */
+    private RiskResultDTO<VaRCalculationDetailsDTO> createAndSaveEwmaVaR(String assetId, double confidenceLevel, int timeHorizonDays,
+            Integer lookbackDays, Double lambda) {
         double zScore = getZScore(confidenceLevel);
+        if (timeHorizonDays <= 0) {
+            throw new IllegalArgumentException("Time horizon must be a positive integer");
+        }
+        double usedLambda = lambda != null ? lambda : ewmaVolatilityCalculator.getDefaultLambda();
+        PriceSeries series = assetHistoryService.getPriceSeries(assetId);
+        if (series.isEmpty()) {
+            throw new NoSuchElementException("Asset with id " + assetId + " not found in price history");
+        }
+        Asset asset = assetRepository.findById(assetId)
+                .orElseThrow(() -> new NoSuchElementException("Asset with id " + assetId + " not found"));
+
+        long started = System.nanoTime();
+        double ewmaVolatility = ewmaVolatilityCalculator.volatility(assetId, series, usedLambda, lookbackDays);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        double rawVaR = asset.getValue() * zScore * ewmaVolatility * Math.sqrt(timeHorizonDays);
+
+        // mean and stdDev stay the equal-weighted figures so the two volatility estimates can be compared
+        ReturnStatistics statistics = series.statistics();
+        double mean = lookbackDays == null ? statistics.mean() : statistics.mean(lookbackDays);
+        double stdDev = lookbackDays == null ? statistics.stdDev() : statistics.stdDev(lookbackDays);
+        VaRCalculationDetailsDTO details = new VaRCalculationDetailsDTO(
+                null, mean, stdDev, zScore, confidenceLevel, timeHorizonDays, rawVaR);
+        details.setMethod(VaRMethod.EWMA.name());
+        details.setLookbackDays(lookbackDays);
+        details.setLambda(usedLambda);
+        details.setEwmaVolatility(ewmaVolatility);
+        details.setElapsedMillis(elapsedMillis);
+
+        Risk risk = toVaRRisk(asset, details, series, lookbackDays);
+        risk.setDescription("EWMA VaR (lambda " + usedLambda + ")");
+        return save(risk, details);
+    }
+
+    /**
+     * Whole-history, EWMA and rolling-window statistics of an asset's daily returns.
+     * Every value is an O(1) read from the cached series' ReturnStatistics.
+     *
+     * @param windows lookbacks in days, e.g. 20, 60, 250
+     * @throws NoSuchElementException if the asset has no price history
+     */
+    public ReturnStatisticsDTO getReturnStatistics(String assetId, List<Integer> windows) {
+        PriceSeries series = assetHistoryService.getPriceSeries(assetId);
+        if (series.isEmpty()) {
+            throw new NoSuchElementException("Asset with id " + assetId + " not found in price history");
+        }
+        ReturnStatistics statistics = series.statistics();
+        ReturnStatisticsDTO dto = new ReturnStatisticsDTO();
+        dto.setAssetId(assetId);
+        dto.setReturnCount(statistics.count());
+        dto.setMean(statistics.mean());
+        dto.setStdDev(statistics.stdDev());
+        dto.setEwmaVolatility(statistics.ewmaVolatility());
+        for (int lookback : windows) {
+            // windowSize rejects lookbacks below 1 with IllegalArgumentException
+            dto.getWindows().add(new ReturnStatisticsDTO.Window(lookback, statistics.windowSize(lookback),
+                    statistics.mean(lookback), statistics.stdDev(lookback)));
+        }
+        return dto;
+    }
+
+    // Upper bound on confidence levels and on horizons per curve request
+    public static final int MAX_CURVE_POINTS = 50;
+
+    /**
+     * VaR for every combination of confidence level and horizon, without saving anything.
+     * PARAMETRIC and EWMA read mean and volatility once (O(1) from the series statistics or the EWMA cache)
+     * and only the z-score and sqrt(h) differ per cell. HISTORICAL compounds the returns once and
+     * sorts each horizon's windows once for all levels. MONTE_CARLO is not offered: a curve would
+     * mean one simulation per cell.
+     *
+     * @throws IllegalArgumentException for invalid levels, horizons or method
+     * @throws NoSuchElementException if the asset or its price history is missing
+     */
+    public VaRCurveDTO getVaRCurve(String assetId, List<Double> confidenceLevels, List<Integer> horizons,
+            VaRMethod method, Integer lookbackDays, Double lambda) {
+        VaRMethod usedMethod = method != null ? method : VaRMethod.PARAMETRIC;
+        if (usedMethod == VaRMethod.MONTE_CARLO) {
+            throw new IllegalArgumentException("VaR curves support parametric, historical and ewma methods");
+        }
+        if (confidenceLevels == null || confidenceLevels.isEmpty() || confidenceLevels.size() > MAX_CURVE_POINTS
+                || horizons == null || horizons.isEmpty() || horizons.size() > MAX_CURVE_POINTS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_CURVE_POINTS
+                    + " confidence levels and horizons are required");
+        }
+        if (lookbackDays != null && lookbackDays < 2) {
+            throw new IllegalArgumentException("lookbackDays must be at least 2");
+        }
+        double[] levels = new double[confidenceLevels.size()];
+        double[] zScores = new double[levels.length];
+        for (int c = 0; c < levels.length; c++) {
+            levels[c] = confidenceLevels.get(c);
+            zScores[c] = getZScore(levels[c]); // also validates the level
+        }
+        int[] days = new int[horizons.size()];
+        for (int h = 0; h < days.length; h++) {
+            days[h] = horizons.get(h);
+            if (days[h] <= 0) {
+                throw new IllegalArgumentException("Time horizon must be a positive integer");
+            }
+        }
+        PriceSeries series = assetHistoryService.getPriceSeries(assetId);
+        if (series.isEmpty()) {
+            throw new NoSuchElementException("Asset with id " + assetId + " not found in price history");
+        }
+        Asset asset = assetRepository.findById(assetId)
+                .orElseThrow(() -> new NoSuchElementException("Asset with id " + assetId + " not found"));
+        if (asset.getValue() == null) {
+            throw new IllegalArgumentException("Asset " + assetId + " has no value");
+        }
+        double value = asset.getValue();
+
+        ReturnStatistics statistics = series.statistics();
+        VaRCurveDTO curve = new VaRCurveDTO();
+        curve.setAssetId(assetId);
+        curve.setAssetValue(value);
+        curve.setMethod(usedMethod.name());
+        curve.setLookbackDays(lookbackDays);
+        curve.setReturnCount(lookbackDays == null ? statistics.count() : statistics.windowSize(lookbackDays));
+        curve.setMean(lookbackDays == null ? statistics.mean() : statistics.mean(lookbackDays));
+
+        if (usedMethod == VaRMethod.HISTORICAL) {
+            double[][] percentiles = simulationVaRCalculator.historicalCurve(windowReturns(series, lookbackDays), levels, days);
+            for (int h = 0; h < days.length; h++) {
+                for (int c = 0; c < levels.length; c++) {
+                    curve.getPoints().add(new VaRCurveDTO.Point(levels[c], days[h], null, value * percentiles[h][c]));
+                }
+            }
+            return curve;
+        }
+        // EWMA follows RiskMetrics and assumes a zero mean, PARAMETRIC uses the sample mean (see createAndSaveVaR)
+        double mean;
+        double volatility;
+        if (usedMethod == VaRMethod.EWMA) {
+            double usedLambda = lambda != null ? lambda : ewmaVolatilityCalculator.getDefaultLambda();
+            curve.setLambda(usedLambda);
+            mean = 0.0;
+            volatility = ewmaVolatilityCalculator.volatility(assetId, series, usedLambda, lookbackDays);
+        } else {
+            mean = curve.getMean();
+            volatility = lookbackDays == null ? statistics.stdDev() : statistics.stdDev(lookbackDays);
+        }
+        curve.setVolatility(volatility);
+        for (int h = 0; h < days.length; h++) {
+            double scaledVolatility = volatility * Math.sqrt(days[h]);
+            for (int c = 0; c < levels.length; c++) {
+                curve.getPoints().add(new VaRCurveDTO.Point(levels[c], days[h], zScores[c],
+                        value * (mean + zScores[c] * scaledVolatility)));
+            }
+        }
+        return curve;
+    }
+
+    /**
+     * Calculate and persist VaR for every asset of one portfolio in a single batch.
+     *
+     * @throws NoSuchElementException if the portfolio does not exist
+     */
+    public PortfolioVaRBatchResultDTO createAndSaveVaRForPortfolio(String portfolioId, double confidenceLevel, int timeHorizonDays) {
+        if (!portfolioRepository.existsById(portfolioId)) {
+            throw new NoSuchElementException("Portfolio with id " + portfolioId + " not found");
+        }
+        return createAndSaveVaRForPortfolios(List.of(portfolioId), confidenceLevel, timeHorizonDays);
+    }
+
+    /**
+     * Batch VaR for all assets of one or more portfolios. Replaces one POST /var call per asset:
+     * 1. Load: one query for the assets, one (chunked) projection query for all uncached price series.
+     * 2. Compute: same mean/stdDev/z-score formula as createAndSaveVaR, run in parallel across cores.
+     * 3. Persist: all Risk rows written in one transaction with JDBC batch inserts (RiskBatchWriter).
+     * Assets without price history or value are reported as skipped instead of failing the whole run.
+     *
+     * @param portfolioIds    portfolios to calculate
+     * @param confidenceLevel The confidence level for VaR (e.g., 0.95)
+     * @param timeHorizonDays The time horizon in days
+     * @return per-asset summaries plus timings for each phase
+     */
+    public PortfolioVaRBatchResultDTO createAndSaveVaRForPortfolios(List<String> portfolioIds, double confidenceLevel, int timeHorizonDays) {
+        if (portfolioIds == null || portfolioIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one portfolio id is required");
+        }
+        if (timeHorizonDays <= 0) {
+            throw new IllegalArgumentException("Time horizon must be a positive integer");
+        }
+        double zScore = getZScore(confidenceLevel);
+        long started = System.nanoTime();
+
+        // 1. Load assets and their price series in bulk
+        List<String> distinctIds = portfolioIds.stream().distinct().toList();
+        List<Asset> assets = assetRepository.findByPortfolio_PortfolioIdIn(distinctIds);
+        Map<String, PriceSeries> seriesByAsset = assetHistoryService.getPriceSeries(
+                assets.stream().map(Asset::getAssetId).toList());
+        long loaded = System.nanoTime();
+
+        // 2. Compute every asset in parallel. Each index is written by exactly one task so plain arrays are safe
+        int n = assets.size();
+        AssetVaRSummaryDTO[] summaries = new AssetVaRSummaryDTO[n];
+        Risk[] risks = new Risk[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            Asset asset = assets.get(i);
+            AssetVaRSummaryDTO summary = new AssetVaRSummaryDTO(asset.getAssetId(), asset.getName(),
+                    asset.getPortfolio() != null ? asset.getPortfolio().getPortfolioId() : null,
+                    asset.getValue() != null ? asset.getValue() : 0.0);
+            summaries[i] = summary;
+            PriceSeries series = seriesByAsset.getOrDefault(asset.getAssetId(), PriceSeries.EMPTY);
+            if (series.isEmpty()) {
+                summary.setMessage("No price history");
+                return;
+            }
+            if (asset.getValue() == null) {
+                summary.setMessage("Asset has no value");
+                return;
+            }
+            Risk risk = buildVaRRisk(asset, series, null, zScore, confidenceLevel, timeHorizonDays);
+            ReturnStatistics statistics = series.statistics();
+            summary.setReturnCount(statistics.count());
+            summary.setMean(statistics.mean());
+            summary.setStdDev(statistics.stdDev());
+            summary.setRawVaR(risk.getValue());
+            summary.setRiskId(risk.getId());
+            risks[i] = risk;
+        });
+        long computed = System.nanoTime();
+
+        // 3. Persist all calculated rows in one batched transaction
+        List<Risk> toSave = Arrays.stream(risks).filter(Objects::nonNull).toList();
+        riskBatchWriter.persistAll(toSave);
+        long persisted = System.nanoTime();
+
+        PortfolioVaRBatchResultDTO result = new PortfolioVaRBatchResultDTO();
+        result.setPortfolioIds(distinctIds);
+        result.setConfidenceLevel(confidenceLevel);
+        result.setTimeHorizonDays(timeHorizonDays);
+        result.setAssetCount(n);
+        result.setCalculatedCount(toSave.size());
+        result.setSkippedCount(n - toSave.size());
+        result.setTotalVaR(toSave.stream().mapToDouble(Risk::getValue).sum());
+        result.setAssets(Arrays.asList(summaries));
+        result.setLoadMillis(TimeUnit.NANOSECONDS.toMillis(loaded - started));
+        result.setComputeMillis(TimeUnit.NANOSECONDS.toMillis(computed - loaded));
+        result.setPersistMillis(TimeUnit.NANOSECONDS.toMillis(persisted - computed));
+        result.setTotalMillis(TimeUnit.NANOSECONDS.toMillis(persisted - started));
+        RiskMetrics.recordBatch(meterRegistry, "risk.var.batch", "parametric", n, started, loaded, computed, persisted);
+        return result;
+    }
+
+    // Parametric row for the batch path (built, not saved)
+    private Risk buildVaRRisk(Asset asset, PriceSeries series, Integer lookbackDays, double zScore,
+            double confidenceLevel, int timeHorizonDays) {
+        return toVaRRisk(asset, parametricDetails(asset, series, lookbackDays, zScore, confidenceLevel, timeHorizonDays),
+                series, lookbackDays);
+    }
+
+    /**
+     * Shared by the single-asset and batch paths: applies the parametric VaR formula to the series'
+     * returns (all of them, or the last lookbackDays) and returns the calculation details.
+     * Refactored: the returns are no longer copied here; toVaRRisk stores a reference to them.
+     */
+    private VaRCalculationDetailsDTO parametricDetails(Asset asset, PriceSeries series, Integer lookbackDays,
+            double zScore, double confidenceLevel, int timeHorizonDays) {
+        // Mean (average daily return) and standard deviation, read from the running statistics
+        ReturnStatistics statistics = series.statistics();
+        double mean = lookbackDays == null ? statistics.mean() : statistics.mean(lookbackDays);
+        double stdDev = lookbackDays == null ? statistics.stdDev() : statistics.stdDev(lookbackDays);
 
         // Calculate raw VaR (negative for losses) 
         double rawVaR = asset.getValue() * (mean + zScore * stdDev * Math.sqrt(timeHorizonDays));
 
         // Build DTO for detailsJson 
         VaRCalculationDetailsDTO details = new VaRCalculationDetailsDTO(
-                returns, mean, stdDev, zScore, confidenceLevel, timeHorizonDays, rawVaR
+                null, mean, stdDev, zScore, confidenceLevel, timeHorizonDays, rawVaR
         );
+        details.setMethod(VaRMethod.PARAMETRIC.name());
+        details.setLookbackDays(lookbackDays);
+        return details;
+    }
+
+    private <D> RiskResultDTO<D> save(Risk risk, D details) {
+        return new RiskResultDTO<>(riskRepository.save(risk), details);
+    }
+
+    // The last lookbackDays daily returns of the series (all of them when lookbackDays is null)
+    private static double[] windowReturns(PriceSeries series, Integer lookbackDays) {
+        return series.returns(windowStart(series, lookbackDays), series.size());
+    }
+
+    // Index of the first price of the return window: lookbackDays returns need lookbackDays + 1 prices
+    private static int windowStart(PriceSeries series, Integer lookbackDays) {
+        if (lookbackDays == null || series.size() < 2) {
+            return 0;
+        }
+        return series.size() - 1 - series.statistics().windowSize(lookbackDays);
+    }
+
+    /**
+     * Builds the (unsaved) Risk row for any VaR method from its calculation details.
+     * Summary figures go into typed columns; the return window is recorded by its first and last price
+     * date, which is all getVaRDetails needs to rebuild it (series is not empty here).
+     */
+    private Risk toVaRRisk(Asset asset, VaRCalculationDetailsDTO details, PriceSeries series, Integer lookbackDays) {
+        int from = windowStart(series, lookbackDays);
+        int to = series.size() - 1;
+        details.setReturnCount(to - from);
+        details.setReturnsFrom(series.dateAt(from).toString());
+        details.setReturnsTo(series.dateAt(to).toString());
+        if ("inline".equalsIgnoreCase(detailsStorage)) {
+            details.setReturns(Arrays.stream(series.returns(from, to + 1)).boxed().toList());
+        }
 
         // Serialize DTO to JSON. Uses ObjectMapper to serialize that DTO into a JSON string.
-        ObjectMapper mapper = new ObjectMapper();
         String detailsJson;
         try {
-            detailsJson = mapper.writeValueAsString(details);
+            detailsJson = detailsMapper.writeValueAsString(details);
         } catch (Exception e) {
             detailsJson = "{}"; // fallback
         }
@@ -203,14 +687,68 @@ public class RiskService {
         // Build Risk entity
         Risk risk = new Risk();
         risk.setType("VaR");
-        risk.setValue(rawVaR); //Keep raw negative value
+        risk.setValue(details.getRawVaR()); //Keep raw negative value
         risk.setAsset(asset);
         risk.setCalculationDate(LocalDate.now());
-        risk.setConfidenceLevel(confidenceLevel);
-        risk.setTimeHorizon(timeHorizonDays + " days");
+        risk.setConfidenceLevel(details.getConfidenceLevel());
+        risk.setTimeHorizon(details.getTimeHorizonDays() + " days");
         risk.setDetailsJson(detailsJson); // Save detailed JSON
+        risk.setMethod(details.getMethod());
+        risk.setMeanReturn(details.getMean());
+        risk.setStdDev(details.getStdDev());
+        risk.setLookbackDays(lookbackDays);
+        risk.setReturnCount(to - from);
+        risk.setReturnsFrom(series.dateAt(from));
+        risk.setReturnsTo(series.dateAt(to));
+        return risk;
+    }
 
-        return riskRepository.save(risk);
+    /**
+     * Full calculation details of a VaR row, including the daily returns it used.
+     * Rows store only a reference to their return window, so the returns are rebuilt here from the
+     * cached price series; rows written with the returns inline (older rows, or risk.details.storage=inline)
+     * are returned as stored. When the window's prices no longer match the stored returnCount (prices added,
+     * removed or archived since), returns is left null and windowChanged is set.
+     *
+     * @throws NoSuchElementException if the risk does not exist
+     * @throws IllegalArgumentException if the risk is not a VaR row
+     */
+    public VaRCalculationDetailsDTO getVaRDetails(String riskId) {
+        return getVaRDetails(riskId, true);
+    }
+
+    // includeReturns=false skips rebuilding (and drops stored) returns: only the summary and window dates
+    public VaRCalculationDetailsDTO getVaRDetails(String riskId, boolean includeReturns) {
+        Risk risk = getRiskById(riskId);
+        if (!"VaR".equals(risk.getType()) || risk.getDetailsJson() == null) {
+            throw new IllegalArgumentException("Risk " + riskId + " has no VaR calculation details");
+        }
+        VaRCalculationDetailsDTO details;
+        try {
+            details = detailsReader.readValue(risk.getDetailsJson());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Risk " + riskId + " has unreadable details", e);
+        }
+        if (!includeReturns) {
+            details.setReturns(null);
+            return details;
+        }
+        if (details.getReturns() != null || details.getReturnsFrom() == null || risk.getAsset() == null) {
+            return details;
+        }
+        PriceSeries series = assetHistoryService.getPriceSeries(risk.getAsset().getAssetId());
+        int from = series.indexOf((int) LocalDate.parse(details.getReturnsFrom()).toEpochDay());
+        int to = series.indexOf((int) LocalDate.parse(details.getReturnsTo()).toEpochDay());
+        // The window must still hold exactly the returns the calculation counted; prices added or deleted
+        // inside it (or a boundary date that is gone) would give a different vector than the one used
+        Integer expected = details.getReturnCount() != null ? details.getReturnCount() : risk.getReturnCount();
+        boolean matches = from >= 0 && to >= from && (expected == null || to - from == expected)
+                && (risk.getReturnCount() == null || to - from == risk.getReturnCount());
+        if (matches) {
+            details.setReturns(Arrays.stream(series.returns(from, to + 1)).boxed().toList());
+        }
+        details.setWindowChanged(!matches);
+        return details;
     }
 
     /**
@@ -224,12 +762,12 @@ public class RiskService {
      * @return The calculated VaR value (negative = loss)
      */
     public double varCalculator(String assetId, double assetValue, double confidenceLevel, int timeHorizonDays) {
-        // Get historical returns for the asset from DB
-        List<Double> returns = assetHistoryService.getHistoricalReturns(assetId);
+        // Get historical returns for the asset (cached price series, primitive array)
+        double[] returns = assetHistoryService.getHistoricalReturnsArray(assetId);
 
         // Calculate mean and standard deviation
         double mean = calculateMean(returns); // average daily return
-        double stdDev = calculateStandardDev(returns); // volatility
+        double stdDev = calculateStandardDev(returns, mean); // volatility
 
         // Z-score
         double zScore = getZScore(confidenceLevel);
@@ -242,38 +780,39 @@ public class RiskService {
 
     // -------------------- Helper methods --------------------
 
-    private double calculateMean(List<Double> returns) {
-        if (returns == null || returns.isEmpty())
+    private double calculateMean(double[] returns) {
+        if (returns == null || returns.length == 0)
             return 0;
         double sum = 0;
         for (double r : returns)
             sum += r; // Add each daily return to the sum.
-        return sum / returns.size();// Divide the total by the number of returns average daily return (mean).
+        return sum / returns.length;// Divide the total by the number of returns average daily return (mean).
     }
 
-    private double calculateStandardDev(List<Double> returns) {
-        if (returns == null || returns.isEmpty())// No returns. volatility = 0.
+    // Refactored: takes the already calculated mean instead of calling calculateMean a second time
+    private double calculateStandardDev(double[] returns, double mean) {
+        if (returns == null || returns.length == 0)// No returns. volatility = 0.
             return 0;
-        if (returns.size() <= 1)// Only 1 return therefore cannot calculate deviation
+        if (returns.length <= 1)// Only 1 return therefore cannot calculate deviation
             return 0;
-        double mean = calculateMean(returns);
         double sumSquares = 0;
         for (double r : returns) {
-            sumSquares += Math.pow(r - mean, 2);// For each return:(r - mean) = How far is the return from the average?
+            double diff = r - mean;// For each return:(r - mean) = How far is the return from the average?
+            sumSquares += diff * diff;
         }
-        return Math.sqrt(sumSquares / (returns.size() - 1));// Take square root standard deviation (volatility in %).
+        return Math.sqrt(sumSquares / (returns.length - 1));// Take square root standard deviation (volatility in %).
     }
 
-    private double getZScore(double confidenceLevel) {
+    // Package-private and static so CovarianceVaREngine uses exactly the same z-scores
+    static double getZScore(double confidenceLevel) {
         // Negative because in VaR I am looking at the loss tail of the distribution
-        // (worst-case scenario).
-        if (confidenceLevel == 0.90)
-            return -1.2816; // 90% one-tailed
-        if (confidenceLevel == 0.95)// 95% confidence →=-1.65 standard deviations below the mean
-            return -1.65;
-        if (confidenceLevel == 0.99)// 99% confidence = -2.33 standard deviations below the mean.
-            return -2.33;
-        throw new IllegalArgumentException("Unsupported confidence level: " + confidenceLevel);
+        // (worst-case scenario): 95% confidence = -1.645 standard deviations below the mean.
+        // Refactored: any level in (0, 1) now works (e.g. 0.975, 0.999), not just 0.90/0.95/0.99
+        if (!(confidenceLevel > 0 && confidenceLevel < 1)) {
+            throw new IllegalArgumentException("Unsupported confidence level: " + confidenceLevel
+                    + " (must be between 0 and 1)");
+        }
+        return -InverseNormal.quantile(confidenceLevel);
     }
 
     /**
@@ -295,20 +834,48 @@ public class RiskService {
      * @return The persisted Risk object representing the stress test result
      */
     public Risk stressTestCalculator(Asset asset, String scenario) {
+        return runStressTest(asset, scenario).getRisk();
+    }
+
+    // Same as stressTestCalculator, also returning the details written into detailsJson
+    public RiskResultDTO<StressTestDetailsDTO> runStressTest(Asset asset, String scenario) {
+        return runStressTest(asset, scenario, findLibraryScenario(scenario).orElse(null));
+    }
+
+    /**
+     * The library scenario (POST /api/scenarios) with this name, shocks included. Callers stress testing many
+     * assets look it up once and pass it to runStressTest(asset, scenario, libraryScenario) for each asset.
+     */
+    public Optional<Scenario> findLibraryScenario(String scenario) {
+        return scenarioRepository.findWithShocksByNameIgnoreCase(scenario);
+    }
+
+    /**
+     * Same as runStressTest(asset, scenario) with the library lookup already done.
+     *
+     * @param libraryScenario result of findLibraryScenario(scenario), null for the built-in scenarios
+     */
+    public RiskResultDTO<StressTestDetailsDTO> runStressTest(Asset asset, String scenario, Scenario libraryScenario) {
+        long started = System.nanoTime();
         double shockFactor;
-        // using switch case instead of if statement for better efficiency.
-        switch (scenario) {
-            case "Market Crash":
-                shockFactor = -0.3; // -30% drop. Asset price falls 30%
-                break;
-            case "Interest Rate Shock":
-                shockFactor = -0.1; // -10% drop
-                break;
-            case "Commodity Spike":
-                shockFactor = 0.2; // +20% increase
-                break;
-            default:
-                shockFactor = -0.15; // Default: -15% drop
+        // Refactored: a scenario from the library (POST /api/scenarios) with this name wins over the built-in ones
+        if (libraryScenario != null) {
+            shockFactor = libraryScenario.shockFor(asset);
+        } else {
+            // using switch case instead of if statement for better efficiency.
+            switch (scenario) {
+                case "Market Crash":
+                    shockFactor = -0.3; // -30% drop. Asset price falls 30%
+                    break;
+                case "Interest Rate Shock":
+                    shockFactor = -0.1; // -10% drop
+                    break;
+                case "Commodity Spike":
+                    shockFactor = 0.2; // +20% increase
+                    break;
+                default:
+                    shockFactor = -0.15; // Default: -15% drop
+            }
         }
 
         // Take the current value of the asset.Multiply by (1 + shockFactor).
@@ -340,9 +907,18 @@ public class RiskService {
         // (like in PostgreSQL with jsonb).
         // AS I am using H2, MySQL, or plain VARCHAR columns, this JSON will just be
         // stored as a string.
-        risk.setDetailsJson("{\"shockFactor\":" + shockFactor + "}");
+        // Refactored: written by the shared mapper from a typed DTO, same {"shockFactor":...} shape as before
+        StressTestDetailsDTO details = new StressTestDetailsDTO(shockFactor);
+        try {
+            risk.setDetailsJson(detailsMapper.writeValueAsString(details));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise stress test details", e);
+        }
 
-        return riskRepository.save(risk);// Save to the database
+        RiskResultDTO<StressTestDetailsDTO> result = save(risk, details);// Save to the database
+        RiskMetrics.timer(meterRegistry, "risk.stress.calculation", "source", libraryScenario != null ? "library" : "builtin")
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return result;
     }
 
 }
@@ -0,0 +1,110 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.annotations.BatchSize;
+
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Table;
+
+/**
+ * A named stress scenario in the scenario library (e.g. "Market Crash").
+ *
+ * Shocks are fractional price moves: -0.30 means the asset loses 30%, 0.20 means it gains 20%.
+ * The shock applied to an asset is the first one found of:
+ * 1. assetShocks, keyed by assetId (a specific holding, e.g. one bank in a banking crisis)
+ * 2. assetClassShocks, keyed by the asset's assetClass (EQUITY, BOND, COMMODITY...)
+ * 3. defaultShock, for every other asset (0 when not set)
+ *
+ * The old stressTestCalculator hardcoded three scenarios in a switch; those names still work there,
+ * but a library scenario with the same name takes precedence.
+ */
+@Entity
+@Table(name = "scenario", indexes = @Index(name = "idx_scenario_name", columnList = "name", unique = true))
+public class Scenario {
+
+    @Id
+    @Column(name = "scenario_id", columnDefinition = "CHAR(36)")
+    private String scenarioId = UUID.randomUUID().toString();
+
+    @Column(nullable = false, length = 100)
+    private String name;
+    private String description;
+    private Double defaultShock;
+    private LocalDate createdAt = LocalDate.now();
+
+    // Element collections are loaded in batches, so reading 500 scenarios is a few queries rather than 1000
+    @ElementCollection
+    @CollectionTable(name = "scenario_asset_class_shock", joinColumns = @JoinColumn(name = "scenario_id"))
+    @MapKeyColumn(name = "asset_class", length = 32)
+    @Column(name = "shock", nullable = false)
+    @BatchSize(size = 100)
+    private Map<String, Double> assetClassShocks = new HashMap<>();
+
+    @ElementCollection
+    @CollectionTable(name = "scenario_asset_shock", joinColumns = @JoinColumn(name = "scenario_id"))
+    @MapKeyColumn(name = "asset_id", columnDefinition = "CHAR(36)")
+    @Column(name = "shock", nullable = false)
+    @BatchSize(size = 100)
+    private Map<String, Double> assetShocks = new HashMap<>();
+
+    public Scenario() {}
+
+    public Scenario(String name, Double defaultShock) {
+        this.name = name;
+        this.defaultShock = defaultShock;
+    }
+
+    // Shock for one asset, following the precedence above
+    public double shockFor(Asset asset) {
+        Double shock = assetShocks.get(asset.getAssetId());
+        if (shock == null && asset.getAssetClass() != null) {
+            shock = assetClassShocks.get(asset.getAssetClass());
+        }
+        if (shock == null) {
+            shock = defaultShock;
+        }
+        return shock != null ? shock : 0.0;
+    }
+
+    // Asset classes are compared upper case, so "equity" and "EQUITY" are the same class
+    public static String normaliseAssetClass(String assetClass) {
+        if (assetClass == null || assetClass.isBlank()) {
+            return null;
+        }
+        return assetClass.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public String getScenarioId() { return scenarioId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Double getDefaultShock() { return defaultShock; }
+    public void setDefaultShock(Double defaultShock) { this.defaultShock = defaultShock; }
+
+    public LocalDate getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDate createdAt) { this.createdAt = createdAt; }
+
+    public Map<String, Double> getAssetClassShocks() { return assetClassShocks; }
+    public void setAssetClassShocks(Map<String, Double> assetClassShocks) { this.assetClassShocks = assetClassShocks; }
+
+    public Map<String, Double> getAssetShocks() { return assetShocks; }
+    public void setAssetShocks(Map<String, Double> assetShocks) { this.assetShocks = assetShocks; }
+}
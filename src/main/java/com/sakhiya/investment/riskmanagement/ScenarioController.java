@@ -0,0 +1,95 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.sakhiya.investment.riskmanagement.dto.ScenarioReplayRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioRunRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioRunResultDTO;
+
+/**
+ * Stress scenario library and batch runs.
+ *
+ * A scenario is a set of shocks, e.g.
+ * {"name": "Stagflation", "defaultShock": -0.1, "assetClassShocks": {"EQUITY": -0.25, "COMMODITY": 0.15}}
+ * POST /api/scenarios/run with {"scenarioIds": [...], "portfolioIds": [...]} runs every scenario over
+ * every asset and stores one StressTest Risk per pair (persist=false only returns the totals).
+ */
+@RestController
+@RequestMapping("/api/scenarios")
+public class ScenarioController {
+
+    private final ScenarioService scenarioService;
+
+    public ScenarioController(ScenarioService scenarioService) {
+        this.scenarioService = scenarioService;
+    }
+
+    @GetMapping
+    public List<Scenario> getAllScenarios() {
+        return scenarioService.getAllScenarios();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Scenario> getScenario(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(scenarioService.getScenario(id));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<Scenario> createScenario(@RequestBody Scenario scenario) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(scenarioService.createScenario(scenario));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Scenario> updateScenario(@PathVariable String id, @RequestBody Scenario scenario) {
+        try {
+            return ResponseEntity.ok(scenarioService.updateScenario(id, scenario));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteScenario(@PathVariable String id) {
+        try {
+            scenarioService.deleteScenario(id);
+            return ResponseEntity.noContent().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Runs N scenarios x M assets in one request; unknown scenario ids give 404
+    @PostMapping("/run")
+    public ResponseEntity<ScenarioRunResultDTO> runScenarios(@RequestBody ScenarioRunRequestDTO request) {
+        try {
+            return ResponseEntity.ok(scenarioService.runScenarios(request));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Historical replay: applies each asset's realised move over a past window to its current value, e.g.
+     * {"portfolioIds": [...], "start": "2020-02-20", "end": "2020-03-23"}
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<ScenarioRunResultDTO> replay(@RequestBody ScenarioReplayRequestDTO request) {
+        return ResponseEntity.ok(scenarioService.replay(request));
+    }
+
+    // Invalid scenarios or runs (bad shocks, duplicate names, too many results) are a client error
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public String handleBadRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,17 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ScenarioRepository extends JpaRepository<Scenario, String> {
+
+    Optional<Scenario> findByNameIgnoreCase(String name);
+
+    // Fetches the shock maps in the same query, so shockFor() works outside a transaction
+    @EntityGraph(attributePaths = { "assetClassShocks", "assetShocks" })
+    Optional<Scenario> findWithShocksByNameIgnoreCase(String name);
+
+    boolean existsByNameIgnoreCase(String name);
+}
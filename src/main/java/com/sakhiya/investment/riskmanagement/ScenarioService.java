@@ -0,0 +1,356 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetRepository;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioReplayRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioRunRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioRunResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.StressTestDetailsDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Scenario library (CRUD) and batch stress runs.
+ *
+ * A run of N scenarios over M assets:
+ * 1. Load: the assets (by id and/or whole portfolios) and the scenarios, compiled into shock vectors
+ * 2. Compute: per-scenario totals in parallel (ScenarioStressEngine)
+ * 3. Persist (optional): one StressTest Risk row per scenario and asset, written in committed chunks of
+ *    risk.scenario.chunkSize rows with JDBC batching, so memory stays flat however large the run is
+ * A historical replay goes through the same phases with a one-off scenario built from realised price moves.
+ */
+@Service
+public class ScenarioService {
+
+    private final ScenarioRepository scenarioRepository;
+    private final AssetRepository assetRepository;
+    private final ScenarioStressEngine engine;
+    private final RiskBatchWriter riskBatchWriter;
+    private final AssetHistoryService assetHistoryService;
+    private final int chunkSize;
+    private final int jdbcBatchSize;
+    private final long maxCells;
+    // Phase timings of every run as risk.stress.run (see RiskMetrics)
+    private final MeterRegistry meterRegistry;
+    // detailsJson of the StressTest rows, written by the application's mapper as in RiskService
+    private final ObjectWriter detailsWriter;
+
+    public ScenarioService(ScenarioRepository scenarioRepository, AssetRepository assetRepository,
+            ScenarioStressEngine engine, RiskBatchWriter riskBatchWriter, AssetHistoryService assetHistoryService,
+            MeterRegistry meterRegistry, ObjectMapper objectMapper,
+            @Value("${risk.scenario.chunkSize:5000}") int chunkSize,
+            @Value("${risk.scenario.jdbcBatchSize:500}") int jdbcBatchSize,
+            @Value("${risk.scenario.maxCells:5000000}") long maxCells) {
+        this.scenarioRepository = scenarioRepository;
+        this.assetRepository = assetRepository;
+        this.engine = engine;
+        this.riskBatchWriter = riskBatchWriter;
+        this.assetHistoryService = assetHistoryService;
+        this.chunkSize = chunkSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.maxCells = maxCells;
+        this.meterRegistry = meterRegistry;
+        this.detailsWriter = objectMapper.writerFor(StressTestDetailsDTO.class);
+    }
+
+    // -------------------- Library --------------------
+
+    @Transactional(readOnly = true)
+    public List<Scenario> getAllScenarios() {
+        List<Scenario> scenarios = scenarioRepository.findAll();
+        scenarios.forEach(ScenarioService::initialise);
+        return scenarios;
+    }
+
+    @Transactional(readOnly = true)
+    public Scenario getScenario(String scenarioId) {
+        return initialise(scenarioRepository.findById(scenarioId)
+                .orElseThrow(() -> new NoSuchElementException("Scenario with id " + scenarioId + " not found")));
+    }
+
+    public Scenario createScenario(Scenario scenario) {
+        validateScenario(scenario);
+        if (scenarioRepository.existsByNameIgnoreCase(scenario.getName())) {
+            throw new IllegalArgumentException("A scenario named " + scenario.getName() + " already exists");
+        }
+        return scenarioRepository.save(scenario);
+    }
+
+    @Transactional
+    public Scenario updateScenario(String scenarioId, Scenario updated) {
+        validateScenario(updated);
+        Scenario current = getScenario(scenarioId);
+        scenarioRepository.findByNameIgnoreCase(updated.getName())
+                .filter(other -> !other.getScenarioId().equals(scenarioId))
+                .ifPresent(other -> {
+                    throw new IllegalArgumentException("A scenario named " + updated.getName() + " already exists");
+                });
+        current.setName(updated.getName());
+        current.setDescription(updated.getDescription());
+        current.setDefaultShock(updated.getDefaultShock());
+        current.getAssetClassShocks().clear();
+        current.getAssetClassShocks().putAll(updated.getAssetClassShocks());
+        current.getAssetShocks().clear();
+        current.getAssetShocks().putAll(updated.getAssetShocks());
+        return scenarioRepository.save(current);
+    }
+
+    public void deleteScenario(String scenarioId) {
+        if (!scenarioRepository.existsById(scenarioId)) {
+            throw new NoSuchElementException("Scenario with id " + scenarioId + " not found");
+        }
+        scenarioRepository.deleteById(scenarioId);
+    }
+
+    /**
+     * Name is required; shocks must be greater than -1 (an asset cannot lose more than 100%).
+     * Asset class keys are normalised to upper case so they match Asset.assetClass.
+     */
+    public void validateScenario(Scenario scenario) {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Scenario cannot be null");
+        }
+        if (scenario.getName() == null || scenario.getName().isBlank()) {
+            throw new IllegalArgumentException("Scenario name cannot be blank");
+        }
+        if (scenario.getAssetClassShocks() == null) {
+            scenario.setAssetClassShocks(new HashMap<>());
+        }
+        if (scenario.getAssetShocks() == null) {
+            scenario.setAssetShocks(new HashMap<>());
+        }
+        checkShock(scenario.getDefaultShock(), "defaultShock");
+        Map<String, Double> byClass = new HashMap<>();
+        scenario.getAssetClassShocks().forEach((assetClass, shock) -> {
+            String key = Scenario.normaliseAssetClass(assetClass);
+            if (key == null) {
+                throw new IllegalArgumentException("Asset class cannot be blank");
+            }
+            checkShock(shock, "shock for " + key);
+            byClass.put(key, shock);
+        });
+        scenario.setAssetClassShocks(byClass);
+        scenario.getAssetShocks().forEach((assetId, shock) -> checkShock(shock, "shock for asset " + assetId));
+    }
+
+    private static void checkShock(Double shock, String label) {
+        if (shock != null && (shock.isNaN() || shock <= -1.0 || shock.isInfinite())) {
+            throw new IllegalArgumentException(label + " must be a fraction above -1 (e.g. -0.3 for a 30% fall)");
+        }
+    }
+
+    // Loads the lazy shock maps while the transaction is open, so they can be serialised afterwards
+    private static Scenario initialise(Scenario scenario) {
+        scenario.getAssetClassShocks().size();
+        scenario.getAssetShocks().size();
+        return scenario;
+    }
+
+    // -------------------- Batch run --------------------
+
+    /**
+     * Runs the requested scenarios over the requested assets and portfolios.
+     *
+     * @throws IllegalArgumentException if no assets are selected or the run exceeds risk.scenario.maxCells
+     * @throws NoSuchElementException if a requested scenario does not exist
+     */
+    public ScenarioRunResultDTO runScenarios(ScenarioRunRequestDTO request) {
+        long started = System.nanoTime();
+        // 1. Load assets and compile the scenarios
+        List<Asset> selected = loadAssets(request.getAssetIds(), request.getPortfolioIds());
+        List<Asset> assets = selected.stream().filter(asset -> asset.getValue() != null).toList();
+        ScenarioStressEngine.ShockMatrix matrix = engine.compile(request.getScenarioIds(), assets);
+        ScenarioRunResultDTO result = run(matrix, request.isPersist(), null, started);
+        result.setSkippedAssetCount(selected.size() - assets.size());
+        return result;
+    }
+
+    /**
+     * Historical replay: applies each asset's actual price move over a past window (e.g. 2008-09-15..2008-10-15)
+     * to its current value. The move is close(on or before end) / close(on or before start) - 1, read from the
+     * cached price series (archived years included), so a whole book needs one bulk load rather than a query per asset.
+     * Assets without prices around both dates are skipped and listed with the reason.
+     *
+     * @throws IllegalArgumentException if the window is missing or start is not before end
+     */
+    public ScenarioRunResultDTO replay(ScenarioReplayRequestDTO request) {
+        long started = System.nanoTime();
+        LocalDate start = request.getStart();
+        LocalDate end = request.getEnd();
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new IllegalArgumentException("A replay window with start before end is required");
+        }
+        List<Asset> selected = loadAssets(request.getAssetIds(), request.getPortfolioIds());
+        Map<String, PriceSeries> seriesByAsset = assetHistoryService.getPriceSeries(
+                selected.stream().map(Asset::getAssetId).toList());
+
+        // The window becomes a one-off scenario whose per-asset shocks are the realised moves
+        String name = request.getName() != null && !request.getName().isBlank() ? request.getName()
+                : "Replay " + start + ".." + end;
+        Map<String, Double> moves = new LinkedHashMap<>();
+        Map<String, String> skipped = new LinkedHashMap<>();
+        List<Asset> assets = new ArrayList<>();
+        for (Asset asset : selected) {
+            if (asset.getValue() == null) {
+                skipped.put(asset.getAssetId(), "Asset has no value");
+                continue;
+            }
+            double move = ScenarioStressEngine.realisedMove(
+                    seriesByAsset.getOrDefault(asset.getAssetId(), PriceSeries.EMPTY), start, end);
+            if (Double.isNaN(move)) {
+                skipped.put(asset.getAssetId(), "No prices around " + start + " and " + end);
+                continue;
+            }
+            moves.put(asset.getAssetId(), move);
+            assets.add(asset);
+        }
+        Scenario scenario = new Scenario(name, null);
+        scenario.setAssetShocks(moves);
+        ScenarioStressEngine.ShockMatrix matrix = ScenarioStressEngine.compileScenarios(List.of(scenario), assets);
+        StressTestDetailsDTO replayWindow = new StressTestDetailsDTO();
+        replayWindow.setReplayStart(start.toString());
+        replayWindow.setReplayEnd(end.toString());
+        ScenarioRunResultDTO result = run(matrix, request.isPersist(), replayWindow, started);
+        result.getScenarios().get(0).setScenarioId(null); // not a library scenario
+        result.setSkippedAssetCount(skipped.size());
+        result.setSkippedAssets(skipped);
+        result.setRealisedMoves(moves);
+        return result;
+    }
+
+    // Assets by id and of whole portfolios, deduplicated, in request order
+    private List<Asset> loadAssets(List<String> assetIds, List<String> portfolioIds) {
+        List<String> ids = assetIds != null ? assetIds : List.of();
+        List<String> portfolios = portfolioIds != null ? portfolioIds : List.of();
+        if (ids.isEmpty() && portfolios.isEmpty()) {
+            throw new IllegalArgumentException("At least one asset id or portfolio id is required");
+        }
+        Map<String, Asset> selected = new LinkedHashMap<>();
+        if (!portfolios.isEmpty()) {
+            assetRepository.findByPortfolio_PortfolioIdIn(portfolios.stream().distinct().toList())
+                    .forEach(asset -> selected.putIfAbsent(asset.getAssetId(), asset));
+        }
+        if (!ids.isEmpty()) {
+            assetRepository.findAllById(ids.stream().distinct().toList())
+                    .forEach(asset -> selected.putIfAbsent(asset.getAssetId(), asset));
+        }
+        return new ArrayList<>(selected.values());
+    }
+
+    // Phases 2 and 3 of a run plus the response; for replays, replayWindow replaces the scenario id in detailsJson
+    private ScenarioRunResultDTO run(ScenarioStressEngine.ShockMatrix matrix, boolean persist,
+            StressTestDetailsDTO replayWindow,
+            long started) {
+        long cells = (long) matrix.scenarioCount() * matrix.assetCount();
+        if (cells > maxCells) {
+            throw new IllegalArgumentException("Run of " + matrix.scenarioCount() + " scenarios x "
+                    + matrix.assetCount() + " assets exceeds the limit of " + maxCells + " results");
+        }
+        long loaded = System.nanoTime();
+
+        // 2. Totals per scenario, in parallel
+        List<ScenarioStressEngine.Outcome> outcomes = engine.evaluate(matrix);
+        long computed = System.nanoTime();
+
+        // 3. Risk rows, one chunk in memory at a time
+        long persistedCount = persist ? persist(matrix, replayWindow) : 0;
+        long persisted = System.nanoTime();
+
+        ScenarioRunResultDTO result = new ScenarioRunResultDTO();
+        result.setScenarioCount(matrix.scenarioCount());
+        result.setAssetCount(matrix.assetCount());
+        result.setPersistedCount(persistedCount);
+        for (ScenarioStressEngine.Outcome outcome : outcomes) {
+            Scenario scenario = matrix.scenario(outcome.getScenario());
+            ScenarioRunResultDTO.ScenarioOutcome dto = new ScenarioRunResultDTO.ScenarioOutcome();
+            dto.setScenarioId(scenario.getScenarioId());
+            dto.setName(scenario.getName());
+            dto.setBaseValue(outcome.getBaseValue());
+            dto.setStressedValue(outcome.getStressedValue());
+            dto.setPnl(outcome.getPnl());
+            if (outcome.getWorstAsset() >= 0) {
+                dto.setWorstAssetId(matrix.asset(outcome.getWorstAsset()).getAssetId());
+                dto.setWorstAssetPnl(outcome.getWorstAssetPnl());
+            }
+            for (int p = 0; p < matrix.getPortfolioIds().size(); p++) {
+                dto.getPortfolioPnl().put(matrix.getPortfolioIds().get(p), outcome.getPortfolioPnl()[p]);
+            }
+            result.getScenarios().add(dto);
+        }
+        result.setLoadMillis(TimeUnit.NANOSECONDS.toMillis(loaded - started));
+        result.setComputeMillis(TimeUnit.NANOSECONDS.toMillis(computed - loaded));
+        result.setPersistMillis(TimeUnit.NANOSECONDS.toMillis(persisted - computed));
+        result.setTotalMillis(TimeUnit.NANOSECONDS.toMillis(persisted - started));
+        RiskMetrics.recordBatch(meterRegistry, "risk.stress.run", replayWindow == null ? "scenarios" : "replay",
+                matrix.assetCount(), started, loaded, computed, persisted);
+        return result;
+    }
+
+    // Builds and writes the StressTest rows scenario by scenario; each full chunk is committed on its own
+    private long persist(ScenarioStressEngine.ShockMatrix matrix, StressTestDetailsDTO replayWindow) {
+        LocalDate today = LocalDate.now();
+        double[] row = new double[matrix.assetCount()];
+        List<Risk> chunk = new ArrayList<>(chunkSize);
+        long written = 0;
+        for (int s = 0; s < matrix.scenarioCount(); s++) {
+            Scenario scenario = matrix.scenario(s);
+            matrix.shocks(s, row);
+            for (int a = 0; a < row.length; a++) {
+                chunk.add(stressTestRisk(matrix.asset(a), scenario, row[a], matrix.value(a), today, replayWindow));
+                if (chunk.size() == chunkSize) {
+                    riskBatchWriter.persistAll(chunk, jdbcBatchSize);
+                    written += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            riskBatchWriter.persistAll(chunk, jdbcBatchSize);
+            written += chunk.size();
+        }
+        return written;
+    }
+
+    // Same row layout as RiskService.stressTestCalculator, with the scenario id (or replay window) added to detailsJson
+    private Risk stressTestRisk(Asset asset, Scenario scenario, double shock, double value, LocalDate today,
+            StressTestDetailsDTO replayWindow) {
+        Risk risk = new Risk();
+        risk.setType("StressTest");
+        risk.setScenario(scenario.getName());
+        risk.setValue(value * (1 + shock)); // post-shock value of the asset
+        risk.setAsset(asset);
+        risk.setCalculationDate(today);
+        risk.setDescription("Stress test: " + scenario.getName() + " (" + (shock * 100) + "% shock)");
+        StressTestDetailsDTO details = new StressTestDetailsDTO(shock);
+        if (replayWindow != null) {
+            details.setReplayStart(replayWindow.getReplayStart());
+            details.setReplayEnd(replayWindow.getReplayEnd());
+        } else {
+            details.setScenarioId(scenario.getScenarioId());
+        }
+        try {
+            risk.setDetailsJson(detailsWriter.writeValueAsString(details));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise stress test details", e);
+        }
+        return risk;
+    }
+}
@@ -0,0 +1,268 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+
+/**
+ * Runs N stress scenarios over M assets as array arithmetic instead of N x M entity lookups.
+ *
+ * compile() turns the scenarios into shock vectors once:
+ * - every asset gets the index of its asset class (one extra slot for "no class / not listed")
+ * - every scenario gets one shock per class (its default in the extra slot) plus a short list of
+ *   per-asset overrides for the assets in this run
+ * A scenario's shock row for all M assets is then a gather (classShocks[classIndex[a]]) followed by the
+ * overrides, and stressed values are values[a] * (1 + shock[a]). Scenarios are independent, so they are
+ * evaluated in parallel.
+ */
+@Component
+public class ScenarioStressEngine {
+
+    private final ScenarioRepository scenarioRepository;
+
+    public ScenarioStressEngine(ScenarioRepository scenarioRepository) {
+        this.scenarioRepository = scenarioRepository;
+    }
+
+    /**
+     * Loads the scenarios (all of them when scenarioIds is empty, otherwise in the given order) and compiles
+     * their shocks for the assets.
+     * Read-only transaction so the shock maps can be read; the result holds plain arrays only.
+     *
+     * @param assets assets with a value, in the order results should be reported
+     * @throws NoSuchElementException if a requested scenario does not exist
+     */
+    @Transactional(readOnly = true)
+    public ShockMatrix compile(Collection<String> scenarioIds, List<Asset> assets) {
+        List<Scenario> scenarios;
+        if (scenarioIds == null || scenarioIds.isEmpty()) {
+            scenarios = scenarioRepository.findAll();
+        } else {
+            // findAllById does not keep the order, so results are put back in the requested order
+            Map<String, Scenario> byId = new HashMap<>();
+            scenarioRepository.findAllById(scenarioIds.stream().distinct().toList())
+                    .forEach(scenario -> byId.put(scenario.getScenarioId(), scenario));
+            scenarios = new ArrayList<>();
+            for (String id : scenarioIds.stream().distinct().toList()) {
+                Scenario scenario = byId.get(id);
+                if (scenario == null) {
+                    throw new NoSuchElementException("Scenario with id " + id + " not found");
+                }
+                scenarios.add(scenario);
+            }
+        }
+        return compileScenarios(scenarios, assets);
+    }
+
+    // Pure part of compile(), separate so it can be tested without a database
+    static ShockMatrix compileScenarios(List<Scenario> scenarios, List<Asset> assets) {
+        int m = assets.size();
+        Map<String, Integer> classSlots = new LinkedHashMap<>();
+        Map<String, Integer> assetIndex = new HashMap<>(m * 2);
+        Map<String, Integer> portfolioSlots = new LinkedHashMap<>();
+        int[] classIndex = new int[m];
+        int[] portfolioIndex = new int[m];
+        double[] values = new double[m];
+        for (int a = 0; a < m; a++) {
+            Asset asset = assets.get(a);
+            assetIndex.put(asset.getAssetId(), a);
+            values[a] = asset.getValue();
+            classIndex[a] = asset.getAssetClass() == null ? -1
+                    : classSlots.computeIfAbsent(asset.getAssetClass(), k -> classSlots.size());
+            String portfolioId = asset.getPortfolio() != null ? asset.getPortfolio().getPortfolioId() : null;
+            portfolioIndex[a] = portfolioId == null ? -1
+                    : portfolioSlots.computeIfAbsent(portfolioId, k -> portfolioSlots.size());
+        }
+        // The slot after the real classes holds the default shock
+        int defaultSlot = classSlots.size();
+        for (int a = 0; a < m; a++) {
+            if (classIndex[a] < 0) {
+                classIndex[a] = defaultSlot;
+            }
+        }
+
+        int n = scenarios.size();
+        double[][] classShocks = new double[n][defaultSlot + 1];
+        int[][] overrideAssets = new int[n][];
+        double[][] overrideShocks = new double[n][];
+        for (int s = 0; s < n; s++) {
+            Scenario scenario = scenarios.get(s);
+            double defaultShock = scenario.getDefaultShock() != null ? scenario.getDefaultShock() : 0.0;
+            Arrays.fill(classShocks[s], defaultShock);
+            for (Map.Entry<String, Double> entry : scenario.getAssetClassShocks().entrySet()) {
+                Integer slot = classSlots.get(entry.getKey());
+                if (slot != null) {
+                    classShocks[s][slot] = entry.getValue();
+                }
+            }
+            // Only overrides for assets in this run are kept
+            int[] hits = new int[scenario.getAssetShocks().size()];
+            double[] shocks = new double[hits.length];
+            int count = 0;
+            for (Map.Entry<String, Double> entry : scenario.getAssetShocks().entrySet()) {
+                Integer a = assetIndex.get(entry.getKey());
+                if (a != null) {
+                    hits[count] = a;
+                    shocks[count++] = entry.getValue();
+                }
+            }
+            overrideAssets[s] = Arrays.copyOf(hits, count);
+            overrideShocks[s] = Arrays.copyOf(shocks, count);
+        }
+        return new ShockMatrix(scenarios, assets, values, classIndex, classShocks, overrideAssets, overrideShocks,
+                new ArrayList<>(portfolioSlots.keySet()), portfolioIndex);
+    }
+
+    // A replay price may be at most this many days before the window date (weekends, holidays, missing rows)
+    static final int MAX_REPLAY_GAP_DAYS = 7;
+
+    /**
+     * Realised price move over a historical window: close on or before end / close on or before start - 1.
+     * Binary searches on the cached series, so no query per asset.
+     *
+     * @return the move (e.g. -0.23), or NaN when the series has no price within MAX_REPLAY_GAP_DAYS of either date
+     */
+    static double realisedMove(PriceSeries series, LocalDate start, LocalDate end) {
+        int startDay = (int) start.toEpochDay();
+        int endDay = (int) end.toEpochDay();
+        int from = series.indexOnOrBefore(startDay);
+        int to = series.indexOnOrBefore(endDay);
+        if (from < 0 || to < from
+                || series.epochDayAt(from) < startDay - MAX_REPLAY_GAP_DAYS
+                || series.epochDayAt(to) < endDay - MAX_REPLAY_GAP_DAYS) {
+            return Double.NaN;
+        }
+        return series.closeAt(to) / series.closeAt(from) - 1;
+    }
+
+    /**
+     * Totals of every scenario: base and stressed value, profit and loss (negative = loss), the worst asset
+     * and the P&L per portfolio. Scenarios are evaluated in parallel, one reusable shock row per scenario.
+     */
+    public List<Outcome> evaluate(ShockMatrix matrix) {
+        int n = matrix.scenarioCount();
+        Outcome[] outcomes = new Outcome[n];
+        IntStream.range(0, n).parallel().forEach(s -> {
+            double[] row = new double[matrix.assetCount()];
+            matrix.shocks(s, row);
+            double base = 0;
+            double pnl = 0;
+            int worst = -1;
+            double worstPnl = Double.POSITIVE_INFINITY;
+            double[] portfolioPnl = new double[matrix.portfolioIds.size()];
+            for (int a = 0; a < row.length; a++) {
+                double value = matrix.values[a];
+                double assetPnl = value * row[a];
+                base += value;
+                pnl += assetPnl;
+                if (assetPnl < worstPnl) {
+                    worstPnl = assetPnl;
+                    worst = a;
+                }
+                if (matrix.portfolioIndex[a] >= 0) {
+                    portfolioPnl[matrix.portfolioIndex[a]] += assetPnl;
+                }
+            }
+            outcomes[s] = new Outcome(s, base, base + pnl, pnl, worst, worst < 0 ? 0.0 : worstPnl, portfolioPnl);
+        });
+        return List.of(outcomes);
+    }
+
+    /**
+     * Shock vectors of N scenarios for M assets. Immutable once compiled; shocks() may be called from many threads.
+     */
+    public static final class ShockMatrix {
+        private final List<Scenario> scenarios;
+        private final List<Asset> assets;
+        private final double[] values;
+        private final int[] classIndex;
+        private final double[][] classShocks;
+        private final int[][] overrideAssets;
+        private final double[][] overrideShocks;
+        private final List<String> portfolioIds;
+        private final int[] portfolioIndex;
+
+        ShockMatrix(List<Scenario> scenarios, List<Asset> assets, double[] values, int[] classIndex,
+                double[][] classShocks, int[][] overrideAssets, double[][] overrideShocks,
+                List<String> portfolioIds, int[] portfolioIndex) {
+            this.scenarios = scenarios;
+            this.assets = assets;
+            this.values = values;
+            this.classIndex = classIndex;
+            this.classShocks = classShocks;
+            this.overrideAssets = overrideAssets;
+            this.overrideShocks = overrideShocks;
+            this.portfolioIds = portfolioIds;
+            this.portfolioIndex = portfolioIndex;
+        }
+
+        // Writes the shock of every asset under scenario s into out (length = assetCount)
+        public void shocks(int s, double[] out) {
+            double[] byClass = classShocks[s];
+            for (int a = 0; a < out.length; a++) {
+                out[a] = byClass[classIndex[a]];
+            }
+            int[] overrides = overrideAssets[s];
+            for (int i = 0; i < overrides.length; i++) {
+                out[overrides[i]] = overrideShocks[s][i];
+            }
+        }
+
+        public int scenarioCount() { return scenarios.size(); }
+
+        public int assetCount() { return assets.size(); }
+
+        public Scenario scenario(int s) { return scenarios.get(s); }
+
+        public Asset asset(int a) { return assets.get(a); }
+
+        public double value(int a) { return values[a]; }
+
+        public List<String> getPortfolioIds() { return portfolioIds; }
+    }
+
+    /**
+     * Result of one scenario over all assets of the run.
+     */
+    public static final class Outcome {
+        private final int scenario;
+        private final double baseValue;
+        private final double stressedValue;
+        private final double pnl;
+        private final int worstAsset; // -1 when the run has no assets
+        private final double worstAssetPnl;
+        private final double[] portfolioPnl; // indexed like ShockMatrix.getPortfolioIds()
+
+        Outcome(int scenario, double baseValue, double stressedValue, double pnl, int worstAsset,
+                double worstAssetPnl, double[] portfolioPnl) {
+            this.scenario = scenario;
+            this.baseValue = baseValue;
+            this.stressedValue = stressedValue;
+            this.pnl = pnl;
+            this.worstAsset = worstAsset;
+            this.worstAssetPnl = worstAssetPnl;
+            this.portfolioPnl = portfolioPnl;
+        }
+
+        public int getScenario() { return scenario; }
+        public double getBaseValue() { return baseValue; }
+        public double getStressedValue() { return stressedValue; }
+        public double getPnl() { return pnl; }
+        public int getWorstAsset() { return worstAsset; }
+        public double getWorstAssetPnl() { return worstAssetPnl; }
+        public double[] getPortfolioPnl() { return portfolioPnl; }
+    }
+}
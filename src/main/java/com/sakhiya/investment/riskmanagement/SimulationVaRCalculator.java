@@ -0,0 +1,289 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Non-parametric VaR building blocks: historical simulation and Monte Carlo.
+ *
+ * Both methods produce a set of possible h-day returns and take the (1 - confidence) percentile of it,
+ * so unlike the parametric formula any confidence level between 0 and 1 can be used.
+ *
+ * Monte Carlo paths are generated on a dedicated ForkJoinPool (so a 1M path run does not starve the
+ * common pool used by parallel streams elsewhere). Paths are grouped into fixed-size chunks and every
+ * chunk gets its own SplittableRandom, split from the seed in chunk order before any work starts.
+ * Which thread runs which chunk therefore never changes the numbers: the same seed always gives the same VaR.
+ */
+@Component
+public class SimulationVaRCalculator {
+
+    // Paths per chunk. Fixed (not derived from the thread count) so results do not depend on the machine
+    static final int CHUNK_SIZE = 16_384;
+    // 5M paths = 40MB of doubles; keeps one request from exhausting the heap
+    public static final int MAX_PATHS = 5_000_000;
+
+    // Default budget of paths x timeHorizonDays normal draws per run (1M paths x 250 days, a few seconds)
+    public static final long DEFAULT_MAX_DRAWS = 250_000_000L;
+
+    private final ForkJoinPool pool;
+    // The work is paths x steps draws on the shared pool, so a long horizon is capped as well as the path count:
+    // 5M paths x 100000 days would otherwise hold every core for minutes and starve other Monte Carlo requests
+    private final long maxDraws;
+
+    public SimulationVaRCalculator(int parallelism) {
+        this(parallelism, DEFAULT_MAX_DRAWS);
+    }
+
+    @Autowired
+    public SimulationVaRCalculator(@Value("${risk.monteCarlo.parallelism:0}") int parallelism,
+            @Value("${risk.monteCarlo.maxDraws:250000000}") long maxDraws) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxDraws = maxDraws;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Historical simulation: every overlapping h-day window of the past daily returns is one scenario,
+     * compounded as (1 + r1) * ... * (1 + rh) - 1.
+     *
+     * @param returns         daily returns, oldest first
+     * @param confidenceLevel e.g. 0.95 for the 5th percentile
+     * @param timeHorizonDays h
+     * @return the h-day return at the loss percentile (negative = loss) and the number of scenarios
+     */
+    public SimulationResult historical(double[] returns, double confidenceLevel, int timeHorizonDays) {
+        int scenarios = returns.length - timeHorizonDays + 1;
+        if (scenarios < 2) {
+            throw new IllegalArgumentException("Not enough price history for a " + timeHorizonDays
+                    + "-day historical simulation (" + returns.length + " daily returns)");
+        }
+        // growth[k] = value of 1 invested at the start after k days, so any window is growth[k+h] / growth[k]
+        double[] growth = new double[returns.length + 1];
+        growth[0] = 1.0;
+        for (int k = 0; k < returns.length; k++) {
+            growth[k + 1] = growth[k] * (1 + returns[k]);
+        }
+        double[] outcomes = new double[scenarios];
+        for (int k = 0; k < scenarios; k++) {
+            outcomes[k] = growth[k + timeHorizonDays] / growth[k] - 1;
+        }
+        return new SimulationResult(lowerTailPercentile(outcomes, 1 - confidenceLevel), scenarios);
+    }
+
+    /**
+     * Historical VaR for several confidence levels and horizons at once (the VaR curve).
+     * The compounded growth of the returns is built in one pass and shared by every horizon; each horizon's
+     * windows are then sorted once and every confidence level is read from the sorted array.
+     *
+     * @return percentile h-day returns, indexed [horizon][confidence level]
+     */
+    public double[][] historicalCurve(double[] returns, double[] confidenceLevels, int[] horizons) {
+        double[] growth = new double[returns.length + 1];
+        growth[0] = 1.0;
+        for (int k = 0; k < returns.length; k++) {
+            growth[k + 1] = growth[k] * (1 + returns[k]);
+        }
+        double[][] curve = new double[horizons.length][confidenceLevels.length];
+        for (int h = 0; h < horizons.length; h++) {
+            int scenarios = returns.length - horizons[h] + 1;
+            if (scenarios < 2) {
+                throw new IllegalArgumentException("Not enough price history for a " + horizons[h]
+                        + "-day historical simulation (" + returns.length + " daily returns)");
+            }
+            double[] outcomes = new double[scenarios];
+            for (int k = 0; k < scenarios; k++) {
+                outcomes[k] = growth[k + horizons[h]] / growth[k] - 1;
+            }
+            Arrays.sort(outcomes);
+            for (int c = 0; c < confidenceLevels.length; c++) {
+                curve[h][c] = sortedPercentile(outcomes, 1 - confidenceLevels[c]);
+            }
+        }
+        return curve;
+    }
+
+    /**
+     * Monte Carlo simulation: each path compounds h daily returns drawn from Normal(mean, stdDev).
+     *
+     * @param mean            average daily return of the asset
+     * @param stdDev          daily volatility of the asset
+     * @param confidenceLevel e.g. 0.99 for the 1st percentile
+     * @param timeHorizonDays h (steps per path)
+     * @param paths           number of simulated paths
+     * @param seed            root seed; the same seed reproduces the same result
+     * @throws IllegalArgumentException if paths is out of range or paths x timeHorizonDays exceeds risk.monteCarlo.maxDraws
+     */
+    public SimulationResult monteCarlo(double mean, double stdDev, double confidenceLevel, int timeHorizonDays,
+            int paths, long seed) {
+        if (paths < 1 || paths > MAX_PATHS) {
+            throw new IllegalArgumentException("paths must be between 1 and " + MAX_PATHS);
+        }
+        if ((long) paths * timeHorizonDays > maxDraws) {
+            throw new IllegalArgumentException("paths x timeHorizonDays (" + paths + " x " + timeHorizonDays
+                    + ") exceeds the Monte Carlo budget of " + maxDraws + " draws; use fewer paths or a shorter horizon");
+        }
+        int chunks = (paths + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        // Split every stream up front, in chunk order, so the assignment of streams to paths is fixed
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            streams[c] = root.split();
+        }
+        double[] outcomes = new double[paths];
+        pool.invoke(new PathChunkTask(streams, outcomes, 0, chunks, mean, stdDev, timeHorizonDays));
+        return new SimulationResult(lowerTailPercentile(outcomes, 1 - confidenceLevel), paths);
+    }
+
+    /**
+     * Value at the given lower-tail probability (e.g. 0.05), interpolating linearly between the two
+     * nearest order statistics. Uses quickselect (average O(n)) instead of sorting all outcomes.
+     * The array is reordered in place.
+     */
+    static double lowerTailPercentile(double[] values, double probability) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("No outcomes to take a percentile from");
+        }
+        if (probability <= 0 || probability >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+        double position = probability * (values.length - 1);
+        int lower = (int) Math.floor(position);
+        double lowerValue = select(values, lower);
+        if (lower + 1 >= values.length) {
+            return lowerValue;
+        }
+        // After select everything right of 'lower' is >= it, so the next order statistic is their minimum
+        double upperValue = Double.POSITIVE_INFINITY;
+        for (int i = lower + 1; i < values.length; i++) {
+            upperValue = Math.min(upperValue, values[i]);
+        }
+        return lowerValue + (position - lower) * (upperValue - lowerValue);
+    }
+
+    // Same interpolation as lowerTailPercentile, on an already sorted array
+    static double sortedPercentile(double[] sorted, double probability) {
+        if (probability <= 0 || probability >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+        double position = probability * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        if (lower + 1 >= sorted.length) {
+            return sorted[lower];
+        }
+        return sorted[lower] + (position - lower) * (sorted[lower + 1] - sorted[lower]);
+    }
+
+    // Iterative quickselect with median-of-three pivots: returns the k-th smallest value
+    private static double select(double[] a, int k) {
+        int left = 0;
+        int right = a.length - 1;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            // Order a[left], a[mid], a[right] so the median sits in the middle
+            if (a[mid] < a[left]) swap(a, left, mid);
+            if (a[right] < a[left]) swap(a, left, right);
+            if (a[right] < a[mid]) swap(a, mid, right);
+            double pivot = a[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    swap(a, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return a[k]; // k sits between the partitions, all equal to the pivot
+            }
+        }
+        return a[k];
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    // Splits the chunk range in half until one chunk is left, then simulates that chunk's paths
+    private static final class PathChunkTask extends RecursiveAction {
+        private final SplittableRandom[] streams;
+        private final double[] outcomes;
+        private final int fromChunk;
+        private final int toChunk;
+        private final double mean;
+        private final double stdDev;
+        private final int steps;
+
+        PathChunkTask(SplittableRandom[] streams, double[] outcomes, int fromChunk, int toChunk,
+                double mean, double stdDev, int steps) {
+            this.streams = streams;
+            this.outcomes = outcomes;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.mean = mean;
+            this.stdDev = stdDev;
+            this.steps = steps;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int mid = (fromChunk + toChunk) >>> 1;
+                invokeAll(new PathChunkTask(streams, outcomes, fromChunk, mid, mean, stdDev, steps),
+                        new PathChunkTask(streams, outcomes, mid, toChunk, mean, stdDev, steps));
+                return;
+            }
+            SplittableRandom random = streams[fromChunk];
+            int start = fromChunk * CHUNK_SIZE;
+            int end = Math.min(start + CHUNK_SIZE, outcomes.length);
+            for (int p = start; p < end; p++) {
+                double growth = 1.0;
+                for (int s = 0; s < steps; s++) {
+                    growth *= 1 + mean + stdDev * random.nextGaussian();
+                }
+                outcomes[p] = growth - 1;
+            }
+        }
+    }
+
+    /**
+     * Percentile h-day return (negative = loss) and how many outcomes it was taken from.
+     */
+    public static final class SimulationResult {
+        private final double percentileReturn;
+        private final int outcomeCount;
+
+        SimulationResult(double percentileReturn, int outcomeCount) {
+            this.percentileReturn = percentileReturn;
+            this.outcomeCount = outcomeCount;
+        }
+
+        public double getPercentileReturn() {
+            return percentileReturn;
+        }
+
+        public int getOutcomeCount() {
+            return outcomeCount;
+        }
+    }
+}
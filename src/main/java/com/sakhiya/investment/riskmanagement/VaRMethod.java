@@ -0,0 +1,40 @@
+package com.sakhiya.investment.riskmanagement;
+
+import java.util.Locale;
+
+/**
+ * How a VaR figure is calculated (selected with the "method" parameter of POST /api/risks/var).
+ *
+ * - PARAMETRIC: mean + z * stdDev * sqrt(h), the original variance-covariance formula
+ * - HISTORICAL: percentile of the asset's own past h-day returns
+ * - MONTE_CARLO: percentile of simulated h-day returns drawn from the fitted normal distribution
+ * - EWMA: RiskMetrics z * sigma_ewma * sqrt(h), volatility weighted towards recent returns (see EwmaVolatilityCalculator)
+ */
+public enum VaRMethod {
+    PARAMETRIC,
+    HISTORICAL,
+    MONTE_CARLO,
+    EWMA;
+
+    /**
+     * Parses a request parameter leniently: "historical", "monte-carlo", "MONTE_CARLO", "montecarlo" and "ewma" all work.
+     *
+     * @throws IllegalArgumentException for unknown methods
+     */
+    public static VaRMethod fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return PARAMETRIC;
+        }
+        String normalised = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        if ("MONTECARLO".equals(normalised)) {
+            return MONTE_CARLO;
+        }
+        for (VaRMethod method : values()) {
+            if (method.name().equals(normalised)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported VaR method: " + value
+                + " (expected parametric, historical, monte-carlo or ewma)");
+    }
+}
@@ -0,0 +1,53 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+/**
+ * One asset's contribution to a covariance-based portfolio VaR.
+ *
+ * - marginalVaR: change in portfolio VaR per extra unit of currency held in this asset
+ * - componentVaR: value * marginalVaR. Components add up exactly to the portfolio VaR,
+ *   so they show which assets drive the risk once correlation is taken into account.
+ */
+public class AssetComponentVaRDTO {
+    private String assetId;
+    private String assetName;
+    private double assetValue;
+    private double weight; // share of portfolio value
+    private double mean; // average daily return over the aligned window
+    private double stdDev; // daily volatility over the aligned window
+    private double standaloneVaR; // VaR of this asset on its own (same window, same formula)
+    private double marginalVaR;
+    private double componentVaR;
+    private double componentPercent; // componentVaR as a share of portfolio VaR
+
+    public AssetComponentVaRDTO() {}
+
+    public String getAssetId() { return assetId; }
+    public void setAssetId(String assetId) { this.assetId = assetId; }
+
+    public String getAssetName() { return assetName; }
+    public void setAssetName(String assetName) { this.assetName = assetName; }
+
+    public double getAssetValue() { return assetValue; }
+    public void setAssetValue(double assetValue) { this.assetValue = assetValue; }
+
+    public double getWeight() { return weight; }
+    public void setWeight(double weight) { this.weight = weight; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+
+    public double getStdDev() { return stdDev; }
+    public void setStdDev(double stdDev) { this.stdDev = stdDev; }
+
+    public double getStandaloneVaR() { return standaloneVaR; }
+    public void setStandaloneVaR(double standaloneVaR) { this.standaloneVaR = standaloneVaR; }
+
+    public double getMarginalVaR() { return marginalVaR; }
+    public void setMarginalVaR(double marginalVaR) { this.marginalVaR = marginalVaR; }
+
+    public double getComponentVaR() { return componentVaR; }
+    public void setComponentVaR(double componentVaR) { this.componentVaR = componentVaR; }
+
+    public double getComponentPercent() { return componentPercent; }
+    public void setComponentPercent(double componentPercent) { this.componentPercent = componentPercent; }
+}
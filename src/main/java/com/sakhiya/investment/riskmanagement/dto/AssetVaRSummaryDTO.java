@@ -0,0 +1,65 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+/**
+ * One asset's line in a batch (portfolio-wide) VaR run.
+ * Carries only the headline numbers; the full return series is available from GET /api/risks/{riskId}/details.
+ * Assets that could not be calculated (e.g. no price history) have a null riskId and a message.
+ */
+public class AssetVaRSummaryDTO {
+    private String assetId;
+    private String assetName;
+    private String portfolioId;
+    private double assetValue;
+    private int returnCount;
+    private double mean;
+    private double stdDev;
+    private double rawVaR; // signed result (negative = loss)
+    private double absVaR; // magnitude of loss
+    private String riskId; // id of the persisted Risk row
+    private String message;
+
+    public AssetVaRSummaryDTO() {}
+
+    public AssetVaRSummaryDTO(String assetId, String assetName, String portfolioId, double assetValue) {
+        this.assetId = assetId;
+        this.assetName = assetName;
+        this.portfolioId = portfolioId;
+        this.assetValue = assetValue;
+    }
+
+    public String getAssetId() { return assetId; }
+    public void setAssetId(String assetId) { this.assetId = assetId; }
+
+    public String getAssetName() { return assetName; }
+    public void setAssetName(String assetName) { this.assetName = assetName; }
+
+    public String getPortfolioId() { return portfolioId; }
+    public void setPortfolioId(String portfolioId) { this.portfolioId = portfolioId; }
+
+    public double getAssetValue() { return assetValue; }
+    public void setAssetValue(double assetValue) { this.assetValue = assetValue; }
+
+    public int getReturnCount() { return returnCount; }
+    public void setReturnCount(int returnCount) { this.returnCount = returnCount; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+
+    public double getStdDev() { return stdDev; }
+    public void setStdDev(double stdDev) { this.stdDev = stdDev; }
+
+    public double getRawVaR() { return rawVaR; }
+    public void setRawVaR(double rawVaR) {
+        this.rawVaR = rawVaR;
+        this.absVaR = Math.abs(rawVaR); // keep in sync
+    }
+
+    public double getAbsVaR() { return absVaR; }
+    public void setAbsVaR(double absVaR) { this.absVaR = absVaR; }
+
+    public String getRiskId() { return riskId; }
+    public void setRiskId(String riskId) { this.riskId = riskId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,91 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of the variance-covariance (correlation aware) VaR for a whole portfolio.
+ *
+ * Unlike PortfolioService.calculateTotalVaR, which adds up stored per-asset VaR rows,
+ * portfolioVaR here comes from the covariance matrix of the assets' aligned daily returns,
+ * so diversification between assets is reflected. undiversifiedVaR is the plain sum of the
+ * standalone VaRs over the same window, for comparison.
+ */
+public class PortfolioCovarianceVaRDTO {
+    private String portfolioId;
+    private double confidenceLevel;
+    private int timeHorizonDays;
+    private int assetCount; // assets included in the calculation
+    private int observationCount; // aligned daily returns used per asset
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+
+    private double portfolioValue;
+    private double portfolioMean; // expected daily P&L in currency
+    private double portfolioStdDev; // daily P&L volatility in currency
+    private double portfolioVaR; // signed (negative = loss)
+    private double absVaR;
+    private double undiversifiedVaR;
+    private double diversificationBenefit; // portfolioVaR - undiversifiedVaR (positive = risk reduced)
+
+    private List<AssetComponentVaRDTO> assets;
+    private Map<String, String> excludedAssets; // assetId -> reason
+    private long computeMillis;
+
+    public PortfolioCovarianceVaRDTO() {}
+
+    public String getPortfolioId() { return portfolioId; }
+    public void setPortfolioId(String portfolioId) { this.portfolioId = portfolioId; }
+
+    public double getConfidenceLevel() { return confidenceLevel; }
+    public void setConfidenceLevel(double confidenceLevel) { this.confidenceLevel = confidenceLevel; }
+
+    public int getTimeHorizonDays() { return timeHorizonDays; }
+    public void setTimeHorizonDays(int timeHorizonDays) { this.timeHorizonDays = timeHorizonDays; }
+
+    public int getAssetCount() { return assetCount; }
+    public void setAssetCount(int assetCount) { this.assetCount = assetCount; }
+
+    public int getObservationCount() { return observationCount; }
+    public void setObservationCount(int observationCount) { this.observationCount = observationCount; }
+
+    public LocalDate getWindowStart() { return windowStart; }
+    public void setWindowStart(LocalDate windowStart) { this.windowStart = windowStart; }
+
+    public LocalDate getWindowEnd() { return windowEnd; }
+    public void setWindowEnd(LocalDate windowEnd) { this.windowEnd = windowEnd; }
+
+    public double getPortfolioValue() { return portfolioValue; }
+    public void setPortfolioValue(double portfolioValue) { this.portfolioValue = portfolioValue; }
+
+    public double getPortfolioMean() { return portfolioMean; }
+    public void setPortfolioMean(double portfolioMean) { this.portfolioMean = portfolioMean; }
+
+    public double getPortfolioStdDev() { return portfolioStdDev; }
+    public void setPortfolioStdDev(double portfolioStdDev) { this.portfolioStdDev = portfolioStdDev; }
+
+    public double getPortfolioVaR() { return portfolioVaR; }
+    public void setPortfolioVaR(double portfolioVaR) {
+        this.portfolioVaR = portfolioVaR;
+        this.absVaR = Math.abs(portfolioVaR); // keep in sync
+    }
+
+    public double getAbsVaR() { return absVaR; }
+    public void setAbsVaR(double absVaR) { this.absVaR = absVaR; }
+
+    public double getUndiversifiedVaR() { return undiversifiedVaR; }
+    public void setUndiversifiedVaR(double undiversifiedVaR) { this.undiversifiedVaR = undiversifiedVaR; }
+
+    public double getDiversificationBenefit() { return diversificationBenefit; }
+    public void setDiversificationBenefit(double diversificationBenefit) { this.diversificationBenefit = diversificationBenefit; }
+
+    public List<AssetComponentVaRDTO> getAssets() { return assets; }
+    public void setAssets(List<AssetComponentVaRDTO> assets) { this.assets = assets; }
+
+    public Map<String, String> getExcludedAssets() { return excludedAssets; }
+    public void setExcludedAssets(Map<String, String> excludedAssets) { this.excludedAssets = excludedAssets; }
+
+    public long getComputeMillis() { return computeMillis; }
+    public void setComputeMillis(long computeMillis) { this.computeMillis = computeMillis; }
+}
@@ -0,0 +1,65 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.util.List;
+
+/**
+ * Response of a batch VaR run over one or more portfolios.
+ *
+ * - totalVaR is the plain sum of per-asset VaR (same aggregation as PortfolioService.calculateTotalVaR,
+ *   so it ignores correlation between assets).
+ * - The *Millis fields show where the time went: loading assets and price series,
+ *   computing VaR in parallel, and the batched insert of Risk rows.
+ */
+public class PortfolioVaRBatchResultDTO {
+    private List<String> portfolioIds;
+    private double confidenceLevel;
+    private int timeHorizonDays;
+    private int assetCount;
+    private int calculatedCount;
+    private int skippedCount;
+    private double totalVaR;
+    private List<AssetVaRSummaryDTO> assets;
+
+    private long loadMillis;
+    private long computeMillis;
+    private long persistMillis;
+    private long totalMillis;
+
+    public PortfolioVaRBatchResultDTO() {}
+
+    public List<String> getPortfolioIds() { return portfolioIds; }
+    public void setPortfolioIds(List<String> portfolioIds) { this.portfolioIds = portfolioIds; }
+
+    public double getConfidenceLevel() { return confidenceLevel; }
+    public void setConfidenceLevel(double confidenceLevel) { this.confidenceLevel = confidenceLevel; }
+
+    public int getTimeHorizonDays() { return timeHorizonDays; }
+    public void setTimeHorizonDays(int timeHorizonDays) { this.timeHorizonDays = timeHorizonDays; }
+
+    public int getAssetCount() { return assetCount; }
+    public void setAssetCount(int assetCount) { this.assetCount = assetCount; }
+
+    public int getCalculatedCount() { return calculatedCount; }
+    public void setCalculatedCount(int calculatedCount) { this.calculatedCount = calculatedCount; }
+
+    public int getSkippedCount() { return skippedCount; }
+    public void setSkippedCount(int skippedCount) { this.skippedCount = skippedCount; }
+
+    public double getTotalVaR() { return totalVaR; }
+    public void setTotalVaR(double totalVaR) { this.totalVaR = totalVaR; }
+
+    public List<AssetVaRSummaryDTO> getAssets() { return assets; }
+    public void setAssets(List<AssetVaRSummaryDTO> assets) { this.assets = assets; }
+
+    public long getLoadMillis() { return loadMillis; }
+    public void setLoadMillis(long loadMillis) { this.loadMillis = loadMillis; }
+
+    public long getComputeMillis() { return computeMillis; }
+    public void setComputeMillis(long computeMillis) { this.computeMillis = computeMillis; }
+
+    public long getPersistMillis() { return persistMillis; }
+    public void setPersistMillis(long persistMillis) { this.persistMillis = persistMillis; }
+
+    public long getTotalMillis() { return totalMillis; }
+    public void setTotalMillis(long totalMillis) { this.totalMillis = totalMillis; }
+}
@@ -0,0 +1,67 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daily return statistics of one asset, returned by GET /api/risks/statistics/{assetId}.
+ * Whole-history moments, EWMA volatility (RiskMetrics, lambda 0.94) and one entry per rolling window.
+ * All values are daily and unannualised.
+ */
+public class ReturnStatisticsDTO {
+    private String assetId;
+    private int returnCount;
+    private double mean;
+    private double stdDev;
+    private double ewmaVolatility;
+    private List<Window> windows = new ArrayList<>();
+
+    // Statistics of the most recent lookbackDays returns (returnCount is lower if the history is shorter)
+    public static class Window {
+        private int lookbackDays;
+        private int returnCount;
+        private double mean;
+        private double stdDev;
+
+        public Window() {}
+
+        public Window(int lookbackDays, int returnCount, double mean, double stdDev) {
+            this.lookbackDays = lookbackDays;
+            this.returnCount = returnCount;
+            this.mean = mean;
+            this.stdDev = stdDev;
+        }
+
+        public int getLookbackDays() { return lookbackDays; }
+        public void setLookbackDays(int lookbackDays) { this.lookbackDays = lookbackDays; }
+
+        public int getReturnCount() { return returnCount; }
+        public void setReturnCount(int returnCount) { this.returnCount = returnCount; }
+
+        public double getMean() { return mean; }
+        public void setMean(double mean) { this.mean = mean; }
+
+        public double getStdDev() { return stdDev; }
+        public void setStdDev(double stdDev) { this.stdDev = stdDev; }
+    }
+
+    public ReturnStatisticsDTO() {}
+
+    public String getAssetId() { return assetId; }
+    public void setAssetId(String assetId) { this.assetId = assetId; }
+
+    public int getReturnCount() { return returnCount; }
+    public void setReturnCount(int returnCount) { this.returnCount = returnCount; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+
+    public double getStdDev() { return stdDev; }
+    public void setStdDev(double stdDev) { this.stdDev = stdDev; }
+
+    public double getEwmaVolatility() { return ewmaVolatility; }
+    public void setEwmaVolatility(double ewmaVolatility) { this.ewmaVolatility = ewmaVolatility; }
+
+    public List<Window> getWindows() { return windows; }
+    public void setWindows(List<Window> windows) { this.windows = windows; }
+}
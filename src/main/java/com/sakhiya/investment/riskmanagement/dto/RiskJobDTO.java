@@ -0,0 +1,105 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * State of a risk job (GET /api/risks/jobs/{id}). progress goes from 0 to 1 as assets are processed
+ * (completed + failed out of total). results has one entry per processed asset once the job has finished,
+ * and is left out of the job list.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RiskJobDTO {
+    private String jobId;
+    private String type;
+    private String status;
+    private int totalItems;
+    private int completedItems;
+    private int failedItems;
+    private double progress;
+    private boolean cancelRequested;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private RiskJobRequestDTO parameters;
+    private List<AssetResult> results;
+
+    public RiskJobDTO() {}
+
+    /**
+     * Outcome for one asset: the saved Risk row and its value, or why it failed.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class AssetResult {
+        private String assetId;
+        private String riskId;
+        private Double value;
+        private String error;
+
+        public AssetResult() {}
+
+        public AssetResult(String assetId, String riskId, Double value, String error) {
+            this.assetId = assetId;
+            this.riskId = riskId;
+            this.value = value;
+            this.error = error;
+        }
+
+        public String getAssetId() { return assetId; }
+        public void setAssetId(String assetId) { this.assetId = assetId; }
+
+        public String getRiskId() { return riskId; }
+        public void setRiskId(String riskId) { this.riskId = riskId; }
+
+        public Double getValue() { return value; }
+        public void setValue(Double value) { this.value = value; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getTotalItems() { return totalItems; }
+    public void setTotalItems(int totalItems) { this.totalItems = totalItems; }
+
+    public int getCompletedItems() { return completedItems; }
+    public void setCompletedItems(int completedItems) { this.completedItems = completedItems; }
+
+    public int getFailedItems() { return failedItems; }
+    public void setFailedItems(int failedItems) { this.failedItems = failedItems; }
+
+    public double getProgress() { return progress; }
+    public void setProgress(double progress) { this.progress = progress; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public RiskJobRequestDTO getParameters() { return parameters; }
+    public void setParameters(RiskJobRequestDTO parameters) { this.parameters = parameters; }
+
+    public List<AssetResult> getResults() { return results; }
+    public void setResults(List<AssetResult> results) { this.results = results; }
+}
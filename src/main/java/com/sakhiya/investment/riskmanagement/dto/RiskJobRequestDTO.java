@@ -0,0 +1,69 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Body of POST /api/risks/jobs. Assets are the union of assetIds and every asset of portfolioIds.
+ *
+ * type "var": the parameters of POST /api/risks/var (confidenceLevel and timeHorizonDays required; method,
+ * paths, seed, lookbackDays and lambda optional), e.g.
+ * {"type": "var", "portfolioIds": [...], "confidenceLevel": 0.99, "timeHorizonDays": 10, "method": "historical"}
+ * type "stress-test": the scenario of POST /api/risks/stress-test, e.g.
+ * {"type": "stress-test", "assetIds": [...], "scenario": "Market Crash"}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RiskJobRequestDTO {
+    private String type;
+    private List<String> assetIds = new ArrayList<>();
+    private List<String> portfolioIds = new ArrayList<>();
+
+    // type=var
+    private Double confidenceLevel;
+    private Integer timeHorizonDays;
+    private String method;
+    private Integer paths;
+    private Long seed;
+    private Integer lookbackDays;
+    private Double lambda;
+
+    // type=stress-test
+    private String scenario;
+
+    public RiskJobRequestDTO() {}
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public List<String> getAssetIds() { return assetIds; }
+    public void setAssetIds(List<String> assetIds) { this.assetIds = assetIds; }
+
+    public List<String> getPortfolioIds() { return portfolioIds; }
+    public void setPortfolioIds(List<String> portfolioIds) { this.portfolioIds = portfolioIds; }
+
+    public Double getConfidenceLevel() { return confidenceLevel; }
+    public void setConfidenceLevel(Double confidenceLevel) { this.confidenceLevel = confidenceLevel; }
+
+    public Integer getTimeHorizonDays() { return timeHorizonDays; }
+    public void setTimeHorizonDays(Integer timeHorizonDays) { this.timeHorizonDays = timeHorizonDays; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public Integer getPaths() { return paths; }
+    public void setPaths(Integer paths) { this.paths = paths; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public Integer getLookbackDays() { return lookbackDays; }
+    public void setLookbackDays(Integer lookbackDays) { this.lookbackDays = lookbackDays; }
+
+    public Double getLambda() { return lambda; }
+    public void setLambda(Double lambda) { this.lambda = lambda; }
+
+    public String getScenario() { return scenario; }
+    public void setScenario(String scenario) { this.scenario = scenario; }
+}
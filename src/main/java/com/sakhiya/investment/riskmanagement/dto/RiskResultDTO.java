@@ -0,0 +1,28 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import com.sakhiya.investment.riskmanagement.Risk;
+
+/**
+ * Response of the calculate endpoints (POST /api/risks/var and /stress-test): the saved Risk row plus
+ * the typed calculation details. Same {"risk": ..., "details": ...} shape the endpoints always returned,
+ * but the details are serialised straight from the DTO instead of being parsed back out of detailsJson.
+ *
+ * @param <D> VaRCalculationDetailsDTO or StressTestDetailsDTO
+ */
+public class RiskResultDTO<D> {
+    private Risk risk;
+    private D details;
+
+    public RiskResultDTO() {}
+
+    public RiskResultDTO(Risk risk, D details) {
+        this.risk = risk;
+        this.details = details;
+    }
+
+    public Risk getRisk() { return risk; }
+    public void setRisk(Risk risk) { this.risk = risk; }
+
+    public D getDetails() { return details; }
+    public void setDetails(D details) { this.details = details; }
+}
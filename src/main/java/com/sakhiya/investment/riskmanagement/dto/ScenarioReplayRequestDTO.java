@@ -0,0 +1,39 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of POST /api/scenarios/replay: the assets (by id and/or whole portfolios) and the historical
+ * window whose realised moves are replayed, e.g. 2008-09-15..2008-10-15.
+ * name defaults to "Replay start..end" and is stored as the Risk scenario.
+ */
+public class ScenarioReplayRequestDTO {
+    private List<String> assetIds = new ArrayList<>();
+    private List<String> portfolioIds = new ArrayList<>();
+    private LocalDate start;
+    private LocalDate end;
+    private String name;
+    private boolean persist = true;
+
+    public ScenarioReplayRequestDTO() {}
+
+    public List<String> getAssetIds() { return assetIds; }
+    public void setAssetIds(List<String> assetIds) { this.assetIds = assetIds; }
+
+    public List<String> getPortfolioIds() { return portfolioIds; }
+    public void setPortfolioIds(List<String> portfolioIds) { this.portfolioIds = portfolioIds; }
+
+    public LocalDate getStart() { return start; }
+    public void setStart(LocalDate start) { this.start = start; }
+
+    public LocalDate getEnd() { return end; }
+    public void setEnd(LocalDate end) { this.end = end; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public boolean isPersist() { return persist; }
+    public void setPersist(boolean persist) { this.persist = persist; }
+}
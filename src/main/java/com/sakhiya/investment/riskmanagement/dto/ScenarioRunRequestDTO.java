@@ -0,0 +1,30 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of POST /api/scenarios/run. Assets are the union of assetIds and every asset of portfolioIds;
+ * an empty scenarioIds list runs the whole scenario library.
+ * persist=false only returns the totals, without writing StressTest Risk rows.
+ */
+public class ScenarioRunRequestDTO {
+    private List<String> scenarioIds = new ArrayList<>();
+    private List<String> assetIds = new ArrayList<>();
+    private List<String> portfolioIds = new ArrayList<>();
+    private boolean persist = true;
+
+    public ScenarioRunRequestDTO() {}
+
+    public List<String> getScenarioIds() { return scenarioIds; }
+    public void setScenarioIds(List<String> scenarioIds) { this.scenarioIds = scenarioIds; }
+
+    public List<String> getAssetIds() { return assetIds; }
+    public void setAssetIds(List<String> assetIds) { this.assetIds = assetIds; }
+
+    public List<String> getPortfolioIds() { return portfolioIds; }
+    public void setPortfolioIds(List<String> portfolioIds) { this.portfolioIds = portfolioIds; }
+
+    public boolean isPersist() { return persist; }
+    public void setPersist(boolean persist) { this.persist = persist; }
+}
@@ -0,0 +1,102 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of POST /api/scenarios/run: one summary per scenario (not one entry per asset, which could be
+ * millions of rows) plus timings for each phase. Also returned by POST /api/scenarios/replay. P&L is the stressed minus the base value, negative = loss.
+ */
+public class ScenarioRunResultDTO {
+    private int scenarioCount;
+    private int assetCount;
+    private int skippedAssetCount; // assets without a value
+    private long persistedCount; // StressTest Risk rows written (0 when persist=false)
+    private long loadMillis;
+    private long computeMillis;
+    private long persistMillis;
+    private long totalMillis;
+    private List<ScenarioOutcome> scenarios = new ArrayList<>();
+    // Historical replays only: realised move per asset and why assets were left out
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Double> realisedMoves;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, String> skippedAssets;
+
+    public static class ScenarioOutcome {
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String scenarioId; // null for a historical replay
+        private String name;
+        private double baseValue;
+        private double stressedValue;
+        private double pnl;
+        private String worstAssetId;
+        private double worstAssetPnl;
+        private Map<String, Double> portfolioPnl = new LinkedHashMap<>(); // by portfolioId
+
+        public ScenarioOutcome() {}
+
+        public String getScenarioId() { return scenarioId; }
+        public void setScenarioId(String scenarioId) { this.scenarioId = scenarioId; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public double getBaseValue() { return baseValue; }
+        public void setBaseValue(double baseValue) { this.baseValue = baseValue; }
+
+        public double getStressedValue() { return stressedValue; }
+        public void setStressedValue(double stressedValue) { this.stressedValue = stressedValue; }
+
+        public double getPnl() { return pnl; }
+        public void setPnl(double pnl) { this.pnl = pnl; }
+
+        public String getWorstAssetId() { return worstAssetId; }
+        public void setWorstAssetId(String worstAssetId) { this.worstAssetId = worstAssetId; }
+
+        public double getWorstAssetPnl() { return worstAssetPnl; }
+        public void setWorstAssetPnl(double worstAssetPnl) { this.worstAssetPnl = worstAssetPnl; }
+
+        public Map<String, Double> getPortfolioPnl() { return portfolioPnl; }
+        public void setPortfolioPnl(Map<String, Double> portfolioPnl) { this.portfolioPnl = portfolioPnl; }
+    }
+
+    public ScenarioRunResultDTO() {}
+
+    public int getScenarioCount() { return scenarioCount; }
+    public void setScenarioCount(int scenarioCount) { this.scenarioCount = scenarioCount; }
+
+    public int getAssetCount() { return assetCount; }
+    public void setAssetCount(int assetCount) { this.assetCount = assetCount; }
+
+    public int getSkippedAssetCount() { return skippedAssetCount; }
+    public void setSkippedAssetCount(int skippedAssetCount) { this.skippedAssetCount = skippedAssetCount; }
+
+    public long getPersistedCount() { return persistedCount; }
+    public void setPersistedCount(long persistedCount) { this.persistedCount = persistedCount; }
+
+    public long getLoadMillis() { return loadMillis; }
+    public void setLoadMillis(long loadMillis) { this.loadMillis = loadMillis; }
+
+    public long getComputeMillis() { return computeMillis; }
+    public void setComputeMillis(long computeMillis) { this.computeMillis = computeMillis; }
+
+    public long getPersistMillis() { return persistMillis; }
+    public void setPersistMillis(long persistMillis) { this.persistMillis = persistMillis; }
+
+    public long getTotalMillis() { return totalMillis; }
+    public void setTotalMillis(long totalMillis) { this.totalMillis = totalMillis; }
+
+    public List<ScenarioOutcome> getScenarios() { return scenarios; }
+    public void setScenarios(List<ScenarioOutcome> scenarios) { this.scenarios = scenarios; }
+
+    public Map<String, Double> getRealisedMoves() { return realisedMoves; }
+    public void setRealisedMoves(Map<String, Double> realisedMoves) { this.realisedMoves = realisedMoves; }
+
+    public Map<String, String> getSkippedAssets() { return skippedAssets; }
+    public void setSkippedAssets(Map<String, String> skippedAssets) { this.skippedAssets = skippedAssets; }
+}
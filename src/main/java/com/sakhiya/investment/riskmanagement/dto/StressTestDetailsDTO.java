@@ -0,0 +1,34 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Details of a single stress test (stored in Risk.detailsJson as {"shockFactor": -0.3}).
+ * Rows of a scenario run also name the library scenario, and rows of a historical replay the replayed
+ * window (ISO dates), e.g. {"shockFactor": -0.12, "replayStart": "2020-02-20", "replayEnd": "2020-03-23"}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StressTestDetailsDTO {
+    private double shockFactor; // fractional price move applied, e.g. -0.3 = 30% drop
+    private String scenarioId; // library scenario of a scenario run
+    private String replayStart;
+    private String replayEnd;
+
+    public StressTestDetailsDTO() {}
+
+    public StressTestDetailsDTO(double shockFactor) {
+        this.shockFactor = shockFactor;
+    }
+
+    public double getShockFactor() { return shockFactor; }
+    public void setShockFactor(double shockFactor) { this.shockFactor = shockFactor; }
+
+    public String getScenarioId() { return scenarioId; }
+    public void setScenarioId(String scenarioId) { this.scenarioId = scenarioId; }
+
+    public String getReplayStart() { return replayStart; }
+    public void setReplayStart(String replayStart) { this.replayStart = replayStart; }
+
+    public String getReplayEnd() { return replayEnd; }
+    public void setReplayEnd(String replayEnd) { this.replayEnd = replayEnd; }
+}
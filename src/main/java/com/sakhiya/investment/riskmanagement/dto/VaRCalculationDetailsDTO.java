@@ -2,6 +2,8 @@ package com.sakhiya.investment.riskmanagement.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * helper for building the JSON string (detailsJson) that goes into the Risk entity
  * DTO for capturing all intermediate and final values
@@ -10,9 +12,20 @@ import java.util.List;
  * - Exposed via API (stored in Risk.detailsJson).
  * - Keeps both raw (possibly negative) and absolute VaR
  *   so downstream consumers can choose which one to use.
+ * - method says how the VaR was calculated (see VaRMethod). zScore only applies to PARAMETRIC;
+ *   HISTORICAL and MONTE_CARLO fill percentile/pathCount instead. Fields that do not apply
+ *   are left null and omitted from the JSON.
+ * - EWMA keeps mean/stdDev as the equal-weighted figures for comparison and adds lambda and
+ *   ewmaVolatility, the daily volatility actually used in the formula.
+ * - returns is only stored when risk.details.storage=inline. By default the row keeps a reference
+ *   instead (returnsFrom/returnsTo price dates plus returnCount) and GET /api/risks/{id}/details
+ *   rebuilds the list from the asset's price history. Rows saved before that change still carry returns.
+ *   If prices inside the window were added or removed since (or a boundary date is gone), the rebuilt list
+ *   would not be the one the VaR used, so returns stays null and windowChanged is true.
  */
 public class VaRCalculationDetailsDTO {
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<Double> returns;
     private double mean;
     private double stdDev;
@@ -24,6 +37,35 @@ public class VaRCalculationDetailsDTO {
     private double rawVaR; // signed result from the formula (negative = loss)
     private double absVaR; // magnitude of loss
 
+    // Simulation details (null when not applicable, so older parametric rows look the same)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String method; // PARAMETRIC, HISTORICAL, MONTE_CARLO or EWMA
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer lookbackDays; // most recent returns used; null means the whole history
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double percentile; // h-day return at the (1 - confidenceLevel) percentile
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer pathCount; // Monte Carlo paths, or historical h-day windows
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long seed; // Monte Carlo seed; rerun with it to reproduce the result
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long elapsedMillis; // time spent calculating (excluding database access)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double lambda; // EWMA decay factor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double ewmaVolatility; // EWMA daily volatility
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer returnCount; // daily returns the calculation used
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String returnsFrom; // ISO date of the first price of the return window
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String returnsTo; // ISO date of the last price of the return window
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean windowChanged; // set when returns were rebuilt: true if the stored window no longer matches
+
+    // Needed to read stored details back (GET /api/risks/{id}/details)
+    public VaRCalculationDetailsDTO() {}
+
     public VaRCalculationDetailsDTO(List<Double> returns, double mean, double stdDev,
                                     double zScore, double confidenceLevel, int timeHorizonDays,
                                     double rawVaR) {
@@ -103,4 +145,100 @@ public class VaRCalculationDetailsDTO {
     public void setAbsVaR(double absVaR) {
         this.absVaR = absVaR;
     }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(Double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Integer getPathCount() {
+        return pathCount;
+    }
+
+    public void setPathCount(Integer pathCount) {
+        this.pathCount = pathCount;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public Long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(Long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Integer getLookbackDays() {
+        return lookbackDays;
+    }
+
+    public void setLookbackDays(Integer lookbackDays) {
+        this.lookbackDays = lookbackDays;
+    }
+
+    public Double getLambda() {
+        return lambda;
+    }
+
+    public void setLambda(Double lambda) {
+        this.lambda = lambda;
+    }
+
+    public Double getEwmaVolatility() {
+        return ewmaVolatility;
+    }
+
+    public void setEwmaVolatility(Double ewmaVolatility) {
+        this.ewmaVolatility = ewmaVolatility;
+    }
+
+    public Integer getReturnCount() {
+        return returnCount;
+    }
+
+    public void setReturnCount(Integer returnCount) {
+        this.returnCount = returnCount;
+    }
+
+    public String getReturnsFrom() {
+        return returnsFrom;
+    }
+
+    public void setReturnsFrom(String returnsFrom) {
+        this.returnsFrom = returnsFrom;
+    }
+
+    public String getReturnsTo() {
+        return returnsTo;
+    }
+
+    public void setReturnsTo(String returnsTo) {
+        this.returnsTo = returnsTo;
+    }
+
+    public Boolean getWindowChanged() {
+        return windowChanged;
+    }
+
+    public void setWindowChanged(Boolean windowChanged) {
+        this.windowChanged = windowChanged;
+    }
 }
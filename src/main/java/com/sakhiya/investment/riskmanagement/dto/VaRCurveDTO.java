@@ -0,0 +1,91 @@
+package com.sakhiya.investment.riskmanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * VaR of one asset for every combination of confidence level and horizon, returned by
+ * GET /api/risks/var-curve/{assetId}. Nothing is saved: a sweep of 5 levels x 4 horizons would
+ * otherwise write 20 Risk rows per request.
+ *
+ * volatility is the daily figure used by the formula (sample stdDev for PARAMETRIC, EWMA for EWMA);
+ * HISTORICAL reads percentiles of past h-day returns instead and leaves it null.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VaRCurveDTO {
+    private String assetId;
+    private double assetValue;
+    private String method;
+    private Integer lookbackDays;
+    private Double lambda;
+    private int returnCount;
+    private double mean;
+    private Double volatility;
+    private List<Point> points = new ArrayList<>();
+
+    // One cell of the curve; points are ordered by horizon, then confidence level
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Point {
+        private double confidenceLevel;
+        private int timeHorizonDays;
+        private Double zScore; // parametric and EWMA only
+        private double rawVaR; // negative = loss
+        private double absVaR;
+
+        public Point() {}
+
+        public Point(double confidenceLevel, int timeHorizonDays, Double zScore, double rawVaR) {
+            this.confidenceLevel = confidenceLevel;
+            this.timeHorizonDays = timeHorizonDays;
+            this.zScore = zScore;
+            this.rawVaR = rawVaR;
+            this.absVaR = Math.abs(rawVaR);
+        }
+
+        public double getConfidenceLevel() { return confidenceLevel; }
+        public void setConfidenceLevel(double confidenceLevel) { this.confidenceLevel = confidenceLevel; }
+
+        public int getTimeHorizonDays() { return timeHorizonDays; }
+        public void setTimeHorizonDays(int timeHorizonDays) { this.timeHorizonDays = timeHorizonDays; }
+
+        public Double getZScore() { return zScore; }
+        public void setZScore(Double zScore) { this.zScore = zScore; }
+
+        public double getRawVaR() { return rawVaR; }
+        public void setRawVaR(double rawVaR) { this.rawVaR = rawVaR; }
+
+        public double getAbsVaR() { return absVaR; }
+        public void setAbsVaR(double absVaR) { this.absVaR = absVaR; }
+    }
+
+    public VaRCurveDTO() {}
+
+    public String getAssetId() { return assetId; }
+    public void setAssetId(String assetId) { this.assetId = assetId; }
+
+    public double getAssetValue() { return assetValue; }
+    public void setAssetValue(double assetValue) { this.assetValue = assetValue; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public Integer getLookbackDays() { return lookbackDays; }
+    public void setLookbackDays(Integer lookbackDays) { this.lookbackDays = lookbackDays; }
+
+    public Double getLambda() { return lambda; }
+    public void setLambda(Double lambda) { this.lambda = lambda; }
+
+    public int getReturnCount() { return returnCount; }
+    public void setReturnCount(int returnCount) { this.returnCount = returnCount; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+
+    public Double getVolatility() { return volatility; }
+    public void setVolatility(Double volatility) { this.volatility = volatility; }
+
+    public List<Point> getPoints() { return points; }
+    public void setPoints(List<Point> points) { this.points = points; }
+}
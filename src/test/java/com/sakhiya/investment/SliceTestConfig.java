@@ -0,0 +1,29 @@
+package com.sakhiya.investment;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Beans the application gets from auto-configuration but slice tests such as @DataJpaTest do not:
+ * services imported into a slice take their MeterRegistry and ObjectMapper from here.
+ */
+@TestConfiguration
+public class SliceTestConfig {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    // Built like Spring Boot's mapper (java.time support, ISO dates)
+    @Bean
+    public ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+}
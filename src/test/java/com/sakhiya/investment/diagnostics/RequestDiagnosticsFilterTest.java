@@ -0,0 +1,144 @@
+package com.sakhiya.investment.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+
+/**
+ * Statements seen by the inspector while a request runs end up in http.server.requests.queries under the
+ * endpoint's mapping pattern and in the slow endpoint view; statements outside a request are only counted by type.
+ */
+@DisplayName("Request Diagnostics Filter Test")
+public class RequestDiagnosticsFilterTest {
+
+    private static final String ASSET_QUERY = "select a1_0.asset_id from asset a1_0 where a1_0.portfolio_id=?";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryCountInspector inspector = new QueryCountInspector(registry);
+    // Slow from 1 second, at most 5 statements, N+1 from 3 repeats
+    private final SlowRequestTracker tracker = new SlowRequestTracker(1000, 5, 3, 5, 100);
+    private final RequestDiagnosticsFilter filter = new RequestDiagnosticsFilter(registry, tracker);
+
+    @Test
+    @DisplayName("Counts the statements of one request by endpoint pattern and all statements by type")
+    void countsStatementsPerRequest() throws Exception {
+        get("/api/portfolios/p-1", "/api/portfolios/{id}", 1);
+        inspector.inspect("insert into risk (id) values (?)"); // outside any request
+
+        DistributionSummary queries = registry.get("http.server.requests.queries")
+                .tags("method", "GET", "uri", "/api/portfolios/{id}", "status", "200").summary();
+        assertEquals(1, queries.count());
+        assertEquals(3.0, queries.totalAmount());
+        assertEquals(1, registry.get("http.server.requests.db").tag("uri", "/api/portfolios/{id}").timer().count());
+        assertEquals(2.0, registry.get("hibernate.statements").tag("type", "select").counter().count());
+        assertEquals(1.0, registry.get("hibernate.statements").tag("type", "insert").counter().count());
+        assertNull(RequestDiagnostics.current());
+    }
+
+    @Test
+    @DisplayName("The slow endpoint view ranks endpoints by p95 and flags repeated statements")
+    void ranksEndpointsAndFlagsRepeatedStatements() throws Exception {
+        get("/api/portfolios/p-1", "/api/portfolios/{id}", 1);
+        get("/api/portfolios/p-2", "/api/portfolios/{id}", 4); // one asset query per asset
+        get("/api/assets/a-1", "/api/assets/{id}", 0);
+
+        List<SlowEndpointDTO> endpoints = tracker.topSlowEndpoints(10);
+
+        assertEquals(2, endpoints.size());
+        SlowEndpointDTO portfolio = endpoints.stream()
+                .filter(e -> e.getEndpoint().equals("GET /api/portfolios/{id}")).findFirst().orElseThrow();
+        assertEquals(2, portfolio.getCount());
+        assertEquals(6, portfolio.getMaxStatements());
+        assertEquals(4.5, portfolio.getAvgStatements());
+        assertEquals(1, portfolio.getRepeatedStatementCount());
+        assertEquals(ASSET_QUERY, portfolio.getLastRepeatedStatement());
+        assertTrue(endpoints.get(0).getP95Millis() >= endpoints.get(1).getP95Millis());
+        assertEquals(1, tracker.topSlowEndpoints(1).size());
+    }
+
+    @Test
+    @DisplayName("A streamed response is recorded once, after the async dispatch, with the statements of the async thread")
+    void recordsAsyncRequestsAtCompletion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/asset-price-history/export");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+
+        // First dispatch: the controller returns and the body is written on an async thread, as MVC does for
+        // StreamingResponseBody
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/asset-price-history/export");
+            asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+            asyncManager.setTaskExecutor(new SimpleAsyncTaskExecutor());
+            asyncManager.registerCallableInterceptor("diagnostics",
+                    new AsyncDiagnosticsConfig.DiagnosticsCallableInterceptor());
+            try {
+                asyncManager.startCallableProcessing(() -> {
+                    for (int i = 0; i < 3; i++) {
+                        inspector.inspect(ASSET_QUERY);
+                    }
+                    return null;
+                });
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertNull(registry.find("http.server.requests.queries").summary());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!asyncManager.hasConcurrentResult() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(asyncManager.hasConcurrentResult());
+
+        // Async dispatch once the body is written
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, (req, res) -> { });
+
+        DistributionSummary queries = registry.get("http.server.requests.queries")
+                .tag("uri", "/api/asset-price-history/export").summary();
+        assertEquals(1, queries.count());
+        assertEquals(3.0, queries.totalAmount());
+        assertEquals(3, tracker.topSlowEndpoints(10).get(0).getMaxStatements());
+        assertNull(request.getAttribute(RequestDiagnosticsFilter.DIAGNOSTICS_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("Requests outside /api are not recorded")
+    void ignoresNonApiRequests() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"), new MockHttpServletResponse(),
+                (req, res) -> inspector.inspect("select 1"));
+
+        assertNull(registry.find("http.server.requests.queries").summary());
+        assertTrue(tracker.topSlowEndpoints(10).isEmpty());
+    }
+
+    // A request that loads the portfolio, assetQueries times the asset query, and updates the portfolio
+    private void get(String path, String pattern, int assetQueries) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            if (assetQueries == 0) {
+                return;
+            }
+            inspector.inspect("select p1_0.portfolio_id from portfolio p1_0 where p1_0.portfolio_id=?");
+            for (int i = 0; i < assetQueries; i++) {
+                inspector.inspect(ASSET_QUERY);
+            }
+            inspector.inspect("update portfolio set total_va_r=? where portfolio_id=?");
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.riskmanagement.Risk;
+
+/**
+ * Runs the listing projection and the keyset conditions against the H2 test database.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Portfolio Listing Repository Test")
+public class PortfolioListingRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    private Portfolio growth;
+
+    @BeforeEach
+    void setUp() {
+        // Duplicate and null sort values, so ties and the nulls-last rule are exercised
+        growth = entityManager.persist(portfolio("Growth", 3, "1000.00"));
+        entityManager.persist(portfolio("Income", 3, "500.00"));
+        entityManager.persist(portfolio("Balanced", 1, null));
+        entityManager.persist(portfolio("Pension", null, "500.00"));
+        entityManager.persist(portfolio("Cash", null, null));
+        entityManager.persist(portfolio("Tech", 5, "2500.00"));
+        entityManager.persist(portfolio("Bonds", 2, "500.00"));
+        Asset first = entityManager.persist(new Asset("First", 100.0, growth));
+        Asset second = entityManager.persist(new Asset("Second", 200.0, growth));
+        entityManager.persist(new Risk("VaR", "1-day", 10.0, first));
+        entityManager.persist(new Risk("var", "10-day", 5.0, second));
+        entityManager.persist(new Risk("StressTest", "crash", 40.0, second));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Rows carry live risk totals and asset counts without loading entities")
+    void projectsSummaries() {
+        List<PortfolioDTO> rows = portfolioRepository.findPortfolioSummaries("portfolioName", true, null, 0, 100);
+
+        assertEquals(7, rows.size());
+        PortfolioDTO row = rows.stream().filter(r -> r.getPortfolioId().equals(growth.getPortfolioId()))
+                .findFirst().orElseThrow();
+        assertEquals(2, row.getAssetCount());
+        assertEquals(15.0, row.getTotalVaR());
+        assertEquals(40.0, row.getTotalStressTest());
+        assertNull(row.getAssetNames());
+        assertEquals(0.0, rows.get(0).getTotalVaR()); // Balanced has no assets
+    }
+
+    @Test
+    @DisplayName("Keyset pages visit the same rows in the same order as one offset query, nulls last")
+    void keysetPagesMatchFullOrder() {
+        for (String property : List.of("riskLevel", "totalValue", "portfolioName", "portfolioId")) {
+            for (boolean ascending : List.of(true, false)) {
+                List<String> expected = ids(portfolioRepository.findPortfolioSummaries(property, ascending, null, 0, 100));
+                List<String> walked = new ArrayList<>();
+                PortfolioPageToken token = null;
+                do {
+                    List<PortfolioDTO> page = portfolioRepository.findPortfolioSummaries(property, ascending, token, 0, 2);
+                    walked.addAll(ids(page));
+                    // Round-trip through the encoded form, like a client would
+                    token = page.size() < 2 ? null
+                            : PortfolioPageToken.decode(PortfolioPageToken.after(page.get(1), property, ascending).encode());
+                } while (token != null);
+                assertEquals(expected, walked, property + (ascending ? " asc" : " desc"));
+            }
+        }
+        List<PortfolioDTO> byRisk = portfolioRepository.findPortfolioSummaries("riskLevel", false, null, 0, 100);
+        assertNull(byRisk.get(5).getRiskLevel());
+        assertNull(byRisk.get(6).getRiskLevel());
+        assertEquals(List.of("Bonds", "Cash"),
+                portfolioRepository.findPortfolioSummaries("portfolioName", true, null, 1, 2)
+                        .stream().map(PortfolioDTO::getPortfolioName).toList());
+    }
+
+    @Test
+    @DisplayName("Tampered or foreign tokens are rejected")
+    void rejectsInvalidTokens() {
+        assertThrows(IllegalArgumentException.class, () -> PortfolioPageToken.decode("not a token!"));
+        String unknownProperty = Base64.getUrlEncoder()
+                .encodeToString("v1|clientName|ASC|=x|id".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> PortfolioPageToken.decode(unknownProperty));
+        String badValue = Base64.getUrlEncoder()
+                .encodeToString("v1|riskLevel|ASC|=high|id".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> PortfolioPageToken.decode(badValue));
+    }
+
+    private static Portfolio portfolio(String name, Integer riskLevel, String totalValue) {
+        Portfolio portfolio = new Portfolio();
+        portfolio.setPortfolioName(name);
+        portfolio.setRiskLevel(riskLevel);
+        portfolio.setTotalValue(totalValue == null ? null : new BigDecimal(totalValue));
+        return portfolio;
+    }
+
+    private static List<String> ids(List<PortfolioDTO> rows) {
+        return rows.stream().map(PortfolioDTO::getPortfolioId).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.sakhiya.investment.portfoliomanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.riskmanagement.AssetRiskTotal;
+import com.sakhiya.investment.riskmanagement.Risk;
+import com.sakhiya.investment.riskmanagement.RiskRepository;
+
+/**
+ * Runs the aggregate risk queries against the H2 test database, since their correctness lives in the JPQL.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Portfolio Risk Totals Repository Test")
+public class PortfolioRiskTotalsRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    @Autowired
+    private RiskRepository riskRepository;
+
+    private Portfolio withRisks;
+    private Portfolio withoutRisks;
+    private Asset first;
+    private Asset second;
+
+    @BeforeEach
+    void setUp() {
+        withRisks = entityManager.persist(portfolio("Growth"));
+        withoutRisks = entityManager.persist(portfolio("Empty"));
+        withoutRisks.setTotalVaR(99.0); // stale value that must be reset to 0
+        first = entityManager.persist(new Asset("First", 100.0, withRisks));
+        second = entityManager.persist(new Asset("Second", 200.0, withRisks));
+        entityManager.persist(new Risk("VaR", "1-day", 10.0, first));
+        entityManager.persist(new Risk("var", "10-day", 5.0, first)); // other spelling, same type
+        entityManager.persist(new Risk("StressTest", "crash", 40.0, first));
+        entityManager.persist(new Risk("VaR", "1-day", 7.0, second));
+        entityManager.persist(new Risk("VaR", "not calculated", null, second)); // ignored by SUM
+        entityManager.persist(new Risk("Liquidity", "other type", 1000.0, second));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Risk values are summed per asset and lower-cased type in one query")
+    void sumsPerAssetAndType() {
+        List<AssetRiskTotal> totals = riskRepository.sumValuesByAssetAndType(withRisks.getPortfolioId());
+
+        assertEquals(15.0, total(totals, first, "var"));
+        assertEquals(40.0, total(totals, first, "stresstest"));
+        assertEquals(7.0, total(totals, second, "var"));
+        assertEquals(1000.0, total(totals, second, "liquidity"));
+        assertEquals(4, totals.size());
+        assertTrue(riskRepository.sumValuesByAssetAndType(withoutRisks.getPortfolioId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Bulk update refreshes totals of every portfolio")
+    void recalculatesAllPortfolios() {
+        LocalDate today = LocalDate.of(2025, 9, 10);
+
+        int updated = portfolioRepository.recalculateAllRiskTotals(today);
+
+        assertEquals(2, updated);
+        Portfolio refreshed = portfolioRepository.findById(withRisks.getPortfolioId()).orElseThrow();
+        assertEquals(22.0, refreshed.getTotalVaR());
+        assertEquals(40.0, refreshed.getTotalStressTest());
+        assertEquals(today, refreshed.getUpdatedAt());
+        Portfolio empty = portfolioRepository.findById(withoutRisks.getPortfolioId()).orElseThrow();
+        assertEquals(0.0, empty.getTotalVaR());
+        assertEquals(0.0, empty.getTotalStressTest());
+    }
+
+    private static Portfolio portfolio(String name) {
+        Portfolio portfolio = new Portfolio();
+        portfolio.setPortfolioName(name);
+        return portfolio;
+    }
+
+    private static double total(List<AssetRiskTotal> totals, Asset asset, String type) {
+        return totals.stream()
+                .filter(t -> t.getAssetId().equals(asset.getAssetId()) && t.getType().equals(type))
+                .findFirst().orElseThrow().getTotal();
+    }
+}
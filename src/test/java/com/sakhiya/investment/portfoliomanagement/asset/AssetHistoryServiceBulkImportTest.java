@@ -0,0 +1,123 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Asset History Service Bulk Import Test")
+public class AssetHistoryServiceBulkImportTest {
+
+    @Mock
+    private AssetPriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private AssetRepository assetRepository;
+    @Mock
+    private PriceSeriesCache priceSeriesCache;
+    @Mock
+    private AssetPriceHistoryBatchWriter batchWriter;
+    @Mock
+    private PriceArchiveBlockRepository archiveRepository;
+
+    private AssetHistoryService service;
+    private final Asset asset = new Asset("IBM", 1000.0, null);
+    // Everything passed to the batch writer, one list per committed chunk
+    private final List<List<AssetPriceHistory>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new AssetHistoryService(priceHistoryRepository, assetRepository, priceSeriesCache, batchWriter,
+                archiveRepository, new SimpleMeterRegistry());
+        when(assetRepository.findById(asset.getAssetId())).thenReturn(Optional.of(asset));
+        when(assetRepository.findById("missing")).thenReturn(Optional.empty());
+        // 2024-01-02 is already stored
+        when(priceHistoryRepository.findTradingDatesByAssetIdBetween(eq(asset.getAssetId()), any(), any()))
+                .thenAnswer(inv -> {
+                    LocalDate start = inv.getArgument(1);
+                    LocalDate end = inv.getArgument(2);
+                    LocalDate stored = LocalDate.of(2024, 1, 2);
+                    return !stored.isBefore(start) && !stored.isAfter(end) ? List.of(stored) : List.of();
+                });
+        doAnswer(inv -> chunks.add(new ArrayList<>(inv.getArgument(0)))).when(batchWriter).persistAll(anyList());
+    }
+
+    @Test
+    @DisplayName("CSV rows are deduplicated against stored and repeated dates, bad rows are reported")
+    void csvImportDedupsAndReportsErrors() throws Exception {
+        String id = asset.getAssetId();
+        String csv = "assetId,tradingDate,closingPrice,source\n"
+                + id + ",2024-01-01,100.0,\n"
+                + id + ",2024-01-02,101.0,\n" // already stored
+                + id + ",2024-01-03,102.0,CSV\n"
+                + id + ",2024-01-03,102.5,\n" // repeated in the file
+                + "missing,2024-01-03,5.0,\n"
+                + id + ",not-a-date,1.0,\n";
+
+        BulkPriceImportResultDTO result = service.bulkImportPriceHistory(stream(csv), PriceHistoryRowReader.Format.CSV, "BULK");
+
+        assertEquals(6, result.getRowsRead());
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(1, result.getAssetCount());
+        assertEquals(1, chunks.size());
+        assertEquals("BULK", chunks.get(0).get(0).getSource()); // default source
+        assertEquals("CSV", chunks.get(0).get(1).getSource());
+        verify(priceSeriesCache).recordPrice(id, LocalDate.of(2024, 1, 3), 102.0);
+    }
+
+    @Test
+    @DisplayName("NDJSON rows are committed in chunks and stored dates are fetched once per new range")
+    void ndjsonImportCommitsInChunks() throws Exception {
+        ReflectionTestUtils.setField(service, "bulkChunkSize", 2);
+        String id = asset.getAssetId();
+        StringBuilder ndjson = new StringBuilder();
+        for (int day = 1; day <= 5; day++) {
+            ndjson.append("{\"assetId\":\"").append(id).append("\",\"tradingDate\":\"2024-01-0").append(day)
+                    .append("\",\"closingPrice\":").append(100 + day).append("}\n");
+        }
+        ndjson.append("{broken\n");
+
+        BulkPriceImportResultDTO result = service.bulkImportPriceHistory(stream(ndjson.toString()),
+                PriceHistoryRowReader.Format.NDJSON, "BULK");
+
+        assertEquals(4, result.getInserted());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(1, result.getRejected());
+        assertEquals(3, result.getChunkCount()); // chunks of 2, 2 and 1 rows
+        // Days 1-2, then 3-4, then 5: every range is new so one query per chunk and none repeated
+        verify(priceHistoryRepository, times(3)).findTradingDatesByAssetIdBetween(eq(id), any(), any());
+        assertTrue(result.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Format comes from the parameter first, then the content type")
+    void resolvesFormat() {
+        assertEquals(PriceHistoryRowReader.Format.NDJSON, PriceHistoryRowReader.Format.resolve(null, "application/x-ndjson"));
+        assertEquals(PriceHistoryRowReader.Format.CSV, PriceHistoryRowReader.Format.resolve(null, "text/csv"));
+        assertEquals(PriceHistoryRowReader.Format.CSV, PriceHistoryRowReader.Format.resolve("csv", "application/json"));
+        assertThrows(IllegalArgumentException.class, () -> PriceHistoryRowReader.Format.resolve("xml", null));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Streams the export query against the H2 test database through PriceHistoryRowWriter, and reads the
+ * output back with PriceHistoryRowReader to check an export can be re-imported.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Asset Price History Export Test")
+public class AssetPriceHistoryExportTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private AssetPriceHistoryRepository priceHistoryRepository;
+
+    private Asset ibm;
+
+    @BeforeEach
+    void setUp() {
+        ibm = entityManager.persist(new Asset("IBM", 1000.0, null));
+        Asset awkward = entityManager.persist(new Asset("Smith, \"Jones\" & Co", 500.0, null));
+        price(ibm, LocalDate.of(2025, 9, 8), 250.5);
+        price(ibm, LocalDate.of(2025, 9, 9), 251.0);
+        price(awkward, LocalDate.of(2025, 9, 8), 10.25);
+        price(ibm, LocalDate.of(2025, 8, 1), 240.0); // outside the range
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("CSV export is ordered, quoted where needed and readable by the bulk import reader")
+    void csvRoundTrip() throws IOException {
+        String csv = export(null, PriceHistoryRowReader.Format.CSV);
+
+        String[] lines = csv.split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("assetId,tradingDate,closingPrice,source,assetName", lines[0]);
+        assertTrue(csv.contains(",\"Smith, \"\"Jones\"\" & Co\"\n"));
+        List<PriceHistoryRowReader.Row> rows = read(csv, PriceHistoryRowReader.Format.CSV);
+        assertEquals(3, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.error == null));
+        assertEquals(LocalDate.of(2025, 9, 8), rows.get(0).tradingDate);
+        assertEquals(LocalDate.of(2025, 9, 9), rows.get(2).tradingDate);
+        assertEquals("TEST", rows.get(2).source);
+    }
+
+    @Test
+    @DisplayName("NDJSON export writes one object per line and honours the asset filter")
+    void ndjsonForOneAsset() throws IOException {
+        String ndjson = export(ibm.getAssetId(), PriceHistoryRowReader.Format.NDJSON);
+
+        assertEquals(2, ndjson.split("\n").length);
+        assertTrue(ndjson.endsWith("}\n"));
+        List<PriceHistoryRowReader.Row> rows = read(ndjson, PriceHistoryRowReader.Format.NDJSON);
+        assertEquals(List.of(250.5, 251.0), rows.stream().map(row -> row.closingPrice).toList());
+        assertTrue(rows.stream().allMatch(row -> row.assetId.equals(ibm.getAssetId())));
+    }
+
+    private void price(Asset asset, LocalDate date, double close) {
+        AssetPriceHistory history = new AssetPriceHistory(date, close, "TEST");
+        history.setAsset(asset);
+        entityManager.persist(history);
+    }
+
+    // What AssetHistoryService.exportPriceHistory does, inside the test's transaction
+    private String export(String assetId, PriceHistoryRowReader.Format format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (Stream<AssetPriceHistoryDTO> rows = priceHistoryRepository.streamForExport(
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30), assetId);
+                PriceHistoryRowWriter writer = new PriceHistoryRowWriter(output, format)) {
+            Iterator<AssetPriceHistoryDTO> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<PriceHistoryRowReader.Row> read(String text, PriceHistoryRowReader.Format format) throws IOException {
+        List<PriceHistoryRowReader.Row> rows = new ArrayList<>();
+        try (PriceHistoryRowReader reader = new PriceHistoryRowReader(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), format, "DEFAULT")) {
+            PriceHistoryRowReader.Row row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
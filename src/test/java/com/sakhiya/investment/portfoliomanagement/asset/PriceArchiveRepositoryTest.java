@@ -0,0 +1,180 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantagePriceDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Archives rows in the H2 test database and checks that reads through the cache and
+ * AssetHistoryService return the same prices as before.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(AssetPriceHistoryBatchWriter.class)
+@DisplayName("Price Archive Repository Test")
+public class PriceArchiveRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private AssetPriceHistoryRepository priceHistoryRepository;
+    @Autowired
+    private PriceArchiveBlockRepository archiveRepository;
+    @Autowired
+    private AssetRepository assetRepository;
+    @Autowired
+    private AssetPriceHistoryBatchWriter batchWriter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PriceSeriesCache cache;
+    private PriceArchiveService archiveService;
+    private AssetHistoryService assetHistoryService;
+    private Asset asset;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PriceSeriesCache(priceHistoryRepository, archiveRepository, meterRegistry);
+        archiveService = new PriceArchiveService(priceHistoryRepository,
+                new PriceArchiveWriter(priceHistoryRepository, archiveRepository), cache);
+        assetHistoryService = new AssetHistoryService(priceHistoryRepository, assetRepository, cache, batchWriter,
+                archiveRepository, meterRegistry);
+        asset = entityManager.persist(new Asset("IBM", 1000.0, null));
+        // Weekdays from late 2022 to early 2024: three calendar years
+        double close = 100.0;
+        for (LocalDate day = LocalDate.of(2022, 12, 20); day.isBefore(LocalDate.of(2024, 1, 10)); day = day.plusDays(1)) {
+            if (day.getDayOfWeek().getValue() <= 5) {
+                close += 0.25;
+                price(day, close);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Archived prices leave the table but the merged series is unchanged")
+    void archiveIsTransparent() {
+        PriceSeries before = cache.get(asset.getAssetId());
+        long rowsBefore = priceHistoryRepository.count();
+
+        PriceArchiveResultDTO result = archiveService.archiveBefore(LocalDate.of(2024, 1, 1));
+        entityManager.clear();
+
+        assertEquals(1, result.getAssetsArchived());
+        assertEquals(2, result.getBlocksWritten()); // 2022 and 2023
+        assertEquals(rowsBefore - 7, result.getRowsArchived()); // 7 weekdays of 2024 stay live
+        assertEquals(7, priceHistoryRepository.count());
+        assertTrue(result.getBytesPerRow() < 10.0, result.getBytesPerRow() + " bytes per row");
+        PriceSeries after = cache.get(asset.getAssetId());
+        assertArrayEquals(before.epochDays(), after.epochDays());
+        assertArrayEquals(before.closes(), after.closes());
+        assertEquals(after.size(), cache.getAll(List.of(asset.getAssetId())).get(asset.getAssetId()).size());
+    }
+
+    @Test
+    @DisplayName("Range reads cross into the archive and a later cutoff merges into the existing year block")
+    void rangeReadsAndRearchiving() {
+        archiveService.archiveBefore(LocalDate.of(2023, 6, 1));
+        // A correction for an archived date arrives as a live row, then a later cutoff archives the rest of 2023
+        price(LocalDate.of(2023, 5, 31), 1.0);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<AssetPriceHistoryDTO> range = assetHistoryService.getPriceHistory(asset.getAssetId(),
+                LocalDate.of(2023, 5, 29), LocalDate.of(2023, 6, 2));
+        assertEquals(List.of(LocalDate.of(2023, 5, 29), LocalDate.of(2023, 5, 30), LocalDate.of(2023, 5, 31),
+                LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 2)),
+                range.stream().map(AssetPriceHistoryDTO::getTradingDate).toList());
+        assertEquals(AssetHistoryService.ARCHIVE_SOURCE, range.get(0).getSource());
+        assertEquals(1.0, range.get(2).getClosingPrice()); // the live correction wins
+        assertEquals("TEST", range.get(3).getSource());
+        assertEquals("IBM", range.get(0).getAssetName());
+
+        PriceArchiveResultDTO second = archiveService.archiveBefore(LocalDate.of(2024, 1, 1));
+        entityManager.clear();
+
+        assertEquals(1, second.getBlocksWritten()); // 2023 rewritten, 2022 untouched
+        assertEquals(2, archiveRepository.findByAssetIdOrderByYearAsc(asset.getAssetId()).size());
+        PriceSeries series = cache.get(asset.getAssetId());
+        assertEquals(1.0, series.closeAt(series.indexOf((int) LocalDate.of(2023, 5, 31).toEpochDay())));
+    }
+
+    @Test
+    @DisplayName("Imports skip archived dates and the sync cursor sees archived years")
+    void importsAndCursorSeeArchive() {
+        archiveService.archiveBefore(LocalDate.of(2025, 1, 1)); // every row is archived
+        entityManager.clear();
+        assertEquals(0, priceHistoryRepository.count());
+        assertEquals(Map.of(asset.getAssetId(), LocalDate.of(2024, 1, 9)),
+                assetHistoryService.getLastTradingDates(List.of(asset.getAssetId(), "unknown")));
+
+        // A full fetch re-sends archived dates; only the new one becomes a live row
+        int inserted = assetHistoryService.importPriceHistoryFromAlphaVantage(asset.getAssetId(), List.of(
+                new AlphaVantagePriceDTO(LocalDate.of(2023, 12, 29), 5.0),
+                new AlphaVantagePriceDTO(LocalDate.of(2024, 1, 9), 5.0),
+                new AlphaVantagePriceDTO(LocalDate.of(2024, 1, 10), 5.0)), "ALPHA_VANTAGE");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, inserted);
+        assertEquals(1, priceHistoryRepository.count());
+        assertEquals(Map.of(asset.getAssetId(), LocalDate.of(2024, 1, 10)),
+                assetHistoryService.getLastTradingDates(List.of(asset.getAssetId())));
+    }
+
+    @Test
+    @DisplayName("Listing all assets, exporting and listing by symbol include archived years")
+    void listAndExportIncludeArchive() throws Exception {
+        archiveService.archiveBefore(LocalDate.of(2024, 1, 1));
+        price(LocalDate.of(2023, 12, 29), 2.0); // live correction of an archived date
+        entityManager.flush();
+        entityManager.clear();
+
+        List<AssetPriceHistoryDTO> all = assetHistoryService.getPriceHistory(LocalDate.of(2023, 12, 27),
+                LocalDate.of(2024, 1, 3));
+        assertEquals(List.of(LocalDate.of(2023, 12, 27), LocalDate.of(2023, 12, 28), LocalDate.of(2023, 12, 29),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3)),
+                all.stream().map(AssetPriceHistoryDTO::getTradingDate).toList());
+        assertEquals(AssetHistoryService.ARCHIVE_SOURCE, all.get(0).getSource());
+        assertEquals(2.0, all.get(2).getClosingPrice());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = assetHistoryService.exportPriceHistory(LocalDate.of(2023, 12, 27), LocalDate.of(2024, 1, 3),
+                null, PriceHistoryRowReader.Format.CSV, output);
+        assertEquals(6, rows);
+        String csv = output.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.contains("2023-12-27"), csv);
+        assertEquals(1, csv.split("2023-12-29", -1).length - 1, csv); // the correction replaces the archived row
+
+        // Source TEST is on the live rows only; the asset's archived years still come back
+        List<AssetPriceHistoryDTO> bySource = assetHistoryService.getPriceHistoryBySource("TEST");
+        assertEquals(priceHistoryRepository.count(), bySource.stream()
+                .filter(p -> !AssetHistoryService.ARCHIVE_SOURCE.equals(p.getSource())).count());
+        assertEquals(LocalDate.of(2022, 12, 20), bySource.get(0).getTradingDate());
+        assertEquals(cache.get(asset.getAssetId()).size(), bySource.size());
+    }
+
+    private void price(LocalDate date, double close) {
+        AssetPriceHistory history = new AssetPriceHistory(date, close, "TEST");
+        history.setAsset(asset);
+        entityManager.persist(history);
+    }
+}
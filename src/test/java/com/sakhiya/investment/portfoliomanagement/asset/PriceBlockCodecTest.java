@@ -0,0 +1,75 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Price Block Codec Test")
+public class PriceBlockCodecTest {
+
+    @Test
+    @DisplayName("A year of weekday closes round-trips bit-exact in under 10 bytes per row")
+    void roundTripsTradingYear() {
+        int n = 0;
+        int[] days = new int[366];
+        double[] closes = new double[366];
+        Random random = new Random(42);
+        double price = 143.27;
+        for (LocalDate day = LocalDate.of(2024, 1, 2); day.getYear() == 2024; day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY
+                    || day.equals(LocalDate.of(2024, 7, 4))) {
+                continue; // weekends and a holiday give irregular gaps
+            }
+            // Prices quoted to the cent, like the provider sends them
+            price = Math.round(price * (1 + random.nextGaussian() * 0.015) * 100) / 100.0;
+            days[n] = (int) day.toEpochDay();
+            closes[n++] = price;
+        }
+        closes[10] = closes[9]; // unchanged close
+
+        byte[] payload = PriceBlockCodec.encode(days, closes, 0, n);
+
+        assertEquals(n, PriceBlockCodec.rowCount(payload));
+        int[] decodedDays = new int[n];
+        double[] decodedCloses = new double[n];
+        assertEquals(n, PriceBlockCodec.decode(payload, decodedDays, decodedCloses, 0));
+        assertArrayEquals(Arrays.copyOf(days, n), decodedDays);
+        assertArrayEquals(Arrays.copyOf(closes, n), decodedCloses);
+        assertTrue(payload.length < n * 10, "payload of " + payload.length + " bytes for " + n + " rows");
+    }
+
+    @Test
+    @DisplayName("Large gaps and special values are kept exactly")
+    void handlesEdgeCases() {
+        int[] days = { -5, 0, 1, 2, 400, 401, 100_000 };
+        double[] closes = { 1.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE, -0.0, 1e-300, 1.0 };
+
+        int[] decodedDays = new int[8];
+        double[] decodedCloses = new double[8];
+        PriceBlockCodec.decode(PriceBlockCodec.encode(days, closes, 0, days.length), decodedDays, decodedCloses, 1);
+
+        assertArrayEquals(days, Arrays.copyOfRange(decodedDays, 1, 8));
+        for (int i = 0; i < closes.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(closes[i]), Double.doubleToRawLongBits(decodedCloses[i + 1]));
+        }
+    }
+
+    @Test
+    @DisplayName("Unsorted input and truncated payloads are rejected")
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PriceBlockCodec.encode(new int[] { 2, 2 }, new double[] { 1.0, 2.0 }, 0, 2));
+        int[] days = { 1, 2, 3, 4 };
+        double[] closes = { 10.5, 10.75, 11.0, 9.5 };
+        byte[] payload = PriceBlockCodec.encode(days, closes, 0, 4);
+        byte[] truncated = Arrays.copyOf(payload, payload.length - 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> PriceBlockCodec.decode(truncated, new int[4], new double[4], 0));
+    }
+}
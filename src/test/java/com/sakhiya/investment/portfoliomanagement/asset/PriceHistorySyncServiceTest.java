@@ -0,0 +1,160 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantageClient;
+import com.sakhiya.investment.portfoliomanagement.asset.marketdata.AlphaVantagePriceDTO;
+import com.sakhiya.investment.portfoliomanagement.asset.marketdata.OutputSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Price History Sync Service Test")
+public class PriceHistorySyncServiceTest {
+
+    // Wednesday evening, so the latest expected close is the same day
+    private static final LocalDate TODAY = LocalDate.of(2025, 9, 10);
+
+    @Mock
+    private AssetRepository assetRepository;
+    @Mock
+    private AssetHistoryService assetHistoryService;
+    @Mock
+    private AlphaVantageClient alphaVantageClient;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PriceHistorySyncService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Clock clock = Clock.fixed(Instant.parse("2025-09-10T23:00:00Z"), ZoneOffset.UTC);
+        service = new PriceHistorySyncService(assetRepository, assetHistoryService,
+                alphaVantageClient, registry, 2, 90, clock);
+        when(assetHistoryService.importPriceHistoryFromAlphaVantage(anyString(), anyList(), anyString()))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(1)).size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Only stale assets are fetched, with compact or full by gap size, and only the delta is written")
+    void syncsOnlyTheDelta() {
+        Asset upToDate = asset("CURR");
+        Asset smallGap = asset("SMALL");
+        Asset neverSynced = asset("NEW");
+        Asset longGap = asset("OLD");
+        Asset failing = asset("BAD");
+        when(assetRepository.findBySymbolIsNotNull()).thenReturn(List.of(upToDate, smallGap, neverSynced, longGap, failing));
+        when(assetHistoryService.getLastTradingDates(anyCollection())).thenReturn(Map.of(
+                upToDate.getAssetId(), TODAY,
+                smallGap.getAssetId(), LocalDate.of(2025, 9, 5),
+                longGap.getAssetId(), LocalDate.of(2025, 1, 2),
+                failing.getAssetId(), LocalDate.of(2025, 9, 8)));
+        when(alphaVantageClient.fetchDailyPriceDTOs(anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(prices(LocalDate.of(2025, 9, 4), TODAY)));
+        when(alphaVantageClient.fetchDailyPriceDTOs(eq("BAD"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Alpha Vantage returned no daily prices: quota")));
+
+        PriceSyncStatusDTO status = service.syncAll();
+
+        verify(alphaVantageClient, never()).fetchDailyPriceDTOs(eq("CURR"), any());
+        verify(alphaVantageClient).fetchDailyPriceDTOs("SMALL", OutputSize.COMPACT);
+        verify(alphaVantageClient).fetchDailyPriceDTOs("NEW", OutputSize.FULL);
+        verify(alphaVantageClient).fetchDailyPriceDTOs("OLD", OutputSize.FULL);
+        // 2025-09-05 is stored, so only 8th, 9th and 10th are written (the 6th and 7th are a weekend)
+        verify(assetHistoryService).importPriceHistoryFromAlphaVantage(eq(smallGap.getAssetId()),
+                argThat(list -> list.size() == 3 && list.get(0).getTradingDate().equals(LocalDate.of(2025, 9, 8))),
+                eq("SMALL"));
+        assertFalse(status.isRunning());
+        assertEquals(5, status.getAssetsTotal());
+        assertEquals(1, status.getAssetsUpToDate());
+        assertEquals(3, status.getAssetsCompleted());
+        assertEquals(1, status.getAssetsFailed());
+        assertEquals(0, status.getAssetsPending());
+        assertEquals(2, status.getCompactFetches());
+        assertEquals(2, status.getFullFetches());
+        assertEquals(3 + 5 + 5, status.getRowsInserted());
+        assertTrue(status.getErrors().get(0).startsWith("BAD: "));
+        assertNull(status.getLastSuccessAt()); // a symbol failed
+        // Only BAD is behind: two business days (9th and 10th)
+        assertEquals(1, status.getLaggingAssets());
+        assertEquals(2, status.getMaxLagDays());
+        assertEquals(2.0, registry.get("price.sync.lag.max.days").gauge().value());
+        assertEquals(1.0, registry.get("price.sync.assets").tag("state", "failed").gauge().value());
+        assertEquals(13.0, registry.get("price.sync.rows.inserted").counter().count());
+    }
+
+    @Test
+    @DisplayName("A second run cannot start while one is in progress")
+    void rejectsOverlappingRuns() {
+        Asset asset = asset("SLOW");
+        when(assetRepository.findBySymbolIsNotNull()).thenReturn(List.of(asset));
+        when(assetHistoryService.getLastTradingDates(anyCollection())).thenReturn(Map.of());
+        CompletableFuture<List<AlphaVantagePriceDTO>> pending = new CompletableFuture<>();
+        when(alphaVantageClient.fetchDailyPriceDTOs(anyString(), any())).thenReturn(pending);
+
+        CompletableFuture<PriceSyncStatusDTO> run = service.startSync();
+
+        assertTrue(service.getStatus().isRunning());
+        assertEquals(1, service.getStatus().getAssetsPending());
+        assertThrows(IllegalStateException.class, () -> service.startSync());
+        pending.complete(prices(TODAY, TODAY));
+        PriceSyncStatusDTO done = run.join();
+        assertEquals(1, done.getAssetsCompleted());
+        assertNotNull(done.getLastSuccessAt());
+        assertEquals(0, done.getLaggingAssets());
+    }
+
+    @Test
+    @DisplayName("Business day helpers skip weekends")
+    void businessDays() {
+        LocalDate friday = LocalDate.of(2025, 9, 5);
+        LocalDate monday = LocalDate.of(2025, 9, 8);
+        assertEquals(friday, PriceHistorySyncService.latestExpectedClose(LocalDate.of(2025, 9, 7)));
+        assertEquals(monday, PriceHistorySyncService.latestExpectedClose(monday));
+        assertEquals(1, PriceHistorySyncService.businessDaysBetween(friday, monday));
+        assertEquals(0, PriceHistorySyncService.businessDaysBetween(monday, friday));
+        assertEquals(10, PriceHistorySyncService.businessDaysBetween(friday, LocalDate.of(2025, 9, 19)));
+        assertEquals(OutputSize.FULL, PriceHistorySyncService.chooseOutputSize(null, monday, 90));
+        assertEquals(OutputSize.COMPACT, PriceHistorySyncService.chooseOutputSize(friday, monday, 90));
+    }
+
+    private static Asset asset(String symbol) {
+        Asset asset = new Asset(symbol + " Corp", 1000.0, null);
+        asset.setSymbol(symbol);
+        return asset;
+    }
+
+    // One close per weekday from start to end inclusive
+    private static List<AlphaVantagePriceDTO> prices(LocalDate start, LocalDate end) {
+        List<AlphaVantagePriceDTO> prices = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            if (day.getDayOfWeek().getValue() <= 5) {
+                prices.add(new AlphaVantagePriceDTO(day, 100.0 + day.getDayOfMonth()));
+            }
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,142 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Price Series Cache Test")
+public class PriceSeriesCacheTest {
+
+    private static final double DELTA = 1e-12;
+
+    @Mock
+    private AssetPriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private PriceArchiveBlockRepository archiveRepository; // no archived blocks: the mock returns empty lists
+
+    private PriceSeriesCache cache;
+
+    private final LocalDate day1 = LocalDate.of(2025, 9, 1);
+    private final LocalDate day2 = LocalDate.of(2025, 9, 2);
+    private final LocalDate day3 = LocalDate.of(2025, 9, 3);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cache = new PriceSeriesCache(priceHistoryRepository, archiveRepository, new SimpleMeterRegistry());
+        when(priceHistoryRepository.findPricePointsByAssetId("asset1")).thenReturn(List.of(
+                new PricePoint("asset1", day1, 100.0),
+                new PricePoint("asset1", day2, 110.0)));
+    }
+
+    @Test
+    @DisplayName("Loads the series once and computes daily returns from primitive closes")
+    void loadsOnceAndComputesReturns() {
+        PriceSeries first = cache.get("asset1");
+        PriceSeries second = cache.get("asset1");
+
+        assertSame(first, second); // served from memory the second time
+        verify(priceHistoryRepository, times(1)).findPricePointsByAssetId("asset1");
+        assertArrayEquals(new double[] { 0.10 }, first.returns(), DELTA);
+    }
+
+    @Test
+    @DisplayName("Appending a newer price extends the series without changing older snapshots")
+    void appendKeepsOldSnapshotIntact() {
+        PriceSeries before = cache.get("asset1");
+
+        cache.recordPrice("asset1", day3, 99.0);
+        PriceSeries after = cache.get("asset1");
+
+        assertEquals(2, before.size());
+        assertEquals(3, after.size());
+        assertArrayEquals(new double[] { 0.10, -0.10 }, after.returns(), DELTA);
+        verify(priceHistoryRepository, times(1)).findPricePointsByAssetId("asset1");
+    }
+
+    @Test
+    @DisplayName("Out of order prices are inserted in date order and duplicates replace the close")
+    void insertAndReplaceKeepDateOrder() {
+        cache.get("asset1");
+
+        cache.recordPrice("asset1", day1.minusDays(1), 50.0);
+        cache.recordPrice("asset1", day2, 120.0);
+        PriceSeries series = cache.get("asset1");
+
+        assertEquals(3, series.size());
+        assertEquals(day1.minusDays(1), series.dateAt(0));
+        assertEquals(120.0, series.closeAt(2), DELTA);
+    }
+
+    @Test
+    @DisplayName("Removing a price drops it from the cached series")
+    void removePrice() {
+        cache.get("asset1");
+
+        cache.removePrice("asset1", day1);
+        PriceSeries series = cache.get("asset1");
+
+        assertEquals(1, series.size());
+        assertEquals(0, series.returns().length);
+    }
+
+    @Test
+    @DisplayName("Writes for assets that are not cached yet are ignored until first load")
+    void writesForUncachedAssetsAreIgnored() {
+        cache.recordPrice("asset1", day3, 99.0);
+
+        assertEquals(0, cache.cachedAssetCount());
+        assertEquals(2, cache.get("asset1").size()); // loaded from the (mocked) database
+    }
+
+    @Test
+    @DisplayName("Over maxPoints the least recently used series are evicted, reloaded on next use and left out of snapshot()")
+    void evictsLeastRecentlyUsed() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PriceSeriesCache bounded = new PriceSeriesCache(priceHistoryRepository, archiveRepository, registry, 5);
+        for (String id : List.of("asset2", "asset3")) {
+            when(priceHistoryRepository.findPricePointsByAssetId(id)).thenReturn(List.of(
+                    new PricePoint(id, day1, 100.0),
+                    new PricePoint(id, day2, 110.0)));
+        }
+
+        bounded.get("asset1");
+        bounded.get("asset2");
+        bounded.get("asset1"); // asset2 is now the least recently used
+        bounded.get("asset3"); // 6 points > 5: evicted down to 4 (90%)
+
+        assertEquals(4, bounded.cachedPointCount());
+        assertEquals(java.util.Set.of("asset1", "asset3"), bounded.snapshot().keySet());
+        assertEquals(1.0, registry.get("price.cache.evictions").functionCounter().count());
+        assertEquals(2.0, registry.get("price.cache.assets").gauge().value());
+
+        bounded.recordPrice("asset1", day3, 120.0); // 5 points: still within the limit
+        assertEquals(5, bounded.cachedPointCount());
+        assertEquals(2, bounded.get("asset2").size()); // reloaded from the database
+        verify(priceHistoryRepository, times(2)).findPricePointsByAssetId("asset2");
+    }
+
+    @Test
+    @DisplayName("Duplicate dates from the database collapse to a single price")
+    void duplicateDatesCollapse() {
+        PriceSeries series = PriceSeries.fromPoints(List.of(
+                new PricePoint("a", day1, 100.0),
+                new PricePoint("a", day1, 101.0),
+                new PricePoint("a", day2, null),
+                new PricePoint("a", day3, 102.0)));
+
+        assertEquals(2, series.size());
+        assertEquals(101.0, series.closeAt(0), DELTA);
+        assertEquals(1, series.indexOnOrBefore((int) day2.toEpochDay()) + 1);
+    }
+}
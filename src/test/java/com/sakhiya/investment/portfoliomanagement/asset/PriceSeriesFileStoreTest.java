@@ -0,0 +1,88 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Price Series File Store Test")
+public class PriceSeriesFileStoreTest {
+
+    private static final String ASSET = "0b7c6f4e-2b1d-4c59-9a43-1f0e5d8c7a21";
+    private static final LocalDate DAY1 = LocalDate.of(2025, 9, 8);
+    private static final LocalDate DAY2 = LocalDate.of(2025, 9, 9);
+    private static final LocalDate DAY3 = LocalDate.of(2025, 9, 10);
+
+    @Mock
+    private AssetPriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private PriceArchiveBlockRepository archiveRepository;
+
+    @TempDir
+    Path directory;
+
+    private PriceHistoryWatermark watermark;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(priceHistoryRepository.findPricePointsByAssetId(ASSET)).thenReturn(List.of(
+                new PricePoint(ASSET, DAY1, 100.0),
+                new PricePoint(ASSET, DAY2, 101.5),
+                new PricePoint(ASSET, DAY3, 99.25)));
+        watermark = new PriceHistoryWatermark(ASSET, 3L, DAY3, 300.75);
+        when(priceHistoryRepository.findWatermarks()).thenReturn(List.of(watermark));
+    }
+
+    @Test
+    @DisplayName("A saved series is mapped back into a fresh cache without loading price rows")
+    void savesAndReloads() {
+        PriceSeriesCache before = new PriceSeriesCache(priceHistoryRepository, archiveRepository, new SimpleMeterRegistry());
+        PriceSeries original = before.get(ASSET);
+        assertEquals(1, new PriceSeriesFileStore(before, priceHistoryRepository, directory.toString()).saveAll());
+
+        PriceSeriesCache restarted = new PriceSeriesCache(priceHistoryRepository, archiveRepository, new SimpleMeterRegistry());
+        assertEquals(1, new PriceSeriesFileStore(restarted, priceHistoryRepository, directory.toString()).loadAll());
+
+        PriceSeries reloaded = restarted.get(ASSET);
+        assertArrayEquals(original.epochDays(), reloaded.epochDays());
+        assertArrayEquals(original.closes(), reloaded.closes());
+        verify(priceHistoryRepository, times(1)).findPricePointsByAssetId(ASSET); // only the first cache hit the rows
+    }
+
+    @Test
+    @DisplayName("Files are dropped when the watermark moved or the data is damaged")
+    void rejectsStaleAndCorruptFiles() throws IOException {
+        PriceSeriesCache cache = new PriceSeriesCache(priceHistoryRepository, archiveRepository, new SimpleMeterRegistry());
+        PriceSeriesFileStore store = new PriceSeriesFileStore(cache, priceHistoryRepository, directory.toString());
+        store.write(ASSET, cache.get(ASSET), watermark);
+        Path file = store.file(ASSET);
+
+        assertNotNull(store.read(file, watermark));
+        assertNull(store.read(file, new PriceHistoryWatermark(ASSET, 4L, DAY3, 400.75))); // a row was added
+        assertNull(store.read(file, new PriceHistoryWatermark(ASSET, 3L, DAY3, 301.0))); // a close was edited
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01; // flip a bit in the last close
+        Files.write(file, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+        assertNull(store.read(file, watermark));
+
+        PriceSeriesCache restarted = new PriceSeriesCache(priceHistoryRepository, archiveRepository, new SimpleMeterRegistry());
+        assertEquals(0, new PriceSeriesFileStore(restarted, priceHistoryRepository, directory.toString()).loadAll());
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,106 @@
+package com.sakhiya.investment.portfoliomanagement.asset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Return Statistics Test")
+public class ReturnStatisticsTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    @DisplayName("Whole-history and rolling-window moments match a two-pass calculation")
+    void matchesTwoPass() {
+        PriceSeries series = randomWalk(600, 7);
+        double[] returns = series.returns();
+        ReturnStatistics statistics = series.statistics();
+
+        assertEquals(returns.length, statistics.count());
+        assertEquals(mean(returns), statistics.mean(), TOLERANCE);
+        assertEquals(stdDev(returns), statistics.stdDev(), TOLERANCE);
+        for (int lookback : new int[] { 2, 20, 60, 250 }) {
+            double[] window = Arrays.copyOfRange(returns, returns.length - lookback, returns.length);
+            assertEquals(mean(window), statistics.mean(lookback), TOLERANCE, "mean " + lookback);
+            assertEquals(stdDev(window), statistics.stdDev(lookback), TOLERANCE, "stdDev " + lookback);
+        }
+        // A lookback longer than the history covers all of it
+        assertEquals(returns.length, statistics.windowSize(10_000));
+        assertEquals(stdDev(returns), statistics.stdDev(10_000), TOLERANCE);
+        assertThrows(IllegalArgumentException.class, () -> statistics.mean(0));
+    }
+
+    @Test
+    @DisplayName("Appending later prices extends the statistics in place of a rebuild, with the same results")
+    void appendMatchesRebuild() {
+        PriceSeries full = randomWalk(300, 11);
+        PriceSeries growing = PriceSeries.EMPTY;
+        growing.statistics();
+        ReturnStatistics previous = null;
+        for (int i = 0; i < full.size(); i++) {
+            growing = growing.withPrice(full.epochDayAt(i), full.closeAt(i));
+            if (i == 150) {
+                previous = growing.statistics(); // must not change when later prices are appended
+            }
+        }
+        ReturnStatistics appended = growing.statistics();
+        ReturnStatistics rebuilt = full.statistics();
+
+        assertEquals(rebuilt.count(), appended.count());
+        assertEquals(rebuilt.mean(), appended.mean(), TOLERANCE);
+        assertEquals(rebuilt.stdDev(), appended.stdDev(), TOLERANCE);
+        assertEquals(rebuilt.stdDev(60), appended.stdDev(60), TOLERANCE);
+        assertEquals(rebuilt.ewmaVolatility(), appended.ewmaVolatility(), TOLERANCE);
+        assertEquals(150, previous.count());
+        double[] firstReturns = Arrays.copyOf(full.returns(), 150);
+        assertEquals(stdDev(Arrays.copyOfRange(firstReturns, 130, 150)), previous.stdDev(20), TOLERANCE);
+    }
+
+    @Test
+    @DisplayName("EWMA variance follows the RiskMetrics recursion seeded with the first squared return")
+    void ewmaRecursion() {
+        PriceSeries series = new PriceSeries(new int[] { 1, 2, 3, 4 }, new double[] { 100.0, 102.0, 99.96, 100.9596 }, 4);
+        double[] r = series.returns();
+        double variance = r[0] * r[0];
+        variance = 0.94 * variance + 0.06 * r[1] * r[1];
+        variance = 0.94 * variance + 0.06 * r[2] * r[2];
+
+        assertEquals(Math.sqrt(variance), series.statistics().ewmaVolatility(), TOLERANCE);
+        assertEquals(0.0, PriceSeries.EMPTY.statistics().stdDev());
+        assertEquals(0.0, PriceSeries.EMPTY.statistics().mean(20));
+    }
+
+    private static PriceSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        int[] days = new int[size];
+        double[] closes = new double[size];
+        double price = 100.0;
+        for (int i = 0; i < size; i++) {
+            price *= 1 + random.nextGaussian() * 0.02;
+            days[i] = 20_000 + i;
+            closes[i] = price;
+        }
+        return new PriceSeries(days, closes, size);
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) {
+            sum += v;
+        }
+        return sum / values.length;
+    }
+
+    private static double stdDev(double[] values) {
+        double mean = mean(values);
+        double sumSquares = 0;
+        for (double v : values) {
+            sumSquares += (v - mean) * (v - mean);
+        }
+        return Math.sqrt(sumSquares / (values.length - 1));
+    }
+}
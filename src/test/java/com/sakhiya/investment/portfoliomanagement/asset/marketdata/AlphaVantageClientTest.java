@@ -0,0 +1,213 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the client against a local stub HTTP server instead of the real Alpha Vantage API.
+ */
+@DisplayName("Alpha Vantage Client Test")
+public class AlphaVantageClientTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String baseUrl;
+    // Tracks how many stub requests are being served at the same time
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverThreads);
+        server.createContext("/query", this::handle);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/query";
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(50); // slow enough for requests to overlap
+            String query = exchange.getRequestURI().getQuery();
+            if (query.contains("symbol=SLOW")) {
+                Thread.sleep(3000); // longer than the blocking call waits
+            }
+            String body;
+            int status = 200;
+            if (query.contains("symbol=LIMIT")) {
+                body = "{\"Note\":\"Thank you for using Alpha Vantage! Our standard API call frequency is 5 calls per minute.\"}";
+            } else if (query.contains("symbol=DOWN")) {
+                body = "oops";
+                status = 503;
+            } else {
+                // Newest first, like the real API
+                body = "{\"Meta Data\":{\"2. Symbol\":\"IBM\"},\"Time Series (Daily)\":{"
+                        + "\"2025-09-03\":{\"1. open\":\"1\",\"4. close\":\"103.5\"},"
+                        + "\"2025-09-02\":{\"1. open\":\"1\",\"4. close\":\"102.0\"},"
+                        + "\"2025-09-01\":{\"1. open\":\"1\",\"4. close\":\"101.25\"}}}";
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private AlphaVantageClient client(int maxConcurrent, int requestsPerMinute, int burst) {
+        return new AlphaVantageClient("test-key", baseUrl, maxConcurrent, requestsPerMinute, burst, 5, registry);
+    }
+
+    @Test
+    @DisplayName("Blocking call parses the shared format oldest first")
+    void parsesDailySeriesOldestFirst() throws Exception {
+        AlphaVantageClient client = client(2, 6000, 10);
+
+        List<AlphaVantagePriceDTO> dtos = client.getDailyPriceDTOs("IBM");
+        List<Double> closes = client.getDailyPrices("IBM");
+
+        assertEquals(3, dtos.size());
+        assertEquals(LocalDate.of(2025, 9, 1), dtos.get(0).getTradingDate());
+        assertEquals(101.25, dtos.get(0).getClosingPrice());
+        assertEquals(List.of(101.25, 102.0, 103.5), closes);
+    }
+
+    @Test
+    @DisplayName("fetchMany runs symbols in parallel but never above the concurrency limit")
+    void fetchManyRespectsConcurrencyLimit() throws Exception {
+        AlphaVantageClient client = client(3, 60_000, 100);
+        List<String> symbols = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            symbols.add("SYM" + i);
+        }
+
+        Map<String, CompletableFuture<List<AlphaVantagePriceDTO>>> futures = client.fetchMany(symbols);
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(12, futures.size());
+        assertEquals(12, requests.get());
+        assertTrue(maxInFlight.get() <= 3, "max in flight was " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "requests should overlap");
+        futures.values().forEach(f -> assertEquals(3, f.join().size()));
+    }
+
+    @Test
+    @DisplayName("Quota notes and HTTP errors fail only their own symbol and are counted by outcome")
+    void errorsFailOnlyTheirSymbol() {
+        AlphaVantageClient client = client(4, 60_000, 100);
+
+        Map<String, CompletableFuture<List<AlphaVantagePriceDTO>>> futures = client.fetchMany(List.of("IBM", "LIMIT", "DOWN"));
+
+        assertEquals(3, futures.get("IBM").join().size());
+        ExecutionException limit = assertThrows(ExecutionException.class, () -> futures.get("LIMIT").get());
+        assertTrue(limit.getCause() instanceof IOException);
+        assertTrue(limit.getCause().getMessage().contains("call frequency"));
+        ExecutionException down = assertThrows(ExecutionException.class, () -> futures.get("DOWN").get());
+        assertTrue(down.getCause().getMessage().contains("HTTP 503"));
+        assertThrows(IOException.class, () -> client.getDailyPriceDTOs("LIMIT"));
+
+        assertEquals(1, registry.get("alphavantage.request").tag("outcome", "success").timer().count());
+        assertEquals(2, registry.get("alphavantage.request").tag("outcome", "api_error").timer().count());
+        assertEquals(1, registry.get("alphavantage.request").tag("outcome", "http_error").timer().count());
+        assertEquals(4, registry.get("alphavantage.ratelimit.wait").timer().count());
+    }
+
+    @Test
+    @DisplayName("Token bucket allows the burst, then spaces requests at the quota rate")
+    void tokenBucketSpacesRequests() {
+        AtomicLong now = new AtomicLong(0);
+        // 60 per minute = one token per second, bucket of 2
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 2, now::get);
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        assertEquals(0, limiter.tryTake());
+        assertEquals(0, limiter.tryTake());
+        assertEquals(second, limiter.tryTake()); // bucket empty: next token in one second
+        now.set(second / 2);
+        assertEquals(second / 2, limiter.tryTake()); // half refilled, nothing taken by asking
+
+        now.set(10 * second); // a long idle period refills only up to capacity
+        assertEquals(0, limiter.tryTake());
+        assertEquals(0, limiter.tryTake());
+        assertEquals(second, limiter.tryTake());
+    }
+
+    @Test
+    @DisplayName("The blocking call gives up after maxWaitSeconds when the rate limit queue is too long")
+    void blockingCallTimesOut() throws Exception {
+        // One request a minute: the second call would wait about a minute for its token
+        AlphaVantageClient client = new AlphaVantageClient("test-key", baseUrl, 1, 1, 1, 5, 1, registry);
+        assertEquals(3, client.getDailyPriceDTOs("IBM").size());
+
+        long started = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> client.getDailyPriceDTOs("IBM"));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started) < 5);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    @DisplayName("A timed out call gives back its concurrency slot, so the next call is not held up")
+    void timedOutCallReleasesSlot() throws Exception {
+        // One request at a time; SLOW answers after 3 s but callers wait 1 s
+        AlphaVantageClient client = new AlphaVantageClient("test-key", baseUrl, 1, 6000, 10, 5, 1, registry);
+        assertThrows(HttpTimeoutException.class, () -> client.getDailyPriceDTOs("SLOW"));
+
+        // Still queued behind SLOW's slot this would time out as well
+        assertEquals(3, client.getDailyPriceDTOs("IBM").size());
+    }
+
+    @Test
+    @DisplayName("A timed out call waiting for a rate limit token gives it to the next caller")
+    void timedOutCallReleasesToken() throws Exception {
+        // One token every 1.5 s: the second call would get its token at 1.5 s, after giving up at 1 s
+        AlphaVantageClient client = new AlphaVantageClient("test-key", baseUrl, 4, 40, 1, 5, 1, registry);
+        assertEquals(3, client.getDailyPriceDTOs("IBM").size());
+        assertThrows(HttpTimeoutException.class, () -> client.getDailyPriceDTOs("IBM"));
+
+        // The abandoned call no longer holds the 1.5 s token, so this one gets it about 0.5 s later
+        // instead of queueing behind it until 3 s
+        assertEquals(3, client.getDailyPriceDTOs("IBM").size());
+        assertEquals(2, requests.get()); // the abandoned call was never sent
+    }
+}
@@ -0,0 +1,70 @@
+package com.sakhiya.investment.portfoliomanagement.asset.marketdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Alpha Vantage Daily Parser Test")
+public class AlphaVantageDailyParserTest {
+
+    @Test
+    @DisplayName("Recorded response is parsed oldest first, keeping only the close")
+    void parsesRecordedResponse() throws Exception {
+        byte[] body;
+        try (InputStream in = getClass().getResourceAsStream("/marketdata/time_series_daily_ibm_compact.json")) {
+            body = in.readAllBytes();
+        }
+
+        List<AlphaVantagePriceDTO> dtos = AlphaVantageClient.parseDailySeries(body);
+
+        assertEquals(5, dtos.size());
+        assertEquals(LocalDate.of(2025, 8, 29), dtos.get(0).getTradingDate());
+        assertEquals(243.49, dtos.get(0).getClosingPrice());
+        assertEquals(LocalDate.of(2025, 9, 5), dtos.get(4).getTradingDate());
+        assertEquals(248.53, dtos.get(4).getClosingPrice());
+    }
+
+    @Test
+    @DisplayName("Unordered and repeated dates are sorted and the last value wins")
+    void sortsUnorderedDates() throws Exception {
+        String json = "{\"Time Series (Daily)\":{"
+                + "\"2024-01-03\":{\"4. close\":\"3\"},"
+                + "\"2024-01-01\":{\"4. close\":1},"
+                + "\"2024-01-03\":{\"4. close\":\"3.5\"},"
+                + "\"2024-01-02\":{\"1. open\":\"9\"},"   // no close: skipped
+                + "\"2024-01-04\":{\"4. close\":\"4\",\"extra\":{\"nested\":[1,2]}}}}";
+
+        DailyCloseBuffer buffer = AlphaVantageDailyParser.parse(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3, buffer.size());
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), buffer.epochDayAt(0));
+        assertEquals(1.0, buffer.closeAt(0));
+        assertEquals(3.5, buffer.closeAt(1));
+        assertEquals(4.0, buffer.closeAt(2));
+    }
+
+    @Test
+    @DisplayName("Provider messages and malformed bodies become IOExceptions")
+    void reportsErrors() {
+        IOException note = assertThrows(IOException.class,
+                () -> parse("{\"Note\":\"Our standard API call frequency is 5 calls per minute.\"}"));
+        assertTrue(note.getMessage().contains("call frequency"));
+        IOException error = assertThrows(IOException.class,
+                () -> parse("{\"Error Message\":\"Invalid API call.\"}"));
+        assertTrue(error.getMessage().contains("Invalid API call"));
+        assertThrows(IOException.class, () -> parse("{\"Time Series (Daily)\":{\"2024-01-0"));
+        assertThrows(IOException.class, () -> parse("{\"Time Series (Daily)\":{\"2024-02-30\":{\"4. close\":\"1\"}}}"));
+        assertThrows(IOException.class, () -> parse("{\"Time Series (Daily)\":{\"2024-02-01\":{\"4. close\":\"n/a\"}}}"));
+    }
+
+    private static DailyCloseBuffer parse(String json) throws IOException {
+        return AlphaVantageDailyParser.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,153 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.PricePoint;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.riskmanagement.dto.AssetComponentVaRDTO;
+import com.sakhiya.investment.riskmanagement.dto.PortfolioCovarianceVaRDTO;
+
+@DisplayName("Covariance VaR Engine Test")
+public class CovarianceVaREngineTest {
+
+    private static final double DELTA = 1e-9;
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    private final CovarianceVaREngine engine = new CovarianceVaREngine();
+
+    @Test
+    @DisplayName("Blocked covariance matches the naive triple loop across block boundaries")
+    void blockedCovarianceMatchesNaive() {
+        Random random = new Random(42);
+        int n = CovarianceVaREngine.ASSET_BLOCK * 2 + 5; // partial last tile
+        int t = CovarianceVaREngine.TIME_BLOCK * 2 + 7; // partial last time block
+        double[][] x = new double[n][t];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < t; k++) {
+                x[i][k] = random.nextGaussian() * 0.01;
+            }
+        }
+
+        double[][] blocked = CovarianceVaREngine.covariance(x);
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double expected = 0;
+                for (int k = 0; k < t; k++) {
+                    expected += x[i][k] * x[j][k];
+                }
+                assertEquals(expected / (t - 1), blocked[i][j], 1e-15);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Component VaRs add up to portfolio VaR and diversification lowers the loss")
+    void componentsSumToPortfolioVaR() {
+        Random random = new Random(7);
+        List<Asset> assets = new ArrayList<>();
+        Map<String, PriceSeries> series = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            Asset asset = new Asset("Asset " + i, 1000.0 * (i + 1), null);
+            assets.add(asset);
+            series.put(asset.getAssetId(), randomWalk(asset.getAssetId(), random, 300));
+        }
+
+        PortfolioCovarianceVaRDTO result = engine.calculate("p1", assets, series, 0.95, 10, null);
+
+        assertEquals(5, result.getAssetCount());
+        assertEquals(299, result.getObservationCount());
+        double sum = result.getAssets().stream().mapToDouble(AssetComponentVaRDTO::getComponentVaR).sum();
+        assertEquals(result.getPortfolioVaR(), sum, 1e-6);
+        assertTrue(result.getPortfolioVaR() < 0); // loss
+        // Independent random walks: the combined loss is smaller than the sum of the standalone losses
+        assertTrue(result.getPortfolioVaR() > result.getUndiversifiedVaR());
+        assertTrue(result.getDiversificationBenefit() > 0);
+    }
+
+    @Test
+    @DisplayName("Two identical assets behave like one position (no diversification)")
+    void perfectlyCorrelatedAssetsMatchSingleAsset() {
+        Random random = new Random(3);
+        Asset a = new Asset("A", 500.0, null);
+        Asset b = new Asset("B", 1500.0, null);
+        PriceSeries prices = randomWalk("x", random, 100);
+        Map<String, PriceSeries> series = Map.of(a.getAssetId(), prices, b.getAssetId(), prices);
+
+        PortfolioCovarianceVaRDTO result = engine.calculate("p1", List.of(a, b), series, 0.99, 1, null);
+
+        // Same formula as RiskService for a single 2000 position
+        double[] returns = prices.returns();
+        double mean = Arrays.stream(returns).average().orElse(0);
+        double sd = Math.sqrt(Arrays.stream(returns).map(r -> (r - mean) * (r - mean)).sum() / (returns.length - 1));
+        double expected = 2000.0 * (mean + RiskService.getZScore(0.99) * sd);
+        assertEquals(expected, result.getPortfolioVaR(), DELTA);
+        assertEquals(result.getUndiversifiedVaR(), result.getPortfolioVaR(), DELTA);
+    }
+
+    @Test
+    @DisplayName("Only dates shared by every asset are used and unusable assets are excluded")
+    void alignsOnCommonDatesAndExcludesAssets() {
+        Asset a = new Asset("A", 100.0, null);
+        Asset b = new Asset("B", 100.0, null);
+        Asset noHistory = new Asset("C", 100.0, null);
+        Asset noValue = new Asset("D", null, null);
+        // a trades every day 0..9, b only on even days 2..12
+        List<PricePoint> aPoints = new ArrayList<>();
+        for (int d = 0; d < 10; d++) {
+            aPoints.add(new PricePoint(a.getAssetId(), START.plusDays(d), 100.0 + d));
+        }
+        List<PricePoint> bPoints = new ArrayList<>();
+        for (int d = 2; d <= 12; d += 2) {
+            bPoints.add(new PricePoint(b.getAssetId(), START.plusDays(d), 50.0 + d));
+        }
+        Map<String, PriceSeries> series = Map.of(
+                a.getAssetId(), PriceSeries.fromPoints(aPoints),
+                b.getAssetId(), PriceSeries.fromPoints(bPoints),
+                noValue.getAssetId(), PriceSeries.fromPoints(aPoints));
+
+        PortfolioCovarianceVaRDTO result = engine.calculate("p1", List.of(a, b, noHistory, noValue), series, 0.90, 1, null);
+
+        assertEquals(2, result.getAssetCount());
+        assertEquals(START.plusDays(2), result.getWindowStart());
+        assertEquals(START.plusDays(8), result.getWindowEnd());
+        assertEquals(3, result.getObservationCount()); // days 2,4,6,8
+        assertEquals(2, result.getExcludedAssets().size());
+        // Returns are taken between common days, so a's first aligned return spans day 2 -> day 4
+        int[] common = CovarianceVaREngine.commonDays(List.of(series.get(a.getAssetId()), series.get(b.getAssetId())));
+        double[][] returns = CovarianceVaREngine.alignedReturns(List.of(series.get(a.getAssetId())), common);
+        assertEquals((104.0 - 102.0) / 102.0, returns[0][0], DELTA);
+    }
+
+    @Test
+    @DisplayName("Unsupported confidence level and too little overlap are rejected")
+    void rejectsInvalidInput() {
+        Asset a = new Asset("A", 100.0, null);
+        Map<String, PriceSeries> series = Map.of(a.getAssetId(), randomWalk("a", new Random(1), 2));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.calculate("p1", List.of(a), series, 1.0, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> engine.calculate("p1", List.of(a), series, 0.95, 1, null));
+    }
+
+    private static PriceSeries randomWalk(String assetId, Random random, int days) {
+        List<PricePoint> points = new ArrayList<>();
+        double price = 100.0;
+        for (int d = 0; d < days; d++) {
+            points.add(new PricePoint(assetId, START.plusDays(d), price));
+            price *= 1 + random.nextGaussian() * 0.02;
+        }
+        return PriceSeries.fromPoints(points);
+    }
+}
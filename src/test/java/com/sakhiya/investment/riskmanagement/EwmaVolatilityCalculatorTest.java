@@ -0,0 +1,79 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakhiya.investment.portfoliomanagement.asset.PricePoint;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+
+@DisplayName("EWMA Volatility Calculator Test")
+public class EwmaVolatilityCalculatorTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    private final EwmaVolatilityCalculator calculator = new EwmaVolatilityCalculator(0.94);
+
+    @Test
+    @DisplayName("Series pass, returns-array pass and the running statistics agree")
+    void matchesRecursion() {
+        PriceSeries series = randomWalk(500, 3);
+        double[] returns = series.returns();
+
+        double expected = 0;
+        for (int i = 0; i < returns.length; i++) {
+            expected = i == 0 ? returns[0] * returns[0] : 0.97 * expected + 0.03 * returns[i] * returns[i];
+        }
+        assertEquals(expected, EwmaVolatilityCalculator.variance(returns, 0, returns.length, 0.97), TOLERANCE);
+        assertEquals(Math.sqrt(expected), calculator.volatility("A", series, 0.97, null), TOLERANCE);
+        // Default lambda over the whole history is read from ReturnStatistics
+        assertEquals(series.statistics().ewmaVolatility(), calculator.volatility("A", series, null, null), TOLERANCE);
+        assertEquals(Math.sqrt(EwmaVolatilityCalculator.variance(returns, 0, returns.length, 0.94)),
+                series.statistics().ewmaVolatility(), TOLERANCE);
+        // A lookback restarts the recursion at the first return of the window
+        assertEquals(Math.sqrt(EwmaVolatilityCalculator.variance(returns, returns.length - 60, returns.length, 0.94)),
+                calculator.volatility("A", series, 0.94, 60), TOLERANCE);
+    }
+
+    @Test
+    @DisplayName("Cached values are reused for the same snapshot and recomputed for a new one")
+    void cachesPerSnapshot() {
+        PriceSeries series = randomWalk(300, 5);
+        double first = calculator.volatility("A", series, 0.9, null);
+        assertEquals(first, calculator.volatility("A", series, 0.9, null));
+        assertNotEquals(first, calculator.volatility("A", series, 0.8, null));
+
+        PriceSeries moved = randomWalk(300, 6);
+        double[] returns = moved.returns();
+        assertEquals(Math.sqrt(EwmaVolatilityCalculator.variance(returns, 0, returns.length, 0.9)),
+                calculator.volatility("A", moved, 0.9, null), TOLERANCE);
+    }
+
+    @Test
+    @DisplayName("Lambda outside (0, 1) is rejected")
+    void rejectsBadLambda() {
+        PriceSeries series = randomWalk(10, 1);
+        assertThrows(IllegalArgumentException.class, () -> calculator.volatility("A", series, 1.0, null));
+        assertThrows(IllegalArgumentException.class, () -> calculator.volatility("A", series, 0.0, null));
+        assertThrows(IllegalArgumentException.class, () -> new EwmaVolatilityCalculator(Double.NaN));
+        assertEquals(VaRMethod.EWMA, VaRMethod.fromParam("ewma"));
+    }
+
+    private static PriceSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        List<PricePoint> points = new ArrayList<>();
+        LocalDate day = LocalDate.of(2020, 1, 1);
+        double price = 100.0;
+        for (int i = 0; i < size; i++) {
+            price *= 1 + random.nextGaussian() * 0.02;
+            points.add(new PricePoint("A", day.plusDays(i), price));
+        }
+        return PriceSeries.fromPoints(points);
+    }
+}
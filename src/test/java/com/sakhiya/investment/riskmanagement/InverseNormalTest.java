@@ -0,0 +1,45 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Inverse Normal Test")
+public class InverseNormalTest {
+
+    @Test
+    @DisplayName("Quantiles match reference values in the centre and both tails")
+    void matchesReferenceValues() {
+        assertEquals(0.0, InverseNormal.quantile(0.5), 1e-12);
+        assertEquals(1.0, InverseNormal.quantile(0.8413447460685429), 1e-8);
+        assertEquals(-2.0537489106318225, InverseNormal.quantile(0.02), 1e-8);
+        assertEquals(3.7190164854556804, InverseNormal.quantile(0.9999), 1e-8);
+        assertEquals(-4.753424308822899, InverseNormal.quantile(1e-6), 1e-7);
+        // Symmetry
+        for (double p : new double[] { 0.001, 0.01, 0.2, 0.37 }) {
+            assertEquals(-InverseNormal.quantile(p), InverseNormal.quantile(1 - p), 1e-8);
+        }
+    }
+
+    @Test
+    @DisplayName("Lookup table agrees with the approximation and tolerates rounding")
+    void tableMatchesApproximation() {
+        for (double level : new double[] { 0.90, 0.95, 0.975, 0.99, 0.995, 0.999 }) {
+            assertEquals(InverseNormal.acklam(level), InverseNormal.quantile(level), 1e-8);
+            assertEquals(InverseNormal.acklam(1 - level), InverseNormal.quantile(1 - level), 1e-8);
+        }
+        assertEquals(1.6448536269514722, InverseNormal.quantile(0.1 + 0.85), 0.0);
+    }
+
+    @Test
+    @DisplayName("Any confidence level in (0, 1) gives a loss-tail z-score")
+    void zScores() {
+        assertEquals(-1.959963984540054, RiskService.getZScore(0.975), 0.0);
+        assertEquals(-3.090232306167813, RiskService.getZScore(0.999), 0.0);
+        assertTrue(RiskService.getZScore(0.42) > 0); // below 50% the "loss" quantile is above the mean
+        assertThrows(IllegalArgumentException.class, () -> RiskService.getZScore(1.0));
+        assertThrows(IllegalArgumentException.class, () -> RiskService.getZScore(0.0));
+        assertThrows(IllegalArgumentException.class, () -> InverseNormal.quantile(Double.NaN));
+    }
+}
@@ -0,0 +1,142 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sakhiya.investment.portfoliomanagement.Portfolio;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetRepository;
+import com.sakhiya.investment.portfoliomanagement.asset.PricePoint;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.riskmanagement.dto.AssetVaRSummaryDTO;
+import com.sakhiya.investment.riskmanagement.dto.PortfolioVaRBatchResultDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Batch VaR over portfolios (POST /api/risks/var/portfolios): the prices are bulk loaded, every asset
+ * is calculated with the same formula as POST /var and all rows are saved in one batch.
+ */
+@DisplayName("Risk Batch VaR Test")
+public class RiskBatchVaRTest {
+
+    @Mock
+    private RiskRepository riskRepository;
+    @Mock
+    private AssetHistoryService assetHistoryService;
+    @Mock
+    private AssetRepository assetRepository;
+    @Mock
+    private RiskBatchWriter riskBatchWriter;
+
+    private RiskService riskService;
+    private final List<Asset> assets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        riskService = new RiskService(riskRepository, assetHistoryService, new ObjectMapper(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(riskService, "assetRepository", assetRepository);
+        ReflectionTestUtils.setField(riskService, "riskBatchWriter", riskBatchWriter);
+        ReflectionTestUtils.setField(riskService, "detailsStorage", "reference");
+
+        Portfolio portfolio = new Portfolio();
+        ReflectionTestUtils.setField(portfolio, "portfolioId", "p1");
+        Asset withPrices = asset("a1", 1000.0, portfolio);
+        Asset otherPrices = asset("a2", 2500.0, portfolio);
+        Asset noPrices = asset("a3", 500.0, portfolio);
+        Asset noValue = asset("a4", null, portfolio);
+        assets.addAll(List.of(withPrices, otherPrices, noPrices, noValue));
+
+        Map<String, PriceSeries> series = Map.of(
+                "a1", series("a1", 100.0, 110.0, 99.0, 108.9, 104.0),
+                "a2", series("a2", 50.0, 49.0, 51.5, 52.0, 50.5),
+                "a4", series("a4", 10.0, 11.0, 12.0));
+        when(assetRepository.findByPortfolio_PortfolioIdIn(List.of("p1"))).thenReturn(assets);
+        when(assetHistoryService.getPriceSeries(anyCollection())).thenReturn(series);
+        for (Asset asset : assets) {
+            when(assetHistoryService.getPriceSeries(asset.getAssetId()))
+                    .thenReturn(series.getOrDefault(asset.getAssetId(), PriceSeries.EMPTY));
+            when(assetRepository.findById(asset.getAssetId())).thenReturn(Optional.of(asset));
+        }
+        when(riskRepository.save(any(Risk.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(riskBatchWriter.persistAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static Asset asset(String id, Double value, Portfolio portfolio) {
+        Asset asset = new Asset("Asset " + id, value, portfolio);
+        ReflectionTestUtils.setField(asset, "assetId", id);
+        return asset;
+    }
+
+    private static PriceSeries series(String assetId, double... closes) {
+        List<PricePoint> points = new ArrayList<>();
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < closes.length; i++) {
+            points.add(new PricePoint(assetId, day.plusDays(i), closes[i]));
+        }
+        return PriceSeries.fromPoints(points);
+    }
+
+    @Test
+    @DisplayName("Every asset gets the same VaR as the single-asset calculation")
+    void matchesSingleAssetCalculation() {
+        PortfolioVaRBatchResultDTO result = riskService.createAndSaveVaRForPortfolios(List.of("p1", "p1"), 0.95, 10);
+
+        assertEquals(List.of("p1"), result.getPortfolioIds());
+        for (String assetId : List.of("a1", "a2")) {
+            AssetVaRSummaryDTO summary = result.getAssets().stream()
+                    .filter(s -> s.getAssetId().equals(assetId)).findFirst().orElseThrow();
+            Risk single = riskService.calculateAndSaveVaR(assetId, 0.95, 10, VaRMethod.PARAMETRIC,
+                    null, null, null, null).getRisk();
+            assertEquals(single.getValue(), summary.getRawVaR(), 1e-9);
+            assertEquals(single.getReturnCount(), summary.getReturnCount());
+            assertNull(summary.getMessage());
+            assertNotNull(summary.getRiskId());
+        }
+        assertEquals(result.getAssets().get(0).getRawVaR() + result.getAssets().get(1).getRawVaR(),
+                result.getTotalVaR(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Assets without prices or value are reported as skipped, and all rows are saved in one batch")
+    void skipsAndSavesInOneBatch() {
+        PortfolioVaRBatchResultDTO result = riskService.createAndSaveVaRForPortfolios(List.of("p1"), 0.95, 1);
+
+        assertEquals(4, result.getAssetCount());
+        assertEquals(2, result.getCalculatedCount());
+        assertEquals(2, result.getSkippedCount());
+        assertEquals("No price history", result.getAssets().get(2).getMessage());
+        assertEquals("Asset has no value", result.getAssets().get(3).getMessage());
+        assertNull(result.getAssets().get(2).getRiskId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Risk>> saved = ArgumentCaptor.forClass(List.class);
+        verify(riskBatchWriter, times(1)).persistAll(saved.capture());
+        verify(riskRepository, never()).save(any(Risk.class));
+        assertEquals(List.of("a1", "a2"), saved.getValue().stream().map(r -> r.getAsset().getAssetId()).toList());
+        assertEquals(List.of(result.getAssets().get(0).getRiskId(), result.getAssets().get(1).getRiskId()),
+                saved.getValue().stream().map(Risk::getId).toList());
+        // One bulk price load for all assets, no per-asset lookups
+        verify(assetHistoryService, times(1)).getPriceSeries(anyCollection());
+        verify(assetHistoryService, never()).getPriceSeries(anyString());
+    }
+}
@@ -0,0 +1,141 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetRepository;
+import com.sakhiya.investment.portfoliomanagement.asset.PricePoint;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeries;
+import com.sakhiya.investment.riskmanagement.dto.RiskResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.VaRCalculationDetailsDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * VaR rows keep summary columns plus a reference to their return window; the returns themselves
+ * are only rebuilt by getVaRDetails. The calculate methods hand back typed details with the saved row.
+ */
+@DisplayName("Risk Details Storage Test")
+public class RiskDetailsStorageTest {
+
+    private static final String ASSET_ID = "asset-1";
+
+    @Mock
+    private RiskRepository riskRepository;
+    @Mock
+    private AssetHistoryService assetHistoryService;
+    @Mock
+    private AssetRepository assetRepository;
+    @Mock
+    private ScenarioRepository scenarioRepository;
+
+    private RiskService riskService;
+    private Asset asset;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        riskService = new RiskService(riskRepository, assetHistoryService, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(riskService, "assetRepository", assetRepository);
+        ReflectionTestUtils.setField(riskService, "scenarioRepository", scenarioRepository);
+        ReflectionTestUtils.setField(riskService, "ewmaVolatilityCalculator", new EwmaVolatilityCalculator(0.94));
+        ReflectionTestUtils.setField(riskService, "detailsStorage", "reference");
+
+        asset = new Asset("Test", 1000.0, null);
+        ReflectionTestUtils.setField(asset, "assetId", ASSET_ID);
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        PriceSeries series = PriceSeries.fromPoints(List.of(
+                new PricePoint(ASSET_ID, day, 100.0),
+                new PricePoint(ASSET_ID, day.plusDays(1), 110.0),
+                new PricePoint(ASSET_ID, day.plusDays(2), 99.0),
+                new PricePoint(ASSET_ID, day.plusDays(3), 108.9)));
+        when(assetHistoryService.getPriceSeries(ASSET_ID)).thenReturn(series);
+        when(assetRepository.findById(ASSET_ID)).thenReturn(Optional.of(asset));
+        when(riskRepository.save(any(Risk.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("The saved row has typed summary columns and no return list in detailsJson")
+    void storesSummaryAndReference() {
+        Risk risk = riskService.createAndSaveVaR(ASSET_ID, 0.95, 1, VaRMethod.PARAMETRIC, null, null, 2);
+
+        assertEquals("PARAMETRIC", risk.getMethod());
+        assertEquals(2, risk.getReturnCount());
+        assertEquals(2, risk.getLookbackDays());
+        assertEquals(LocalDate.of(2024, 1, 2), risk.getReturnsFrom());
+        assertEquals(LocalDate.of(2024, 1, 4), risk.getReturnsTo());
+        assertEquals(0.0, risk.getMeanReturn(), 1e-12); // -10% then +10%
+        assertFalse(risk.getDetailsJson().contains("\"returns\""));
+        assertTrue(risk.getDetailsJson().contains("\"returnsFrom\":\"2024-01-02\""));
+    }
+
+    @Test
+    @DisplayName("The typed result carries the same details that were written to detailsJson; calculations are timed")
+    void returnsTypedDetails() {
+        RiskResultDTO<VaRCalculationDetailsDTO> result =
+                riskService.calculateAndSaveVaR(ASSET_ID, 0.99, 10, VaRMethod.EWMA, null, null, null, 0.9);
+
+        assertEquals(result.getRisk().getValue(), result.getDetails().getRawVaR(), 1e-12);
+        assertEquals(0.9, result.getDetails().getLambda());
+        assertTrue(result.getRisk().getDetailsJson().contains("\"lambda\":0.9"));
+        assertEquals("{\"shockFactor\":-0.3}", riskService.runStressTest(asset, "Market Crash").getRisk().getDetailsJson());
+
+        // Both calculations are timed; a rejected request is timed as an error
+        assertThrows(IllegalArgumentException.class,
+                () -> riskService.calculateAndSaveVaR(ASSET_ID, 0.99, 10, VaRMethod.EWMA, null, null, 1, null));
+        assertEquals(1, meterRegistry.get("risk.var.calculation").tags("method", "ewma", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("risk.var.calculation").tags("method", "ewma", "outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get("risk.stress.calculation").tag("source", "builtin").timer().count());
+    }
+
+    @Test
+    @DisplayName("getVaRDetails rebuilds the window's returns, flags a window that changed; inline storage keeps them in the row")
+    void rebuildsReturnsOnRequest() {
+        Risk risk = riskService.createAndSaveVaR(ASSET_ID, 0.95, 1, VaRMethod.PARAMETRIC, null, null, 2);
+        risk.setAsset(asset);
+        when(riskRepository.findById(risk.getId())).thenReturn(Optional.of(risk));
+
+        VaRCalculationDetailsDTO details = riskService.getVaRDetails(risk.getId());
+
+        assertEquals(2, details.getReturns().size());
+        assertEquals(-0.1, details.getReturns().get(0), 1e-12);
+        assertEquals(0.1, details.getReturns().get(1), 1e-12);
+        assertEquals(risk.getValue(), details.getRawVaR(), 1e-12);
+        assertNull(riskService.getVaRDetails(risk.getId(), false).getReturns());
+        assertEquals(Boolean.FALSE, details.getWindowChanged());
+
+        // A price deleted inside the window: the rebuilt vector would differ from the one the VaR used
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        when(assetHistoryService.getPriceSeries(ASSET_ID)).thenReturn(PriceSeries.fromPoints(List.of(
+                new PricePoint(ASSET_ID, day, 100.0),
+                new PricePoint(ASSET_ID, day.plusDays(1), 110.0),
+                new PricePoint(ASSET_ID, day.plusDays(3), 108.9))));
+        VaRCalculationDetailsDTO changed = riskService.getVaRDetails(risk.getId());
+        assertNull(changed.getReturns());
+        assertEquals(Boolean.TRUE, changed.getWindowChanged());
+
+        ReflectionTestUtils.setField(riskService, "detailsStorage", "inline");
+        Risk inline = riskService.createAndSaveVaR(ASSET_ID, 0.95, 1, VaRMethod.PARAMETRIC, null, null, null);
+        assertTrue(inline.getDetailsJson().contains("\"returns\":[0.1,"));
+
+        Risk stress = new Risk("StressTest", "Crash", 700.0, asset);
+        when(riskRepository.findById(stress.getId())).thenReturn(Optional.of(stress));
+        assertThrows(IllegalArgumentException.class, () -> riskService.getVaRDetails(stress.getId()));
+    }
+}
@@ -0,0 +1,295 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetRepository;
+import com.sakhiya.investment.riskmanagement.dto.RiskJobDTO;
+import com.sakhiya.investment.riskmanagement.dto.RiskJobRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.RiskResultDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Risk jobs run on the service's own worker pool; the repository is an in-memory map so the test
+ * can poll the job like a client would.
+ */
+@DisplayName("Risk Job Service Test")
+public class RiskJobServiceTest {
+
+    @Mock
+    private RiskJobRepository jobRepository;
+    @Mock
+    private RiskService riskService;
+    @Mock
+    private AssetRepository assetRepository;
+
+    private final Map<String, RiskJob> jobs = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RiskJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(jobRepository.save(any(RiskJob.class))).thenAnswer(invocation -> {
+            RiskJob job = invocation.getArgument(0);
+            jobs.put(job.getJobId(), job);
+            return job;
+        });
+        when(jobRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.getArgument(0))));
+        // The conditional cancel of the database: only jobs still in one of the given statuses change
+        when(jobRepository.cancelIfIn(anyString(), anyCollection(), any(), any())).thenAnswer(invocation -> {
+            RiskJob job = jobs.get(invocation.getArgument(0));
+            if (job == null || !invocation.<Collection<?>>getArgument(1).contains(job.getStatus())) {
+                return 0;
+            }
+            job.setStatus(invocation.getArgument(2));
+            job.setFinishedAt(invocation.getArgument(3));
+            return 1;
+        });
+        // The worker's conditional updates, against the map like the database would
+        when(jobRepository.markRunning(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            RiskJob job = jobs.get(invocation.getArgument(0));
+            if (job == null || job.getStatus() != invocation.getArgument(1)) {
+                return 0;
+            }
+            job.setStatus(invocation.getArgument(2));
+            job.setStartedAt(invocation.getArgument(3));
+            return 1;
+        });
+        when(jobRepository.saveProgress(anyString(), any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            RiskJob job = jobs.get(invocation.getArgument(0));
+            if (job == null || job.getStatus() != invocation.getArgument(1)) {
+                return 0;
+            }
+            job.setCompletedItems(invocation.getArgument(2));
+            job.setFailedItems(invocation.getArgument(3));
+            return 1;
+        });
+        when(jobRepository.finish(anyString(), any(), any(), anyInt(), anyInt(), any(), any(), any())).thenAnswer(invocation -> {
+            RiskJob job = jobs.get(invocation.getArgument(0));
+            if (job == null || job.getStatus() != invocation.getArgument(1)) {
+                return 0;
+            }
+            // Results before status, as the single UPDATE makes them visible together
+            job.setCompletedItems(invocation.getArgument(3));
+            job.setFailedItems(invocation.getArgument(4));
+            job.setResultJson(invocation.getArgument(5));
+            job.setErrorMessage(invocation.getArgument(6));
+            job.setFinishedAt(invocation.getArgument(7));
+            job.setStatus(invocation.getArgument(2));
+            return 1;
+        });
+        when(assetRepository.findAllById(anyList())).thenReturn(List.of(asset("a1"), asset("a2"), asset("a3")));
+        jobService = new RiskJobService(jobRepository, riskService, assetRepository, new ObjectMapper(),
+                meterRegistry, 1, 1, 1, 1000, "node-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    private static Asset asset(String id) {
+        Asset asset = new Asset(id, 1000.0, null);
+        ReflectionTestUtils.setField(asset, "assetId", id);
+        return asset;
+    }
+
+    private static RiskJobRequestDTO varRequest() {
+        RiskJobRequestDTO request = new RiskJobRequestDTO();
+        request.setType("var");
+        request.setAssetIds(List.of("a1", "a2", "a3"));
+        request.setConfidenceLevel(0.99);
+        request.setTimeHorizonDays(10);
+        request.setMethod("historical");
+        return request;
+    }
+
+    private static RiskResultDTO<?> result(String assetId, double value) {
+        return new RiskResultDTO<>(new Risk("VaR", assetId, value, null), null);
+    }
+
+    private RiskJobDTO awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            RiskJobDTO job = jobService.getJob(jobId, true);
+            if (RiskJob.Status.valueOf(job.getStatus()).isFinished()) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("Job " + jobId + " did not finish");
+        return null;
+    }
+
+    @Test
+    @DisplayName("A VaR job returns at once and ends with one result per asset; failed assets do not stop it")
+    void runsJobInBackground() throws Exception {
+        doReturn(result("a1", -10.0)).when(riskService).calculateAndSaveVaR(eq("a1"), eq(0.99), eq(10),
+                eq(VaRMethod.HISTORICAL), any(), any(), any(), any());
+        doThrow(new IllegalArgumentException("No price history")).when(riskService).calculateAndSaveVaR(eq("a2"),
+                anyDouble(), anyInt(), any(), any(), any(), any(), any());
+        doReturn(result("a3", -30.0)).when(riskService).calculateAndSaveVaR(eq("a3"), anyDouble(), anyInt(),
+                any(), any(), any(), any(), any());
+
+        RiskJobDTO submitted = jobService.submit(varRequest());
+        assertEquals(3, submitted.getTotalItems());
+        assertEquals("historical", submitted.getParameters().getMethod());
+
+        RiskJobDTO finished = awaitFinished(submitted.getJobId());
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertEquals(2, finished.getCompletedItems());
+        assertEquals(1, finished.getFailedItems());
+        assertEquals(1.0, finished.getProgress());
+        assertEquals(3, finished.getResults().size());
+        assertEquals(-10.0, finished.getResults().get(0).getValue());
+        assertEquals("No price history", finished.getResults().get(1).getError());
+        assertNull(jobService.getJob(submitted.getJobId(), false).getResults());
+        assertEquals(1, meterRegistry.get("risk.job").tags("type", "var", "status", "succeeded").timer().count());
+    }
+
+    @Test
+    @DisplayName("A stress test job looks up its library scenario once, not once per asset")
+    void stressTestJobResolvesScenarioOnce() throws Exception {
+        Scenario crash = new Scenario("Crash", null);
+        when(riskService.findLibraryScenario("Crash")).thenReturn(Optional.of(crash));
+        doReturn(result("a1", 700.0)).when(riskService).runStressTest(any(Asset.class), eq("Crash"), same(crash));
+        RiskJobRequestDTO request = new RiskJobRequestDTO();
+        request.setType("stress-test");
+        request.setAssetIds(List.of("a1", "a2", "a3"));
+        request.setScenario("Crash");
+
+        RiskJobDTO finished = awaitFinished(jobService.submit(request).getJobId());
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertEquals(3, finished.getCompletedItems());
+        verify(riskService, times(1)).findLibraryScenario("Crash");
+        verify(riskService, times(3)).runStressTest(any(Asset.class), eq("Crash"), same(crash));
+        verify(riskService, never()).runStressTest(any(Asset.class), anyString());
+    }
+
+    @Test
+    @DisplayName("Cancelling stops a running job before its next asset and a queued job before it starts")
+    void cancelsJobs() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return result("a1", -10.0);
+        }).when(riskService).calculateAndSaveVaR(anyString(), anyDouble(), anyInt(), any(), any(), any(), any(), any());
+
+        RiskJobDTO running = jobService.submit(varRequest());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // One worker and a queue of one: the second job waits, a third is rejected
+        RiskJobDTO queued = jobService.submit(varRequest());
+        assertThrows(java.util.concurrent.RejectedExecutionException.class, () -> jobService.submit(varRequest()));
+
+        assertEquals("CANCELLED", jobService.cancel(queued.getJobId()).getStatus());
+        RiskJobDTO cancelling = jobService.cancel(running.getJobId());
+        assertEquals("RUNNING", cancelling.getStatus());
+        assertTrue(cancelling.isCancelRequested());
+        release.countDown();
+
+        RiskJobDTO finished = awaitFinished(running.getJobId());
+        assertEquals("CANCELLED", finished.getStatus());
+        assertEquals(1, finished.getResults().size());
+        assertThrows(IllegalStateException.class, () -> jobService.cancel(running.getJobId()));
+    }
+
+    @Test
+    @DisplayName("A job cancelled on another instance stops at its next progress save and stays CANCELLED")
+    void stopsWhenCancelledElsewhere() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return result("a1", -10.0);
+        }).when(riskService).calculateAndSaveVaR(anyString(), anyDouble(), anyInt(), any(), any(), any(), any(), any());
+
+        RiskJobDTO running = jobService.submit(varRequest());
+        assertEquals("node-1", jobs.get(running.getJobId()).getOwnerInstance());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // What cancel() on an instance without the job does: a conditional update of the row only
+        jobs.get(running.getJobId()).setStatus(RiskJob.Status.CANCELLED);
+        release.countDown();
+
+        // The row was finished by the cancel; wait for the worker to add its results
+        for (int i = 0; i < 500 && jobs.get(running.getJobId()).getResultJson() == null; i++) {
+            Thread.sleep(10);
+        }
+        RiskJobDTO finished = jobService.getJob(running.getJobId(), true);
+        assertEquals("CANCELLED", finished.getStatus());
+        assertEquals(1, finished.getResults().size()); // progress every asset: stopped after the first
+        verify(riskService, times(1)).calculateAndSaveVaR(anyString(), anyDouble(), anyInt(), any(), any(), any(),
+                any(), any());
+        verify(jobRepository, times(1)).save(any(RiskJob.class)); // only the QUEUED row at submit
+    }
+
+    @Test
+    @DisplayName("At startup only this instance's unfinished jobs are failed")
+    void failsOnlyOwnJobsAtStartup() {
+        jobService.failInterruptedJobs();
+        verify(jobRepository).failAll(anyCollection(), eq(RiskJob.Status.FAILED), anyString(), any(), eq("node-1"));
+    }
+
+    @Test
+    @DisplayName("Cancelling a job that finished after it was read does not overwrite its status or results")
+    void cancelDoesNotOverwriteFinishedJob() {
+        RiskJob finished = new RiskJob(RiskJob.Type.VAR, null, 3);
+        finished.setJobId("finished");
+        finished.setStatus(RiskJob.Status.SUCCEEDED);
+        finished.setResultJson("[]");
+        jobs.put("finished", finished);
+        // What cancel() reads is the row as it was just before the worker saved the final status
+        RiskJob stale = new RiskJob(RiskJob.Type.VAR, null, 3);
+        stale.setJobId("finished");
+        stale.setStatus(RiskJob.Status.RUNNING);
+        when(jobRepository.findById("finished")).thenReturn(Optional.of(stale), Optional.of(finished));
+
+        assertThrows(IllegalStateException.class, () -> jobService.cancel("finished"));
+        assertEquals(RiskJob.Status.SUCCEEDED, jobs.get("finished").getStatus());
+        assertEquals("[]", jobs.get("finished").getResultJson());
+        verify(jobRepository, never()).save(any(RiskJob.class));
+    }
+
+    @Test
+    @DisplayName("Invalid jobs are rejected before anything is queued")
+    void validatesRequests() {
+        RiskJobRequestDTO request = varRequest();
+        request.setType("cva");
+        assertThrows(IllegalArgumentException.class, () -> jobService.submit(request));
+        request.setType("var");
+        request.setConfidenceLevel(1.5);
+        assertThrows(IllegalArgumentException.class, () -> jobService.submit(request));
+        request.setConfidenceLevel(0.99);
+        request.setAssetIds(List.of("a1", "missing"));
+        assertThrows(NoSuchElementException.class, () -> jobService.submit(request));
+        RiskJobRequestDTO stress = new RiskJobRequestDTO();
+        stress.setType("stress-test");
+        stress.setAssetIds(List.of("a1"));
+        assertThrows(IllegalArgumentException.class, () -> jobService.submit(stress));
+        assertThrows(NoSuchElementException.class, () -> jobService.getJob("unknown", true));
+        assertTrue(jobs.isEmpty());
+    }
+}
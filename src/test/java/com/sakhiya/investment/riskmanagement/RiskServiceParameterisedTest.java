@@ -3,13 +3,16 @@ package com.sakhiya.investment.riskmanagement;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.extension.ExtendWith;
 
@@ -22,6 +25,11 @@ class RiskServiceParameterisedTest {
 
     @Mock
     private AssetHistoryService assetHistoryService;
+    // Real mapper and registry for RiskService's constructor; @InjectMocks hands it mocks and spies
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private RiskService riskService;
@@ -93,9 +101,10 @@ class RiskServiceParameterisedTest {
         List<Double> syntheticReturns = List.of(expectedMean - offset, expectedMean, expectedMean + offset);
 
         // Mocking historical returns. varCalculator calls
-        // assetHistoryService.getHistoricalReturns(assetId), don't run the real method.
-        // just give it this fake syntheticReturnslist I prepared.
-        when(assetHistoryService.getHistoricalReturns(assetId)).thenReturn(syntheticReturns);
+        // assetHistoryService.getHistoricalReturnsArray(assetId), don't run the real method.
+        // just give it this fake syntheticReturnslist I prepared (as a primitive array).
+        when(assetHistoryService.getHistoricalReturnsArray(assetId))
+                .thenReturn(syntheticReturns.stream().mapToDouble(Double::doubleValue).toArray());
 
         // Calling the service method, the real method in RiskService
         double actualVar = riskService.varCalculator(assetId, assetValue, confidenceLevel, timeHorizonDays);
@@ -139,14 +148,14 @@ class RiskServiceParameterisedTest {
                 "VaR calculation mismatch for asset: " + assetId);
     }
 
-    // Helper to get Z-score for confidence level
+    // Helper to get Z-score for confidence level (exact normal quantiles)
     private double getZScore(double confidenceLevel) {
         if (confidenceLevel == 0.99)
-            return -2.33;
+            return -2.3263478740408408;
         if (confidenceLevel == 0.95)
-            return -1.65;
+            return -1.6448536269514722;
         if (confidenceLevel == 0.9)
-            return -1.2816;
+            return -1.2815515655446004;
         throw new IllegalArgumentException("Unsupported confidence level: " + confidenceLevel);
     }
 }
@@ -11,10 +11,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
 import com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistoryRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 public class RiskServiceTest {
      // Tells Mockito to create a mock UserRepository. Mockito will create a fake
     // version of UserRepository for the test.
@@ -23,6 +27,11 @@ public class RiskServiceTest {
     private AssetPriceHistoryRepository assetPriceHistoryRepository;
     @Mock
     private AssetHistoryService assetHistoryService ;
+    // Real mapper and registry for RiskService's constructor; @InjectMocks hands it mocks and spies
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private RiskService riskService;
     
@@ -46,8 +55,9 @@ public class RiskServiceTest {
         returns.add(100.5);
         double expectedMean = 215.16666667;   
         double expectedStandardDev = 120.07324;
-        double expectedconfidenceMultiplier   = -1.2816;
-        when(assetHistoryService.getHistoricalReturns(assetID)).thenReturn(returns);
+        double expectedconfidenceMultiplier   = -1.2815515655446004; // exact 10% normal quantile (was rounded to -1.2816)
+        when(assetHistoryService.getHistoricalReturnsArray(assetID))
+                .thenReturn(returns.stream().mapToDouble(Double::doubleValue).toArray());
        // when(assetHistoryService.getHistoricalReturns(anyString())).thenReturn(returns);
 
         double results = riskService.varCalculator(assetID, assetValue, confidenceLevel, timeHorizonDays);
@@ -0,0 +1,181 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sakhiya.investment.SliceTestConfig;
+import com.sakhiya.investment.portfoliomanagement.Portfolio;
+import com.sakhiya.investment.portfoliomanagement.asset.Asset;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetHistoryService;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistory;
+import com.sakhiya.investment.portfoliomanagement.asset.AssetPriceHistoryBatchWriter;
+import com.sakhiya.investment.portfoliomanagement.asset.PriceSeriesCache;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioReplayRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioRunRequestDTO;
+import com.sakhiya.investment.riskmanagement.dto.ScenarioRunResultDTO;
+import com.sakhiya.investment.riskmanagement.dto.StressTestDetailsDTO;
+
+/**
+ * Scenario library round trip, a full batch run and a historical replay against H2:
+ * shock precedence, totals and persisted rows.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ ScenarioService.class, ScenarioStressEngine.class, RiskBatchWriter.class, AssetHistoryService.class,
+        PriceSeriesCache.class, AssetPriceHistoryBatchWriter.class, SliceTestConfig.class })
+@DisplayName("Scenario Run Test")
+public class ScenarioRunTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ScenarioService scenarioService;
+    @Autowired
+    private RiskRepository riskRepository;
+
+    private Portfolio portfolio;
+    private Asset equity;
+    private Asset bond;
+    private Asset unclassified;
+    private Scenario crash;
+    private Scenario rally;
+
+    @BeforeEach
+    void setUp() {
+        portfolio = new Portfolio();
+        portfolio.setPortfolioName("Mixed");
+        portfolio = entityManager.persist(portfolio);
+        equity = asset("Equity", 1000.0, "equity");
+        bond = asset("Bond", 500.0, "BOND");
+        unclassified = asset("Other", 200.0, null);
+        entityManager.persist(asset("No value", null, "EQUITY"));
+
+        Scenario crashInput = new Scenario("Crash", -0.05);
+        crashInput.setAssetClassShocks(Map.of("Equity", -0.3, "bond", 0.02));
+        crashInput.setAssetShocks(Map.of(bond.getAssetId(), -0.5)); // per-asset shock beats the class shock
+        crash = scenarioService.createScenario(crashInput);
+        rally = scenarioService.createScenario(new Scenario("Rally", 0.1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Every scenario is applied to every valued asset, with per-asset > class > default precedence")
+    void runsScenariosOverPortfolio() throws Exception {
+        ScenarioRunRequestDTO request = new ScenarioRunRequestDTO();
+        request.setPortfolioIds(List.of(portfolio.getPortfolioId()));
+        request.setScenarioIds(List.of(crash.getScenarioId(), rally.getScenarioId()));
+
+        ScenarioRunResultDTO result = scenarioService.runScenarios(request);
+
+        assertEquals(2, result.getScenarioCount());
+        assertEquals(3, result.getAssetCount());
+        assertEquals(1, result.getSkippedAssetCount());
+        assertEquals(6, result.getPersistedCount());
+        ScenarioRunResultDTO.ScenarioOutcome crashOutcome = result.getScenarios().get(0);
+        double expectedPnl = 1000 * -0.3 + 500 * -0.5 + 200 * -0.05;
+        assertEquals("Crash", crashOutcome.getName());
+        assertEquals(1700.0, crashOutcome.getBaseValue(), 1e-9);
+        assertEquals(expectedPnl, crashOutcome.getPnl(), 1e-9);
+        assertEquals(1700.0 + expectedPnl, crashOutcome.getStressedValue(), 1e-9);
+        assertEquals(equity.getAssetId(), crashOutcome.getWorstAssetId());
+        assertEquals(expectedPnl, crashOutcome.getPortfolioPnl().get(portfolio.getPortfolioId()), 1e-9);
+        assertEquals(170.0, result.getScenarios().get(1).getPnl(), 1e-9);
+
+        List<Risk> rows = riskRepository.findByScenario("Crash");
+        assertEquals(3, rows.size());
+        Risk bondRow = rows.stream().filter(r -> r.getAsset().getAssetId().equals(bond.getAssetId())).findFirst().orElseThrow();
+        assertEquals("StressTest", bondRow.getType());
+        assertEquals(250.0, bondRow.getValue(), 1e-9);
+        StressTestDetailsDTO details = new ObjectMapper().readValue(bondRow.getDetailsJson(), StressTestDetailsDTO.class);
+        assertEquals(crash.getScenarioId(), details.getScenarioId());
+        assertNull(details.getReplayStart());
+    }
+
+    @Test
+    @DisplayName("persist=false only returns totals; invalid scenarios and unknown ids are rejected")
+    void validatesInput() {
+        ScenarioRunRequestDTO request = new ScenarioRunRequestDTO();
+        request.setAssetIds(List.of(equity.getAssetId()));
+        request.setPersist(false);
+
+        ScenarioRunResultDTO result = scenarioService.runScenarios(request); // whole library
+
+        assertEquals(2, result.getScenarioCount());
+        assertEquals(0, result.getPersistedCount());
+        assertTrue(riskRepository.findByType("StressTest").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> scenarioService.createScenario(new Scenario("crash", 0.0)));
+        assertThrows(IllegalArgumentException.class, () -> scenarioService.createScenario(new Scenario("Wipeout", -1.0)));
+        request.setScenarioIds(List.of("missing"));
+        assertThrows(NoSuchElementException.class, () -> scenarioService.runScenarios(request));
+        assertEquals(Map.of("EQUITY", -0.3, "BOND", 0.02), scenarioService.getScenario(crash.getScenarioId()).getAssetClassShocks());
+    }
+
+    @Test
+    @DisplayName("Replay applies each asset's realised move over the window and skips assets without prices")
+    void replaysHistoricalWindow() throws Exception {
+        // Window 2020-02-20..2020-03-23: equity uses 120 (the start date) and 84 (Friday before the end date)
+        price(equity, LocalDate.of(2020, 2, 19), 100.0);
+        price(equity, LocalDate.of(2020, 2, 20), 120.0);
+        price(equity, LocalDate.of(2020, 3, 20), 84.0);
+        price(bond, LocalDate.of(2020, 2, 14), 50.0); // stale but within the allowed gap
+        price(bond, LocalDate.of(2020, 3, 23), 51.0);
+        price(unclassified, LocalDate.of(2019, 1, 2), 10.0); // nothing near the window
+        entityManager.flush();
+        entityManager.clear();
+
+        ScenarioReplayRequestDTO request = new ScenarioReplayRequestDTO();
+        request.setPortfolioIds(List.of(portfolio.getPortfolioId()));
+        request.setStart(LocalDate.of(2020, 2, 20));
+        request.setEnd(LocalDate.of(2020, 3, 23));
+
+        ScenarioRunResultDTO result = scenarioService.replay(request);
+
+        assertEquals(-0.3, result.getRealisedMoves().get(equity.getAssetId()), 1e-12);
+        assertEquals(0.02, result.getRealisedMoves().get(bond.getAssetId()), 1e-12);
+        assertEquals(2, result.getAssetCount());
+        assertEquals(2, result.getSkippedAssetCount()); // no prices, no value
+        assertTrue(result.getSkippedAssets().containsKey(unclassified.getAssetId()));
+        ScenarioRunResultDTO.ScenarioOutcome outcome = result.getScenarios().get(0);
+        assertEquals("Replay 2020-02-20..2020-03-23", outcome.getName());
+        assertNull(outcome.getScenarioId());
+        assertEquals(1000 * -0.3 + 500 * 0.02, outcome.getPnl(), 1e-9);
+        List<Risk> rows = riskRepository.findByScenario("Replay 2020-02-20..2020-03-23");
+        assertEquals(2, rows.size());
+        StressTestDetailsDTO details = new ObjectMapper().readValue(rows.get(0).getDetailsJson(), StressTestDetailsDTO.class);
+        assertEquals("2020-02-20", details.getReplayStart());
+        assertEquals("2020-03-23", details.getReplayEnd());
+        assertNull(details.getScenarioId());
+
+        request.setEnd(request.getStart());
+        assertThrows(IllegalArgumentException.class, () -> scenarioService.replay(request));
+    }
+
+    private void price(Asset asset, LocalDate date, double close) {
+        AssetPriceHistory row = new AssetPriceHistory();
+        row.setAsset(entityManager.find(Asset.class, asset.getAssetId()));
+        row.setTradingDate(date);
+        row.setClosingPrice(close);
+        entityManager.persist(row);
+    }
+
+    private Asset asset(String name, Double value, String assetClass) {
+        Asset asset = new Asset(name, value, portfolio);
+        asset.setAssetClass(assetClass);
+        return entityManager.persist(asset);
+    }
+}
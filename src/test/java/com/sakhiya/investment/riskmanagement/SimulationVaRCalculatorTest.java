@@ -0,0 +1,149 @@
+package com.sakhiya.investment.riskmanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Simulation VaR Calculator Test")
+public class SimulationVaRCalculatorTest {
+
+    private SimulationVaRCalculator singleThreaded;
+    private SimulationVaRCalculator multiThreaded;
+
+    @BeforeEach
+    void setUp() {
+        singleThreaded = new SimulationVaRCalculator(1);
+        multiThreaded = new SimulationVaRCalculator(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        singleThreaded.shutdown();
+        multiThreaded.shutdown();
+    }
+
+    @Test
+    @DisplayName("Quickselect percentile matches the sorted-array percentile")
+    void percentileMatchesSort() {
+        Random random = new Random(11);
+        for (int size : new int[] { 1, 2, 7, 100, 10_001 }) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(50) - 25; // many duplicates on purpose
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (double p : new double[] { 0.01, 0.05, 0.10, 0.5 }) {
+                double position = p * (size - 1);
+                int lower = (int) Math.floor(position);
+                double expected = lower + 1 < size
+                        ? sorted[lower] + (position - lower) * (sorted[lower + 1] - sorted[lower])
+                        : sorted[lower];
+                assertEquals(expected, SimulationVaRCalculator.lowerTailPercentile(values.clone(), p), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Monte Carlo is reproducible by seed regardless of the number of threads")
+    void monteCarloReproducibleBySeed() {
+        int paths = SimulationVaRCalculator.CHUNK_SIZE * 5 + 123;
+
+        double first = singleThreaded.monteCarlo(0.0005, 0.02, 0.99, 5, paths, 42L).getPercentileReturn();
+        double again = multiThreaded.monteCarlo(0.0005, 0.02, 0.99, 5, paths, 42L).getPercentileReturn();
+        double otherSeed = multiThreaded.monteCarlo(0.0005, 0.02, 0.99, 5, paths, 43L).getPercentileReturn();
+
+        assertEquals(first, again, 0.0);
+        assertNotEquals(first, otherSeed);
+    }
+
+    @Test
+    @DisplayName("One-day Monte Carlo converges to the parametric normal quantile")
+    void monteCarloConvergesToParametric() {
+        double mean = 0.001;
+        double stdDev = 0.02;
+
+        SimulationVaRCalculator.SimulationResult result = multiThreaded.monteCarlo(mean, stdDev, 0.95, 1, 500_000, 7L);
+
+        // 5th percentile of Normal(mean, sd) is mean - 1.6449 sd
+        assertEquals(mean - 1.6449 * stdDev, result.getPercentileReturn(), 0.0005);
+        assertEquals(500_000, result.getOutcomeCount());
+    }
+
+    @Test
+    @DisplayName("Historical simulation compounds overlapping h-day windows")
+    void historicalUsesOverlappingWindows() {
+        double[] returns = { 0.10, -0.10, 0.05, -0.20, 0.00 };
+
+        SimulationVaRCalculator.SimulationResult oneDay = singleThreaded.historical(returns, 0.80, 1);
+        SimulationVaRCalculator.SimulationResult twoDay = singleThreaded.historical(returns, 0.99, 2);
+
+        assertEquals(5, oneDay.getOutcomeCount());
+        assertEquals(-0.12, oneDay.getPercentileReturn(), 1e-12); // 20th percentile of the 5 returns
+        assertEquals(4, twoDay.getOutcomeCount());
+        // 2-day windows: -0.01, -0.055, -0.16, -0.20; the 1% percentile sits 3% of the way from -0.20 to -0.16
+        assertEquals(-0.20 + 0.03 * 0.04, twoDay.getPercentileReturn(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> singleThreaded.historical(returns, 0.95, 5));
+    }
+
+    @Test
+    @DisplayName("Historical curve gives the same percentiles as one historical run per cell")
+    void historicalCurveMatchesSingleRuns() {
+        Random random = new Random(5);
+        double[] returns = new double[400];
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = random.nextGaussian() * 0.015;
+        }
+        double[] levels = { 0.90, 0.975, 0.999 };
+        int[] horizons = { 1, 10 };
+
+        double[][] curve = singleThreaded.historicalCurve(returns, levels, horizons);
+
+        for (int h = 0; h < horizons.length; h++) {
+            for (int c = 0; c < levels.length; c++) {
+                assertEquals(singleThreaded.historical(returns, levels[c], horizons[h]).getPercentileReturn(),
+                        curve[h][c], 1e-12);
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> singleThreaded.historicalCurve(returns, levels, new int[] { 400 }));
+    }
+
+    @Test
+    @DisplayName("Path count outside the allowed range is rejected")
+    void rejectsInvalidPathCount() {
+        assertThrows(IllegalArgumentException.class, () -> singleThreaded.monteCarlo(0, 0.01, 0.95, 1, 0, 1L));
+        assertThrows(IllegalArgumentException.class,
+                () -> singleThreaded.monteCarlo(0, 0.01, 0.95, 1, SimulationVaRCalculator.MAX_PATHS + 1, 1L));
+    }
+
+    @Test
+    @DisplayName("Runs over the paths x horizon budget are rejected before any work starts")
+    void rejectsRunsOverDrawBudget() {
+        SimulationVaRCalculator budgeted = new SimulationVaRCalculator(1, 1_000_000L);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> budgeted.monteCarlo(0, 0.01, 0.99, 100_000, 1_000, 1L));
+            assertThrows(IllegalArgumentException.class,
+                    () -> singleThreaded.monteCarlo(0, 0.01, 0.99, 100_000, SimulationVaRCalculator.MAX_PATHS, 1L));
+            assertEquals(1_000, budgeted.monteCarlo(0, 0.01, 0.99, 1_000, 1_000, 1L).getOutcomeCount());
+        } finally {
+            budgeted.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Method parameter accepts the usual spellings")
+    void parsesMethodParam() {
+        assertEquals(VaRMethod.PARAMETRIC, VaRMethod.fromParam(null));
+        assertEquals(VaRMethod.HISTORICAL, VaRMethod.fromParam("historical"));
+        assertEquals(VaRMethod.MONTE_CARLO, VaRMethod.fromParam("monte-carlo"));
+        assertEquals(VaRMethod.MONTE_CARLO, VaRMethod.fromParam("MonteCarlo"));
+        assertThrows(IllegalArgumentException.class, () -> VaRMethod.fromParam("garch"));
+    }
+}